@@ -0,0 +1,38 @@
+package com.github.twitch4j.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Representative payloads for the benchmarks, shaped like captured twitch responses and stored in {@code src/jmh/resources/payloads}
+ */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * @param name file name, e.g. {@code helix-streams.json}
+     * @return the payload
+     */
+    public static String load(String name) {
+        try (InputStream in = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null)
+                throw new IllegalArgumentException("Unknown payload: " + name);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
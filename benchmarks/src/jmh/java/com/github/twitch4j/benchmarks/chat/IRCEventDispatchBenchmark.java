@@ -0,0 +1,73 @@
+package com.github.twitch4j.benchmarks.chat;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.IRCEventHandler;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cost of dispatching a parsed irc message to the event parsers: the routing table versus broadcasting to every parser.
+ * <p>
+ * The parsers are invoked directly (not through the event manager) and publish to an event manager without listeners,
+ * the difference between both is the per-message dispatch work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IRCEventDispatchBenchmark {
+
+    @Param({ "PRIVMSG", "JOIN", "USERNOTICE" })
+    public String shape;
+
+    private IRCEventHandler handler;
+
+    private List<Consumer<IRCMessageEvent>> parsers;
+
+    private IRCMessageEvent event;
+
+    @Setup
+    public void setup() {
+        EventManager eventManager = new EventManager();
+        eventManager.registerEventHandler(new SimpleEventHandler());
+        handler = new IRCEventHandler(null, eventManager);
+
+        // the handler set as it was registered before the routing table: every parser sees every message
+        parsers = Arrays.asList(
+            handler::onChannelMessage, handler::onWhisper, handler::onBitsBadgeTier,
+            handler::onChannelCheer, handler::onChannelSubscription, handler::onClearChat,
+            handler::onChannnelClientJoinEvent, handler::onChannnelClientLeaveEvent, handler::onChannelModChange,
+            handler::onNoticeEvent, handler::onHostOnEvent, handler::onHostOffEvent,
+            handler::onChannelState, handler::onGiftReceived, handler::onPayForward,
+            handler::onRaid, handler::onUnraid, handler::onRewardGift,
+            handler::onRitual
+        );
+
+        event = new IRCMessageEvent(IRCMessageParseBenchmark.line(shape));
+    }
+
+    @Benchmark
+    public void routed() {
+        handler.onIRCMessage(event);
+    }
+
+    @Benchmark
+    public void broadcast() {
+        for (Consumer<IRCMessageEvent> parser : parsers) {
+            parser.accept(event);
+        }
+    }
+
+}
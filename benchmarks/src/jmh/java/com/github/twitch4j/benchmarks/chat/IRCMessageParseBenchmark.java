@@ -0,0 +1,60 @@
+package com.github.twitch4j.benchmarks.chat;
+
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass tokenizer of {@link IRCMessageEvent} against the previous regex based parser
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IRCMessageParseBenchmark {
+
+    @Param({ "PRIVMSG", "USERNOTICE", "WHISPER", "JOIN" })
+    public String shape;
+
+    private String line;
+
+    @Setup
+    public void setup() {
+        line = line(shape);
+    }
+
+    /**
+     * @param shape message shape
+     * @return a representative raw irc line of the given shape
+     */
+    static String line(String shape) {
+        switch (shape) {
+            case "PRIVMSG":
+                return "@badge-info=subscriber/14;badges=subscriber/12,bits/1000;client-nonce=4ae6a2e5e9c0d4c3b1e1d0b1a0a9f8e7;color=#1E90FF;display-name=SomeViewer;emotes=25:0-4,12-16/1902:6-10;flags=;id=b34ccfc7-4977-403a-8a94-33c6bac34fb8;mod=0;room-id=12826;subscriber=1;tmi-sent-ts=1591036412312;turbo=0;user-id=44322889;user-type= :someviewer!someviewer@someviewer.tmi.twitch.tv PRIVMSG #twitch :Kappa Keepo Kappa what a play";
+            case "USERNOTICE":
+                return "@badge-info=subscriber/6;badges=subscriber/6,premium/1;color=#008000;display-name=ronni;emotes=;flags=;id=db25007f-7a18-43eb-9379-80131e44d633;login=ronni;mod=0;msg-id=resub;msg-param-cumulative-months=6;msg-param-should-share-streak=1;msg-param-streak-months=2;msg-param-sub-plan=Prime;msg-param-sub-plan-name=Prime;room-id=12826;subscriber=1;system-msg=ronni\\shas\\ssubscribed\\sfor\\s6\\smonths!;tmi-sent-ts=1507246572675;user-id=1337;user-type= :tmi.twitch.tv USERNOTICE #twitch :Great stream -- keep it up!";
+            case "WHISPER":
+                return "@badges=staff/1,bits-charity/1;color=#8A2BE2;display-name=PetsgomOO;emotes=;message-id=306;thread-id=12345678_87654321;turbo=0;user-id=87654321;user-type=staff :petsgomoo!petsgomoo@petsgomoo.tmi.twitch.tv WHISPER marc :hello";
+            default:
+                return ":someviewer!someviewer@someviewer.tmi.twitch.tv JOIN #twitch";
+        }
+    }
+
+    @Benchmark
+    public Object regex() {
+        return new LegacyIRCMessageParser(line);
+    }
+
+    @Benchmark
+    public Object tokenizer() {
+        return new IRCMessageEvent(line);
+    }
+
+}
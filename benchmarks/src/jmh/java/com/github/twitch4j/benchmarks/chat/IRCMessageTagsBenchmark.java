@@ -0,0 +1,60 @@
+package com.github.twitch4j.benchmarks.chat;
+
+import com.github.twitch4j.chat.enums.IRCTag;
+import com.github.twitch4j.chat.events.channel.IRCMessageTags;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message cost of reading the handful of tags a typical consumer looks at.
+ * <p>
+ * Run with the gc profiler ({@code -prof gc}) to compare the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IRCMessageTagsBenchmark {
+
+    private static final String LINE = "@badge-info=subscriber/14;badges=subscriber/12,bits/1000;bits=100;client-nonce=4ae6a2e5e9c0d4c3b1e1d0b1a0a9f8e7;color=#1E90FF;display-name=SomeViewer;emotes=25:0-4,12-16/1902:6-10;flags=;id=b34ccfc7-4977-403a-8a94-33c6bac34fb8;mod=0;room-id=12826;subscriber=1;tmi-sent-ts=1591036412312;turbo=0;user-id=44322889;user-type= :someviewer!someviewer@someviewer.tmi.twitch.tv PRIVMSG #twitch :cheer100 nice";
+
+    private static final int TAGS_END = LINE.indexOf(' ');
+
+    @Benchmark
+    public void hashMap(Blackhole bh) {
+        Map<String, Object> tags = LegacyIRCMessageParser.parseTags(LINE.substring(1, TAGS_END));
+        bh.consume(tags.get("badges"));
+        bh.consume(tags.get("display-name"));
+        bh.consume(Long.parseLong((String) tags.get("room-id")));
+        bh.consume(Long.parseLong((String) tags.get("tmi-sent-ts")));
+        bh.consume(Integer.parseInt((String) tags.get("bits")));
+    }
+
+    @Benchmark
+    public void slotTable(Blackhole bh) {
+        IRCMessageTags tags = new IRCMessageTags(LINE, 1, TAGS_END);
+        bh.consume(tags.get(IRCTag.BADGES));
+        bh.consume(tags.get(IRCTag.DISPLAY_NAME));
+        bh.consume(tags.getLong(IRCTag.ROOM_ID, 0L));
+        bh.consume(tags.getLong(IRCTag.TMI_SENT_TS, 0L));
+        bh.consume(tags.getInt(IRCTag.BITS, 0));
+    }
+
+    @Benchmark
+    public void slotTableByName(Blackhole bh) {
+        IRCMessageTags tags = new IRCMessageTags(LINE, 1, TAGS_END);
+        bh.consume(tags.get("badges"));
+        bh.consume(tags.get("display-name"));
+        bh.consume(Long.parseLong(tags.get("room-id")));
+        bh.consume(Long.parseLong(tags.get("tmi-sent-ts")));
+        bh.consume(Integer.parseInt(tags.get("bits")));
+    }
+
+}
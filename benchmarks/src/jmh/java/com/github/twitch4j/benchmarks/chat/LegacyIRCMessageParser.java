@@ -0,0 +1,92 @@
+package com.github.twitch4j.benchmarks.chat;
+
+import com.github.twitch4j.common.util.TwitchUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regex based IRC parser, as used by IRCMessageEvent before the single-pass tokenizer.
+ * <p>
+ * Only kept as the baseline for the parser benchmarks.
+ */
+public class LegacyIRCMessageParser {
+
+    private Map<String, Object> tags;
+
+    private Map<String, Object> rawTags;
+
+    private Optional<String> clientName = Optional.empty();
+
+    private String commandType = "UNKNOWN";
+
+    private Optional<String> channelName = Optional.empty();
+
+    private Optional<String> message = Optional.empty();
+
+    private Optional<String> payload = Optional.empty();
+
+    private final Object clientPermissions;
+
+    public LegacyIRCMessageParser(String rawMessage) {
+        this.parseRawMessage(rawMessage);
+        this.clientPermissions = rawTags != null ? TwitchUtils.getPermissionsFromTags(rawTags) : null;
+    }
+
+    private void parseRawMessage(String rawMessage) {
+        Pattern pattern = Pattern.compile("^(?:@(?<tags>.+?) )?(?<clientName>.+?)(?: (?<command>[A-Z0-9]+) )(?:#(?<channel>.*?) ?)?(?<payload>[:\\-\\+](?<message>.+))?$");
+        Matcher matcher = pattern.matcher(rawMessage);
+        if (matcher.matches()) {
+            apply(matcher);
+            return;
+        }
+
+        Pattern patternPM = Pattern.compile("^(?:@(?<tags>.+?) )?:(?<clientName>.+?)!.+?(?: (?<command>[A-Z0-9]+) )(?:(?<channel>.*?) ?)??(?<payload>[:\\-\\+](?<message>.+))$");
+        Matcher matcherPM = patternPM.matcher(rawMessage);
+        if (matcherPM.matches()) {
+            apply(matcherPM);
+        }
+    }
+
+    private void apply(Matcher matcher) {
+        tags = parseTags(matcher.group("tags"));
+        rawTags = parseTags(matcher.group("tags"));
+        clientName = parseClientName(matcher.group("clientName"));
+        commandType = matcher.group("command");
+        channelName = Optional.ofNullable(matcher.group("channel"));
+        message = Optional.ofNullable(matcher.group("message"));
+        payload = Optional.ofNullable(matcher.group("payload"));
+    }
+
+    static Map<String, Object> parseTags(String raw) {
+        Map<String, Object> map = new HashMap<>();
+        if (StringUtils.isBlank(raw)) return map;
+
+        for (String tag : raw.split(";")) {
+            String[] val = tag.split("=");
+            map.put(val[0], (val.length > 1) ? val[1] : null);
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static Optional<String> parseClientName(String raw) {
+        if (raw.equals(":tmi.twitch.tv") || raw.equals(":jtv")) {
+            return Optional.empty();
+        }
+
+        Pattern pattern = Pattern.compile("^:(.*?)!(.*?)@(.*?).tmi.twitch.tv$");
+        Matcher matcher = pattern.matcher(raw);
+        if (matcher.matches()) {
+            return Optional.ofNullable(matcher.group(1));
+        }
+
+        return Optional.ofNullable(raw);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.github.twitch4j.benchmarks.chat;
+
+import com.github.twitch4j.chat.util.MessageIdDeduplicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message cost of the message id deduplication, for new ids (the common case) and for duplicates.
+ * <p>
+ * The id pool is larger than a generation, so the tables rotate during the run like they would at a high message rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageIdDeduplicatorBenchmark {
+
+    private static final int IDS = 1 << 18;
+
+    private final String[] ids = new String[IDS];
+
+    private MessageIdDeduplicator deduplicator;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < IDS; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        deduplicator = new MessageIdDeduplicator(Duration.ofMinutes(1), 32_768);
+    }
+
+    @Benchmark
+    public boolean newId() {
+        return deduplicator.isDuplicate(ids[next++ & (IDS - 1)]);
+    }
+
+    @Benchmark
+    public boolean duplicateId() {
+        String id = ids[next++ & 1023];
+        deduplicator.isDuplicate(id);
+        return deduplicator.isDuplicate(id);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.github.twitch4j.benchmarks.common;
+
+import com.github.twitch4j.common.enums.CommandPermission;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map based permission resolution, as used by TwitchUtils before the badge scanner.
+ * <p>
+ * Only kept as the baseline for the permission benchmarks.
+ */
+final class LegacyPermissions {
+
+    private LegacyPermissions() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Set<CommandPermission> getPermissionsFromTags(Map<String, Object> tags) {
+        Set<CommandPermission> permissionSet = EnumSet.of(CommandPermission.EVERYONE);
+
+        if (tags.containsKey("badges")) {
+            final Map<String, Object> badges = new HashMap<>();
+
+            if (tags.get("badges") instanceof String) {
+                badges.putAll(parseBadges((String) tags.get("badges")));
+            } else {
+                List<Map<String, String>> badgeList = (List<Map<String, String>>) tags.get("badges");
+                if (badgeList != null) {
+                    badgeList.forEach(badge -> badges.put(badge.get("id"), "1"));
+                }
+            }
+
+            if (badges.containsKey("broadcaster")) {
+                permissionSet.add(CommandPermission.BROADCASTER);
+                permissionSet.add(CommandPermission.MODERATOR);
+            }
+            if (badges.containsKey("premium"))
+                permissionSet.add(CommandPermission.PRIME_TURBO);
+            if (badges.containsKey("moderator"))
+                permissionSet.add(CommandPermission.MODERATOR);
+            if (badges.containsKey("partner"))
+                permissionSet.add(CommandPermission.PARTNER);
+            if (badges.containsKey("vip"))
+                permissionSet.add(CommandPermission.VIP);
+            if (badges.containsKey("turbo"))
+                permissionSet.add(CommandPermission.PRIME_TURBO);
+            if (badges.containsKey("staff"))
+                permissionSet.add(CommandPermission.TWITCHSTAFF);
+            if (badges.containsKey("subscriber"))
+                permissionSet.add(CommandPermission.SUBSCRIBER);
+            if (badges.containsKey("sub-gifter"))
+                permissionSet.add(CommandPermission.SUBGIFTER);
+            if (badges.containsKey("founder")) {
+                permissionSet.add(CommandPermission.FOUNDER);
+                permissionSet.add(CommandPermission.SUBSCRIBER);
+            }
+        }
+
+        return permissionSet;
+    }
+
+    private static Map<String, Object> parseBadges(String raw) {
+        Map<String, Object> map = new HashMap<>();
+        if (StringUtils.isBlank(raw)) return map;
+
+        raw = raw.replace("\\s", " ");
+
+        for (String tag : raw.split(",")) {
+            String[] val = tag.split("/");
+            final String key = val[0];
+            String value = (val.length > 1) ? val[1] : null;
+            map.put(key, value);
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+
+}
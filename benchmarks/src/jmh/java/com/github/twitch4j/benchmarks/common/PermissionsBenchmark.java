@@ -0,0 +1,80 @@
+package com.github.twitch4j.benchmarks.common;
+
+import com.github.twitch4j.common.util.TwitchUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of resolving the permissions of a message from its badges, as done for every chat message and whisper.
+ * <p>
+ * {@code legacy} is the previous map based implementation, {@code badges} the cached lookup used by chat messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PermissionsBenchmark {
+
+    /**
+     * Badges as sent by irc: none, a typical subscriber and a moderator with several badges
+     */
+    @Param({ "", "subscriber/12", "moderator/1,subscriber/3012,vip/1,bits/1000,sub-gifter/50" })
+    public String badges;
+
+    private Map<String, Object> ircTags;
+
+    private Map<String, Object> pubSubTags;
+
+    @Setup
+    public void setup() {
+        ircTags = new HashMap<>();
+        ircTags.put("badges", badges);
+        ircTags.put("display-name", "SomeViewer");
+        ircTags.put("user-id", "44322889");
+
+        // whispers received through pubsub carry their badges as a list of objects
+        pubSubTags = new HashMap<>();
+        pubSubTags.put("badges", badges.isEmpty() ? Collections.emptyList() : Arrays.stream(badges.split(",")).map(badge -> {
+            String[] parts = badge.split("/");
+            Map<String, String> entry = new HashMap<>();
+            entry.put("id", parts[0]);
+            entry.put("version", parts[1]);
+            return entry;
+        }).collect(Collectors.toList()));
+        pubSubTags.put("display_name", "SomeViewer");
+    }
+
+    @Benchmark
+    public Set<?> legacy() {
+        return LegacyPermissions.getPermissionsFromTags(ircTags);
+    }
+
+    @Benchmark
+    public Set<?> badges() {
+        return TwitchUtils.getPermissionsFromBadges(badges);
+    }
+
+    @Benchmark
+    public Set<?> irc() {
+        return TwitchUtils.getPermissionsFromTags(ircTags);
+    }
+
+    @Benchmark
+    public Set<?> pubSub() {
+        return TwitchUtils.getPermissionsFromTags(pubSubTags);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.github.twitch4j.benchmarks.common;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.twitch4j.benchmarks.Payloads;
+import com.github.twitch4j.common.util.TypeConvert;
+import com.github.twitch4j.helix.domain.StreamList;
+import com.github.twitch4j.pubsub.domain.ChannelPointsRedemption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the shared {@link TypeConvert} helpers: string round-trips and tree conversions, as used by pubsub and the chat clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypeConvertBenchmark {
+
+    private String streams;
+
+    private StreamList streamList;
+
+    private JsonNode redemption;
+
+    @Setup
+    public void setup() {
+        streams = Payloads.load("helix-streams.json");
+        streamList = TypeConvert.jsonToObject(streams, StreamList.class);
+
+        String message = TypeConvert.jsonToObject(Payloads.load("pubsub-channel-points.json"), JsonNode.class).path("data").path("message").asText();
+        redemption = TypeConvert.jsonToObject(message, JsonNode.class).path("data").path("redemption");
+    }
+
+    @Benchmark
+    public StreamList jsonToObject() {
+        return TypeConvert.jsonToObject(streams, StreamList.class);
+    }
+
+    @Benchmark
+    public String objectToJson() {
+        return TypeConvert.objectToJson(streamList);
+    }
+
+    @Benchmark
+    public StreamList roundTrip() {
+        return TypeConvert.jsonToObject(TypeConvert.objectToJson(streamList), StreamList.class);
+    }
+
+    @Benchmark
+    public ChannelPointsRedemption convertValue() {
+        return TypeConvert.convertValue(redemption, ChannelPointsRedemption.class);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.github.twitch4j.benchmarks.helix;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.twitch4j.benchmarks.Payloads;
+import com.github.twitch4j.helix.domain.ClipList;
+import com.github.twitch4j.helix.domain.FollowList;
+import com.github.twitch4j.helix.domain.StreamList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of deserializing a page of helix results (20 entries), with an object mapper configured like the one of TwitchHelixBuilder.
+ * <p>
+ * The payload is decoded from bytes, as the feign decoder receives it from the response body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HelixDecodeBenchmark {
+
+    @Param({ "streams", "follows", "clips" })
+    public String endpoint;
+
+    private ObjectMapper mapper;
+
+    private Class<?> type;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
+
+        body = Payloads.load("helix-" + endpoint + ".json").getBytes(StandardCharsets.UTF_8);
+        switch (endpoint) {
+            case "streams":
+                type = StreamList.class;
+                break;
+            case "follows":
+                type = FollowList.class;
+                break;
+            default:
+                type = ClipList.class;
+                break;
+        }
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readValue(body, type);
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.github.twitch4j.benchmarks.pubsub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.twitch4j.benchmarks.Payloads;
+import com.github.twitch4j.common.util.TypeConvert;
+import com.github.twitch4j.pubsub.PubSubResponsePayloadMessage;
+import com.github.twitch4j.pubsub.domain.ChannelBitsData;
+import com.github.twitch4j.pubsub.domain.ChannelPointsRedemption;
+import com.github.twitch4j.pubsub.domain.PubSubResponse;
+import com.github.twitch4j.pubsub.domain.SubscriptionData;
+import com.github.twitch4j.pubsub.util.PubSubMessageDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding a pubsub frame into its domain object: the streaming decoder TwitchPubSub uses versus the former
+ * tree based decoding, which parsed the envelope, the nested message string and the topic specific data separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PubSubDecodeBenchmark {
+
+    @Param({ "channel-points", "bits", "subscribe" })
+    public String topic;
+
+    private String frame;
+
+    @Setup
+    public void setup() {
+        frame = Payloads.load("pubsub-" + topic + ".json");
+    }
+
+    @Benchmark
+    public Object decode() {
+        PubSubResponsePayloadMessage message = PubSubMessageDecoder.decodeResponse(frame).getData().getMessage();
+        switch (topic) {
+            case "channel-points":
+                return message.readData("redemption", ChannelPointsRedemption.class);
+            case "bits":
+                return message.readData(ChannelBitsData.class);
+            default:
+                return message.readMessage(SubscriptionData.class);
+        }
+    }
+
+    @Benchmark
+    public Object decodeTree() {
+        JsonNode envelope = TypeConvert.jsonToObject(frame, JsonNode.class);
+        String rawMessage = envelope.path("data").path("message").asText();
+        PubSubResponsePayloadMessage message = TypeConvert.jsonToObject(rawMessage, PubSubResponsePayloadMessage.class);
+        JsonNode msgData = message.getMessageData();
+        switch (topic) {
+            case "channel-points":
+                return TypeConvert.convertValue(msgData.path("redemption"), ChannelPointsRedemption.class);
+            case "bits":
+                return TypeConvert.convertValue(msgData, ChannelBitsData.class);
+            default:
+                return TypeConvert.jsonToObject(rawMessage, SubscriptionData.class);
+        }
+    }
+
+    @Benchmark
+    public PubSubResponse envelope() {
+        return PubSubMessageDecoder.decodeResponse(frame);
+    }
+
+}
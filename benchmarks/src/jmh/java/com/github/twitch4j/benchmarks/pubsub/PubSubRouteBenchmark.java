@@ -0,0 +1,97 @@
+package com.github.twitch4j.benchmarks.pubsub;
+
+import com.github.twitch4j.benchmarks.Payloads;
+import com.github.twitch4j.pubsub.handlers.PubSubTopicRouter;
+import com.github.twitch4j.pubsub.handlers.TopicDecoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding the decoder of a received topic: the prefix routing table versus the startsWith chain it replaced.
+ * <p>
+ * Every invocation routes all topics of {@code pubsub-mixed-topics.txt}, a capture of the topics of a busy bot account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(PubSubRouteBenchmark.TOPICS)
+public class PubSubRouteBenchmark {
+
+    static final int TOPICS = 32;
+
+    private String[] topics;
+
+    private PubSubTopicRouter router;
+
+    private final Object[] routes = new Object[TOPICS];
+
+    private static final Object[] LEGACY_ROUTES = new Object[21];
+
+    static {
+        for (int i = 0; i < LEGACY_ROUTES.length; i++) {
+            LEGACY_ROUTES[i] = new Object();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        topics = Payloads.load("pubsub-mixed-topics.txt").split("\n");
+        if (topics.length != TOPICS)
+            throw new IllegalStateException("Expected " + TOPICS + " topics, got " + topics.length);
+
+        router = new PubSubTopicRouter();
+        TopicDecoders.registerDefaults(router);
+    }
+
+    @Benchmark
+    public Object[] table() {
+        for (int i = 0; i < TOPICS; i++) {
+            routes[i] = router.getDecoder(topics[i]);
+        }
+        return routes;
+    }
+
+    @Benchmark
+    public Object[] startsWithChain() {
+        for (int i = 0; i < TOPICS; i++) {
+            routes[i] = LEGACY_ROUTES[legacyRoute(topics[i]) + 1];
+        }
+        return routes;
+    }
+
+    /**
+     * The branch order of the former TwitchPubSub#onTextMessage
+     */
+    private static int legacyRoute(String topic) {
+        if (topic.startsWith("channel-bits-events-v2")) return 0;
+        else if (topic.startsWith("channel-bits-badge-unlocks")) return 1;
+        else if (topic.startsWith("channel-subscribe-events-v1")) return 2;
+        else if (topic.startsWith("channel-commerce-events-v1")) return 3;
+        else if (topic.startsWith("whispers")) return 4;
+        else if (topic.startsWith("community-points-channel-v1")) return 5;
+        else if (topic.startsWith("raid")) return 6;
+        else if (topic.startsWith("chat_moderator_actions")) return 7;
+        else if (topic.startsWith("following")) return 8;
+        else if (topic.startsWith("hype-train-events-v1.rewards")) return 9;
+        else if (topic.startsWith("hype-train-events-v1")) return 10;
+        else if (topic.startsWith("community-points-user-v1")) return 11;
+        else if (topic.startsWith("leaderboard-events-v1")) return 12;
+        else if (topic.startsWith("polls")) return 13;
+        else if (topic.startsWith("friendship")) return 14;
+        else if (topic.startsWith("presence")) return 15;
+        else if (topic.startsWith("channel-sub-gifts-v1")) return 16;
+        else if (topic.startsWith("channel-cheer-events-public-v1")) return 17;
+        else if (topic.startsWith("onsite-notifications")) return 18;
+        else if (topic.startsWith("video-playback")) return 19;
+        return -1;
+    }
+
+}
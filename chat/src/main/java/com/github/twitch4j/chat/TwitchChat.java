@@ -5,43 +5,70 @@ import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
 import com.github.philippheuer.events4j.core.EventManager;
 import com.github.philippheuer.events4j.simple.SimpleEventHandler;
 import com.github.twitch4j.auth.providers.TwitchIdentityProvider;
-import com.github.twitch4j.chat.enums.CommandSource;
+import com.github.twitch4j.chat.capture.IRCCaptureWriter;
+import com.github.twitch4j.chat.command.CommandRegistry;
+import com.github.twitch4j.chat.enums.OutboundLane;
+import com.github.twitch4j.chat.enums.QueueOverflowPolicy;
 import com.github.twitch4j.chat.enums.TMIConnectionState;
-import com.github.twitch4j.chat.events.CommandEvent;
+import com.github.twitch4j.chat.events.ConnectionStateEvent;
 import com.github.twitch4j.chat.events.IRCEventHandler;
 import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
 import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.chat.exception.ChatQueueFullException;
+import com.github.twitch4j.chat.exception.ChatSendException;
+import com.github.twitch4j.chat.util.ChannelRateLimiter;
+import com.github.twitch4j.chat.util.ChannelStateStore;
+import com.github.twitch4j.chat.util.IRCInboundPipeline;
+import com.github.twitch4j.chat.util.MessageIdDeduplicator;
+import com.github.twitch4j.chat.util.OutboundCommand;
 import com.github.twitch4j.common.config.ProxyConfig;
 import com.github.twitch4j.common.util.CryptoUtils;
+import com.github.twitch4j.common.util.ExponentialBackoffStrategy;
+import com.github.twitch4j.common.util.LatencyHistogram;
 import com.neovisionaries.ws.client.WebSocket;
 import com.neovisionaries.ws.client.WebSocketAdapter;
+import com.neovisionaries.ws.client.WebSocketException;
 import com.neovisionaries.ws.client.WebSocketFactory;
 import com.neovisionaries.ws.client.WebSocketFrame;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.EstimationProbe;
 import io.github.bucket4j.local.LocalBucketBuilder;
 import lombok.Getter;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @Slf4j
 public class TwitchChat implements AutoCloseable {
@@ -60,6 +87,12 @@ public class TwitchChat implements AutoCloseable {
     @Getter
     private final CredentialManager credentialManager;
 
+    /**
+     * IRC Event Handler, routes irc messages to the event parsers
+     */
+    @Getter
+    private final IRCEventHandler ircEventHandler;
+
     /**
      * OAuth2Credential, used to sign in to twitch chat
      */
@@ -75,6 +108,16 @@ public class TwitchChat implements AutoCloseable {
      */
     public static final String FDGT_TEST_SOCKET_SERVER = "wss://irc.fdgt.dev";
 
+    /**
+     * Time after which the message queue of an idle channel is evicted
+     */
+    private static final Duration CHANNEL_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * Maximum length of a JOIN command, irc lines are limited to 512 bytes including the line terminator
+     */
+    private static final int MAX_JOIN_COMMAND_LENGTH = 500;
+
     /**
      * The websocket url for the chat client to connect to.
      */
@@ -113,49 +156,127 @@ public class TwitchChat implements AutoCloseable {
      */
     protected final Bucket ircWhisperBucket;
 
+    /**
+     * Room and user state of the joined channels, from ROOMSTATE and USERSTATE
+     */
+    @Getter
+    private final ChannelStateStore channelStates = new ChannelStateStore();
+
+    /**
+     * Per-channel queues and rate limits for chat messages, under the global ceiling of the moderator rate limit
+     */
+    protected final ChannelRateLimiter<OutboundCommand> channelRateLimiter;
+
+    /**
+     * Amount of outstanding requests to process the outbound queue, a run is only scheduled when this goes up from zero
+     */
+    private final AtomicInteger outboundWip = new AtomicInteger();
+
+    /**
+     * Scheduled run of the outbound queue for when the next rate limit refills
+     */
+    private volatile ScheduledFuture<?> outboundWakeup;
+
+    /**
+     * Time from queueing a command until it is written to the socket, by lane
+     */
+    private final Map<OutboundLane, LatencyHistogram> sendLatency = new EnumMap<>(OutboundLane.class);
+
+    /**
+     * Commands dropped because their queue was full, by lane
+     */
+    private final Map<OutboundLane, LongAdder> droppedCommands = new EnumMap<>(OutboundLane.class);
+
+    /**
+     * Text frames handed to the websocket that have not been written yet, in order. Frames that are not tracked are represented by {@link #UNTRACKED_FRAME}.
+     */
+    private final Deque<OutboundCommand> inFlight = new ArrayDeque<>();
+
+    /**
+     * Placeholder for text frames without a future, e.g. login commands and PONGs
+     */
+    private static final OutboundCommand UNTRACKED_FRAME = new OutboundCommand(OutboundLane.SYSTEM, null, "");
+
+    /**
+     * What happens when a command is sent while its queue is full
+     */
+    protected final QueueOverflowPolicy queueOverflowPolicy;
+
+    /**
+     * Maximum time to wait for room in a queue, if the policy is {@link QueueOverflowPolicy#BLOCK}
+     */
+    protected final Duration queueOverflowTimeout;
+
+    /**
+     * IRC Join Bucket
+     */
+    protected final Bucket ircJoinBucket;
+
+    /**
+     * Channels that still have to be joined, in the order they will be joined
+     */
+    protected final Set<String> pendingJoins = Collections.synchronizedSet(new LinkedHashSet<>());
+
     /**
      * IRC Command Queue
      */
-    protected final BlockingQueue<String> ircCommandQueue;
+    protected final BlockingQueue<OutboundCommand> ircCommandQueue;
+
+    /**
+     * Moderation Command Queue (timeouts, bans, ...), served before chat messages
+     */
+    protected final BlockingQueue<OutboundCommand> moderationCommandQueue;
 
     /**
      * Whisper-specific Command Queue
      */
-    protected final BlockingQueue<String> whisperCommandQueue;
+    protected final BlockingQueue<OutboundCommand> whisperCommandQueue;
 
     /**
      * Custom RateLimit for ChatMessages
      */
     protected final Bandwidth chatRateLimit;
 
+    /**
+     * Custom RateLimit for ChatMessages in channels where the chat account is a moderator or the broadcaster, also the ceiling for all messages
+     */
+    protected final Bandwidth moderatorChatRateLimit;
+
     /**
      * Custom RateLimit for Whispers
      */
     protected final Bandwidth[] whisperRateLimit;
 
     /**
-     * IRC Command Queue Thread
+     * Periodic eviction of idle channel queues
      */
-    protected final ScheduledFuture<?> queueThread;
+    protected final ScheduledFuture<?> idleEvictionTask;
 
     /**
-     * Command Queue Thread stop flag
+     * Whether the chat has been closed
      */
-    protected volatile Boolean stopQueueThread = false;
+    protected volatile boolean closed = false;
 
     /**
      * IRC Command Handlers
      */
     protected final List<String> commandPrefixes;
 
+    /**
+     * Command Registry, dispatches the commands of channel messages to their handlers
+     */
+    @Getter
+    private final CommandRegistry commandRegistry;
+
     /**
      * Thread Pool Executor
      */
     protected final ScheduledExecutorService taskExecutor;
 
     /**
-     * Time to wait for an item on the chat queue before continuing to next iteration
-     * If set too high your thread will be late check to shutdown
+     * Time in milliseconds before the outbound queue is processed again after an unexpected error
+     * <p>
+     * The queue is no longer polled, it runs when something is queued, when a rate limit refills and when the connection is established.
      */
     protected final long chatQueueTimeout;
 
@@ -164,6 +285,101 @@ public class TwitchChat implements AutoCloseable {
      */
     protected final WebSocketFactory webSocketFactory;
 
+    /**
+     * Drops PRIVMSG and USERNOTICE lines whose id has already been seen, null if disabled
+     */
+    protected final MessageIdDeduplicator messageDeduplicator;
+
+    /**
+     * Records all received frames for offline replay, null if disabled
+     */
+    protected final IRCCaptureWriter captureWriter;
+
+    /**
+     * Handles the received frames: parsing, deduplication, channel states and publishing
+     */
+    protected final IRCInboundPipeline inboundPipeline;
+
+    /**
+     * Interval of the client-initiated PINGs, null to disable the probe
+     */
+    protected final Duration pingInterval;
+
+    /**
+     * Time to wait for the PONG of a client-initiated PING before the connection is considered dead
+     */
+    protected final Duration pingTimeout;
+
+    /**
+     * Time to wait for a PONG if no valid timeout has been configured
+     */
+    private static final Duration DEFAULT_PING_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Periodic client-initiated PING, null if disabled
+     */
+    protected final ScheduledFuture<?> pingTask;
+
+    /**
+     * Round trip times of the client-initiated PINGs
+     */
+    private final LatencyHistogram pingLatency = new LatencyHistogram();
+
+    /**
+     * Payload of the outstanding PING, null if no PING is outstanding
+     */
+    private volatile String pendingPing;
+
+    /**
+     * Time the outstanding PING was sent
+     */
+    private volatile long pendingPingNanos;
+
+    /**
+     * Sequence number of the client-initiated PINGs
+     */
+    private final AtomicLong pingSequence = new AtomicLong();
+
+    /**
+     * Whether the channel of the chat account is joined on login, which is required to send or receive whispers
+     */
+    protected final boolean autoJoinOwnChannel;
+
+    /**
+     * Delay before connection attempts after the connection has been lost, capped exponential backoff with full jitter
+     */
+    protected final ExponentialBackoffStrategy reconnectBackoff;
+
+    /**
+     * Pending connection attempt, null if none is scheduled
+     */
+    private ScheduledFuture<?> reconnectTask;
+
+    /**
+     * New websocket that is being connected after the server sent RECONNECT, null if no handover is in progress
+     */
+    private volatile WebSocket handoverSocket;
+
+    /**
+     * Time the current handover started
+     */
+    private volatile long handoverStartNanos;
+
+    /**
+     * Maximum time a replaced websocket keeps receiving after a handover
+     */
+    private static final Duration HANDOVER_GRACE = Duration.ofSeconds(10);
+
+    /**
+     * Guards the connection state and the time of the last change
+     */
+    private final Object connectionStateLock = new Object();
+
+    /**
+     * Time of the last connection state change
+     */
+    private long connectionStateNanos = System.nanoTime();
+
     /**
      * Constructor
      *
@@ -174,25 +390,69 @@ public class TwitchChat implements AutoCloseable {
      * @param sendCredentialToThirdPartyHost Whether the password should be sent when the baseUrl is not official
      * @param commandPrefixes Command Prefixes
      * @param chatQueueSize Chat Queue Size
+     * @param queueOverflowPolicy What happens when a command is sent while its queue is full
+     * @param queueOverflowTimeout Maximum time to wait for room in a queue when blocking
      * @param chatRateLimit Bandwidth / Bucket for chat
+     * @param moderatorChatRateLimit Bandwidth / Bucket for chat in channels with moderator status, also the ceiling for all messages
      * @param whisperRateLimit Bandwidth / Buckets for whispers
+     * @param ircMessageBucket Bucket for chat, null to create one from the chatRateLimit
+     * @param moderatorBucket Bucket for chat in channels with moderator status and the ceiling for all messages, null to create one from the moderatorChatRateLimit
+     * @param ircWhisperBucket Bucket for whispers, null to create one from the whisperRateLimit
+     * @param ircJoinBucket Bucket for joins
      * @param taskExecutor ScheduledThreadPoolExecutor
-     * @param chatQueueTimeout Timeout to wait for events in Chat Queue
+     * @param chatQueueTimeout Delay before retrying the outbound queue after an error
      * @param proxyConfig Proxy Configuration
+     * @param messageDeduplicator Deduplicator for message ids, null to disable
+     * @param captureWriter Capture for all received frames, null to disable
+     * @param pingInterval Interval of the client-initiated PINGs, null to disable
+     * @param pingTimeout Time to wait for a PONG before reconnecting, null to use the default
+     * @param reconnectBaseDelay Upper bound of the delay before the first reconnect attempt
+     * @param reconnectMaxDelay Upper bound of the delay before all reconnect attempts
+     * @param autoJoinOwnChannel Whether the channel of the chat account is joined on login
      */
-    public TwitchChat(EventManager eventManager, CredentialManager credentialManager, OAuth2Credential chatCredential, String baseUrl, boolean sendCredentialToThirdPartyHost, List<String> commandPrefixes, Integer chatQueueSize, Bandwidth chatRateLimit, Bandwidth[] whisperRateLimit, ScheduledThreadPoolExecutor taskExecutor, long chatQueueTimeout, ProxyConfig proxyConfig) {
+    public TwitchChat(EventManager eventManager, CredentialManager credentialManager, OAuth2Credential chatCredential, String baseUrl, boolean sendCredentialToThirdPartyHost, List<String> commandPrefixes, Integer chatQueueSize, QueueOverflowPolicy queueOverflowPolicy, Duration queueOverflowTimeout, Bandwidth chatRateLimit, Bandwidth moderatorChatRateLimit, Bandwidth[] whisperRateLimit, Bucket ircMessageBucket, Bucket moderatorBucket, Bucket ircWhisperBucket, Bucket ircJoinBucket, ScheduledThreadPoolExecutor taskExecutor, long chatQueueTimeout, ProxyConfig proxyConfig, MessageIdDeduplicator messageDeduplicator, IRCCaptureWriter captureWriter, Duration pingInterval, Duration pingTimeout, Duration reconnectBaseDelay, Duration reconnectMaxDelay, boolean autoJoinOwnChannel) {
         this.eventManager = eventManager;
         this.credentialManager = credentialManager;
         this.chatCredential = chatCredential;
         this.baseUrl = baseUrl;
         this.sendCredentialToThirdPartyHost = sendCredentialToThirdPartyHost;
         this.commandPrefixes = commandPrefixes;
+        this.commandRegistry = new CommandRegistry(commandPrefixes);
         this.ircCommandQueue = new ArrayBlockingQueue<>(chatQueueSize, true);
-        this.whisperCommandQueue = new LinkedBlockingQueue<>();
+        this.moderationCommandQueue = new ArrayBlockingQueue<>(chatQueueSize, true);
+        this.whisperCommandQueue = new ArrayBlockingQueue<>(chatQueueSize, true);
+        this.queueOverflowPolicy = queueOverflowPolicy;
+        this.queueOverflowTimeout = queueOverflowTimeout;
         this.chatRateLimit = chatRateLimit;
+        this.moderatorChatRateLimit = moderatorChatRateLimit;
         this.whisperRateLimit = whisperRateLimit;
+        this.ircJoinBucket = ircJoinBucket;
         this.taskExecutor = taskExecutor;
         this.chatQueueTimeout = chatQueueTimeout;
+        this.messageDeduplicator = messageDeduplicator;
+        this.captureWriter = captureWriter;
+        this.inboundPipeline = new IRCInboundPipeline(eventManager, messageDeduplicator, channelStates, new IRCInboundPipeline.ConnectionHandler() {
+            @Override
+            public void onPing(String line) {
+                sendTextToWebSocket("PONG" + line.substring(4), true);
+                log.debug("Responding to PING request!");
+            }
+
+            @Override
+            public void onPong(String line) {
+                TwitchChat.this.onPong(line);
+            }
+
+            @Override
+            public void onReconnect() {
+                log.info("Twitch IRC requested a reconnect, opening a new connection ...");
+                startHandover();
+            }
+        });
+        this.pingInterval = pingInterval != null && !pingInterval.isZero() && !pingInterval.isNegative() ? pingInterval : null;
+        this.pingTimeout = pingTimeout != null && !pingTimeout.isZero() && !pingTimeout.isNegative() ? pingTimeout : DEFAULT_PING_TIMEOUT;
+        this.reconnectBackoff = new ExponentialBackoffStrategy(reconnectBaseDelay, reconnectMaxDelay);
+        this.autoJoinOwnChannel = autoJoinOwnChannel;
 
         // Create WebSocketFactory and apply proxy settings
         this.webSocketFactory = new WebSocketFactory();
@@ -220,76 +480,25 @@ public class TwitchChat implements AutoCloseable {
         this.eventManager.getServiceMediator().addService("twitch4j-chat", this);
 
         // register event listeners
-        IRCEventHandler ircEventHandler = new IRCEventHandler(this);
+        this.ircEventHandler = new IRCEventHandler(this);
+
+        // initialize rate-limiting, shared buckets are used as they are
+        this.ircMessageBucket = ircMessageBucket != null ? ircMessageBucket : createBucket(this.chatRateLimit);
+        this.ircWhisperBucket = ircWhisperBucket != null ? ircWhisperBucket : createBucket(this.whisperRateLimit);
+        this.channelRateLimiter = new ChannelRateLimiter<>(moderatorBucket != null ? moderatorBucket : createBucket(moderatorChatRateLimit), this.ircMessageBucket, chatQueueSize, CHANNEL_IDLE_TIMEOUT, channelStates,
+            message -> message.getFuture().completeExceptionally(new ChatSendException("Channel " + message.getChannel() + " is in subscribers-only mode")));
 
-        // initialize rate-limiting
-        this.ircMessageBucket = Bucket4j.builder()
-            .addLimit(this.chatRateLimit)
-            .build();
 
-        final LocalBucketBuilder whisperBucketBuilder = Bucket4j.builder();
-        for (Bandwidth bandwidth : whisperRateLimit) {
-            whisperBucketBuilder.addLimit(bandwidth);
+        for (OutboundLane lane : OutboundLane.values()) {
+            sendLatency.put(lane, new LatencyHistogram());
+            droppedCommands.put(lane, new LongAdder());
         }
-        this.ircWhisperBucket = whisperBucketBuilder.build();
+        this.idleEvictionTask = taskExecutor.scheduleAtFixedRate(channelRateLimiter::evictIdle, CHANNEL_IDLE_TIMEOUT.toMillis(), CHANNEL_IDLE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        this.pingTask = this.pingInterval != null ? taskExecutor.scheduleAtFixedRate(this::sendPing, this.pingInterval.toMillis(), this.pingInterval.toMillis(), TimeUnit.MILLISECONDS) : null;
 
-        // connect to irc
+        // connect to irc, the outbound queue runs once the connection is established
         this.connect();
 
-        // queue command worker
-        Runnable queueTask = () -> {
-            while (!stopQueueThread) {
-                String command = null;
-                Bucket bucket;
-                try {
-                    // wait for queue, only have a timeout set to allow multiple loops to check stopQueueThread
-                    // attempt to grab command from whisper queue before falling back to the general queue
-                    if (!whisperCommandQueue.isEmpty() && ircWhisperBucket.tryConsume(1L)) {
-                        ircWhisperBucket.addTokens(1L);
-                        command = whisperCommandQueue.poll(this.chatQueueTimeout, TimeUnit.MILLISECONDS);
-                        bucket = ircWhisperBucket;
-                    } else {
-                        command = ircCommandQueue.poll(this.chatQueueTimeout, TimeUnit.MILLISECONDS);
-                        bucket = ircMessageBucket;
-                    }
-
-                    if (command != null) {
-                        // Send the message, retrying forever until we are connected.
-                        while (!stopQueueThread) {
-                            if (connectionState.equals(TMIConnectionState.CONNECTED)) {
-                                // block thread, until we can continue
-                                bucket.asScheduler().consume(1);
-
-                                sendTextToWebSocket(command, false);
-                                break;
-                            }
-                            // Sleep for 25 milliseconds to wait for reconnection
-                            TimeUnit.MILLISECONDS.sleep(25L);
-                        }
-                        // Logging
-                        log.debug("Processed command from queue: [{}].", command.startsWith("PASS") ? "***OAUTH TOKEN HIDDEN***" : command);
-                        log.debug("{} messages left before hitting the rate-limit!", ircMessageBucket.getAvailableTokens());
-                    }
-                } catch (Exception ex) {
-                    log.error("Failed to process message from command queue", ex);
-
-                    // Reschedule command for processing
-                    if (command != null) {
-                        try {
-                            ircCommandQueue.put(command);
-                        } catch (InterruptedException e) {
-                            log.error("Failed to reschedule command", e);
-                        }
-                    }
-
-                }
-            }
-        };
-
-        // Thread will start right now
-        this.queueThread = taskExecutor.schedule(queueTask, 1L, TimeUnit.MILLISECONDS);
-        log.debug("Started IRC Queue Worker");
-
         // Event Handlers
         log.debug("Registering the following command triggers: " + commandPrefixes.toString());
 
@@ -297,32 +506,39 @@ public class TwitchChat implements AutoCloseable {
         eventManager.getEventHandler(SimpleEventHandler.class).onEvent(ChannelMessageEvent.class, this::onChannelMessage);
     }
 
+    /**
+     * Creates a local bucket
+     *
+     * @param limits the limits of the bucket
+     * @return Bucket
+     */
+    static Bucket createBucket(Bandwidth... limits) {
+        final LocalBucketBuilder builder = Bucket4j.builder();
+        for (Bandwidth limit : limits) {
+            builder.addLimit(limit);
+        }
+        return builder.build();
+    }
+
     /**
      * Connecting to IRC-WS
+     * <p>
+     * If the connection fails, further attempts are scheduled on the executor with capped exponential backoff and jitter.
      */
     @Synchronized
     public void connect() {
         if (connectionState.equals(TMIConnectionState.DISCONNECTED) || connectionState.equals(TMIConnectionState.RECONNECTING)) {
+            cancelReconnect();
             try {
                 // Change Connection State
-                connectionState = TMIConnectionState.CONNECTING;
-
-                // Recreate Socket if state does not equal CREATED
-                createWebSocket();
+                setConnectionState(TMIConnectionState.CONNECTING);
 
                 // Connect to IRC WebSocket
+                this.webSocket = createWebSocket();
                 this.webSocket.connect();
             } catch (Exception ex) {
-                log.error("Connection to Twitch IRC failed: Retrying ...", ex);
-                // Sleep half before trying to reconnect
-                try {
-                    TimeUnit.MILLISECONDS.sleep(500L);
-                } catch (Exception ignored) {
-
-                } finally {
-                    // reconnect
-                    reconnect();
-                }
+                log.error("Connection to Twitch IRC failed: {}", ex.getMessage());
+                scheduleReconnect();
             }
         }
     }
@@ -332,17 +548,23 @@ public class TwitchChat implements AutoCloseable {
      */
     @Synchronized
     public void disconnect() {
+        cancelReconnect();
+        WebSocket handover = handoverSocket;
+        if (handover != null) {
+            handoverSocket = null;
+            handover.clearListeners();
+            handover.disconnect();
+        }
+
         if (connectionState.equals(TMIConnectionState.CONNECTED)) {
             sendTextToWebSocket("QUIT", true); // safe disconnect
-            connectionState = TMIConnectionState.DISCONNECTING;
+            setConnectionState(TMIConnectionState.DISCONNECTING);
         }
 
-        connectionState = TMIConnectionState.DISCONNECTED;
+        setConnectionState(TMIConnectionState.DISCONNECTED);
 
         // CleanUp
-        this.webSocket.clearListeners();
-        this.webSocket.disconnect();
-        this.webSocket = null;
+        dropWebSocket();
     }
 
     /**
@@ -350,125 +572,542 @@ public class TwitchChat implements AutoCloseable {
      */
     @Synchronized
     public void reconnect() {
-        connectionState = TMIConnectionState.RECONNECTING;
+        setConnectionState(TMIConnectionState.RECONNECTING);
         disconnect();
         connect();
     }
 
     /**
-     * Recreate the WebSocket and the listeners
+     * Replaces a lost connection: closes the current websocket and schedules a new attempt after the backoff delay, unless one is already pending
+     * <p>
+     * Attempts run on the executor and connect asynchronously, a failed attempt schedules the next one instead of retrying in place.
      */
     @Synchronized
-    private void createWebSocket() {
+    private void scheduleReconnect() {
+        if (closed || reconnectTask != null)
+            return;
+
+        dropWebSocket();
+        long delay = reconnectBackoff.nextDelayMillis();
+        setConnectionState(TMIConnectionState.RECONNECTING);
+        log.info("Reconnecting to Twitch IRC in {}ms (attempt {})", delay, reconnectBackoff.getFailures());
         try {
-            // WebSocket
-            this.webSocket = webSocketFactory.createSocket(this.baseUrl);
-
-            // WebSocket Listeners
-            this.webSocket.clearListeners();
-            this.webSocket.addListener(new WebSocketAdapter() {
-
-                @Override
-                public void onConnected(WebSocket ws, Map<String, List<String>> headers) {
-                    log.info("Connecting to Twitch IRC {}", baseUrl);
-
-                    // acquire capabilities
-                    sendTextToWebSocket("CAP REQ :twitch.tv/tags twitch.tv/commands twitch.tv/membership", true);
-                    sendTextToWebSocket("CAP END", true);
-
-                    // sign in
-                    String userName;
-                    if (chatCredential != null) {
-                        boolean sendRealPass = sendCredentialToThirdPartyHost // check whether this security feature has been overridden
-                            || baseUrl.equalsIgnoreCase(TWITCH_WEB_SOCKET_SERVER) // check whether the url is exactly the official one
-                            || baseUrl.equalsIgnoreCase(TWITCH_WEB_SOCKET_SERVER.substring(0, TWITCH_WEB_SOCKET_SERVER.length() - 4)); // check whether the url matches without the port
-                        sendTextToWebSocket(String.format("pass oauth:%s", sendRealPass ? chatCredential.getAccessToken() : CryptoUtils.generateNonce(30)), true);
-                        userName = chatCredential.getUserName();
-                    } else {
-                        userName = "justinfan" + ThreadLocalRandom.current().nextInt(100000);
-                    }
-                    sendTextToWebSocket(String.format("nick %s", userName), true);
+            reconnectTask = taskExecutor.schedule(this::attemptReconnect, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            log.warn("Chat: Executor has been shut down, not reconnecting");
+        }
+    }
 
-                    // Join defined channels, in case we reconnect or weren't connected yet when we called joinChannel
-                    for (String channel : channelCache) {
-                        sendCommand("join", '#' + channel);
-                    }
+    /**
+     * Scheduled connection attempt, see {@link #scheduleReconnect()}
+     */
+    @Synchronized
+    private void attemptReconnect() {
+        reconnectTask = null;
+        if (closed || !connectionState.equals(TMIConnectionState.RECONNECTING))
+            return;
 
-                    // then join to own channel - required for sending or receiving whispers
-                    if (chatCredential != null && userName != null) {
-                        sendCommand("join", '#' + chatCredential.getUserName());
-                    } else {
-                        log.warn("Chat: The whispers feature is currently not available because the provided credential does not hold information about the user. Please check the documentation on how to pass the token to the credentialManager where it will be enriched with the required information.");
-                    }
+        try {
+            setConnectionState(TMIConnectionState.CONNECTING);
+            this.webSocket = createWebSocket();
+            this.webSocket.connectAsynchronously();
+        } catch (Exception ex) {
+            log.error("Connection to Twitch IRC failed: {}", ex.getMessage());
+            scheduleReconnect();
+        }
+    }
 
-                    // Connection Success
-                    connectionState = TMIConnectionState.CONNECTED;
-                }
+    /**
+     * Cancels the pending connection attempt, if any
+     */
+    @Synchronized
+    private void cancelReconnect() {
+        if (reconnectTask != null) {
+            reconnectTask.cancel(false);
+            reconnectTask = null;
+        }
+    }
 
-                @Override
-                public void onTextMessage(WebSocket ws, String text) {
-                    Arrays.asList(text.replace("\n\r", "\n")
-                        .replace("\r", "\n").split("\n"))
-                        .forEach(message -> {
-                            if (!message.equals("")) {
-                                // Handle messages
-                                log.trace("Received WebSocketMessage: " + message);
-                                // - CAP
-                                if (message.contains(":req Invalid CAP command")) {
-                                    log.error("Failed to acquire requested IRC capabilities!");
-                                }
-                                else if (message.contains(":tmi.twitch.tv CAP * ACK :")) {
-                                    List<String> capabilities = Arrays.asList(message.replace(":tmi.twitch.tv CAP * ACK :", "").split(" "));
-                                    capabilities.forEach(cap -> log.debug("Acquired chat capability: " + cap ));
-                                }
-                                // - Ping
-                                else if(message.contains("PING :tmi.twitch.tv")) {
-                                    sendTextToWebSocket("PONG :tmi.twitch.tv", true);
-                                    log.debug("Responding to PING request!");
-                                }
-                                // - Login failed.
-                                else if(message.equals(":tmi.twitch.tv NOTICE * :Login authentication failed")) {
-                                    log.error("Invalid IRC Credentials. Login failed!");
-                                }
-                                // - Parse IRC Message
-                                else
-                                {
-                                    try {
-                                        IRCMessageEvent event = new IRCMessageEvent(message);
-
-                                        if(event.isValid()) {
-                                            eventManager.publish(event);
-                                        } else {
-                                            log.trace("Can't parse {}", event.getRawMessage());
-                                        }
-                                    } catch (Exception ex) {
-                                        log.error(ex.getMessage(), ex);
-                                    }
-                                }
-                            }
-                        });
-                }
+    /**
+     * Closes the current websocket without triggering a reconnect and fails the commands that have not been written
+     */
+    private void dropWebSocket() {
+        WebSocket ws = this.webSocket;
+        if (ws != null) {
+            ws.clearListeners();
+            ws.disconnect();
+        }
+        failInFlight();
+    }
 
-                @Override
-                public void onDisconnected(WebSocket websocket,
-                                           WebSocketFrame serverCloseFrame, WebSocketFrame clientCloseFrame,
-                                           boolean closedByServer) {
-                    if (!connectionState.equals(TMIConnectionState.DISCONNECTING)) {
-                        log.info("Connection to Twitch IRC lost (WebSocket)! Retrying ...");
-
-                        // connection lost - reconnecting
-                        reconnect();
-                    } else {
-                        connectionState = TMIConnectionState.DISCONNECTED;
-                        log.info("Disconnected from Twitch IRC (WebSocket)!");
-                    }
+    /**
+     * Opens a second connection after the server announced a restart with RECONNECT
+     * <p>
+     * The current connection keeps receiving until the new one is established and has sent its joins, so the switch does not leave a gap.
+     */
+    @Synchronized
+    private void startHandover() {
+        if (closed || !connectionState.equals(TMIConnectionState.CONNECTED) || handoverSocket != null)
+            return;
+
+        try {
+            handoverStartNanos = System.nanoTime();
+            handoverSocket = createWebSocket();
+            handoverSocket.connectAsynchronously();
+        } catch (Exception ex) {
+            handoverSocket = null;
+            log.warn("Chat: Failed to open a new connection, reconnecting once the server closes the current one", ex);
+        }
+    }
+
+    /**
+     * Makes the connection opened by {@link #startHandover()} the current one, the previous websocket only receives until it is retired
+     *
+     * @param ws the new websocket
+     */
+    @Synchronized
+    private void completeHandover(WebSocket ws) {
+        if (ws != handoverSocket)
+            return;
+        handoverSocket = null;
+        if (closed) {
+            ws.clearListeners();
+            ws.disconnect();
+            return;
+        }
+
+        // the previous connection may have been lost while the new one was connecting
+        if (!connectionState.equals(TMIConnectionState.CONNECTED)) {
+            cancelReconnect();
+            setConnectionState(TMIConnectionState.CONNECTING);
+        }
+
+        final WebSocket previous;
+        final List<OutboundCommand> unconfirmed;
+        synchronized (inFlight) {
+            previous = this.webSocket;
+            unconfirmed = new ArrayList<>(inFlight);
+            inFlight.clear();
+            this.webSocket = ws;
+
+            // sign in before anything else can be written to the new socket
+            login();
+        }
+        unconfirmed.forEach(command -> {
+            if (command != UNTRACKED_FRAME)
+                command.getFuture().completeExceptionally(new ChatSendException("Connection replaced before the command was confirmed as written"));
+        });
+
+        pendingPing = null;
+        reconnectBackoff.reset();
+        setConnectionState(TMIConnectionState.CONNECTED);
+        log.info("Moved to a new connection to Twitch IRC after {}ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - handoverStartNanos));
+        signalOutbound();
+
+        if (previous != null)
+            retire(previous, System.nanoTime() + HANDOVER_GRACE.toNanos());
+    }
+
+    /**
+     * Closes a replaced websocket once the joins of the new connection have been sent, or after {@link #HANDOVER_GRACE}
+     *
+     * @param ws            replaced websocket
+     * @param deadlineNanos time when the websocket is closed regardless of pending joins
+     */
+    private void retire(WebSocket ws, long deadlineNanos) {
+        if (!closed && ws.isOpen() && !pendingJoins.isEmpty() && System.nanoTime() - deadlineNanos < 0) {
+            try {
+                taskExecutor.schedule(() -> retire(ws, deadlineNanos), 100L, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException ignored) {
+                // executor has been shut down, close now
+            }
+        }
+
+        ws.clearListeners();
+        ws.disconnect();
+    }
+
+    /**
+     * @return the lowercase login of the chat account, or null if the chat is anonymous or the credential holds no user information
+     */
+    String getChatAccountName() {
+        OAuth2Credential credential = chatCredential;
+        return credential != null && credential.getUserName() != null ? credential.getUserName().toLowerCase() : null;
+    }
+
+    /**
+     * Requests capabilities, signs in and queues the joins of all channels, on the current websocket
+     */
+    private void login() {
+        // acquire capabilities
+        sendTextToWebSocket("CAP REQ :twitch.tv/tags twitch.tv/commands twitch.tv/membership", true);
+        sendTextToWebSocket("CAP END", true);
+
+        // sign in
+        String userName;
+        if (chatCredential != null) {
+            boolean sendRealPass = sendCredentialToThirdPartyHost // check whether this security feature has been overridden
+                || baseUrl.equalsIgnoreCase(TWITCH_WEB_SOCKET_SERVER) // check whether the url is exactly the official one
+                || baseUrl.equalsIgnoreCase(TWITCH_WEB_SOCKET_SERVER.substring(0, TWITCH_WEB_SOCKET_SERVER.length() - 4)); // check whether the url matches without the port
+            sendTextToWebSocket(String.format("pass oauth:%s", sendRealPass ? chatCredential.getAccessToken() : CryptoUtils.generateNonce(30)), true);
+            userName = chatCredential.getUserName();
+        } else {
+            userName = "justinfan" + ThreadLocalRandom.current().nextInt(100000);
+        }
+        sendTextToWebSocket(String.format("nick %s", userName), true);
+
+        // Join defined channels, in case we reconnect or weren't connected yet when we called joinChannel
+        // the joins are paced by the join bucket, starting with the own channel - required for sending or receiving whispers
+        synchronized (pendingJoins) {
+            pendingJoins.clear();
+            if (chatCredential != null && userName != null) {
+                if (autoJoinOwnChannel)
+                    pendingJoins.add(chatCredential.getUserName().toLowerCase());
+            } else {
+                log.warn("Chat: The whispers feature is currently not available because the provided credential does not hold information about the user. Please check the documentation on how to pass the token to the credentialManager where it will be enriched with the required information.");
+            }
+            pendingJoins.addAll(channelCache);
+        }
+    }
+
+    /**
+     * Changes the connection state and publishes a {@link ConnectionStateEvent} with the time spent in the previous state
+     *
+     * @param state new state
+     */
+    private void setConnectionState(TMIConnectionState state) {
+        final TMIConnectionState previous;
+        final long elapsed;
+        synchronized (connectionStateLock) {
+            previous = this.connectionState;
+            if (previous == state)
+                return;
+
+            final long now = System.nanoTime();
+            elapsed = now - connectionStateNanos;
+            this.connectionState = state;
+            this.connectionStateNanos = now;
+        }
+
+        log.debug("Chat connection state changed from {} to {} after {}ms", previous, state, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        eventManager.publish(new ConnectionStateEvent(previous, state, Duration.ofNanos(elapsed), reconnectBackoff.getFailures()));
+    }
+
+    /**
+     * Creates a WebSocket with the listeners, callbacks of a websocket that is no longer current are ignored (except for received messages during a handover)
+     *
+     * @return the new websocket
+     * @throws IOException if the websocket can't be created
+     */
+    private WebSocket createWebSocket() throws IOException {
+        WebSocket socket = webSocketFactory.createSocket(this.baseUrl);
+        socket.addListener(new WebSocketAdapter() {
+
+            @Override
+            public void onConnected(WebSocket ws, Map<String, List<String>> headers) {
+                if (ws == handoverSocket) {
+                    completeHandover(ws);
+                    return;
                 }
+                if (ws != webSocket)
+                    return;
 
-            });
+                log.info("Connecting to Twitch IRC {}", baseUrl);
+                login();
 
-        } catch (Exception ex) {
-            log.error(ex.getMessage(), ex);
+                // Connection Success
+                pendingPing = null;
+                reconnectBackoff.reset();
+                setConnectionState(TMIConnectionState.CONNECTED);
+                signalOutbound();
+            }
+
+            @Override
+            public void onConnectError(WebSocket ws, WebSocketException exception) {
+                onConnectFailed(ws, exception);
+            }
+
+            @Override
+            public void onTextMessage(WebSocket ws, String text) {
+                if (captureWriter != null)
+                    capture(text);
+                inboundPipeline.onFrame(text);
+            }
+
+            @Override
+            public void onFrameSent(WebSocket ws, WebSocketFrame frame) {
+                if (frame.isTextFrame() && ws == webSocket)
+                    onTextFrameWritten(true);
+            }
+
+            @Override
+            public void onFrameUnsent(WebSocket ws, WebSocketFrame frame) {
+                if (frame.isTextFrame() && ws == webSocket)
+                    onTextFrameWritten(false);
+            }
+
+            @Override
+            public void onDisconnected(WebSocket ws,
+                                       WebSocketFrame serverCloseFrame, WebSocketFrame clientCloseFrame,
+                                       boolean closedByServer) {
+                onConnectionLost(ws);
+            }
+
+        });
+        return socket;
+    }
+
+    /**
+     * Called when a websocket could not be connected
+     *
+     * @param ws        the websocket
+     * @param exception the cause
+     */
+    @Synchronized
+    private void onConnectFailed(WebSocket ws, WebSocketException exception) {
+        if (ws == handoverSocket) {
+            handoverSocket = null;
+            log.warn("Chat: Failed to open a new connection: {}", exception.getMessage());
+            if (webSocket == null)
+                scheduleReconnect(); // the previous connection is already gone
+        } else if (ws == webSocket) {
+            log.error("Connection to Twitch IRC failed: {}", exception.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * Called when a websocket has been closed by the server or the network, websockets that have been replaced or closed by the client are ignored
+     *
+     * @param ws the websocket
+     */
+    @Synchronized
+    private void onConnectionLost(WebSocket ws) {
+        if (ws != webSocket)
+            return;
+
+        if (handoverSocket != null) {
+            // the new connection takes over once it is established
+            log.info("Connection to Twitch IRC closed while moving to a new connection");
+            dropWebSocket();
+            setConnectionState(TMIConnectionState.RECONNECTING);
+        } else {
+            log.info("Connection to Twitch IRC lost (WebSocket)! Retrying ...");
+
+            // connection lost - reconnecting
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * Sends a PING to probe the connection, the connection is reconnected if the PONG does not arrive within the ping timeout
+     * <p>
+     * A half-open connection does not receive anything, without the probe it would only be noticed once TCP gives up.
+     */
+    private void sendPing() {
+        if (closed || !connectionState.equals(TMIConnectionState.CONNECTED) || pendingPing != null)
+            return;
+
+        final String payload = "twitch4j-" + pingSequence.incrementAndGet();
+        pendingPingNanos = System.nanoTime();
+        pendingPing = payload;
+        if (!sendTextToWebSocket("PING :" + payload, false)) {
+            pendingPing = null;
+            return;
         }
+
+        taskExecutor.schedule(() -> {
+            if (!closed && payload.equals(pendingPing) && connectionState.equals(TMIConnectionState.CONNECTED)) {
+                log.warn("Chat: No PONG received within {}ms, the connection is stale. Reconnecting ...", pingTimeout.toMillis());
+                pendingPing = null;
+                scheduleReconnect();
+            }
+        }, pingTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the round trip time of a client-initiated PING
+     *
+     * @param message PONG line, e.g. {@code :tmi.twitch.tv PONG tmi.twitch.tv :payload}
+     */
+    private void onPong(String message) {
+        final String payload = pendingPing;
+        int trailing = message.indexOf(" :");
+        if (payload != null && trailing >= 0 && message.regionMatches(trailing + 2, payload, 0, payload.length()) && message.length() == trailing + 2 + payload.length()) {
+            pingLatency.record(System.nanoTime() - pendingPingNanos);
+            pendingPing = null;
+        }
+    }
+
+    /**
+     * Gets the round trip times of the client-initiated PINGs
+     *
+     * @return LatencyHistogram, empty if the probe is disabled
+     */
+    public LatencyHistogram getPingLatency() {
+        return pingLatency;
+    }
+
+    /**
+     * Requests a run of the outbound queue, unless one is already pending
+     * <p>
+     * Called when something is queued, when a rate limit refills and when the connection is established, the queue does not occupy a thread while it waits.
+     */
+    private void signalOutbound() {
+        if (outboundWip.getAndIncrement() == 0) {
+            try {
+                taskExecutor.execute(this::drainOutbound);
+            } catch (RejectedExecutionException ex) {
+                outboundWip.set(0); // executor has been shut down
+            }
+        }
+    }
+
+    /**
+     * Processes the outbound queue until nothing else can be sent, then schedules a wakeup for the next refill
+     * <p>
+     * Only one run is active at a time, signals received during a run cause another pass.
+     */
+    private void drainOutbound() {
+        int missed = 1;
+        do {
+            long waitNanos;
+            try {
+                waitNanos = !closed && connectionState.equals(TMIConnectionState.CONNECTED) ? processOutbound() : Long.MAX_VALUE;
+            } catch (Exception ex) {
+                log.error("Failed to process message from command queue", ex);
+                waitNanos = TimeUnit.MILLISECONDS.toNanos(chatQueueTimeout);
+            }
+            scheduleOutboundWakeup(waitNanos);
+
+            missed = outboundWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Schedules the next run of the outbound queue, keeps an earlier wakeup if there is one
+     *
+     * @param nanos time until the next run, {@link Long#MAX_VALUE} if there is nothing to wait for
+     */
+    private void scheduleOutboundWakeup(long nanos) {
+        if (nanos == Long.MAX_VALUE || closed)
+            return;
+
+        ScheduledFuture<?> wakeup = outboundWakeup;
+        if (wakeup != null && !wakeup.isDone()) {
+            if (wakeup.getDelay(TimeUnit.NANOSECONDS) <= nanos)
+                return;
+            wakeup.cancel(false);
+        }
+        try {
+            outboundWakeup = taskExecutor.schedule(this::signalOutbound, nanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            log.debug("Executor has been shut down, not scheduling the outbound queue");
+        }
+    }
+
+    /**
+     * Sends everything the rate limits currently allow, strictly by lane: joins and commands, moderation actions, whispers and channel messages
+     *
+     * @return the time in nanoseconds until something else could be sent, {@link Long#MAX_VALUE} if everything has been sent
+     */
+    private long processOutbound() {
+        long waitNanos;
+        do {
+            waitNanos = sendPendingJoins();
+            if (waitNanos > 0L)
+                waitNanos = Math.min(waitNanos, sendNext(ircCommandQueue, command -> channelRateLimiter.tryAcquire(null)));
+            if (waitNanos > 0L)
+                waitNanos = Math.min(waitNanos, sendNext(moderationCommandQueue, command -> channelRateLimiter.tryAcquire(command.getChannel())));
+            if (waitNanos > 0L)
+                waitNanos = Math.min(waitNanos, sendNext(whisperCommandQueue, command -> ircWhisperBucket.tryConsume(1L) ? 0L : nanosToRefill(ircWhisperBucket)));
+            if (waitNanos > 0L)
+                waitNanos = Math.min(waitNanos, sendNextChannelMessage());
+        } while (waitNanos == 0L && !closed && connectionState.equals(TMIConnectionState.CONNECTED));
+        return waitNanos;
+    }
+
+    /**
+     * Sends the head of a lane if its tokens can be acquired
+     *
+     * @param queue   lane
+     * @param acquire consumes the tokens for a command, returns 0 on success or the time to wait
+     * @return 0 if a command was sent, otherwise the time in nanoseconds to wait for the lane
+     */
+    private long sendNext(Queue<OutboundCommand> queue, ToLongFunction<OutboundCommand> acquire) {
+        OutboundCommand command = queue.peek();
+        if (command == null)
+            return Long.MAX_VALUE;
+
+        long waitNanos = acquire.applyAsLong(command);
+        if (waitNanos > 0L)
+            return waitNanos;
+
+        queue.poll();
+        sendQueuedCommand(command);
+        return 0L;
+    }
+
+    /**
+     * Sends the next channel message, round-robin over the channels that have tokens
+     *
+     * @return 0 if a message was sent, otherwise the time in nanoseconds to wait
+     */
+    private long sendNextChannelMessage() {
+        // messages to channels that became subscribers-only while they were queued are failed by the rate limiter, without taking tokens
+        OutboundCommand message = channelRateLimiter.poll();
+        if (message == null)
+            return Math.max(channelRateLimiter.getNanosToWait(), 1L);
+
+        sendQueuedCommand(message);
+        return 0L;
+    }
+
+    private void sendQueuedCommand(OutboundCommand command) {
+        if (connectionState.equals(TMIConnectionState.CONNECTED) && writeText(command.getCommand(), command)) {
+            log.debug("Processed command from queue: [{}].", command.getCommand().startsWith("PASS") ? "***OAUTH TOKEN HIDDEN***" : command.getCommand());
+        } else {
+            command.getFuture().completeExceptionally(new ChatSendException("Not connected to Twitch IRC"));
+        }
+    }
+
+    private static long nanosToRefill(Bucket bucket) {
+        EstimationProbe probe = bucket.estimateAbilityToConsume(1L);
+        return probe.canBeConsumed() ? 1L : Math.max(probe.getNanosToWaitForRefill(), 1L);
+    }
+
+    /**
+     * Sends the next batch of pending joins, multiple channels are joined with a single command
+     *
+     * @return 0 if a join was sent, otherwise the time in nanoseconds until the next join can be sent
+     */
+    private long sendPendingJoins() {
+        if (pendingJoins.isEmpty())
+            return Long.MAX_VALUE;
+
+        StringBuilder command = null;
+        synchronized (pendingJoins) {
+            Iterator<String> it = pendingJoins.iterator();
+            while (it.hasNext()) {
+                String channel = it.next();
+                if (command != null && command.length() + channel.length() + 2 > MAX_JOIN_COMMAND_LENGTH)
+                    break;
+                if (!ircJoinBucket.tryConsume(1L))
+                    break;
+
+                command = command == null ? new StringBuilder("JOIN #") : command.append(",#");
+                command.append(channel);
+                it.remove();
+            }
+        }
+
+        if (command == null)
+            return nanosToRefill(ircJoinBucket);
+
+        sendTextToWebSocket(command.toString(), false);
+        log.debug("Processed join: [{}].", command);
+        return 0L;
     }
 
     /**
@@ -476,18 +1115,99 @@ public class TwitchChat implements AutoCloseable {
      *
      * @param command IRC Command
      * @param args command arguments
+     * @return completed when the command has been written to the socket
      */
-    protected void sendCommand(String command, String... args) {
-        ircCommandQueue.offer(String.format("%s %s", command.toUpperCase(), String.join(" ", args)));
+    protected CompletableFuture<Void> sendCommand(String command, String... args) {
+        return sendRaw(String.format("%s %s", command.toUpperCase(), String.join(" ", args)));
     }
 
     /**
      * Send raw irc command
      *
      * @param command raw irc command
+     * @return completed when the command has been written to the socket
      */
-    public void sendRaw(String command) {
-        ircCommandQueue.offer(command);
+    public CompletableFuture<Void> sendRaw(String command) {
+        return enqueue(new OutboundCommand(OutboundLane.SYSTEM, null, command), ircCommandQueue);
+    }
+
+    /**
+     * Queues a command according to the overflow policy
+     *
+     * @param command command
+     * @param queue   queue of the lane
+     * @return the future of the command
+     */
+    private CompletableFuture<Void> enqueue(OutboundCommand command, BlockingQueue<OutboundCommand> queue) {
+        return enqueue(command, queue::offer, queue::poll);
+    }
+
+    /**
+     * Queues a command according to the overflow policy
+     *
+     * @param command     command
+     * @param offer       queues the command, waiting up to the given nanoseconds for room
+     * @param removeOldest removes the oldest command of the queue, used by {@link QueueOverflowPolicy#DROP_OLDEST}
+     * @return the future of the command
+     * @throws ChatQueueFullException if the queue is full and the policy is {@link QueueOverflowPolicy#REJECT}
+     */
+    private CompletableFuture<Void> enqueue(OutboundCommand command, LaneOffer offer, Supplier<OutboundCommand> removeOldest) {
+        if (closed) {
+            command.getFuture().completeExceptionally(new ChatSendException("Chat has been closed"));
+            return command.getFuture();
+        }
+
+        boolean queued;
+        try {
+            switch (queueOverflowPolicy) {
+                case BLOCK:
+                    queued = offer.offer(command, queueOverflowTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                    break;
+                case DROP_OLDEST:
+                    while (!(queued = offer.offer(command, 0L, TimeUnit.NANOSECONDS))) {
+                        OutboundCommand oldest = removeOldest.get();
+                        if (oldest == null)
+                            break; // nothing to drop, the queue has no capacity
+                        drop(oldest);
+                    }
+                    break;
+                default:
+                    queued = offer.offer(command, 0L, TimeUnit.NANOSECONDS);
+                    break;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+
+        if (queued) {
+            signalOutbound();
+        } else if (queueOverflowPolicy == QueueOverflowPolicy.REJECT) {
+            droppedCommands.get(command.getLane()).increment();
+            throw new ChatQueueFullException(command.getLane());
+        } else {
+            drop(command);
+        }
+        return command.getFuture();
+    }
+
+    /**
+     * Drops a command because its queue is full
+     *
+     * @param command command
+     */
+    private void drop(OutboundCommand command) {
+        droppedCommands.get(command.getLane()).increment();
+        log.debug("Outbound queue {} is full, dropping command [{}].", command.getLane(), command.getCommand());
+        command.getFuture().completeExceptionally(new ChatQueueFullException(command.getLane()));
+    }
+
+    /**
+     * Offers a command to the queue of a lane
+     */
+    @FunctionalInterface
+    private interface LaneOffer {
+        boolean offer(OutboundCommand command, long timeout, TimeUnit unit) throws InterruptedException;
     }
 
     /**
@@ -510,25 +1230,102 @@ public class TwitchChat implements AutoCloseable {
             ircMessageBucket.tryConsume(1L);
 
         // command will be uppercase.
-        this.webSocket.sendText(command);
+        return writeText(command, UNTRACKED_FRAME);
+    }
 
+    /**
+     * Hands a text frame to the websocket and remembers it, so the command can be completed once the frame has been written
+     *
+     * @param text    text
+     * @param command the command to complete, or {@link #UNTRACKED_FRAME}
+     * @return whether the frame has been handed to the websocket
+     */
+    private boolean writeText(String text, OutboundCommand command) {
+        synchronized (inFlight) {
+            WebSocket ws = this.webSocket;
+            if (ws == null)
+                return false;
+
+            inFlight.add(command);
+            ws.sendText(text);
+        }
         return true;
     }
 
+    /**
+     * Called by the websocket once a text frame has been written (or discarded), frames are written in the order they were handed over
+     *
+     * @param written whether the frame has been written to the socket
+     */
+    private void onTextFrameWritten(boolean written) {
+        OutboundCommand command;
+        synchronized (inFlight) {
+            command = inFlight.poll();
+        }
+
+        if (command != null && command != UNTRACKED_FRAME) {
+            if (written) {
+                sendLatency.get(command.getLane()).record(System.nanoTime() - command.getQueuedNanos());
+                command.getFuture().complete(null);
+            } else {
+                command.getFuture().completeExceptionally(new ChatSendException("Connection closed before the command was written"));
+            }
+        }
+    }
+
+    /**
+     * Fails the commands of a closed websocket that have not been confirmed as written
+     */
+    private void failInFlight() {
+        List<OutboundCommand> commands;
+        synchronized (inFlight) {
+            this.webSocket = null;
+            commands = new ArrayList<>(inFlight);
+            inFlight.clear();
+        }
+
+        for (OutboundCommand command : commands) {
+            if (command != UNTRACKED_FRAME)
+                command.getFuture().completeExceptionally(new ChatSendException("Connection closed before the command was written"));
+        }
+    }
+
     /**
      * Joining the channel
+     * <p>
+     * Joins are sent in batches, paced by the join rate limit.
+     *
      * @param channelName channel name
      */
     public void joinChannel(String channelName) {
         String lowerChannelName = channelName.toLowerCase();
         if (channelCache.add(lowerChannelName)) {
-            sendCommand("join", "#" + lowerChannelName);
+            pendingJoins.add(lowerChannelName);
+            signalOutbound();
             log.debug("Joining Channel [{}].", lowerChannelName);
         } else {
             log.warn("Already joined channel {}", channelName);
         }
     }
 
+    /**
+     * Joining multiple channels
+     * <p>
+     * Joins are sent in batches, paced by the join rate limit.
+     *
+     * @param channelNames channel names
+     */
+    public void joinChannels(Collection<String> channelNames) {
+        for (String channelName : channelNames) {
+            String lowerChannelName = channelName.toLowerCase();
+            if (channelCache.add(lowerChannelName)) {
+                pendingJoins.add(lowerChannelName);
+            }
+        }
+        signalOutbound();
+        log.debug("Joining {} Channels, {} joins pending.", channelNames.size(), pendingJoins.size());
+    }
+
     /**
      * leaving the channel
      * @param channelName channel name
@@ -536,7 +1333,10 @@ public class TwitchChat implements AutoCloseable {
     public void leaveChannel(String channelName) {
         String lowerChannelName = channelName.toLowerCase();
         if (channelCache.remove(lowerChannelName)) {
-            sendCommand("part", "#" + lowerChannelName);
+            // nothing to part if the join has not been sent yet
+            if (!pendingJoins.remove(lowerChannelName))
+                sendCommand("part", "#" + lowerChannelName);
+            channelStates.removeChannel(lowerChannelName);
             log.debug("Leaving Channel [{}].", lowerChannelName);
         } else {
             log.warn("Already left channel {}", channelName);
@@ -545,12 +1345,24 @@ public class TwitchChat implements AutoCloseable {
 
     /**
      * Sending message to the joined channel
+     * <p>
+     * The future completes once the message has been written to the socket. Callbacks run on the websocket thread and should not block.
+     *
      * @param channel channel name
      * @param message message
+     * @return completed when the message has been written, or exceptionally if it was dropped or the channel is in subscribers-only mode
+     * @throws ChatQueueFullException if the queue of the channel is full and the overflow policy is {@link QueueOverflowPolicy#REJECT}
      */
-    public void sendMessage(String channel, String message) {
-        log.debug("Adding message for channel [{}] with content [{}] to the queue.", channel.toLowerCase(), message);
-        ircCommandQueue.offer(String.format("PRIVMSG #%s :%s", channel.toLowerCase(), message));
+    public CompletableFuture<Void> sendMessage(String channel, String message) {
+        String lowerChannelName = channel.toLowerCase();
+        OutboundCommand command = new OutboundCommand(OutboundLane.CHAT, lowerChannelName, String.format("PRIVMSG #%s :%s", lowerChannelName, message));
+        if (channelStates.isRestricted(lowerChannelName)) {
+            log.debug("Not sending message to channel [{}], it is in subscribers-only mode.", lowerChannelName);
+            command.getFuture().completeExceptionally(new ChatSendException("Channel " + lowerChannelName + " is in subscribers-only mode"));
+            return command.getFuture();
+        }
+        log.debug("Adding message for channel [{}] with content [{}] to the queue.", lowerChannelName, message);
+        return enqueue(command, (c, timeout, unit) -> channelRateLimiter.offer(lowerChannelName, c, unit.toNanos(timeout)), () -> channelRateLimiter.removeOldest(lowerChannelName));
     }
 
     /**
@@ -558,10 +1370,11 @@ public class TwitchChat implements AutoCloseable {
      *
      * @param targetUser username
      * @param message message
+     * @return completed when the whisper has been written, or exceptionally if it was dropped
      */
-    public void sendPrivateMessage(String targetUser, String message) {
+    public CompletableFuture<Void> sendPrivateMessage(String targetUser, String message) {
         log.debug("Adding private message for user [{}] with content [{}] to the queue.", targetUser, message);
-        whisperCommandQueue.offer(String.format("PRIVMSG #%s :/w %s %s", chatCredential.getUserName().toLowerCase(), targetUser, message));
+        return enqueue(new OutboundCommand(OutboundLane.WHISPER, null, String.format("PRIVMSG #%s :/w %s %s", chatCredential.getUserName().toLowerCase(), targetUser, message)), whisperCommandQueue);
     }
 
     /**
@@ -571,14 +1384,15 @@ public class TwitchChat implements AutoCloseable {
      * @param user username
      * @param duration duration
      * @param reason reason
+     * @return completed when the command has been written
      */
-    public void timeout(String channel, String user, Duration duration, String reason) {
+    public CompletableFuture<Void> timeout(String channel, String user, Duration duration, String reason) {
         StringBuilder sb = new StringBuilder(user).append(' ').append(duration.getSeconds());
         if (reason != null) {
             sb.append(" ").append(reason);
         }
 
-        sendMessage(channel, String.format("/timeout %s", sb.toString()));
+        return sendModerationCommand(channel, String.format("/timeout %s", sb.toString()));
     }
 
     /**
@@ -587,14 +1401,15 @@ public class TwitchChat implements AutoCloseable {
      * @param channel channel
      * @param user username
      * @param reason reason
+     * @return completed when the command has been written
      */
-    public void ban(String channel, String user, String reason) {
+    public CompletableFuture<Void> ban(String channel, String user, String reason) {
         StringBuilder sb = new StringBuilder(user);
         if (reason != null) {
             sb.append(" ").append(reason);
         }
 
-        sendMessage(channel, String.format("/ban %s", sb.toString()));
+        return sendModerationCommand(channel, String.format("/ban %s", sb.toString()));
     }
 
     /**
@@ -602,9 +1417,64 @@ public class TwitchChat implements AutoCloseable {
      *
      * @param channel channel
      * @param user username
+     * @return completed when the command has been written
      */
-    public void unban(String channel, String user) {
-        sendMessage(channel, String.format("/unban %s", user));
+    public CompletableFuture<Void> unban(String channel, String user) {
+        return sendModerationCommand(channel, String.format("/unban %s", user));
+    }
+
+    /**
+     * Queues a moderation command, which is sent before any chat messages
+     *
+     * @param channel channel name
+     * @param command chat command, e.g. /ban
+     * @return completed when the command has been written
+     */
+    private CompletableFuture<Void> sendModerationCommand(String channel, String command) {
+        String lowerChannelName = channel.toLowerCase();
+        log.debug("Adding moderation command for channel [{}] with content [{}] to the queue.", lowerChannelName, command);
+        return enqueue(new OutboundCommand(OutboundLane.MODERATION, lowerChannelName, String.format("PRIVMSG #%s :%s", lowerChannelName, command)), moderationCommandQueue);
+    }
+
+    /**
+     * Gets the send latency of a lane, measured from queueing a command until it is written to the socket
+     * <p>
+     * Includes the time spent waiting for rate limits and for the connection.
+     *
+     * @param lane OutboundLane
+     * @return LatencyHistogram
+     */
+    public LatencyHistogram getSendLatency(OutboundLane lane) {
+        return sendLatency.get(lane);
+    }
+
+    /**
+     * Gets the amount of commands waiting in a lane
+     *
+     * @param lane OutboundLane
+     * @return queue depth
+     */
+    public int getQueueDepth(OutboundLane lane) {
+        switch (lane) {
+            case SYSTEM:
+                return ircCommandQueue.size();
+            case MODERATION:
+                return moderationCommandQueue.size();
+            case WHISPER:
+                return whisperCommandQueue.size();
+            default:
+                return channelRateLimiter.size();
+        }
+    }
+
+    /**
+     * Gets the amount of commands of a lane that have been dropped or rejected because the queue was full
+     *
+     * @param lane OutboundLane
+     * @return drop count
+     */
+    public long getDroppedCount(OutboundLane lane) {
+        return droppedCommands.get(lane).sum();
     }
 
     /**
@@ -613,24 +1483,39 @@ public class TwitchChat implements AutoCloseable {
      * @param event ChannelMessageEvent
      */
     private void onChannelMessage(ChannelMessageEvent event) {
-        Optional<String> prefix = Optional.empty();
-        Optional<String> commandWithoutPrefix = Optional.empty();
-
-        // try to find a `command` based on the prefix
-        for (String commandPrefix : this.commandPrefixes) {
-            if (event.getMessage().startsWith(commandPrefix)) {
-                prefix = Optional.of(commandPrefix);
-                commandWithoutPrefix = Optional.of(event.getMessage().substring(commandPrefix.length()));
-                break;
-            }
-        }
+        commandRegistry.dispatch(event, eventManager::publish);
+    }
+
+    /**
+     * Checks whether the account is a moderator (or the broadcaster) of a channel, as announced by the last USERSTATE
+     *
+     * @param channel channel name
+     * @return whether the account is known to be a moderator
+     */
+    public boolean isModerator(String channel) {
+        return channelStates.isModerator(channel.toLowerCase());
+    }
 
-        // is command?
-        if (commandWithoutPrefix.isPresent()) {
-            log.debug("Detected a command in channel {} with content: {}", event.getChannel().getName(), commandWithoutPrefix.get());
+    /**
+     * Gets the slow mode delay of a channel, as announced by the last ROOMSTATE
+     *
+     * @param channel channel name
+     * @return slow mode delay in seconds, 0 if slow mode is off or unknown
+     */
+    public int slowModeSeconds(String channel) {
+        return channelStates.getSlowModeSeconds(channel.toLowerCase());
+    }
 
-            // dispatch command event
-            eventManager.publish(new CommandEvent(CommandSource.CHANNEL, event.getChannel().getName(), event.getUser(), prefix.get(), commandWithoutPrefix.get(), event.getPermissions()));
+    /**
+     * Records a received frame, a failing capture must not affect the connection
+     *
+     * @param text raw websocket frame
+     */
+    private void capture(String text) {
+        try {
+            captureWriter.write(text);
+        } catch (IOException e) {
+            log.warn("Failed to write to the irc capture", e);
         }
     }
 
@@ -638,8 +1523,31 @@ public class TwitchChat implements AutoCloseable {
      * Close
      */
     public void close() {
-        this.stopQueueThread = true;
-        queueThread.cancel(false);
+        this.closed = true;
+        idleEvictionTask.cancel(false);
+        if (pingTask != null)
+            pingTask.cancel(false);
+        ScheduledFuture<?> wakeup = outboundWakeup;
+        if (wakeup != null)
+            wakeup.cancel(false);
+        List<OutboundCommand> queued = new ArrayList<>(channelRateLimiter.clear());
+        ircCommandQueue.drainTo(queued);
+        moderationCommandQueue.drainTo(queued);
+        whisperCommandQueue.drainTo(queued);
+        queued.forEach(command -> command.getFuture().completeExceptionally(new ChatSendException("Chat has been closed")));
+        sendLatency.forEach((lane, latency) -> {
+            if (latency.getCount() > 0)
+                log.debug("Send latency of lane {}: {}", lane, latency);
+        });
+        if (pingLatency.getCount() > 0)
+            log.debug("Ping round trip time: {}", pingLatency);
+        if (captureWriter != null) {
+            try {
+                captureWriter.flush();
+            } catch (IOException e) {
+                log.warn("Failed to flush the irc capture", e);
+            }
+        }
         this.disconnect();
     }
 
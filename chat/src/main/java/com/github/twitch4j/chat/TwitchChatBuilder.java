@@ -4,10 +4,15 @@ import com.github.philippheuer.credentialmanager.CredentialManager;
 import com.github.philippheuer.credentialmanager.CredentialManagerBuilder;
 import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
 import com.github.philippheuer.events4j.core.EventManager;
+import com.github.twitch4j.chat.capture.IRCCaptureWriter;
+import com.github.twitch4j.chat.capture.IRCReplayer;
+import com.github.twitch4j.chat.enums.QueueOverflowPolicy;
+import com.github.twitch4j.chat.util.MessageIdDeduplicator;
 import com.github.twitch4j.common.config.ProxyConfig;
 import com.github.twitch4j.common.config.Twitch4JGlobal;
 import com.github.twitch4j.common.util.ThreadUtils;
 import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -92,18 +97,79 @@ public class TwitchChatBuilder {
     @With
     protected Integer chatQueueSize = 200;
 
+    /**
+     * What happens when a message is sent while its queue is full
+     */
+    @With
+    protected QueueOverflowPolicy queueOverflowPolicy = QueueOverflowPolicy.DROP_NEWEST;
+
+    /**
+     * Maximum time to wait for room in a queue, if the overflow policy is {@link QueueOverflowPolicy#BLOCK}
+     */
+    @With
+    protected Duration queueOverflowTimeout = Duration.ofSeconds(5);
+
     /**
      * Custom RateLimit for ChatMessages
      */
     @With
     protected Bandwidth chatRateLimit = Bandwidth.simple(20, Duration.ofSeconds(30));
 
+    /**
+     * Custom RateLimit for ChatMessages in channels where the chat account is a moderator or the broadcaster
+     * <p>
+     * Also the ceiling for all chat messages of the account, the {@link #chatRateLimit} applies to the channels without moderator status.
+     */
+    @With
+    protected Bandwidth moderatorChatRateLimit = Bandwidth.simple(100, Duration.ofSeconds(30));
+
     /**
      * Custom RateLimit for Whispers
      */
     @With
     protected Bandwidth[] whisperRateLimit = { Bandwidth.simple(100, Duration.ofSeconds(60)), Bandwidth.simple(3, Duration.ofSeconds(1)) };
 
+    /**
+     * Custom RateLimit for JOINs
+     * <p>
+     * Twitch allows 20 join attempts per 10 seconds for regular accounts and 2000 per 10 seconds for verified bots.
+     * Each channel counts as one attempt, also when multiple channels are joined with a single command.
+     */
+    @With
+    protected Bandwidth joinRateLimit = Bandwidth.simple(20, Duration.ofSeconds(10));
+
+    /**
+     * Shared bucket for chat messages, used instead of the chatRateLimit if set
+     * <p>
+     * The message limit applies to the account, use the same bucket for all connections that use the same account.
+     */
+    @With
+    protected Bucket ircMessageBucket = null;
+
+    /**
+     * Shared bucket for chat messages in channels with moderator status, also the ceiling for all messages, used instead of the moderatorChatRateLimit if set
+     * <p>
+     * The message limit applies to the account, use the same bucket for all connections that use the same account.
+     */
+    @With
+    protected Bucket moderatorBucket = null;
+
+    /**
+     * Shared bucket for whispers, used instead of the whisperRateLimit if set
+     * <p>
+     * The whisper limit applies to the account, use the same bucket for all connections that use the same account.
+     */
+    @With
+    protected Bucket ircWhisperBucket = null;
+
+    /**
+     * Shared bucket for JOINs, used instead of the joinRateLimit if set
+     * <p>
+     * The join limit applies to the account, use the same bucket for all connections that use the same account.
+     */
+    @With
+    protected Bucket ircJoinBucket = null;
+
     /**
      * Scheduler Thread Pool Executor
      */
@@ -111,7 +177,7 @@ public class TwitchChatBuilder {
     private ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = null;
 
     /**
-     * Millisecond wait time for taking items off chat queue. Default recommended
+     * Millisecond delay before the outbound queue is retried after an unexpected error. Default recommended
      */
     @With
     private long chatQueueTimeout = 1000L;
@@ -122,6 +188,58 @@ public class TwitchChatBuilder {
     @With
     private ProxyConfig proxyConfig = null;
 
+    /**
+     * Drops PRIVMSG and USERNOTICE lines with an already seen id, which twitch can deliver around reconnects
+     * <p>
+     * Disabled by default. Use the same instance for all connections that may join the same channel, e.g. the template of a connection pool.
+     */
+    @With
+    private MessageIdDeduplicator messageDeduplicator = null;
+
+    /**
+     * Records every received websocket frame with its arrival time, to be replayed offline by the {@link IRCReplayer}
+     * <p>
+     * Disabled by default. The writer can be shared by multiple connections and is flushed, but not closed, when the chat is closed.
+     */
+    @With
+    private IRCCaptureWriter captureWriter = null;
+
+    /**
+     * Interval of the PINGs sent by the client to detect dead connections, null to disable
+     * <p>
+     * The round trip times are available through {@link TwitchChat#getPingLatency()}.
+     */
+    @With
+    private Duration pingInterval = Duration.ofSeconds(30);
+
+    /**
+     * Time to wait for the PONG of a client-initiated PING, the connection is reconnected if it does not arrive in time
+     * <p>
+     * Null or non-positive values use the default of 10 seconds.
+     */
+    @With
+    private Duration pingTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Upper bound of the random delay before the first attempt to replace a lost connection, doubled for every further failed attempt
+     */
+    @With
+    private Duration reconnectBaseDelay = Duration.ofSeconds(1);
+
+    /**
+     * Upper bound of the random delay between attempts to replace a lost connection
+     */
+    @With
+    private Duration reconnectMaxDelay = Duration.ofMinutes(2);
+
+    /**
+     * Whether the channel of the chat account is joined on login, which is required to send or receive whispers
+     * <p>
+     * Disable for additional connections of the same account, so the messages of the own channel and the whispers are only received once.
+     */
+    @With
+    private boolean autoJoinOwnChannel = true;
+
     /**
      * Initialize the builder
      *
@@ -147,8 +265,12 @@ public class TwitchChatBuilder {
             eventManager.autoDiscovery();
         }
 
+        Bucket joinBucket = this.ircJoinBucket;
+        if (joinBucket == null)
+            joinBucket = TwitchChat.createBucket(this.joinRateLimit);
+
         log.debug("TwitchChat: Initializing Module ...");
-        return new TwitchChat(this.eventManager, this.credentialManager, this.chatAccount, this.baseUrl, this.sendCredentialToThirdPartyHost, this.commandPrefixes, this.chatQueueSize, this.chatRateLimit, this.whisperRateLimit, this.scheduledThreadPoolExecutor, this.chatQueueTimeout, this.proxyConfig);
+        return new TwitchChat(this.eventManager, this.credentialManager, this.chatAccount, this.baseUrl, this.sendCredentialToThirdPartyHost, this.commandPrefixes, this.chatQueueSize, this.queueOverflowPolicy, this.queueOverflowTimeout, this.chatRateLimit, this.moderatorChatRateLimit, this.whisperRateLimit, this.ircMessageBucket, this.moderatorBucket, this.ircWhisperBucket, joinBucket, this.scheduledThreadPoolExecutor, this.chatQueueTimeout, this.proxyConfig, this.messageDeduplicator, this.captureWriter, this.pingInterval, this.pingTimeout, this.reconnectBaseDelay, this.reconnectMaxDelay, this.autoJoinOwnChannel);
     }
 
     /**
@@ -0,0 +1,380 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.events4j.api.service.IEventHandler;
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.common.events.user.PrivateMessageEvent;
+import com.github.twitch4j.common.util.ThreadUtils;
+import io.github.bucket4j.Bucket;
+import lombok.Getter;
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Twitch Chat Connection Pool
+ * <p>
+ * Spreads the joined channels over multiple chat connections, so a single socket (and its reader thread) does not have to carry every channel.
+ * Channels are placed using consistent hashing and each connection holds at most {@link #getMaxChannelsPerConnection()} channels,
+ * new connections are opened when all existing ones are full. Every connection reconnects on its own, like a regular {@link TwitchChat}.
+ * <p>
+ * All connections share the join, message, moderator and whisper buckets, as these limits apply to the account.
+ * <p>
+ * Only the first connection joins the channel of the chat account and forwards whispers, as twitch delivers them on every connection of the account.
+ * <p>
+ * All events are published to the event manager of the pool, {@link com.github.twitch4j.chat.events.TwitchEvent#getTwitchChat()} returns the connection that received the event.
+ */
+@Slf4j
+public class TwitchChatConnectionPool implements AutoCloseable {
+
+    /**
+     * EventManager
+     */
+    @Getter
+    private final EventManager eventManager;
+
+    /**
+     * Template for the chat connections
+     */
+    private final TwitchChatBuilder chatBuilder;
+
+    /**
+     * Maximum amount of channels per connection
+     */
+    @Getter
+    private final int maxChannelsPerConnection;
+
+    /**
+     * Amount of points per connection on the hash ring
+     */
+    private final int virtualNodes;
+
+    /**
+     * Open connections
+     */
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+
+    /**
+     * Hash ring, maps points to connections
+     */
+    private final NavigableMap<Integer, Shard> ring = new ConcurrentSkipListMap<>();
+
+    /**
+     * Connection of each joined channel
+     */
+    private final Map<String, Shard> channelShards = new ConcurrentHashMap<>();
+
+    /**
+     * Join bucket shared by all connections, the join limit applies to the account and not to a single connection
+     */
+    private final Bucket ircJoinBucket;
+
+    /**
+     * Message bucket shared by all connections
+     */
+    private final Bucket ircMessageBucket;
+
+    /**
+     * Moderator message bucket and ceiling for all messages, shared by all connections
+     */
+    private final Bucket moderatorBucket;
+
+    /**
+     * Whisper bucket shared by all connections
+     */
+    private final Bucket ircWhisperBucket;
+
+    /**
+     * Constructor
+     *
+     * @param eventManager             EventManager
+     * @param chatBuilder              Template for the chat connections
+     * @param maxChannelsPerConnection Maximum amount of channels per connection
+     * @param virtualNodes             Amount of points per connection on the hash ring
+     */
+    public TwitchChatConnectionPool(EventManager eventManager, TwitchChatBuilder chatBuilder, int maxChannelsPerConnection, int virtualNodes) {
+        if (maxChannelsPerConnection <= 0)
+            throw new IllegalArgumentException("maxChannelsPerConnection must be positive");
+
+        this.eventManager = eventManager;
+        this.chatBuilder = chatBuilder;
+        this.maxChannelsPerConnection = maxChannelsPerConnection;
+        this.virtualNodes = Math.max(virtualNodes, 1);
+        this.ircJoinBucket = chatBuilder.getIrcJoinBucket() != null ? chatBuilder.getIrcJoinBucket() : TwitchChat.createBucket(chatBuilder.getJoinRateLimit());
+        this.ircMessageBucket = chatBuilder.getIrcMessageBucket() != null ? chatBuilder.getIrcMessageBucket() : TwitchChat.createBucket(chatBuilder.getChatRateLimit());
+        this.moderatorBucket = chatBuilder.getModeratorBucket() != null ? chatBuilder.getModeratorBucket() : TwitchChat.createBucket(chatBuilder.getModeratorChatRateLimit());
+        this.ircWhisperBucket = chatBuilder.getIrcWhisperBucket() != null ? chatBuilder.getIrcWhisperBucket() : TwitchChat.createBucket(chatBuilder.getWhisperRateLimit());
+    }
+
+    /**
+     * Joining the channel
+     *
+     * @param channelName channel name
+     */
+    @Synchronized
+    public void joinChannel(String channelName) {
+        String lowerChannelName = channelName.toLowerCase();
+        if (channelShards.containsKey(lowerChannelName)) {
+            log.warn("Already joined channel {}", channelName);
+            return;
+        }
+
+        placeChannel(lowerChannelName).chat.joinChannel(lowerChannelName);
+    }
+
+    /**
+     * Joining multiple channels, grouped into a bulk join per connection
+     *
+     * @param channelNames channel names
+     */
+    @Synchronized
+    public void joinChannels(Collection<String> channelNames) {
+        Map<Shard, List<String>> joins = new HashMap<>();
+        for (String channelName : channelNames) {
+            String lowerChannelName = channelName.toLowerCase();
+            if (!channelShards.containsKey(lowerChannelName)) {
+                joins.computeIfAbsent(placeChannel(lowerChannelName), s -> new ArrayList<>()).add(lowerChannelName);
+            }
+        }
+        joins.forEach((shard, channels) -> shard.chat.joinChannels(channels));
+    }
+
+    /**
+     * Leaving the channel
+     *
+     * @param channelName channel name
+     */
+    @Synchronized
+    public void leaveChannel(String channelName) {
+        String lowerChannelName = channelName.toLowerCase();
+        Shard shard = channelShards.remove(lowerChannelName);
+        if (shard != null) {
+            shard.channels.remove(lowerChannelName);
+            shard.chat.leaveChannel(lowerChannelName);
+        } else {
+            log.warn("Already left channel {}", channelName);
+        }
+    }
+
+    /**
+     * Sending message to the joined channel, using the connection that joined it
+     *
+     * @param channel channel name
+     * @param message message
+     * @return completed when the message has been written, or exceptionally if it was dropped
+     */
+    public CompletableFuture<Void> sendMessage(String channel, String message) {
+        return getChat(channel).sendMessage(channel, message);
+    }
+
+    /**
+     * Sends a user a private message
+     *
+     * @param targetUser username
+     * @param message    message
+     * @return completed when the whisper has been written, or exceptionally if it was dropped
+     */
+    public CompletableFuture<Void> sendPrivateMessage(String targetUser, String message) {
+        return getChat(targetUser).sendPrivateMessage(targetUser, message);
+    }
+
+    /**
+     * Gets the connection that is responsible for a channel
+     * <p>
+     * Channels that have not been joined are mapped to the connection they would be placed on (ignoring the channel cap).
+     *
+     * @param channelName channel name
+     * @return TwitchChat
+     */
+    public TwitchChat getChat(String channelName) {
+        String lowerChannelName = channelName.toLowerCase();
+        Shard shard = channelShards.get(lowerChannelName);
+        if (shard == null) {
+            Map.Entry<Integer, Shard> entry = ring.ceilingEntry(hash(lowerChannelName));
+            if (entry == null)
+                entry = ring.firstEntry();
+            shard = entry != null ? entry.getValue() : openShardIfEmpty();
+        }
+        return shard.chat;
+    }
+
+    /**
+     * Check if the pool is currently in a channel
+     *
+     * @param channelName channel to check (without # prefix)
+     * @return boolean
+     */
+    public boolean isChannelJoined(String channelName) {
+        return channelShards.containsKey(channelName.toLowerCase());
+    }
+
+    /**
+     * Returns a list of all channels currently joined (without # prefix)
+     *
+     * @return List Channel Names
+     */
+    public List<String> getCurrentChannels() {
+        return Collections.unmodifiableList(new ArrayList<>(channelShards.keySet()));
+    }
+
+    /**
+     * @return the amount of open connections
+     */
+    public int getConnectionCount() {
+        return shards.size();
+    }
+
+    /**
+     * Close all connections
+     */
+    @Override
+    @Synchronized
+    public void close() {
+        for (Shard shard : shards) {
+            shard.close();
+        }
+        shards.clear();
+        ring.clear();
+        channelShards.clear();
+    }
+
+    /**
+     * Assigns a channel to a connection, opening a new connection if all are full
+     */
+    private Shard placeChannel(String channelName) {
+        // the own channel is joined by the first connection anyway
+        Shard shard = !shards.isEmpty() && channelName.equals(shards.get(0).chat.getChatAccountName()) ? shards.get(0) : findShard(channelName);
+        if (shard == null)
+            shard = openShard();
+
+        shard.channels.add(channelName);
+        channelShards.put(channelName, shard);
+        return shard;
+    }
+
+    /**
+     * Walks the hash ring, starting at the point of the channel, until a connection with capacity is found
+     *
+     * @return Shard, or null if all connections are full
+     */
+    private Shard findShard(String channelName) {
+        if (ring.isEmpty())
+            return null;
+
+        int hash = hash(channelName);
+        for (Shard shard : ring.tailMap(hash, true).values()) {
+            if (shard.channels.size() < maxChannelsPerConnection)
+                return shard;
+        }
+        for (Shard shard : ring.headMap(hash, false).values()) {
+            if (shard.channels.size() < maxChannelsPerConnection)
+                return shard;
+        }
+        return null;
+    }
+
+    @Synchronized
+    private Shard openShardIfEmpty() {
+        return shards.isEmpty() ? openShard() : shards.get(0);
+    }
+
+    /**
+     * Opens a new connection and places it on the hash ring
+     */
+    private Shard openShard() {
+        final int id = shards.size();
+        final boolean primary = id == 0;
+        log.debug("TwitchChatConnectionPool: Opening connection #{}", id);
+
+        // every connection gets its own event manager, so the irc messages are only parsed once. the parsed events are forwarded to the pool.
+        EventManager shardEventManager = new EventManager();
+        shardEventManager.registerEventHandler(new SimpleEventHandler());
+        shardEventManager.registerEventHandler(new IEventHandler() {
+            @Override
+            public void publish(Object event) {
+                // whispers are delivered to every connection of the account
+                if (primary || !isWhisper(event))
+                    eventManager.publish(event);
+            }
+
+            @Override
+            public void close() {
+                // nothing to close, the pool owns the target event manager
+            }
+        });
+
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-chat-pool-" + id, TwitchChat.REQUIRED_THREAD_COUNT);
+        TwitchChat chat = chatBuilder
+            .withEventManager(shardEventManager)
+            .withScheduledThreadPoolExecutor(executor)
+            .withIrcJoinBucket(ircJoinBucket)
+            .withIrcMessageBucket(ircMessageBucket)
+            .withModeratorBucket(moderatorBucket)
+            .withIrcWhisperBucket(ircWhisperBucket)
+            .withCommandTriggers(chatBuilder.getCommandPrefixes())
+            .withAutoJoinOwnChannel(primary && chatBuilder.isAutoJoinOwnChannel())
+            .build();
+
+        Shard shard = new Shard(chat, executor);
+        shards.add(shard);
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.putIfAbsent(hash("twitch4j-chat-pool-" + id + "#" + i), shard);
+        }
+        return shard;
+    }
+
+    /**
+     * @return whether the event is caused by a whisper
+     */
+    private static boolean isWhisper(Object event) {
+        return event instanceof PrivateMessageEvent || event instanceof IRCMessageEvent && "WHISPER".equals(((IRCMessageEvent) event).getCommandType());
+    }
+
+    /**
+     * Spreads the bits of {@link String#hashCode()}, which is not well distributed for similar strings
+     */
+    private static int hash(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * A single chat connection of the pool
+     */
+    private static final class Shard {
+        private final TwitchChat chat;
+        private final ScheduledThreadPoolExecutor executor;
+        private final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+        private Shard(TwitchChat chat, ScheduledThreadPoolExecutor executor) {
+            this.chat = chat;
+            this.executor = executor;
+        }
+
+        private void close() {
+            chat.close();
+            chat.getEventManager().close();
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.With;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Twitch Chat Connection Pool Builder
+ */
+@Slf4j
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TwitchChatConnectionPoolBuilder {
+
+    /**
+     * Event Manager
+     */
+    @With
+    private EventManager eventManager;
+
+    /**
+     * Template for the chat connections (credentials, base url, rate limits, ...)
+     * <p>
+     * The event manager and executor of the template are ignored, every connection gets its own.
+     */
+    @With
+    private TwitchChatBuilder chatBuilder = TwitchChatBuilder.builder();
+
+    /**
+     * Maximum amount of channels per connection
+     */
+    @With
+    private int maxChannelsPerConnection = 100;
+
+    /**
+     * Amount of points per connection on the consistent hash ring
+     */
+    @With
+    private int virtualNodes = 64;
+
+    /**
+     * Initialize the builder
+     *
+     * @return Twitch Chat Connection Pool Builder
+     */
+    public static TwitchChatConnectionPoolBuilder builder() {
+        return new TwitchChatConnectionPoolBuilder();
+    }
+
+    /**
+     * Twitch Chat Connection Pool
+     *
+     * @return TwitchChatConnectionPool
+     */
+    public TwitchChatConnectionPool build() {
+        log.debug("TwitchChatConnectionPool: Initializing Module ...");
+
+        if (eventManager == null) {
+            eventManager = new EventManager();
+            eventManager.autoDiscovery();
+        }
+
+        return new TwitchChatConnectionPool(this.eventManager, this.chatBuilder, this.maxChannelsPerConnection, this.virtualNodes);
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.github.twitch4j.chat.capture;
+
+import lombok.Getter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a capture file written by {@link IRCCaptureWriter}, one frame at a time
+ */
+public class IRCCaptureReader implements AutoCloseable {
+
+    private final FileChannel channel;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Start of the capture as epoch milliseconds
+     */
+    @Getter
+    private final long startEpochMillis;
+
+    /**
+     * Time of the current frame, in nanoseconds since the start of the capture
+     */
+    @Getter
+    private long offsetNanos;
+
+    /**
+     * Current frame
+     */
+    @Getter
+    private String text;
+
+    private long micros;
+
+    /**
+     * Opens a capture file
+     *
+     * @param path capture file
+     * @throws IOException if the file can't be read or is not a capture
+     */
+    public IRCCaptureReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.flip();
+
+        require(IRCCaptureWriter.MAGIC.length + 8);
+        byte[] magic = new byte[IRCCaptureWriter.MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, IRCCaptureWriter.MAGIC)) {
+            channel.close();
+            throw new IOException("Not an irc capture: " + path);
+        }
+        this.startEpochMillis = buffer.getLong();
+    }
+
+    /**
+     * Advances to the next frame
+     *
+     * @return false at the end of the capture
+     * @throws IOException if the file can't be read or is truncated
+     */
+    public boolean next() throws IOException {
+        if (!buffer.hasRemaining() && !fill())
+            return false;
+
+        micros += getVarLong();
+        int length = (int) getVarLong();
+        require(length);
+
+        if (buffer.hasArray()) {
+            text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        offsetNanos = micros * 1_000L;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long getVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException("Malformed varint in irc capture");
+    }
+
+    /**
+     * Makes sure the given amount of bytes is buffered, growing the buffer for large frames
+     */
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return;
+
+        if (bytes > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(Integer.highestOneBit(bytes) << 1);
+            larger.put(buffer);
+            larger.flip();
+            buffer = larger;
+        }
+        while (buffer.remaining() < bytes) {
+            if (!fill())
+                throw new EOFException("Truncated irc capture");
+        }
+    }
+
+    /**
+     * Reads more bytes into the buffer
+     *
+     * @return false at the end of the file
+     */
+    private boolean fill() throws IOException {
+        buffer.compact();
+        try {
+            return channel.read(buffer) > 0;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.github.twitch4j.chat.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the websocket frames received by chat connections into a compact capture file, see {@link IRCCaptureReader} and {@link IRCReplayer}
+ * <p>
+ * File format: the magic {@link #MAGIC}, the capture start as epoch milliseconds (8 bytes),
+ * then one record per frame: the microseconds since the previous record and the length of the frame as varints, followed by the UTF-8 bytes of the frame.
+ * Records are buffered and appended through a {@link FileChannel}.
+ * <p>
+ * This class is thread-safe, a single writer can be shared by multiple connections.
+ */
+public class IRCCaptureWriter implements AutoCloseable {
+
+    /**
+     * Magic bytes at the start of a capture file
+     */
+    static final byte[] MAGIC = { 'T', '4', 'J', 'I', 'R', 'C', '0', '1' };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private final long startNanos;
+
+    private long lastMicros;
+
+    /**
+     * Creates a capture file, an existing file is replaced
+     *
+     * @param path capture file
+     * @throws IOException if the file can't be created
+     */
+    public IRCCaptureWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.startNanos = System.nanoTime();
+        buffer.put(MAGIC).putLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Appends a received frame, timestamped now
+     *
+     * @param text websocket text frame
+     * @throws IOException if the file can't be written
+     */
+    public void write(String text) throws IOException {
+        write(System.nanoTime(), text);
+    }
+
+    /**
+     * Appends a received frame
+     *
+     * @param receivedNanos {@link System#nanoTime()} when the frame was received
+     * @param text          websocket text frame
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void write(long receivedNanos, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        long micros = Math.max((receivedNanos - startNanos) / 1_000L, lastMicros);
+
+        if (buffer.remaining() < bytes.length + 20)
+            drain();
+
+        putVarLong(micros - lastMicros);
+        putVarLong(bytes.length);
+        if (bytes.length <= buffer.remaining()) {
+            buffer.put(bytes);
+        } else {
+            drain();
+            ByteBuffer large = ByteBuffer.wrap(bytes);
+            while (large.hasRemaining()) {
+                channel.write(large);
+            }
+        }
+        lastMicros = micros;
+    }
+
+    /**
+     * Writes the buffered records to the file
+     *
+     * @throws IOException if the file can't be written
+     */
+    public synchronized void flush() throws IOException {
+        drain();
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0L) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+}
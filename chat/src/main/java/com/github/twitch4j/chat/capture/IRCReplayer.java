@@ -0,0 +1,124 @@
+package com.github.twitch4j.chat.capture;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.IRCEventHandler;
+import com.github.twitch4j.chat.util.ChannelStateStore;
+import com.github.twitch4j.chat.util.IRCInboundPipeline;
+import com.github.twitch4j.chat.util.MessageIdDeduplicator;
+import com.github.twitch4j.common.util.LatencyHistogram;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a capture written by {@link IRCCaptureWriter} through the regular pipeline: the {@link IRCInboundPipeline} of the chat
+ * (line splitting, parsing, deduplication and channel states), the {@link IRCEventHandler} and the event manager
+ * <p>
+ * Connection-level lines like PING are handled like on a live connection, but not answered.
+ * <p>
+ * Frames are replayed with their recorded timing, scaled by a speed factor, or as fast as possible.
+ * No connection is involved, so listeners can be benchmarked and regression-tested against real traffic.
+ */
+public class IRCReplayer {
+
+    /**
+     * Replay speed for replaying as fast as possible
+     */
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    /**
+     * Event Manager the parsed events are published to
+     */
+    @Getter
+    private final EventManager eventManager;
+
+    /**
+     * Deduplicator for message ids, null if disabled
+     */
+    private final MessageIdDeduplicator messageDeduplicator;
+
+    /**
+     * Room and user states built from the replayed ROOMSTATE and USERSTATE lines
+     */
+    @Getter
+    private final ChannelStateStore channelStates = new ChannelStateStore();
+
+    /**
+     * Constructor
+     *
+     * @param eventManager        event manager with a {@link SimpleEventHandler}, register the listeners under test before replaying
+     * @param messageDeduplicator Deduplicator for message ids, null to disable
+     */
+    public IRCReplayer(EventManager eventManager, MessageIdDeduplicator messageDeduplicator) {
+        this.eventManager = eventManager;
+        this.messageDeduplicator = messageDeduplicator;
+        new IRCEventHandler(null, eventManager);
+    }
+
+    /**
+     * Constructor, without deduplication
+     *
+     * @param eventManager event manager with a {@link SimpleEventHandler}, register the listeners under test before replaying
+     */
+    public IRCReplayer(EventManager eventManager) {
+        this(eventManager, null);
+    }
+
+    /**
+     * Constructor, with a new event manager
+     */
+    public IRCReplayer() {
+        this(newEventManager());
+    }
+
+    /**
+     * Replays a capture
+     *
+     * @param capture capture file
+     * @param speed   1 for the recorded timing, 2 for twice as fast, ... or {@link #MAX_SPEED}
+     * @return throughput and per-stage latency
+     * @throws IOException if the capture can't be read
+     */
+    public ReplayResult replay(Path capture, double speed) throws IOException {
+        if (!(speed > 0))
+            throw new IllegalArgumentException("speed must be positive");
+
+        final boolean paced = !Double.isInfinite(speed);
+        final LatencyHistogram parseLatency = new LatencyHistogram();
+        final LatencyHistogram dispatchLatency = new LatencyHistogram();
+        final LatencyHistogram scheduleLag = new LatencyHistogram();
+        final IRCInboundPipeline pipeline = new IRCInboundPipeline(eventManager, messageDeduplicator, channelStates, IRCInboundPipeline.ConnectionHandler.NONE);
+        pipeline.setParseLatency(parseLatency);
+        pipeline.setDispatchLatency(dispatchLatency);
+        long frames = 0;
+
+        final long start = System.nanoTime();
+        try (IRCCaptureReader reader = new IRCCaptureReader(capture)) {
+            while (reader.next()) {
+                if (paced) {
+                    long due = start + (long) (reader.getOffsetNanos() / speed);
+                    long wait;
+                    while ((wait = due - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    scheduleLag.record(-wait);
+                }
+                frames++;
+                pipeline.onFrame(reader.getText());
+            }
+        }
+
+        return new ReplayResult(frames, pipeline.getLineCount(), pipeline.getPublishedCount(), Duration.ofNanos(System.nanoTime() - start), parseLatency, dispatchLatency, scheduleLag);
+    }
+
+    private static EventManager newEventManager() {
+        EventManager eventManager = new EventManager();
+        eventManager.registerEventHandler(new SimpleEventHandler());
+        return eventManager;
+    }
+
+}
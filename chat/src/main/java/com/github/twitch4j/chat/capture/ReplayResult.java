@@ -0,0 +1,63 @@
+package com.github.twitch4j.chat.capture;
+
+import com.github.twitch4j.common.util.LatencyHistogram;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a replay by the {@link IRCReplayer}
+ */
+@Value
+public class ReplayResult {
+
+    /**
+     * Amount of replayed websocket frames
+     */
+    long frames;
+
+    /**
+     * Amount of replayed irc lines
+     */
+    long lines;
+
+    /**
+     * Amount of lines that were parsed into a valid message and published
+     */
+    long published;
+
+    /**
+     * Wall-clock duration of the replay
+     */
+    Duration elapsed;
+
+    /**
+     * Time to parse a line into an IRCMessageEvent
+     */
+    LatencyHistogram parseLatency;
+
+    /**
+     * Time to publish an IRCMessageEvent, including the IRCEventHandler and all listeners
+     */
+    LatencyHistogram dispatchLatency;
+
+    /**
+     * How late frames were replayed compared to the recorded timing, only recorded for paced replays
+     */
+    LatencyHistogram scheduleLag;
+
+    /**
+     * @return replayed lines per second
+     */
+    public double getLinesPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos > 0 ? lines * 1e9 / nanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplayResult(frames=%d, lines=%d, published=%d, elapsed=%dms, throughput=%.0f lines/s, parse=%s, dispatch=%s, lag=%s)",
+            frames, lines, published, elapsed.toMillis(), getLinesPerSecond(), parseLatency, dispatchLatency, scheduleLag);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.github.twitch4j.chat.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits the arguments of a chat command
+ */
+@FunctionalInterface
+public interface ArgumentTokenizer {
+
+    /**
+     * Splits on spaces, ignoring repeated spaces
+     */
+    ArgumentTokenizer WHITESPACE = arguments -> {
+        if (arguments.isEmpty())
+            return Collections.emptyList();
+
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0, length = arguments.length(); i <= length; i++) {
+            if (i == length || arguments.charAt(i) == ' ') {
+                if (start >= 0) {
+                    tokens.add(arguments.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        return tokens;
+    };
+
+    /**
+     * Keeps the arguments as a single token
+     */
+    ArgumentTokenizer REST = arguments -> arguments.isEmpty() ? Collections.emptyList() : Collections.singletonList(arguments);
+
+    /**
+     * Splits the arguments of a command
+     *
+     * @param arguments the text after the command name, without leading spaces
+     * @return the arguments
+     */
+    List<String> tokenize(String arguments);
+
+}
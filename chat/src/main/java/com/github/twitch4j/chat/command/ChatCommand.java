@@ -0,0 +1,61 @@
+package com.github.twitch4j.chat.command;
+
+import com.github.twitch4j.common.enums.CommandPermission;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A chat command for the {@link CommandRegistry}
+ */
+@Value
+@Builder
+public class ChatCommand {
+
+    /**
+     * Name of the command, without prefix (case-insensitive)
+     */
+    @NonNull
+    String name;
+
+    /**
+     * Alternative names of the command
+     */
+    @Singular
+    List<String> aliases;
+
+    /**
+     * Handler
+     */
+    @NonNull
+    CommandHandler handler;
+
+    /**
+     * Splits the arguments, null to not pass any arguments to the handler
+     */
+    @Builder.Default
+    ArgumentTokenizer tokenizer = ArgumentTokenizer.WHITESPACE;
+
+    /**
+     * Permission the user needs to use the command
+     */
+    @Builder.Default
+    CommandPermission requiredPermission = CommandPermission.EVERYONE;
+
+    /**
+     * Minimum time between two uses of the command by the same user in the same channel
+     */
+    @Builder.Default
+    Duration userCooldown = Duration.ZERO;
+
+    /**
+     * Minimum time between two uses of the command in the same channel
+     */
+    @Builder.Default
+    Duration channelCooldown = Duration.ZERO;
+
+}
@@ -0,0 +1,21 @@
+package com.github.twitch4j.chat.command;
+
+import com.github.twitch4j.chat.events.CommandEvent;
+
+import java.util.List;
+
+/**
+ * Handles a chat command registered with the {@link CommandRegistry}
+ */
+@FunctionalInterface
+public interface CommandHandler {
+
+    /**
+     * Called when the command is used by a permitted user outside of its cooldowns
+     *
+     * @param event     the command, use {@link CommandEvent#respondToUser(String)} to reply
+     * @param arguments the tokenized arguments, empty if the command has no tokenizer
+     */
+    void handle(CommandEvent event, List<String> arguments);
+
+}
@@ -0,0 +1,266 @@
+package com.github.twitch4j.chat.command;
+
+import com.github.twitch4j.chat.enums.CommandSource;
+import com.github.twitch4j.chat.events.CommandEvent;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.common.enums.CommandPermission;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Command Registry
+ * <p>
+ * Command prefixes are stored in a trie and the longest matching prefix wins, so a message that does not start with the first character of a prefix is rejected after a single comparison
+ * (for the usual case of prefixes starting with the same character). Commands are looked up by name in a table and dispatched straight to their handler,
+ * after checking the required permission and the cooldowns.
+ * <p>
+ * Messages with a prefix but without a registered command are handed to a fallback, which publishes a {@link CommandEvent} for backwards compatibility.
+ */
+@Slf4j
+public class CommandRegistry {
+
+    /**
+     * Cooldown tables are pruned once they grow beyond this size
+     */
+    private static final int COOLDOWN_PRUNE_THRESHOLD = 1024;
+
+    /**
+     * Prefix trie, replaced when prefixes are added
+     */
+    private volatile PrefixNode prefixes = new PrefixNode();
+
+    /**
+     * Commands by lowercase name and alias
+     */
+    private final Map<String, RegisteredCommand> commands = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param prefixes command prefixes
+     */
+    public CommandRegistry(Collection<String> prefixes) {
+        prefixes.forEach(this::addPrefix);
+    }
+
+    /**
+     * Adds a command prefix
+     *
+     * @param prefix prefix, e.g. "!"
+     */
+    public synchronized void addPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty())
+            throw new IllegalArgumentException("prefix must not be empty");
+
+        // copy on write, dispatching threads never see a partially updated trie
+        PrefixNode root = prefixes.copy();
+        PrefixNode node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.getOrAddChild(prefix.charAt(i));
+        }
+        node.prefix = prefix;
+        prefixes = root;
+    }
+
+    /**
+     * Registers a command, replacing commands with the same name or alias
+     *
+     * @param command ChatCommand
+     */
+    public void register(ChatCommand command) {
+        RegisteredCommand registered = new RegisteredCommand(command);
+        commands.put(command.getName().toLowerCase(Locale.ROOT), registered);
+        for (String alias : command.getAliases()) {
+            commands.put(alias.toLowerCase(Locale.ROOT), registered);
+        }
+    }
+
+    /**
+     * Removes a command including its aliases
+     *
+     * @param name name or alias of the command
+     * @return whether a command was removed
+     */
+    public boolean unregister(String name) {
+        RegisteredCommand registered = commands.get(name.toLowerCase(Locale.ROOT));
+        if (registered == null)
+            return false;
+
+        return commands.values().removeIf(command -> command == registered);
+    }
+
+    /**
+     * Dispatches a channel message if it starts with a command prefix
+     *
+     * @param event      ChannelMessageEvent
+     * @param unhandled  receives commands without a registered handler
+     * @return whether the message was dispatched to a registered handler
+     */
+    public boolean dispatch(ChannelMessageEvent event, Consumer<CommandEvent> unhandled) {
+        final String message = event.getMessage();
+        if (message == null || message.isEmpty())
+            return false;
+
+        // walk the trie, remembering the longest prefix
+        PrefixNode node = prefixes.child(message.charAt(0));
+        if (node == null)
+            return false;
+
+        String prefix = node.prefix;
+        for (int i = 1; i < message.length() && (node = node.child(message.charAt(i))) != null; i++) {
+            if (node.prefix != null)
+                prefix = node.prefix;
+        }
+        if (prefix == null)
+            return false;
+
+        final int nameStart = prefix.length();
+        int nameEnd = message.indexOf(' ', nameStart);
+        if (nameEnd < 0)
+            nameEnd = message.length();
+
+        String channelName = event.getChannel().getName();
+        String commandWithoutPrefix = message.substring(nameStart);
+        log.debug("Detected a command in channel {} with content: {}", channelName, commandWithoutPrefix);
+        CommandEvent commandEvent = new CommandEvent(CommandSource.CHANNEL, channelName, event.getUser(), prefix, commandWithoutPrefix, event.getPermissions());
+        commandEvent.setServiceMediator(event.getServiceMediator());
+
+        RegisteredCommand command = nameEnd > nameStart ? commands.get(message.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT)) : null;
+        if (command == null) {
+            unhandled.accept(commandEvent);
+            return false;
+        }
+
+        if (!command.isPermitted(event.getPermissions())) {
+            log.debug("Command {} requires permission {} in channel {}", command.definition.getName(), command.definition.getRequiredPermission(), channelName);
+            return false;
+        }
+
+        String userKey = event.getUser() != null ? channelName + ':' + event.getUser().getId() : null;
+        if (!command.tryAcquireCooldowns(channelName, userKey)) {
+            log.debug("Command {} is on cooldown in channel {}", command.definition.getName(), channelName);
+            return false;
+        }
+
+        int argumentsStart = nameEnd;
+        while (argumentsStart < message.length() && message.charAt(argumentsStart) == ' ') {
+            argumentsStart++;
+        }
+        ArgumentTokenizer tokenizer = command.definition.getTokenizer();
+        List<String> arguments = tokenizer != null ? tokenizer.tokenize(message.substring(argumentsStart)) : Collections.emptyList();
+
+        try {
+            command.definition.getHandler().handle(commandEvent, arguments);
+        } catch (Exception ex) {
+            log.error("Command handler for {} failed", command.definition.getName(), ex);
+        }
+        return true;
+    }
+
+    /**
+     * Node of the prefix trie, children are kept in small parallel arrays
+     */
+    private static final class PrefixNode {
+        private char[] keys = new char[0];
+        private PrefixNode[] children = new PrefixNode[0];
+        private String prefix;
+
+        private PrefixNode child(char c) {
+            final char[] keys = this.keys;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c)
+                    return children[i];
+            }
+            return null;
+        }
+
+        private PrefixNode getOrAddChild(char c) {
+            PrefixNode child = child(c);
+            if (child == null) {
+                int n = keys.length;
+                char[] newKeys = new char[n + 1];
+                PrefixNode[] newChildren = new PrefixNode[n + 1];
+                System.arraycopy(keys, 0, newKeys, 0, n);
+                System.arraycopy(children, 0, newChildren, 0, n);
+                newKeys[n] = c;
+                newChildren[n] = child = new PrefixNode();
+                keys = newKeys;
+                children = newChildren;
+            }
+            return child;
+        }
+
+        private PrefixNode copy() {
+            PrefixNode copy = new PrefixNode();
+            copy.keys = keys.clone();
+            copy.children = new PrefixNode[children.length];
+            for (int i = 0; i < children.length; i++) {
+                copy.children[i] = children[i].copy();
+            }
+            copy.prefix = prefix;
+            return copy;
+        }
+    }
+
+    /**
+     * A registered command with its cooldown state
+     */
+    private static final class RegisteredCommand {
+        private final ChatCommand definition;
+        private final long userCooldownNanos;
+        private final long channelCooldownNanos;
+        private final Map<String, Long> lastUseByChannel = new HashMap<>();
+        private final Map<String, Long> lastUseByUser = new HashMap<>();
+
+        private RegisteredCommand(ChatCommand definition) {
+            this.definition = definition;
+            this.userCooldownNanos = definition.getUserCooldown().toNanos();
+            this.channelCooldownNanos = definition.getChannelCooldown().toNanos();
+        }
+
+        private boolean isPermitted(Set<CommandPermission> permissions) {
+            CommandPermission required = definition.getRequiredPermission();
+            return required == null || required == CommandPermission.EVERYONE || (permissions != null && permissions.contains(required));
+        }
+
+        /**
+         * Checks both cooldowns and starts them if neither is active
+         */
+        private synchronized boolean tryAcquireCooldowns(String channelKey, String userKey) {
+            final long now = System.nanoTime();
+            if (isCoolingDown(lastUseByChannel, channelKey, channelCooldownNanos, now) || isCoolingDown(lastUseByUser, userKey, userCooldownNanos, now))
+                return false;
+
+            startCooldown(lastUseByChannel, channelKey, channelCooldownNanos, now);
+            startCooldown(lastUseByUser, userKey, userCooldownNanos, now);
+            return true;
+        }
+
+        private static boolean isCoolingDown(Map<String, Long> lastUse, String key, long cooldownNanos, long now) {
+            if (cooldownNanos <= 0 || key == null)
+                return false;
+
+            Long last = lastUse.get(key);
+            return last != null && now - last < cooldownNanos;
+        }
+
+        private static void startCooldown(Map<String, Long> lastUse, String key, long cooldownNanos, long now) {
+            if (cooldownNanos <= 0 || key == null)
+                return;
+
+            if (lastUse.size() >= COOLDOWN_PRUNE_THRESHOLD)
+                lastUse.values().removeIf(last -> now - last >= cooldownNanos);
+            lastUse.put(key, now);
+        }
+    }
+
+}
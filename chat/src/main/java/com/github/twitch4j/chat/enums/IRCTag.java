@@ -0,0 +1,152 @@
+package com.github.twitch4j.chat.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Well-known IRC tags sent by Twitch
+ * <p>
+ * Used to resolve tag keys without allocating a String for every tag of every message.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum IRCTag {
+    BADGE_INFO("badge-info"),
+    BADGES("badges"),
+    BAN_DURATION("ban-duration"),
+    BAN_REASON("ban-reason"),
+    BITS("bits"),
+    BROADCASTER_LANG("broadcaster-lang"),
+    CLIENT_NONCE("client-nonce"),
+    COLOR("color"),
+    DISPLAY_NAME("display-name"),
+    EMOTE_ONLY("emote-only"),
+    EMOTE_SETS("emote-sets"),
+    EMOTES("emotes"),
+    FLAGS("flags"),
+    FOLLOWERS_ONLY("followers-only"),
+    ID("id"),
+    LOGIN("login"),
+    MESSAGE_ID("message-id"),
+    MOD("mod"),
+    MSG_ID("msg-id"),
+    MSG_PARAM_CUMULATIVE_MONTHS("msg-param-cumulative-months"),
+    MSG_PARAM_DISPLAY_NAME("msg-param-displayName"),
+    MSG_PARAM_GIFT_MONTHS("msg-param-gift-months"),
+    MSG_PARAM_LOGIN("msg-param-login"),
+    MSG_PARAM_MASS_GIFT_COUNT("msg-param-mass-gift-count"),
+    MSG_PARAM_MONTHS("msg-param-months"),
+    MSG_PARAM_PROMO_GIFT_TOTAL("msg-param-promo-gift-total"),
+    MSG_PARAM_PROMO_NAME("msg-param-promo-name"),
+    MSG_PARAM_RECIPIENT_DISPLAY_NAME("msg-param-recipient-display-name"),
+    MSG_PARAM_RECIPIENT_ID("msg-param-recipient-id"),
+    MSG_PARAM_RECIPIENT_USER_NAME("msg-param-recipient-user-name"),
+    MSG_PARAM_RITUAL_NAME("msg-param-ritual-name"),
+    MSG_PARAM_SENDER_COUNT("msg-param-sender-count"),
+    MSG_PARAM_SENDER_LOGIN("msg-param-sender-login"),
+    MSG_PARAM_SENDER_NAME("msg-param-sender-name"),
+    MSG_PARAM_SHOULD_SHARE_STREAK("msg-param-should-share-streak"),
+    MSG_PARAM_STREAK_MONTHS("msg-param-streak-months"),
+    MSG_PARAM_SUB_PLAN("msg-param-sub-plan"),
+    MSG_PARAM_SUB_PLAN_NAME("msg-param-sub-plan-name"),
+    MSG_PARAM_THRESHOLD("msg-param-threshold"),
+    MSG_PARAM_VIEWER_COUNT("msg-param-viewerCount"),
+    R9K("r9k"),
+    ROOM_ID("room-id"),
+    SLOW("slow"),
+    SUBS_ONLY("subs-only"),
+    SUBSCRIBER("subscriber"),
+    SYSTEM_MSG("system-msg"),
+    TARGET_MSG_ID("target-msg-id"),
+    TARGET_USER_ID("target-user-id"),
+    THREAD_ID("thread-id"),
+    TMI_SENT_TS("tmi-sent-ts"),
+    TURBO("turbo"),
+    USER_ID("user-id"),
+    USER_TYPE("user-type");
+
+    /**
+     * Cached values, to avoid the array copy of values()
+     */
+    private static final IRCTag[] VALUES = values();
+
+    /**
+     * Tags by name
+     */
+    private static final Map<String, IRCTag> BY_NAME;
+
+    /**
+     * Tags by the length of their name
+     */
+    private static final IRCTag[][] BY_LENGTH;
+
+    /**
+     * Tag name, as sent by twitch
+     */
+    private final String tagName;
+
+    /**
+     * @return the number of well-known tags
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * Gets the well-known tag for the given name
+     *
+     * @param tagName tag name
+     * @return IRCTag, or null if the tag is unknown
+     */
+    public static IRCTag fromName(String tagName) {
+        return BY_NAME.get(tagName);
+    }
+
+    /**
+     * Resolves the well-known tag for a key inside of a larger string, without copying it
+     *
+     * @param raw   string containing the key
+     * @param start start of the key (inclusive)
+     * @param end   end of the key (exclusive)
+     * @return IRCTag, or null if the tag is unknown
+     */
+    public static IRCTag fromName(String raw, int start, int end) {
+        final int length = end - start;
+        if (length >= BY_LENGTH.length)
+            return null;
+
+        for (IRCTag tag : BY_LENGTH[length]) {
+            if (raw.regionMatches(start, tag.tagName, 0, length))
+                return tag;
+        }
+        return null;
+    }
+
+    static {
+        Map<String, IRCTag> byName = new HashMap<>(VALUES.length * 2);
+        int maxLength = 0;
+        for (IRCTag tag : VALUES) {
+            byName.put(tag.tagName, tag);
+            maxLength = Math.max(maxLength, tag.tagName.length());
+        }
+        BY_NAME = byName;
+
+        List<List<IRCTag>> byLength = new ArrayList<>(maxLength + 1);
+        for (int i = 0; i <= maxLength; i++) {
+            byLength.add(new ArrayList<>(2));
+        }
+        for (IRCTag tag : VALUES) {
+            byLength.get(tag.tagName.length()).add(tag);
+        }
+
+        BY_LENGTH = new IRCTag[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            BY_LENGTH[i] = byLength.get(i).toArray(new IRCTag[0]);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.twitch4j.chat.enums;
+
+/**
+ * Priority lanes of the outbound chat queue, in the order they are served
+ * <p>
+ * A lane is only served when all lanes before it are empty or waiting for their rate limit.
+ */
+public enum OutboundLane {
+
+    /**
+     * Joins, parts and raw irc commands
+     */
+    SYSTEM,
+
+    /**
+     * Timeouts, bans and unbans
+     */
+    MODERATION,
+
+    /**
+     * Whispers
+     */
+    WHISPER,
+
+    /**
+     * Channel messages
+     */
+    CHAT
+
+}
@@ -0,0 +1,30 @@
+package com.github.twitch4j.chat.enums;
+
+/**
+ * What happens when a command is sent while its outbound queue is full
+ * <p>
+ * Dropped commands complete their future with a {@link com.github.twitch4j.chat.exception.ChatQueueFullException} and are counted per lane.
+ */
+public enum QueueOverflowPolicy {
+
+    /**
+     * Drops the new command
+     */
+    DROP_NEWEST,
+
+    /**
+     * Drops the oldest queued command to make room for the new one
+     */
+    DROP_OLDEST,
+
+    /**
+     * Blocks the caller until there is room or the overflow timeout expires, then drops the new command
+     */
+    BLOCK,
+
+    /**
+     * Throws a {@link com.github.twitch4j.chat.exception.ChatQueueFullException} to the caller
+     */
+    REJECT
+
+}
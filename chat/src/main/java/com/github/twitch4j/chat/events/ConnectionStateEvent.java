@@ -0,0 +1,53 @@
+package com.github.twitch4j.chat.events;
+
+import com.github.twitch4j.chat.enums.TMIConnectionState;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * This event gets called when the connection state of the chat changes.
+ */
+@Value
+@Getter
+@EqualsAndHashCode(callSuper = false)
+public class ConnectionStateEvent extends TwitchEvent {
+
+    /**
+     * State before the change
+     */
+    private TMIConnectionState previousState;
+
+    /**
+     * State after the change
+     */
+    private TMIConnectionState state;
+
+    /**
+     * Time spent in the previous state
+     */
+    private Duration previousStateDuration;
+
+    /**
+     * Consecutive failed connection attempts, reset once a connection is established
+     */
+    private int failedAttempts;
+
+    /**
+     * Event Constructor
+     *
+     * @param previousState         State before the change.
+     * @param state                 State after the change.
+     * @param previousStateDuration Time spent in the previous state.
+     * @param failedAttempts        Consecutive failed connection attempts.
+     */
+    public ConnectionStateEvent(TMIConnectionState previousState, TMIConnectionState state, Duration previousStateDuration, int failedAttempts) {
+        this.previousState = previousState;
+        this.state = state;
+        this.previousStateDuration = previousStateDuration;
+        this.failedAttempts = failedAttempts;
+    }
+
+}
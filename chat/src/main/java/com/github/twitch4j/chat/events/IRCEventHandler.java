@@ -3,17 +3,23 @@ package com.github.twitch4j.chat.events;
 import com.github.philippheuer.events4j.core.EventManager;
 import com.github.philippheuer.events4j.simple.SimpleEventHandler;
 import com.github.twitch4j.chat.TwitchChat;
+import com.github.twitch4j.chat.enums.IRCTag;
 import com.github.twitch4j.chat.events.channel.*;
 import com.github.twitch4j.common.enums.SubscriptionPlan;
 import com.github.twitch4j.common.events.domain.EventChannel;
 import com.github.twitch4j.common.events.domain.EventUser;
 import com.github.twitch4j.common.events.user.PrivateMessageEvent;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.Month;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static com.github.twitch4j.common.util.TwitchUtils.ANONYMOUS_CHEERER;
 import static com.github.twitch4j.common.util.TwitchUtils.ANONYMOUS_GIFTER;
@@ -22,7 +28,10 @@ import static com.github.twitch4j.common.util.TwitchUtils.ANONYMOUS_GIFTER;
  * IRC Event Handler
  *
  * Listens for any irc triggered events and created the corresponding events for the EventDispatcher.
+ * <p>
+ * Messages are routed by their command (and msg-id tag), use {@link #registerRoute(String, Consumer)} to handle additional messages.
  */
+@Slf4j
 @Getter
 public class IRCEventHandler {
 
@@ -36,35 +45,120 @@ public class IRCEventHandler {
      */
     private final EventManager eventManager;
 
+    /**
+     * Routes by irc command, handlers are looked up once per message instead of every handler checking the command itself
+     */
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
     /**
      * Constructor
      *
      * @param twitchChat The Twitch Chat instance
      */
     public IRCEventHandler(TwitchChat twitchChat) {
+        this(twitchChat, twitchChat.getEventManager());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param twitchChat   The Twitch Chat instance, may be null if the handler is used without a chat connection (e.g. to replay messages)
+     * @param eventManager The event manager the parsed events are published to
+     */
+    public IRCEventHandler(TwitchChat twitchChat, EventManager eventManager) {
         this.twitchChat = twitchChat;
-        this.eventManager = twitchChat.getEventManager();
-
-        // register event handlers
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onChannelMessage);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onWhisper);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onBitsBadgeTier);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onChannelCheer);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onChannelSubscription);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onClearChat);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onChannnelClientJoinEvent);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onChannnelClientLeaveEvent);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onChannelModChange);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onNoticeEvent);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onHostOnEvent);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onHostOffEvent);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onChannelState);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onGiftReceived);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onPayForward);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onRaid);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onUnraid);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onRewardGift);
-        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onRitual);
+        this.eventManager = eventManager;
+
+        // register routes
+        registerRoute("PRIVMSG", this::onChannelMessage);
+        registerRoute("PRIVMSG", this::onChannelCheer);
+        registerRoute("WHISPER", this::onWhisper);
+        registerRoute("CLEARCHAT", this::onClearChat);
+        registerRoute("JOIN", this::onChannnelClientJoinEvent);
+        registerRoute("PART", this::onChannnelClientLeaveEvent);
+        registerRoute("MODE", this::onChannelModChange);
+        registerRoute("ROOMSTATE", this::onChannelState);
+        registerRoute("NOTICE", this::onNoticeEvent);
+        registerRoute("NOTICE", "host_on", this::onHostOnEvent);
+        registerRoute("NOTICE", "host_off", this::onHostOffEvent);
+        registerRoute("USERNOTICE", "bitsbadgetier", this::onBitsBadgeTier);
+        for (String msgId : new String[] { "sub", "resub", "subgift", "anonsubgift", "submysterygift", "anonsubmysterygift", "giftpaidupgrade", "anongiftpaidupgrade", "primepaidupgrade", "extendsub" }) {
+            registerRoute("USERNOTICE", msgId, this::onChannelSubscription);
+        }
+        registerRoute("USERNOTICE", "primecommunitygiftreceived", this::onGiftReceived);
+        registerRoute("USERNOTICE", "standardpayforward", this::onPayForward);
+        registerRoute("USERNOTICE", "communitypayforward", this::onPayForward);
+        registerRoute("USERNOTICE", "raid", this::onRaid);
+        registerRoute("USERNOTICE", "unraid", this::onUnraid);
+        registerRoute("USERNOTICE", "rewardgift", this::onRewardGift);
+        registerRoute("USERNOTICE", "ritual", this::onRitual);
+
+        // register event handler
+        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(IRCMessageEvent.class, this::onIRCMessage);
+    }
+
+    /**
+     * Registers a handler for all messages with the given irc command
+     *
+     * @param commandType irc command, e.g. PRIVMSG
+     * @param handler     the handler
+     */
+    public void registerRoute(String commandType, Consumer<IRCMessageEvent> handler) {
+        routes.computeIfAbsent(commandType, c -> new Route()).handlers.add(handler);
+    }
+
+    /**
+     * Registers a handler for all messages with the given irc command and msg-id tag
+     *
+     * @param commandType irc command, e.g. USERNOTICE
+     * @param msgId       value of the msg-id tag (case-insensitive), e.g. raid
+     * @param handler     the handler
+     */
+    public void registerRoute(String commandType, String msgId, Consumer<IRCMessageEvent> handler) {
+        routes.computeIfAbsent(commandType, c -> new Route()).byMessageId
+            .computeIfAbsent(msgId.toLowerCase(Locale.ROOT), m -> new CopyOnWriteArrayList<>())
+            .add(handler);
+    }
+
+    /**
+     * Dispatches an irc message to the handlers registered for its command (and msg-id)
+     *
+     * @param event IRCMessageEvent
+     */
+    public void onIRCMessage(IRCMessageEvent event) {
+        final String commandType = event.getCommandType();
+        final Route route = commandType != null ? routes.get(commandType) : null;
+        if (route == null)
+            return;
+
+        dispatch(route.handlers, event);
+
+        if (!route.byMessageId.isEmpty()) {
+            String msgId = event.getTagView().get(IRCTag.MSG_ID);
+            if (msgId != null) {
+                List<Consumer<IRCMessageEvent>> handlers = route.byMessageId.get(msgId.toLowerCase(Locale.ROOT));
+                if (handlers != null)
+                    dispatch(handlers, event);
+            }
+        }
+    }
+
+    private void dispatch(List<Consumer<IRCMessageEvent>> handlers, IRCMessageEvent event) {
+        for (Consumer<IRCMessageEvent> handler : handlers) {
+            try {
+                handler.accept(event);
+            } catch (Exception ex) {
+                log.error("Failed to handle irc message: {}", event.getRawMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Handlers of an irc command
+     */
+    private static final class Route {
+        private final List<Consumer<IRCMessageEvent>> handlers = new CopyOnWriteArrayList<>();
+        private final Map<String, List<Consumer<IRCMessageEvent>>> byMessageId = new ConcurrentHashMap<>();
     }
 
     /**
@@ -73,7 +167,7 @@ public class IRCEventHandler {
      */
     public void onChannelMessage(IRCMessageEvent event) {
         if(event.getCommandType().equals("PRIVMSG")) {
-            if(!event.getTags().containsKey("bits") && event.getMessage().isPresent()) {
+            if(!event.getTagView().contains(IRCTag.BITS) && event.getMessage().isPresent()) {
                 // Load Info
                 EventChannel channel = event.getChannel();
                 EventUser user = event.getUser();
@@ -110,13 +204,12 @@ public class IRCEventHandler {
      * @param event the {@link IRCMessageEvent} to be checked
      */
     public void onBitsBadgeTier(IRCMessageEvent event) {
-        if ("USERNOTICE".equals(event.getCommandType()) && "bitsbadgetier".equalsIgnoreCase(event.getTags().get("msg-id"))) {
+        if ("USERNOTICE".equals(event.getCommandType()) && "bitsbadgetier".equalsIgnoreCase(event.getTagView().get(IRCTag.MSG_ID))) {
             // Load Info
             EventChannel channel = event.getChannel();
             EventUser user = event.getUser();
 
-            String thresholdParam = event.getTags().get("msg-param-threshold");
-            int bitsThreshold = thresholdParam != null ? Integer.parseInt(thresholdParam) : -1;
+            int bitsThreshold = event.getTagView().getInt(IRCTag.MSG_PARAM_THRESHOLD, -1);
 
             // Dispatch Event
             eventManager.publish(new BitsBadgeEarnedEvent(channel, user, bitsThreshold));
@@ -129,12 +222,12 @@ public class IRCEventHandler {
      */
     public void onChannelCheer(IRCMessageEvent event) {
         if(event.getCommandType().equals("PRIVMSG")) {
-            if(event.getTags().containsKey("bits")) {
+            if(event.getTagView().contains(IRCTag.BITS)) {
                 // Load Info
                 EventChannel channel = event.getChannel();
                 EventUser user = event.getUser();
                 String message = event.getMessage().orElse("");
-                Integer bits = Integer.parseInt(event.getTags().get("bits"));
+                int bits = event.getTagView().getInt(IRCTag.BITS, 0);
 
                 // Dispatch Event
                 eventManager.publish(new CheerEvent(channel, user != null ? user : ANONYMOUS_CHEERER, message, bits));
@@ -149,7 +242,7 @@ public class IRCEventHandler {
      */
     public void onChannelSubscription(IRCMessageEvent event) {
         final String msgId;
-        if (event.getCommandType().equals("USERNOTICE") && (msgId = event.getTags().get("msg-id")) != null) {
+        if (event.getCommandType().equals("USERNOTICE") && (msgId = event.getTagView().get(IRCTag.MSG_ID)) != null) {
             EventChannel channel = event.getChannel();
 
             // Sub
@@ -157,7 +250,7 @@ public class IRCEventHandler {
                 // Load Info
                 EventUser user = event.getUser();
                 String subPlan = event.getTagValue("msg-param-sub-plan").get();
-                int cumulativeMonths = event.getTags().containsKey("msg-param-cumulative-months") ? Integer.parseInt(event.getTags().get("msg-param-cumulative-months")) : 0;
+                int cumulativeMonths = event.getTagView().getInt(IRCTag.MSG_PARAM_CUMULATIVE_MONTHS, 0);
                 //according to the Twitch docs, msg-param-months is used only for giftsubs, which are handled below
 
                 // twitch sometimes returns 0 months for new subs
@@ -167,7 +260,7 @@ public class IRCEventHandler {
 
                 // check user's sub streak
                 // Twitch API specifies that 0 is returned if the user chooses not to share their streak
-                Integer streak = event.getTags().containsKey("msg-param-streak-months") ? Integer.parseInt(event.getTags().get("msg-param-streak-months")) : 0;
+                int streak = event.getTagView().getInt(IRCTag.MSG_PARAM_STREAK_MONTHS, 0);
 
                 // Dispatch Event
                 eventManager.publish(new SubscriptionEvent(channel, user, subPlan, event.getMessage(), cumulativeMonths, false, null, streak, null));
@@ -178,7 +271,7 @@ public class IRCEventHandler {
                 EventUser user = new EventUser(event.getTagValue("msg-param-recipient-id").get(), event.getTagValue("msg-param-recipient-user-name").get());
                 EventUser giftedBy = event.getUser();
                 String subPlan = event.getTagValue("msg-param-sub-plan").get();
-                int subStreak = event.getTags().containsKey("msg-param-months") ? Integer.parseInt(event.getTags().get("msg-param-months")) : 1;
+                int subStreak = event.getTagView().getInt(IRCTag.MSG_PARAM_MONTHS, 1);
 
                 // twitch sometimes returns 0 months for new subs
                 if (subStreak == 0) {
@@ -186,8 +279,7 @@ public class IRCEventHandler {
                 }
 
                 // Handle multi-month gifts
-                String giftMonthsParam = event.getTags().get("msg-param-gift-months");
-                int giftMonths = giftMonthsParam != null ? Integer.parseInt(giftMonthsParam) : 1;
+                int giftMonths = event.getTagView().getInt(IRCTag.MSG_PARAM_GIFT_MONTHS, 1);
 
                 // Dispatch Event
                 eventManager.publish(new SubscriptionEvent(channel, user, subPlan, event.getMessage(), subStreak, true, giftedBy != null ? giftedBy : ANONYMOUS_GIFTER, 0, giftMonths));
@@ -197,8 +289,8 @@ public class IRCEventHandler {
                 // Load Info
                 EventUser user = event.getUser();
                 String subPlan = event.getTagValue("msg-param-sub-plan").get();
-                Integer subsGifted = (event.getTags().containsKey("msg-param-mass-gift-count")) ? Integer.parseInt(event.getTags().get("msg-param-mass-gift-count")) : 0;
-                Integer subsGiftedTotal = (event.getTags().containsKey("msg-param-sender-count")) ? Integer.parseInt(event.getTags().get("msg-param-sender-count")) : 0;
+                int subsGifted = event.getTagView().getInt(IRCTag.MSG_PARAM_MASS_GIFT_COUNT, 0);
+                int subsGiftedTotal = event.getTagView().getInt(IRCTag.MSG_PARAM_SENDER_COUNT, 0);
 
                 // Dispatch Event
                 eventManager.publish(new GiftSubscriptionsEvent(channel, user != null ? user : ANONYMOUS_GIFTER, subPlan, subsGifted, subsGiftedTotal));
@@ -249,7 +341,7 @@ public class IRCEventHandler {
      * @param event the {@link IRCMessageEvent} to be checked
      */
     public void onGiftReceived(IRCMessageEvent event) {
-        if ("USERNOTICE".equals(event.getCommandType()) && "primecommunitygiftreceived".equalsIgnoreCase(event.getTags().get("msg-id"))) {
+        if ("USERNOTICE".equals(event.getCommandType()) && "primecommunitygiftreceived".equalsIgnoreCase(event.getTagView().get(IRCTag.MSG_ID))) {
             // Load Info
             EventChannel channel = event.getChannel();
             EventUser user = event.getUser();
@@ -268,7 +360,7 @@ public class IRCEventHandler {
      */
     public void onPayForward(IRCMessageEvent event) {
         String msgId;
-        if ("USERNOTICE".equals(event.getCommandType()) && (msgId = event.getTags().get("msg-id")) != null
+        if ("USERNOTICE".equals(event.getCommandType()) && (msgId = event.getTagView().get(IRCTag.MSG_ID)) != null
             && (msgId.equalsIgnoreCase("standardpayforward") || msgId.equalsIgnoreCase("communitypayforward"))) {
             // Load Info
             EventChannel channel = event.getChannel();
@@ -298,16 +390,10 @@ public class IRCEventHandler {
      * @param event IRCMessageEvent
      */
     public void onRaid(IRCMessageEvent event) {
-        if (event.getCommandType().equals("USERNOTICE") && event.getTags().containsKey("msg-id") && event.getTags().get("msg-id").equalsIgnoreCase("raid")) {
+        if (event.getCommandType().equals("USERNOTICE") && "raid".equalsIgnoreCase(event.getTagView().get(IRCTag.MSG_ID))) {
             EventChannel channel = event.getChannel();
             EventUser raider = event.getUser();
-            Integer viewers;
-            try {
-                viewers = Integer.parseInt(event.getTags().get("msg-param-viewerCount"));
-            }
-            catch(NumberFormatException ex) {
-                viewers = 0;
-            }
+            int viewers = event.getTagView().getInt(IRCTag.MSG_PARAM_VIEWER_COUNT, 0);
             eventManager.publish(new RaidEvent(channel, raider, viewers));
         }
     }
@@ -318,7 +404,7 @@ public class IRCEventHandler {
      * @param event the {@link IRCMessageEvent} to be checked
      */
     public void onUnraid(IRCMessageEvent event) {
-        if ("USERNOTICE".equals(event.getCommandType()) && "unraid".equalsIgnoreCase(event.getTags().get("msg-id"))) {
+        if ("USERNOTICE".equals(event.getCommandType()) && "unraid".equalsIgnoreCase(event.getTagView().get(IRCTag.MSG_ID))) {
             eventManager.publish(new RaidCancellationEvent(event.getChannel()));
         }
     }
@@ -329,7 +415,7 @@ public class IRCEventHandler {
      * @param event the {@link IRCMessageEvent} to be checked
      */
     public void onRewardGift(IRCMessageEvent event) {
-        if ("USERNOTICE".equals(event.getCommandType()) && "rewardgift".equalsIgnoreCase(event.getTags().get("msg-id"))) {
+        if ("USERNOTICE".equals(event.getCommandType()) && "rewardgift".equalsIgnoreCase(event.getTagView().get(IRCTag.MSG_ID))) {
             // Load Info
             EventChannel channel = event.getChannel();
             EventUser user = event.getUser();
@@ -356,7 +442,7 @@ public class IRCEventHandler {
      * @param event the {@link IRCMessageEvent} to be checked
      */
     public void onRitual(IRCMessageEvent event) {
-        if ("USERNOTICE".equals(event.getCommandType()) && "ritual".equalsIgnoreCase(event.getTags().get("msg-id"))) {
+        if ("USERNOTICE".equals(event.getCommandType()) && "ritual".equalsIgnoreCase(event.getTagView().get(IRCTag.MSG_ID))) {
             // Load Info
             EventChannel channel = event.getChannel();
             EventUser user = event.getUser();
@@ -374,13 +460,12 @@ public class IRCEventHandler {
     public void onClearChat(IRCMessageEvent event) {
         if (event.getCommandType().equals("CLEARCHAT")) {
             EventChannel channel = event.getChannel();
-            if (event.getTags().containsKey("target-user-id")) { // ban or timeout
-                if (event.getTags().containsKey("ban-duration")) { // timeout
+            if (event.getTagView().contains(IRCTag.TARGET_USER_ID)) { // ban or timeout
+                if (event.getTagView().contains(IRCTag.BAN_DURATION)) { // timeout
                     // Load Info
                     EventUser user = event.getTargetUser();
                     Integer duration = Integer.parseInt(event.getTagValue("ban-duration").get());
-                    String banReason = event.getTags().get("ban-reason") != null ? event.getTags().get("ban-reason").toString() : "";
-                    banReason = banReason.replaceAll("\\\\s", " ");
+                    String banReason = event.getTagValue("ban-reason").orElse("");
                     UserTimeoutEvent timeoutEvent = new UserTimeoutEvent(channel, user, duration, banReason);
 
                     // Dispatch Event
@@ -389,7 +474,6 @@ public class IRCEventHandler {
                     // Load Info
                     EventUser user = event.getTargetUser();
                     String banReason = event.getTagValue("ban-reason").orElse("");
-                    banReason = banReason.replaceAll("\\\\s", " ");
                     UserBanEvent banEvent = new UserBanEvent(channel, user, banReason);
 
                     // Dispatch Event
@@ -4,9 +4,13 @@ import com.github.twitch4j.chat.events.AbstractChannelEvent;
 import com.github.twitch4j.common.enums.CommandPermission;
 import com.github.twitch4j.common.events.domain.EventChannel;
 import com.github.twitch4j.common.events.domain.EventUser;
+import com.github.twitch4j.chat.enums.IRCTag;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 
 import java.util.Set;
 
@@ -38,6 +42,15 @@ public class ChannelMessageEvent extends AbstractChannelEvent {
 	 */
 	private Set<CommandPermission> permissions;
 
+	/**
+	 * Emote ranges, decoded on first access
+	 */
+	@NonFinal
+	@Getter(AccessLevel.NONE)
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
+	private transient volatile EmoteRanges emoteRanges;
+
 	/**
 	 * Event Constructor
 	 *
@@ -54,4 +67,20 @@ public class ChannelMessageEvent extends AbstractChannelEvent {
 		this.message = message;
 		this.permissions = permissions;
 	}
+
+	/**
+	 * Gets the emotes of the message
+	 * <p>
+	 * The emotes tag is decoded on the first call and cached for this message.
+	 *
+	 * @return EmoteRanges, empty if the message has no emotes
+	 */
+	public EmoteRanges getEmoteRanges() {
+		EmoteRanges ranges = emoteRanges;
+		if (ranges == null) {
+			String emotes = messageEvent != null ? messageEvent.getTagView().get(IRCTag.EMOTES) : null;
+			emoteRanges = ranges = EmoteRanges.parse(emotes, message);
+		}
+		return ranges;
+	}
 }
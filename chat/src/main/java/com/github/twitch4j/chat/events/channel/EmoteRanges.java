@@ -0,0 +1,377 @@
+package com.github.twitch4j.chat.events.channel;
+
+/**
+ * Emote positions of a chat message, decoded from the {@code emotes} tag ({@code id:0-4,6-10/id2:12-16})
+ * <p>
+ * Twitch counts the positions in code points, so they are translated into UTF-16 offsets once while decoding:
+ * {@link #getStart(int)} and {@link #getEnd(int)} are the code point positions as sent by twitch,
+ * {@link #getCharStart(int)} and {@link #getCharEnd(int)} can be used with {@link String#substring(int, int)}.
+ * Ranges are sorted by position and kept in packed arrays, ranges that overlap or exceed the message are dropped.
+ * <p>
+ * Renderers can walk the message as a sequence of text and emote segments with {@link #segments()}, without copying the message.
+ */
+public final class EmoteRanges {
+
+    /**
+     * Emote ranges of a message without emotes
+     */
+    public static final EmoteRanges EMPTY = new EmoteRanges("", new String[0], new int[0], 0);
+
+    /**
+     * Message the ranges refer to
+     */
+    private final String message;
+
+    /**
+     * Emote id per range, ranges of the same emote share the instance
+     */
+    private final String[] ids;
+
+    /**
+     * Four entries per range: code point start, code point end, char start and char end (all ends exclusive)
+     */
+    private final int[] ranges;
+
+    /**
+     * Amount of ranges
+     */
+    private final int size;
+
+    private EmoteRanges(String message, String[] ids, int[] ranges, int size) {
+        this.message = message;
+        this.ids = ids;
+        this.ranges = ranges;
+        this.size = size;
+    }
+
+    /**
+     * Decodes the emotes tag of a message
+     *
+     * @param emotes  value of the emotes tag, may be null
+     * @param message message text the positions refer to
+     * @return the emote ranges, {@link #EMPTY} if there are none
+     */
+    public static EmoteRanges parse(String emotes, String message) {
+        if (emotes == null || emotes.isEmpty() || message == null || message.isEmpty())
+            return EMPTY;
+
+        // upper bound of the amount of ranges
+        int capacity = 1;
+        for (int i = 0; i < emotes.length(); i++) {
+            char c = emotes.charAt(i);
+            if (c == ',' || c == '/')
+                capacity++;
+        }
+
+        String[] ids = new String[capacity];
+        int[] ranges = new int[capacity << 2];
+        int size = 0;
+
+        final int length = emotes.length();
+        int groupStart = 0;
+        while (groupStart < length) {
+            int groupEnd = emotes.indexOf('/', groupStart);
+            if (groupEnd < 0)
+                groupEnd = length;
+
+            int colon = emotes.indexOf(':', groupStart);
+            if (colon > groupStart && colon < groupEnd) {
+                String id = emotes.substring(groupStart, colon);
+                int rangeStart = colon + 1;
+                while (rangeStart < groupEnd) {
+                    int rangeEnd = emotes.indexOf(',', rangeStart);
+                    if (rangeEnd < 0 || rangeEnd > groupEnd)
+                        rangeEnd = groupEnd;
+
+                    int dash = emotes.indexOf('-', rangeStart);
+                    if (dash > rangeStart && dash < rangeEnd) {
+                        int start = parseInt(emotes, rangeStart, dash);
+                        int end = parseInt(emotes, dash + 1, rangeEnd);
+                        if (start >= 0 && end >= start) {
+                            ids[size] = id;
+                            ranges[size << 2] = start;
+                            ranges[size << 2 | 1] = end + 1;
+                            size++;
+                        }
+                    }
+                    rangeStart = rangeEnd + 1;
+                }
+            }
+            groupStart = groupEnd + 1;
+        }
+
+        sort(ids, ranges, size);
+        size = resolveOffsets(message, ids, ranges, size);
+        return size == 0 ? EMPTY : new EmoteRanges(message, ids, ranges, size);
+    }
+
+    /**
+     * @return the amount of emote ranges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return whether the message contains no emotes
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index range index
+     * @return the emote id
+     */
+    public String getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index range index
+     * @return the start of the emote in code points (inclusive)
+     */
+    public int getStart(int index) {
+        checkIndex(index);
+        return ranges[index << 2];
+    }
+
+    /**
+     * @param index range index
+     * @return the end of the emote in code points (exclusive)
+     */
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ranges[index << 2 | 1];
+    }
+
+    /**
+     * @param index range index
+     * @return the start of the emote as UTF-16 offset into the message (inclusive)
+     */
+    public int getCharStart(int index) {
+        checkIndex(index);
+        return ranges[index << 2 | 2];
+    }
+
+    /**
+     * @param index range index
+     * @return the end of the emote as UTF-16 offset into the message (exclusive)
+     */
+    public int getCharEnd(int index) {
+        checkIndex(index);
+        return ranges[index << 2 | 3];
+    }
+
+    /**
+     * @param index range index
+     * @return the text of the emote, e.g. "Kappa"
+     */
+    public String getText(int index) {
+        return message.substring(getCharStart(index), getCharEnd(index));
+    }
+
+    /**
+     * Counts how often an emote is used
+     *
+     * @param id emote id
+     * @return the amount of ranges with this id
+     */
+    public int count(String id) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i].equals(id))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return a new cursor over the text and emote segments of the message
+     */
+    public Segments segments() {
+        return new Segments();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("EmoteRanges[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(ids[i]).append(':').append(ranges[i << 2]).append('-').append(ranges[i << 2 | 1] - 1);
+        }
+        return sb.append(']').toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    /**
+     * Cursor over the segments of a message: runs of text and single emotes, in order
+     * <p>
+     * The cursor only tracks offsets into the message, use {@link #appendTo(StringBuilder)} to copy a segment without an intermediate string.
+     */
+    public final class Segments {
+
+        private int position;
+
+        private int nextRange;
+
+        private int start;
+
+        private int end;
+
+        private int range = -1;
+
+        private Segments() {
+        }
+
+        /**
+         * Advances to the next segment
+         *
+         * @return false if the end of the message has been reached
+         */
+        public boolean next() {
+            if (position >= message.length())
+                return false;
+
+            start = position;
+            if (nextRange < size && ranges[nextRange << 2 | 2] == position) {
+                range = nextRange++;
+                end = ranges[range << 2 | 3];
+            } else {
+                range = -1;
+                end = nextRange < size ? ranges[nextRange << 2 | 2] : message.length();
+            }
+            position = end;
+            return true;
+        }
+
+        /**
+         * @return whether the current segment is an emote
+         */
+        public boolean isEmote() {
+            return range >= 0;
+        }
+
+        /**
+         * @return the id of the current emote, null for text
+         */
+        public String getEmoteId() {
+            return range >= 0 ? ids[range] : null;
+        }
+
+        /**
+         * @return the start of the current segment as UTF-16 offset into the message (inclusive)
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return the end of the current segment as UTF-16 offset into the message (exclusive)
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * Appends the current segment
+         *
+         * @param sb target
+         * @return the target
+         */
+        public StringBuilder appendTo(StringBuilder sb) {
+            return sb.append(message, start, end);
+        }
+
+        /**
+         * @return a copy of the current segment
+         */
+        public String getText() {
+            return message.substring(start, end);
+        }
+
+    }
+
+    /**
+     * Parses a non-negative decimal number
+     *
+     * @return the number, or -1 if it is not a number
+     */
+    private static int parseInt(String s, int start, int end) {
+        if (start >= end || end - start > 9)
+            return -1;
+
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    /**
+     * Insertion sort by start position, messages rarely contain more than a handful of emotes
+     */
+    private static void sort(String[] ids, int[] ranges, int size) {
+        for (int i = 1; i < size; i++) {
+            String id = ids[i];
+            int start = ranges[i << 2], end = ranges[i << 2 | 1];
+            int j = i - 1;
+            while (j >= 0 && ranges[j << 2] > start) {
+                ids[j + 1] = ids[j];
+                ranges[(j + 1) << 2] = ranges[j << 2];
+                ranges[(j + 1) << 2 | 1] = ranges[j << 2 | 1];
+                j--;
+            }
+            ids[j + 1] = id;
+            ranges[(j + 1) << 2] = start;
+            ranges[(j + 1) << 2 | 1] = end;
+        }
+    }
+
+    /**
+     * Translates the code point positions of the sorted ranges into UTF-16 offsets in a single pass over the message,
+     * dropping ranges that overlap their predecessor or exceed the message
+     *
+     * @return the amount of remaining ranges
+     */
+    private static int resolveOffsets(String message, String[] ids, int[] ranges, int size) {
+        final int length = message.length();
+        int codePoint = 0, offset = 0, kept = 0, previousEnd = 0;
+        for (int i = 0; i < size; i++) {
+            int start = ranges[i << 2], end = ranges[i << 2 | 1];
+            if (start < previousEnd)
+                continue;
+
+            while (codePoint < start && offset < length) {
+                offset += Character.charCount(message.codePointAt(offset));
+                codePoint++;
+            }
+            int charStart = offset;
+            while (codePoint < end && offset < length) {
+                offset += Character.charCount(message.codePointAt(offset));
+                codePoint++;
+            }
+            if (codePoint < end)
+                break; // this and all following ranges exceed the message
+
+            ids[kept] = ids[i];
+            ranges[kept << 2] = start;
+            ranges[kept << 2 | 1] = end;
+            ranges[kept << 2 | 2] = charStart;
+            ranges[kept << 2 | 3] = offset;
+            kept++;
+            previousEnd = end;
+        }
+        return kept;
+    }
+
+}
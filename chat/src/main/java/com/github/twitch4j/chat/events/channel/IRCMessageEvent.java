@@ -1,5 +1,6 @@
 package com.github.twitch4j.chat.events.channel;
 
+import com.github.twitch4j.chat.enums.IRCTag;
 import com.github.twitch4j.chat.events.TwitchEvent;
 import com.github.twitch4j.common.enums.CommandPermission;
 import com.github.twitch4j.common.events.domain.EventChannel;
@@ -9,8 +10,6 @@ import lombok.*;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This event gets called when we receive a raw irc message.
@@ -23,13 +22,15 @@ public class IRCMessageEvent extends TwitchEvent {
 
 	/**
 	 * Tags
+	 * <p>
+	 * Values are lazily read from the raw message and are not unescaped, see {@link #getTagValue(String)}
 	 */
-	private Map<String, String> tags = new HashMap<>();
+	private Map<String, String> tags = IRCMessageTags.EMPTY;
 
     /**
      * Raw Tags
      */
-    private Map<String, Object> rawTags = new HashMap<>();
+    private Map<String, Object> rawTags = Collections.unmodifiableMap(IRCMessageTags.EMPTY);
 
 	/**
 	 * Badges
@@ -62,9 +63,9 @@ public class IRCMessageEvent extends TwitchEvent {
 	private Optional<String> payload = Optional.empty();
 
 	/**
-	 * Client Permissions
+	 * Client Permissions, resolved from the badges on first access
 	 */
-	private final Set<CommandPermission> clientPermissions = EnumSet.noneOf(CommandPermission.class);
+	private volatile Set<CommandPermission> clientPermissions;
 
 	/**
 	 * RAW Message
@@ -80,9 +81,20 @@ public class IRCMessageEvent extends TwitchEvent {
 		this.rawMessage = rawMessage;
 
 		this.parseRawMessage();
+	}
 
-		// permissions
-		getClientPermissions().addAll(TwitchUtils.getPermissionsFromTags(getRawTags()));
+	/**
+	 * Gets the permissions of the user that sent this message
+	 * <p>
+	 * Resolved from the badges tag on first access, through the cache of {@link TwitchUtils#getPermissionsFromBadges(String)}.
+	 *
+	 * @return an unmodifiable set of permissions
+	 */
+	public Set<CommandPermission> getClientPermissions() {
+		Set<CommandPermission> permissions = clientPermissions;
+		if (permissions == null)
+			clientPermissions = permissions = TwitchUtils.getPermissionsFromBadges(getTagView().get(IRCTag.BADGES));
+		return permissions;
 	}
 
 	/**
@@ -95,39 +107,120 @@ public class IRCMessageEvent extends TwitchEvent {
 
 	/**
 	 * Parse RAW Message
+	 * <p>
+	 * Splits the line into tags, prefix, command, channel and trailing payload in a single left-to-right scan.
+	 * The accepted line shapes are the same as the patterns that were used previously:
+	 * {@code [@tags] prefix COMMAND [#channel] [payload]} and, for whispers, {@code [@tags] :user!ident COMMAND [target] payload}.
 	 */
-	@SuppressWarnings("unchecked")
 	private void parseRawMessage() {
-		// Parse Message
-		Pattern pattern = Pattern.compile("^(?:@(?<tags>.+?) )?(?<clientName>.+?)(?: (?<command>[A-Z0-9]+) )(?:#(?<channel>.*?) ?)?(?<payload>[:\\-\\+](?<message>.+))?$");
-		Matcher matcher = pattern.matcher(rawMessage);
-
-		if(matcher.matches()) {
-			// Parse Tags
-			setTags(parseTags(matcher.group("tags")));
-            setRawTags(parseTags(matcher.group("tags")));
-			setClientName(parseClientName(matcher.group("clientName")));
-			setCommandType(matcher.group("command"));
-			setChannelName(Optional.ofNullable(matcher.group("channel")));
-			setMessage(Optional.ofNullable(matcher.group("message")));
-			setPayload(Optional.ofNullable(matcher.group("payload")));
+		final String raw = rawMessage;
+		final int length = raw.length();
+		int pos = 0;
+
+		// Tags
+		int tagsEnd = 1;
+		if (length > 0 && raw.charAt(0) == '@') {
+			tagsEnd = raw.indexOf(' ');
+			if (tagsEnd <= 1)
+				return;
+
+			pos = tagsEnd + 1;
+		}
+
+		// Prefix
+		final int prefixEnd = raw.indexOf(' ', pos);
+		if (prefixEnd <= pos)
+			return;
+
+		// Command (always followed by a space)
+		final int commandStart = prefixEnd + 1;
+		final int commandEnd = raw.indexOf(' ', commandStart);
+		if (commandEnd <= commandStart || !isCommand(raw, commandStart, commandEnd))
+			return;
+
+		// Channel & Payload
+		final int paramsStart = commandEnd + 1;
+		String clientNameRaw = null;
+		String channel = null;
+		int payloadStart = -1;
+		if (paramsStart < length && raw.charAt(paramsStart) == '#') {
+			int channelStart = paramsStart + 1;
+			payloadStart = indexOfPayload(raw, channelStart);
+			int channelEnd = payloadStart < 0 ? length : channelEnd(raw, channelStart, payloadStart);
+			if (payloadStart < 0 && channelEnd > channelStart && raw.charAt(channelEnd - 1) == ' ')
+				channelEnd--; // a single trailing space is not part of the channel
+			channel = raw.substring(channelStart, channelEnd);
+			clientNameRaw = raw.substring(pos, prefixEnd);
+		} else if (paramsStart == length || (isPayloadMarker(raw.charAt(paramsStart)) && paramsStart + 1 < length)) {
+			payloadStart = paramsStart < length ? paramsStart : -1;
+			clientNameRaw = raw.substring(pos, prefixEnd);
+		} else if (raw.charAt(pos) == ':') {
+			// Whisper: the payload is required and the target is not prefixed with #
+			int bang = raw.indexOf('!', pos + 2);
+			payloadStart = indexOfPayload(raw, paramsStart);
+			if (bang < 0 || bang >= prefixEnd - 1 || payloadStart < 0)
+				return;
+
+			if (payloadStart > paramsStart)
+				channel = raw.substring(paramsStart, channelEnd(raw, paramsStart, payloadStart));
+			clientNameRaw = raw.substring(pos + 1, bang);
+		} else {
 			return;
 		}
 
-		// Parse Message - Whisper
-		Pattern patternPM = Pattern.compile("^(?:@(?<tags>.+?) )?:(?<clientName>.+?)!.+?(?: (?<command>[A-Z0-9]+) )(?:(?<channel>.*?) ?)??(?<payload>[:\\-\\+](?<message>.+))$");
-		Matcher matcherPM = patternPM.matcher(rawMessage);
-
-		if(matcherPM.matches()) {
-			// Parse Tags
-			setTags(parseTags(matcherPM.group("tags")));
-			setRawTags(parseTags(matcherPM.group("tags")));
-			setClientName(parseClientName(matcherPM.group("clientName")));
-			setCommandType(matcherPM.group("command"));
-			setChannelName(Optional.ofNullable(matcherPM.group("channel")));
-			setMessage(Optional.ofNullable(matcherPM.group("message")));
-			setPayload(Optional.ofNullable(matcherPM.group("payload")));
+		IRCMessageTags tagView = tagsEnd > 1 ? new IRCMessageTags(raw, 1, tagsEnd) : IRCMessageTags.EMPTY;
+		setTags(tagView);
+		setRawTags(Collections.unmodifiableMap(tagView));
+		setClientName(parseClientName(clientNameRaw));
+		setCommandType(raw.substring(commandStart, commandEnd));
+		setChannelName(Optional.ofNullable(channel));
+		setMessage(payloadStart < 0 ? Optional.empty() : Optional.of(raw.substring(payloadStart + 1)));
+		setPayload(payloadStart < 0 ? Optional.empty() : Optional.of(raw.substring(payloadStart)));
+	}
+
+	/**
+	 * Checks whether the given range only consists of uppercase letters and digits
+	 */
+	private static boolean isCommand(String raw, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = raw.charAt(i);
+			if ((c < 'A' || c > 'Z') && (c < '0' || c > '9'))
+				return false;
 		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the char can introduce the payload of the message
+	 */
+	private static boolean isPayloadMarker(char c) {
+		return c == ':' || c == '-' || c == '+';
+	}
+
+	/**
+	 * Finds the start of the payload, which is the first marker (optionally preceded by a space) that is followed by at least one character
+	 *
+	 * @param raw  raw message
+	 * @param from index to start searching at
+	 * @return the index of the payload marker, or -1
+	 */
+	private static int indexOfPayload(String raw, int from) {
+		final int length = raw.length();
+		for (int i = from; i < length - 1; i++) {
+			char c = raw.charAt(i);
+			if (isPayloadMarker(c))
+				return i;
+			if (c == ' ' && i + 2 < length && isPayloadMarker(raw.charAt(i + 1)))
+				return i + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the exclusive end of the channel/target parameter that precedes the payload
+	 */
+	private static int channelEnd(String raw, int channelStart, int payloadStart) {
+		return payloadStart > channelStart && raw.charAt(payloadStart - 1) == ' ' ? payloadStart - 1 : payloadStart;
 	}
 
 	/**
@@ -161,26 +254,34 @@ public class IRCMessageEvent extends TwitchEvent {
 			return Optional.empty();
 		}
 
-		Pattern pattern = Pattern.compile("^:(.*?)!(.*?)@(.*?).tmi.twitch.tv$");
-		Matcher matcher = pattern.matcher(raw);
-		if(matcher.matches()) {
-			return Optional.ofNullable(matcher.group(1));
+		// :user!user@user.tmi.twitch.tv
+		int bang = raw.indexOf('!');
+		if (raw.startsWith(":") && bang > 0) {
+			int at = raw.indexOf('@', bang + 1);
+			if (at > 0 && at < raw.length() - 14 && raw.endsWith("tmi.twitch.tv")) {
+				return Optional.of(raw.substring(1, bang));
+			}
 		}
 
 		return Optional.ofNullable(raw);
 	}
 
+	/**
+	 * Gets the Tags, with typed access to the well-known tags
+	 *
+	 * @return IRCMessageTags
+	 */
+	public IRCMessageTags getTagView() {
+		return (IRCMessageTags) tags;
+	}
+
 	/**
 	 * Gets the Channel Id (from Tags)
      *
      * @return Long channelId
 	 */
 	public String getChannelId() {
-		if(getTags().containsKey("room-id")) {
-			return getTags().get("room-id");
-		}
-
-		return null;
+		return getTagView().get(IRCTag.ROOM_ID);
 	}
 
 	/**
@@ -189,11 +290,7 @@ public class IRCMessageEvent extends TwitchEvent {
      * @return Long userId
 	 */
 	public String getUserId() {
-		if(getTags().containsKey("user-id")) {
-			return getTags().get("user-id");
-		}
-
-		return null;
+		return getTagView().get(IRCTag.USER_ID);
 	}
 
 	/**
@@ -202,8 +299,8 @@ public class IRCMessageEvent extends TwitchEvent {
      * @return String userName
 	 */
 	public String getUserName() {
-		if(getTags().containsKey("login")) {
-			return getTags().get("login");
+		if(getTagView().contains(IRCTag.LOGIN)) {
+			return getTagView().get(IRCTag.LOGIN);
 		}
 
 		return getClientName().orElse(null);
@@ -215,29 +312,20 @@ public class IRCMessageEvent extends TwitchEvent {
      * @return Long targetUserId
      */
     public String getTargetUserId() {
-        if(getTags().containsKey("target-user-id")) {
-            return getTags().get("target-user-id");
-        }
-
-        return null;
+        return getTagView().get(IRCTag.TARGET_USER_ID);
     }
 
 	/**
-	 * Gets a optional tag from the irc message
+	 * Gets a optional tag from the irc message, with IRCv3 escaping removed
      *
      * @param tagName The tag of the irc message
      * @return String tagValue
 	 */
 	public Optional<String> getTagValue(String tagName) {
-		if(getTags().containsKey(tagName)) {
-			String value = getTags().get(tagName);
-			if(StringUtils.isBlank(value)) return Optional.empty();
-
-			value = value.replaceAll("\\\\s", " ");
-			return Optional.ofNullable(value);
-		}
+		String value = getTags().get(tagName);
+		if(StringUtils.isBlank(value)) return Optional.empty();
 
-		return Optional.empty();
+		return Optional.of(IRCMessageTags.unescape(value));
 	}
 
 	/**
@@ -0,0 +1,353 @@
+package com.github.twitch4j.chat.events.channel;
+
+import com.github.twitch4j.chat.enums.IRCTag;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view on the tag section of a raw irc message.
+ * <p>
+ * Nothing is split when the view is created, the tag section is indexed on the first lookup and values are only
+ * copied out of the raw message when they are read. Values are returned as sent by the server (IRCv3 escaped),
+ * use {@link #unescape(String)} to decode them. Tags without a value are mapped to {@code null}.
+ * <p>
+ * Well-known tags ({@link IRCTag}) are resolved into a slot table while indexing, so looking them up does not need to compare
+ * any strings and their keys are never copied. Unknown tags are found by scanning the offset index.
+ */
+public final class IRCMessageTags extends AbstractMap<String, String> {
+
+    /**
+     * Tags of a message without a tag section
+     */
+    public static final IRCMessageTags EMPTY = new IRCMessageTags("", 0, 0);
+
+    /**
+     * Raw message that contains the tag section
+     */
+    private final String raw;
+
+    /**
+     * Start of the tag section (inclusive)
+     */
+    private final int start;
+
+    /**
+     * End of the tag section (exclusive)
+     */
+    private final int end;
+
+    /**
+     * Tag offsets, four entries per tag: key start, key end, value start and value end (value start is -1 if there is no '=')
+     */
+    private volatile int[] offsets;
+
+    /**
+     * Slot table for the well-known tags, contains the tag index + 1 (0 = absent), ordered by {@link IRCTag#ordinal()}
+     */
+    private int[] slots;
+
+    /**
+     * Values that have already been read, in index order
+     */
+    private volatile String[] values;
+
+    /**
+     * Fully materialized map, only created when the tags are iterated
+     */
+    private volatile Map<String, String> materialized;
+
+    /**
+     * Constructor
+     *
+     * @param raw   raw irc message
+     * @param start start of the tag section, after the leading '@' (inclusive)
+     * @param end   end of the tag section (exclusive)
+     */
+    public IRCMessageTags(String raw, int start, int end) {
+        this.raw = raw;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String))
+            return null;
+
+        int index = indexOf((String) key);
+        return index >= 0 ? value(index) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && indexOf((String) key) >= 0;
+    }
+
+    /**
+     * Gets the value of a well-known tag
+     *
+     * @param tag IRCTag
+     * @return the escaped value, or null
+     */
+    public String get(IRCTag tag) {
+        int index = indexOf(tag);
+        return index >= 0 ? value(index) : null;
+    }
+
+    /**
+     * Checks whether a well-known tag is present
+     *
+     * @param tag IRCTag
+     * @return whether the tag was sent, with or without a value
+     */
+    public boolean contains(IRCTag tag) {
+        return indexOf(tag) >= 0;
+    }
+
+    /**
+     * Parses the value of a well-known tag as a long, without copying the value
+     *
+     * @param tag          IRCTag
+     * @param defaultValue returned if the tag is absent, empty or not a number
+     * @return the value of the tag
+     */
+    public long getLong(IRCTag tag, long defaultValue) {
+        int index = indexOf(tag);
+        if (index < 0)
+            return defaultValue;
+
+        final int valueStart = offsets[index << 2 | 2];
+        final int valueEnd = offsets[index << 2 | 3];
+        if (valueStart < 0 || valueStart == valueEnd)
+            return defaultValue;
+
+        boolean negative = raw.charAt(valueStart) == '-';
+        int i = negative ? valueStart + 1 : valueStart;
+        if (i == valueEnd || valueEnd - i > 18)
+            return defaultValue;
+
+        long result = 0;
+        for (; i < valueEnd; i++) {
+            int digit = raw.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return defaultValue;
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parses the value of a well-known tag as an int, without copying the value
+     *
+     * @param tag          IRCTag
+     * @param defaultValue returned if the tag is absent, empty, not a number or out of range
+     * @return the value of the tag
+     */
+    public int getInt(IRCTag tag, int defaultValue) {
+        long value = getLong(tag, Long.MIN_VALUE);
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : defaultValue;
+    }
+
+    /**
+     * Checks whether the value of a well-known tag is "1", which twitch uses for boolean flags
+     *
+     * @param tag IRCTag
+     * @return whether the flag is set
+     */
+    public boolean getFlag(IRCTag tag) {
+        int index = indexOf(tag);
+        if (index < 0)
+            return false;
+
+        final int valueStart = offsets[index << 2 | 2];
+        return valueStart >= 0 && offsets[index << 2 | 3] - valueStart == 1 && raw.charAt(valueStart) == '1';
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index().length == 0;
+    }
+
+    @Override
+    public int size() {
+        return materialize().size();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    /**
+     * Finds the tag with the given key, the last occurrence wins if a key is sent multiple times
+     *
+     * @param key tag name
+     * @return the index of the tag, or -1
+     */
+    private int indexOf(String key) {
+        IRCTag tag = IRCTag.fromName(key);
+        if (tag != null)
+            return indexOf(tag);
+
+        final int[] index = index();
+        final int length = key.length();
+        for (int i = index.length - 4; i >= 0; i -= 4) {
+            int keyStart = index[i];
+            if (index[i + 1] - keyStart == length && raw.regionMatches(keyStart, key, 0, length))
+                return i >> 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a well-known tag using the slot table
+     *
+     * @param tag IRCTag
+     * @return the index of the tag, or -1
+     */
+    private int indexOf(IRCTag tag) {
+        index();
+        return slots[tag.ordinal()] - 1;
+    }
+
+    /**
+     * Gets (and caches) the value of the tag at the given index
+     */
+    private String value(int tag) {
+        final int[] index = index();
+        String[] cache = values;
+        if (cache == null)
+            values = cache = new String[index.length >> 2];
+
+        String value = cache[tag];
+        if (value == null) {
+            int valueStart = index[tag << 2 | 2];
+            int valueEnd = index[tag << 2 | 3];
+            if (valueStart < 0 || valueStart == valueEnd)
+                return null;
+
+            cache[tag] = value = raw.substring(valueStart, valueEnd);
+        }
+        return value;
+    }
+
+    /**
+     * Indexes the tag section on first use
+     *
+     * @return tag offsets
+     */
+    private int[] index() {
+        int[] index = offsets;
+        if (index != null)
+            return index;
+
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (raw.charAt(i) == ';')
+                count++;
+        }
+
+        final int[] slots = new int[IRCTag.count()];
+        index = new int[(count + 1) << 2];
+        int n = 0;
+        int tagStart = start;
+        while (tagStart < end) {
+            int tagEnd = raw.indexOf(';', tagStart);
+            if (tagEnd < 0 || tagEnd > end)
+                tagEnd = end;
+
+            if (tagEnd > tagStart) {
+                int equals = raw.indexOf('=', tagStart);
+                boolean hasValue = equals >= 0 && equals < tagEnd;
+                int keyEnd = hasValue ? equals : tagEnd;
+                IRCTag tag = IRCTag.fromName(raw, tagStart, keyEnd);
+                if (tag != null)
+                    slots[tag.ordinal()] = (n >> 2) + 1; // last occurrence wins
+
+                index[n++] = tagStart;
+                index[n++] = keyEnd;
+                index[n++] = hasValue ? equals + 1 : -1;
+                index[n++] = tagEnd;
+            }
+
+            tagStart = tagEnd + 1;
+        }
+
+        if (n < index.length) {
+            int[] trimmed = new int[n];
+            System.arraycopy(index, 0, trimmed, 0, n);
+            index = trimmed;
+        }
+
+        this.slots = slots; // published by the volatile write below
+        return offsets = index;
+    }
+
+    /**
+     * Copies all tags into a regular map, used for iteration
+     */
+    private Map<String, String> materialize() {
+        Map<String, String> map = materialized;
+        if (map == null) {
+            final int[] index = index();
+            map = new HashMap<>(Math.max((int) ((index.length >> 2) / .75f) + 1, 16));
+            for (int i = 0; i < index.length; i += 4) {
+                IRCTag tag = IRCTag.fromName(raw, index[i], index[i + 1]);
+                String key = tag != null ? tag.getTagName() : raw.substring(index[i], index[i + 1]);
+                map.put(key, value(i >> 2));
+            }
+            materialized = map = Collections.unmodifiableMap(map);
+        }
+        return map;
+    }
+
+    /**
+     * Decodes an IRCv3 escaped tag value
+     *
+     * @param value escaped tag value
+     * @return the unescaped value, or the same instance if nothing was escaped
+     */
+    public static String unescape(String value) {
+        if (value == null)
+            return null;
+
+        int backslash = value.indexOf('\\');
+        if (backslash < 0)
+            return value;
+
+        final int length = value.length();
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(value, 0, backslash);
+        for (int i = backslash; i < length; i++) {
+            char c = value.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+            } else if (i + 1 < length) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 's':
+                        sb.append(' ');
+                        break;
+                    case ':':
+                        sb.append(';');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    default:
+                        sb.append(next);
+                        break;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+}
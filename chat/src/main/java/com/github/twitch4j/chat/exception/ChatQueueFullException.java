@@ -0,0 +1,24 @@
+package com.github.twitch4j.chat.exception;
+
+import com.github.twitch4j.chat.enums.OutboundLane;
+import lombok.Getter;
+
+/**
+ * An irc command was dropped or rejected because its outbound queue was full
+ *
+ * @see com.github.twitch4j.chat.enums.QueueOverflowPolicy
+ */
+public class ChatQueueFullException extends ChatSendException {
+
+    /**
+     * Lane of the dropped command
+     */
+    @Getter
+    private final OutboundLane lane;
+
+    public ChatQueueFullException(OutboundLane lane) {
+        super("Outbound queue " + lane + " is full");
+        this.lane = lane;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.github.twitch4j.chat.exception;
+
+/**
+ * An irc command could not be written to the chat connection, e.g. because the connection was lost or the chat has been closed
+ */
+public class ChatSendException extends RuntimeException {
+
+    public ChatSendException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,413 @@
+package com.github.twitch4j.chat.util;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.EstimationProbe;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Outbound rate limiting for chat messages
+ * <p>
+ * Messages are queued per channel, so a channel that has to wait (e.g. because of slow mode) does not hold back the messages of other channels.
+ * Channels with pending messages are served round-robin.
+ * <ul>
+ *     <li>Every message consumes a token of the global bucket, the ceiling for all messages of the account.</li>
+ *     <li>Messages to channels where the account is not a moderator (or broadcaster) also consume a token of the regular bucket, which is shared by those channels.</li>
+ *     <li>In slow mode, messages to channels where the account is not a moderator are spaced by the slow mode delay using a per-channel bucket.</li>
+ * </ul>
+ * Messages to channels where the account is restricted (e.g. subscribers-only mode) are handed to the restricted handler without consuming tokens.
+ * Per-channel queues and buckets are created on demand and evicted once they have been idle for a while.
+ * <p>
+ * Messages can be offered from any thread, but only a single thread may poll.
+ *
+ * @param <T> type of the queued messages
+ */
+public class ChannelRateLimiter<T> {
+
+    /**
+     * Global ceiling for all messages
+     */
+    @Getter
+    private final Bucket globalBucket;
+
+    /**
+     * Shared bucket for messages to channels where the account is not a moderator
+     */
+    @Getter
+    private final Bucket regularBucket;
+
+    /**
+     * Maximum amount of queued messages per channel
+     */
+    private final int queueSize;
+
+    /**
+     * Time after which idle channel queues are evicted
+     */
+    private final long idleNanos;
+
+    /**
+     * Moderator and slow mode state by channel
+     */
+    @Getter
+    private final ChannelStateStore channelStates;
+
+    /**
+     * Receives the messages to channels where the account is restricted, null to send them anyway
+     */
+    private final Consumer<T> restrictedHandler;
+
+    /**
+     * Queues by channel
+     */
+    private final Map<String, ChannelQueue<T>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Channels with pending messages, in the order they will be served
+     */
+    private final Deque<ChannelQueue<T>> ready = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Time to wait until the next message could be sent, as determined by the last poll
+     */
+    @Getter
+    private volatile long nanosToWait;
+
+    /**
+     * Constructor
+     *
+     * @param globalBucket  Global ceiling for all messages
+     * @param regularBucket Shared bucket for messages to channels where the account is not a moderator
+     * @param queueSize     Maximum amount of queued messages per channel
+     * @param idleTimeout   Time after which idle channel queues are evicted
+     * @param channelStates Moderator and slow mode state by channel
+     */
+    public ChannelRateLimiter(Bucket globalBucket, Bucket regularBucket, int queueSize, Duration idleTimeout, ChannelStateStore channelStates) {
+        this(globalBucket, regularBucket, queueSize, idleTimeout, channelStates, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param globalBucket      Global ceiling for all messages
+     * @param regularBucket     Shared bucket for messages to channels where the account is not a moderator
+     * @param queueSize         Maximum amount of queued messages per channel
+     * @param idleTimeout       Time after which idle channel queues are evicted
+     * @param channelStates     Moderator and slow mode state by channel
+     * @param restrictedHandler Receives the messages to channels where the account is restricted, on the polling thread. null to send them anyway
+     */
+    public ChannelRateLimiter(Bucket globalBucket, Bucket regularBucket, int queueSize, Duration idleTimeout, ChannelStateStore channelStates, Consumer<T> restrictedHandler) {
+        this.restrictedHandler = restrictedHandler;
+        this.channelStates = channelStates;
+        this.globalBucket = globalBucket;
+        this.regularBucket = regularBucket;
+        this.queueSize = queueSize;
+        this.idleNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Queues a message for a channel
+     *
+     * @param channel channel name (lowercase, without #)
+     * @param message message
+     * @return whether the message was queued, false if the queue of the channel is full
+     */
+    public boolean offer(String channel, T message) {
+        try {
+            return offer(channel, message, 0L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Queues a message for a channel, waiting for room if the queue of the channel is full
+     *
+     * @param channel channel name (lowercase, without #)
+     * @param message message
+     * @param timeout maximum time to wait for room in nanoseconds, 0 to not wait
+     * @return whether the message was queued, false if the queue of the channel is still full
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean offer(String channel, T message, long timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeout;
+        while (true) {
+            ChannelQueue<T> queue = queues.computeIfAbsent(channel, ChannelQueue::new);
+            synchronized (queue) {
+                if (queue.evicted)
+                    continue;
+
+                long remaining;
+                while (queue.messages.size() >= queueSize) {
+                    if ((remaining = deadline - System.nanoTime()) <= 0L)
+                        return false;
+
+                    queue.waiters++;
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(queue, remaining);
+                    } finally {
+                        queue.waiters--;
+                    }
+                }
+
+                queue.messages.add(message);
+                queue.lastUsed = System.nanoTime();
+                if (!queue.scheduled) {
+                    queue.scheduled = true;
+                    ready.add(queue);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest queued message of a channel, to make room for a new one
+     *
+     * @param channel channel name
+     * @return the removed message, or null if nothing is queued
+     */
+    public T removeOldest(String channel) {
+        ChannelQueue<T> queue = queues.get(channel);
+        if (queue == null)
+            return null;
+
+        synchronized (queue) {
+            T message = queue.messages.poll();
+            if (message != null)
+                queue.signalRoom();
+            return message;
+        }
+    }
+
+    /**
+     * Removes all queued messages
+     *
+     * @return the removed messages
+     */
+    public List<T> clear() {
+        List<T> removed = new ArrayList<>();
+        for (ChannelQueue<T> queue : queues.values()) {
+            synchronized (queue) {
+                removed.addAll(queue.messages);
+                queue.messages.clear();
+                queue.signalRoom();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Takes the next message that can be sent right now and consumes its tokens
+     * <p>
+     * The tokens are only consumed once all buckets of the message have one, so a message that has to wait doesn't take tokens from other channels.
+     * If no message can be sent, {@link #getNanosToWait()} returns the time until the next attempt makes sense.
+     *
+     * @return message, or null
+     */
+    public T poll() {
+        long wait = Long.MAX_VALUE;
+        List<ChannelQueue<T>> deferred = null; // waiting for the regular bucket, keep their turn
+        List<T> restricted = null; // handed to the restricted handler outside of the queue monitor
+        try {
+            for (int i = ready.size(); i > 0; i--) {
+                ChannelQueue<T> queue = ready.poll();
+                if (queue == null)
+                    break;
+
+                synchronized (queue) {
+                    T message = queue.messages.peek();
+                    if (message == null) {
+                        queue.scheduled = false;
+                        continue;
+                    }
+
+                    // the messages can't be sent to the channel, fail them without consuming tokens
+                    if (restrictedHandler != null && channelStates.isRestricted(queue.channel)) {
+                        if (restricted == null)
+                            restricted = new ArrayList<>();
+                        restricted.addAll(queue.messages);
+                        queue.messages.clear();
+                        queue.signalRoom();
+                        queue.scheduled = false;
+                        continue;
+                    }
+
+                    boolean moderator = channelStates.isModerator(queue.channel);
+
+                    // per-channel slow mode spacing, only this channel has to wait
+                    Bucket slowBucket = moderator ? null : queue.slowBucket(channelStates.getSlowModeSeconds(queue.channel));
+                    long slowWait = slowBucket != null ? nanosToRefill(slowBucket) : 0L;
+                    if (slowWait > 0L) {
+                        wait = Math.min(wait, slowWait);
+                        ready.add(queue);
+                        continue;
+                    }
+
+                    // shared bucket of the channels without moderator status, moderated channels can still send
+                    Bucket sharedBucket = moderator ? null : regularBucket;
+                    long sharedWait = sharedBucket != null ? nanosToRefill(sharedBucket) : 0L;
+                    if (sharedWait > 0L) {
+                        wait = Math.min(wait, sharedWait);
+                        if (deferred == null)
+                            deferred = new ArrayList<>();
+                        deferred.add(queue);
+                        continue;
+                    }
+
+                    // global ceiling, no channel can send
+                    long globalWait = nanosToRefill(globalBucket);
+                    if (globalWait > 0L || !consume(globalBucket, sharedBucket)) {
+                        ready.addFirst(queue);
+                        nanosToWait = Math.max(globalWait, 1L);
+                        return null;
+                    }
+                    if (slowBucket != null)
+                        slowBucket.tryConsume(1L);
+
+                    queue.messages.poll();
+                    queue.signalRoom();
+                    queue.lastUsed = System.nanoTime();
+                    if (queue.messages.isEmpty()) {
+                        queue.scheduled = false;
+                    } else {
+                        ready.add(queue);
+                    }
+                    nanosToWait = 0L;
+                    return message;
+                }
+            }
+
+            nanosToWait = wait;
+            return null;
+        } finally {
+            if (deferred != null) {
+                for (int i = deferred.size() - 1; i >= 0; i--) {
+                    ready.addFirst(deferred.get(i));
+                }
+            }
+            if (restricted != null)
+                restricted.forEach(restrictedHandler);
+        }
+    }
+
+    /**
+     * Consumes the tokens for a message to a channel that is sent outside of the channel queues, e.g. a moderation action
+     * <p>
+     * Slow mode is not applied, it does not affect moderators.
+     *
+     * @param channel channel name, null for commands that are not bound to a channel
+     * @return 0 if the tokens have been consumed, otherwise the time in nanoseconds until they could be
+     */
+    public long tryAcquire(String channel) {
+        Bucket sharedBucket = channel != null && channelStates.isModerator(channel) ? null : regularBucket;
+        long wait = Math.max(sharedBucket != null ? nanosToRefill(sharedBucket) : 0L, nanosToRefill(globalBucket));
+        if (wait > 0L)
+            return wait;
+
+        return consume(globalBucket, sharedBucket) ? 0L : 1L;
+    }
+
+    /**
+     * @return the amount of queued messages over all channels
+     */
+    public int size() {
+        int size = 0;
+        for (ChannelQueue<T> queue : queues.values()) {
+            synchronized (queue) {
+                size += queue.messages.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Evicts the queues and buckets of channels that have been idle for longer than the idle timeout
+     */
+    public void evictIdle() {
+        final long now = System.nanoTime();
+        Iterator<ChannelQueue<T>> it = queues.values().iterator();
+        while (it.hasNext()) {
+            ChannelQueue<T> queue = it.next();
+            synchronized (queue) {
+                if (!queue.scheduled && queue.messages.isEmpty() && now - queue.lastUsed > idleNanos) {
+                    queue.evicted = true;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumes a token of the global and the shared bucket, after both have been probed
+     * <p>
+     * The buckets can also be used by other connections of the account, so a token can be taken in between. In that rare case, the retry is delayed
+     * until the next attempt and a token of the global bucket may be lost, which errs on the side of sending less.
+     *
+     * @return whether both tokens have been consumed
+     */
+    private static boolean consume(Bucket globalBucket, Bucket sharedBucket) {
+        return globalBucket.tryConsume(1L) && (sharedBucket == null || sharedBucket.tryConsume(1L));
+    }
+
+    private static long nanosToRefill(Bucket bucket) {
+        EstimationProbe probe = bucket.estimateAbilityToConsume(1L);
+        return probe.canBeConsumed() ? 0L : probe.getNanosToWaitForRefill();
+    }
+
+    /**
+     * Queued messages and slow mode bucket of a channel
+     */
+    private static final class ChannelQueue<T> {
+        private final String channel;
+        private final Deque<T> messages = new ArrayDeque<>();
+        private Bucket slowBucket;
+        private int slowBucketSeconds;
+        private boolean scheduled;
+        private boolean evicted;
+        private int waiters;
+        private long lastUsed = System.nanoTime();
+
+        private ChannelQueue(String channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Wakes up producers waiting for room, must hold the monitor of the queue
+         */
+        private void signalRoom() {
+            if (waiters > 0)
+                notifyAll();
+        }
+
+        /**
+         * @param seconds current slow mode delay
+         * @return the slow mode bucket for the current delay, or null if slow mode is off
+         */
+        private Bucket slowBucket(int seconds) {
+            if (seconds <= 0)
+                return null;
+
+            if (slowBucket == null || slowBucketSeconds != seconds) {
+                slowBucket = Bucket4j.builder().addLimit(Bandwidth.simple(1, Duration.ofSeconds(seconds))).build();
+                slowBucketSeconds = seconds;
+            }
+            return slowBucket;
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.enums.IRCTag;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.common.enums.CommandPermission;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Room and user state of the joined channels, as announced by ROOMSTATE and USERSTATE
+ * <p>
+ * Every channel is a single entry with primitive fields, the boolean states are bit flags. Lookups are a hash map read
+ * followed by a volatile read and do not allocate, as long as the channel name is already lowercase.
+ * ROOMSTATE updates only contain the changed tags, so only those are applied.
+ * <p>
+ * This class is thread-safe, updates of a channel are serialized.
+ */
+public class ChannelStateStore {
+
+    private static final int MODERATOR = 1;
+    private static final int VIP = 1 << 1;
+    private static final int SUBSCRIBER = 1 << 2;
+    private static final int EMOTE_ONLY = 1 << 3;
+    private static final int SUBS_ONLY = 1 << 4;
+    private static final int R9K = 1 << 5;
+    private static final int ROOM_STATE_KNOWN = 1 << 6;
+    private static final int USER_STATE_KNOWN = 1 << 7;
+
+    private static final int USER_FLAGS = MODERATOR | VIP | SUBSCRIBER;
+
+    /**
+     * State by lowercase channel name
+     */
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    /**
+     * Applies a ROOMSTATE message, tags that are not present keep their value
+     *
+     * @param event ROOMSTATE message
+     */
+    public void onRoomState(IRCMessageEvent event) {
+        String channel = event.getChannelName().orElse(null);
+        if (channel == null)
+            return;
+
+        String emoteOnly = event.getTagView().get(IRCTag.EMOTE_ONLY);
+        String subsOnly = event.getTagView().get(IRCTag.SUBS_ONLY);
+        String r9k = event.getTagView().get(IRCTag.R9K);
+        String slow = event.getTagView().get(IRCTag.SLOW);
+        String followersOnly = event.getTagView().get(IRCTag.FOLLOWERS_ONLY);
+        String roomId = event.getTagView().get(IRCTag.ROOM_ID);
+
+        State state = state(channel.toLowerCase());
+        synchronized (state) {
+            int flags = state.flags | ROOM_STATE_KNOWN;
+            flags = apply(flags, EMOTE_ONLY, emoteOnly);
+            flags = apply(flags, SUBS_ONLY, subsOnly);
+            flags = apply(flags, R9K, r9k);
+            if (slow != null)
+                state.slowSeconds = Math.max(parseInt(slow, 0), 0);
+            if (followersOnly != null)
+                state.followersOnlyMinutes = parseInt(followersOnly, -1);
+            if (roomId != null)
+                state.roomId = roomId;
+            state.flags = flags;
+        }
+    }
+
+    /**
+     * Applies a USERSTATE message, the state of the account in a channel
+     *
+     * @param event USERSTATE message
+     */
+    public void onUserState(IRCMessageEvent event) {
+        String channel = event.getChannelName().orElse(null);
+        if (channel == null)
+            return;
+
+        Set<CommandPermission> permissions = event.getClientPermissions();
+        int user = USER_STATE_KNOWN;
+        if (permissions.contains(CommandPermission.MODERATOR) || permissions.contains(CommandPermission.BROADCASTER))
+            user |= MODERATOR;
+        if (permissions.contains(CommandPermission.VIP))
+            user |= VIP;
+        if (permissions.contains(CommandPermission.SUBSCRIBER))
+            user |= SUBSCRIBER;
+        setUserFlags(channel.toLowerCase(), user);
+    }
+
+    /**
+     * Updates the moderator status of the account in a channel
+     *
+     * @param channel   channel name (lowercase, without #)
+     * @param moderator whether the account is a moderator or the broadcaster
+     */
+    public void setModerator(String channel, boolean moderator) {
+        State state = state(channel);
+        synchronized (state) {
+            state.flags = moderator ? state.flags | MODERATOR : state.flags & ~MODERATOR;
+        }
+    }
+
+    /**
+     * Updates the slow mode delay of a channel
+     *
+     * @param channel channel name (lowercase, without #)
+     * @param seconds slow mode delay in seconds, 0 if slow mode is off
+     */
+    public void setSlowMode(String channel, int seconds) {
+        state(channel).slowSeconds = Math.max(seconds, 0);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether the account is known to be a moderator or the broadcaster of the channel
+     */
+    public boolean isModerator(String channel) {
+        return hasFlag(channel, MODERATOR);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether the account is known to be a vip in the channel
+     */
+    public boolean isVip(String channel) {
+        return hasFlag(channel, VIP);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether the account is known to be subscribed to the channel
+     */
+    public boolean isSubscriber(String channel) {
+        return hasFlag(channel, SUBSCRIBER);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether the channel is known to be in emote-only mode
+     */
+    public boolean isEmoteOnly(String channel) {
+        return hasFlag(channel, EMOTE_ONLY);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether the channel is known to be in subscribers-only mode
+     */
+    public boolean isSubsOnly(String channel) {
+        return hasFlag(channel, SUBS_ONLY);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether the channel is known to be in unique-chat (r9k) mode
+     */
+    public boolean isR9k(String channel) {
+        return hasFlag(channel, R9K);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether a ROOMSTATE has been received for the channel
+     */
+    public boolean hasRoomState(String channel) {
+        return hasFlag(channel, ROOM_STATE_KNOWN);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return whether a USERSTATE has been received for the channel
+     */
+    public boolean hasUserState(String channel) {
+        return hasFlag(channel, USER_STATE_KNOWN);
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return the known slow mode delay of the channel in seconds, 0 if slow mode is off or unknown
+     */
+    public int getSlowModeSeconds(String channel) {
+        State state = states.get(channel);
+        return state != null ? state.slowSeconds : 0;
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return the minimum follow age in minutes for followers-only mode, -1 if followers-only mode is off or unknown
+     */
+    public int getFollowersOnlyMinutes(String channel) {
+        State state = states.get(channel);
+        return state != null && (state.flags & ROOM_STATE_KNOWN) != 0 ? state.followersOnlyMinutes : -1;
+    }
+
+    /**
+     * @param channel channel name (lowercase, without #)
+     * @return the id of the channel, null if unknown
+     */
+    public String getRoomId(String channel) {
+        State state = states.get(channel);
+        return state != null && (state.flags & ROOM_STATE_KNOWN) != 0 ? state.roomId : null;
+    }
+
+    /**
+     * Checks whether twitch would reject a message of the account because of the room state
+     * <p>
+     * Only subscribers-only mode can be checked locally: emote-only and unique-chat mode depend on the message,
+     * followers-only mode on the follow age. Until the USERSTATE of the channel is known, the account might be
+     * privileged and is not restricted.
+     *
+     * @param channel channel name (lowercase, without #)
+     * @return whether a message to the channel would be rejected
+     */
+    public boolean isRestricted(String channel) {
+        State state = states.get(channel);
+        return state != null && (state.flags & (SUBS_ONLY | USER_STATE_KNOWN | USER_FLAGS)) == (SUBS_ONLY | USER_STATE_KNOWN);
+    }
+
+    /**
+     * Forgets the state of a channel, e.g. after leaving it
+     *
+     * @param channel channel name (lowercase, without #)
+     */
+    public void removeChannel(String channel) {
+        states.remove(channel);
+    }
+
+    private boolean hasFlag(String channel, int flag) {
+        State state = states.get(channel);
+        return state != null && (state.flags & flag) != 0;
+    }
+
+    private void setUserFlags(String channel, int user) {
+        State state = state(channel);
+        synchronized (state) {
+            state.flags = state.flags & ~USER_FLAGS | user;
+        }
+    }
+
+    private State state(String channel) {
+        State state = states.get(channel);
+        return state != null ? state : states.computeIfAbsent(channel, c -> new State());
+    }
+
+    private static int apply(int flags, int flag, String value) {
+        if (value == null)
+            return flags;
+        return "1".equals(value) ? flags | flag : flags & ~flag;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * State of a single channel, all fields are written while holding its monitor
+     */
+    private static final class State {
+        private volatile int flags;
+        private volatile int slowSeconds;
+        private volatile int followersOnlyMinutes = -1;
+        private volatile String roomId;
+    }
+
+}
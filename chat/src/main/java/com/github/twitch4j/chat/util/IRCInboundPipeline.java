@@ -0,0 +1,245 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.twitch4j.chat.enums.IRCTag;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.common.util.LatencyHistogram;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Handling of received irc traffic, from the websocket frame to the published {@link IRCMessageEvent}
+ * <p>
+ * Frames are split into lines, connection-level lines (PING, PONG, CAP, RECONNECT, login failures) are handed to the
+ * {@link ConnectionHandler}, everything else is parsed, checked for duplicates, applied to the channel states and published.
+ * Live connections and the replay of captures both use this class, so a replay takes the same path as live traffic.
+ * <p>
+ * This class is thread-safe, frames of two connections (e.g. during a handover) can be handled concurrently.
+ */
+@Slf4j
+public class IRCInboundPipeline {
+
+    private static final String TMI_PREFIX = ":tmi.twitch.tv ";
+
+    /**
+     * Receives the lines that concern the connection itself
+     */
+    public interface ConnectionHandler {
+
+        /**
+         * Ignores all connection-level lines, e.g. for replays
+         */
+        ConnectionHandler NONE = new ConnectionHandler() {
+        };
+
+        /**
+         * The server sent a PING, which has to be answered with a PONG
+         *
+         * @param line PING line, e.g. {@code PING :tmi.twitch.tv}
+         */
+        default void onPing(String line) {
+        }
+
+        /**
+         * The server sent a PONG to a client-initiated PING
+         *
+         * @param line PONG line, e.g. {@code :tmi.twitch.tv PONG tmi.twitch.tv :payload}
+         */
+        default void onPong(String line) {
+        }
+
+        /**
+         * The server is about to restart, the RECONNECT line is published after this call
+         */
+        default void onReconnect() {
+        }
+
+    }
+
+    private final EventManager eventManager;
+
+    private final MessageIdDeduplicator messageDeduplicator;
+
+    private final ChannelStateStore channelStates;
+
+    private final ConnectionHandler connectionHandler;
+
+    private final LongAdder lines = new LongAdder();
+
+    private final LongAdder published = new LongAdder();
+
+    /**
+     * Time to parse a line into an IRCMessageEvent, null to not measure it
+     */
+    @Setter
+    private volatile LatencyHistogram parseLatency;
+
+    /**
+     * Time to publish an IRCMessageEvent, null to not measure it
+     */
+    @Setter
+    private volatile LatencyHistogram dispatchLatency;
+
+    /**
+     * Constructor
+     *
+     * @param eventManager        Event Manager the parsed messages are published to
+     * @param messageDeduplicator Deduplicator for message ids, null to disable
+     * @param channelStates       Room and user states, updated by ROOMSTATE and USERSTATE before they are published
+     * @param connectionHandler   Receives the connection-level lines
+     */
+    public IRCInboundPipeline(EventManager eventManager, MessageIdDeduplicator messageDeduplicator, ChannelStateStore channelStates, ConnectionHandler connectionHandler) {
+        this.eventManager = eventManager;
+        this.messageDeduplicator = messageDeduplicator;
+        this.channelStates = channelStates;
+        this.connectionHandler = connectionHandler != null ? connectionHandler : ConnectionHandler.NONE;
+    }
+
+    /**
+     * Handles a websocket text frame, which can contain multiple irc lines
+     * <p>
+     * Lines are separated by CR and/or LF and handed to {@link #onLine(String)} without normalizing the frame first.
+     *
+     * @param text websocket frame
+     */
+    public void onFrame(String text) {
+        final int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            char c;
+            while (lineEnd < length && (c = text.charAt(lineEnd)) != '\n' && c != '\r') {
+                lineEnd++;
+            }
+
+            if (lineEnd > lineStart) {
+                onLine(lineStart == 0 && lineEnd == length ? text : text.substring(lineStart, lineEnd));
+            }
+
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Handles a single irc line
+     * <p>
+     * Connection-level messages (PING, CAP, login failures) are recognized by their command, everything else is parsed into an {@link IRCMessageEvent}.
+     *
+     * @param message irc line, without line terminator
+     */
+    public void onLine(String message) {
+        log.trace("Received WebSocketMessage: {}", message);
+        lines.increment();
+
+        final char first = message.charAt(0);
+        // - Ping
+        if (first == 'P' && message.startsWith("PING") && (message.length() == 4 || message.charAt(4) == ' ')) {
+            connectionHandler.onPing(message);
+            return;
+        }
+
+        // - Untagged server messages
+        if (first == ':' && message.startsWith(TMI_PREFIX)) {
+            final int command = TMI_PREFIX.length();
+            // - CAP
+            if (message.startsWith("CAP * ACK :", command)) {
+                for (String cap : message.substring(command + 11).split(" ")) {
+                    log.debug("Acquired chat capability: " + cap);
+                }
+                return;
+            } else if (message.startsWith("CAP * NAK", command) || message.startsWith("410 ", command)) {
+                log.error("Failed to acquire requested IRC capabilities!");
+                return;
+            }
+            // - Server restart, move to a new connection (the line is still published below)
+            else if (message.startsWith("RECONNECT", command) && message.length() == command + 9) {
+                connectionHandler.onReconnect();
+            }
+            // - PONG to a client-initiated PING
+            else if (message.startsWith("PONG ", command)) {
+                connectionHandler.onPong(message);
+                return;
+            }
+            // - Login failed.
+            else if (message.equals(":tmi.twitch.tv NOTICE * :Login authentication failed")) {
+                log.error("Invalid IRC Credentials. Login failed!");
+                return;
+            }
+        }
+
+        // - Parse IRC Message
+        try {
+            final LatencyHistogram parseLatency = this.parseLatency;
+            final LatencyHistogram dispatchLatency = this.dispatchLatency;
+            long t0 = parseLatency != null ? System.nanoTime() : 0L;
+            IRCMessageEvent event = new IRCMessageEvent(message);
+            boolean valid = event.isValid();
+            if (parseLatency != null)
+                parseLatency.record(System.nanoTime() - t0);
+
+            if (valid) {
+                if (messageDeduplicator != null && isDuplicate(event)) {
+                    log.trace("Dropping duplicate message {}", message);
+                    return;
+                }
+                updateChannelState(event);
+
+                long t1 = dispatchLatency != null ? System.nanoTime() : 0L;
+                eventManager.publish(event);
+                if (dispatchLatency != null)
+                    dispatchLatency.record(System.nanoTime() - t1);
+                published.increment();
+            } else {
+                log.trace("Can't parse {}", event.getRawMessage());
+            }
+        } catch (Exception ex) {
+            log.error(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return the amount of handled lines
+     */
+    public long getLineCount() {
+        return lines.sum();
+    }
+
+    /**
+     * @return the amount of lines that were parsed into a valid message and published
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * Checks whether a PRIVMSG or USERNOTICE has already been received, e.g. before a reconnect or on another connection
+     *
+     * @param event IRCMessageEvent
+     * @return whether the message is a duplicate
+     */
+    private boolean isDuplicate(IRCMessageEvent event) {
+        String command = event.getCommandType();
+        if (!"PRIVMSG".equals(command) && !"USERNOTICE".equals(command))
+            return false;
+
+        String id = event.getTagView().get(IRCTag.ID);
+        return id != null && messageDeduplicator.isDuplicate(id);
+    }
+
+    /**
+     * Applies ROOMSTATE and USERSTATE to the channel states, before the message is published so listeners see the new state
+     *
+     * @param event IRCMessageEvent
+     */
+    private void updateChannelState(IRCMessageEvent event) {
+        final String commandType = event.getCommandType();
+        if ("ROOMSTATE".equals(commandType)) {
+            channelStates.onRoomState(event);
+        } else if ("USERSTATE".equals(commandType)) {
+            channelStates.onUserState(event);
+        }
+    }
+
+}
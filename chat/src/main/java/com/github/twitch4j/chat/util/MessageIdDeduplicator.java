@@ -0,0 +1,187 @@
+package com.github.twitch4j.chat.util;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recognizes messages that have already been seen by their id, e.g. lines delivered twice around a reconnect or
+ * while a channel is joined on two connections of a pool
+ * <p>
+ * Ids are stored as 128-bit keys in two generations of open-addressing hash tables, the current generation is checked and filled,
+ * the previous one is only checked. Generations rotate once the window has passed or the current one is full,
+ * so an id is remembered for at least one window unless more than {@code maxIdsPerWindow} ids arrive in that time.
+ * The tables are allocated once and reused, the memory stays flat regardless of the message rate.
+ * <p>
+ * Twitch message ids are UUIDs and are parsed into their 128 bits, other ids are hashed into 128 bits.
+ * <p>
+ * This class is thread-safe, a single instance can be shared by multiple connections.
+ */
+public class MessageIdDeduplicator {
+
+    /**
+     * Maximum load of a generation, as a fraction of its slots
+     */
+    private static final double MAX_LOAD = 0.5;
+
+    private final long windowNanos;
+
+    private final int maxIdsPerWindow;
+
+    private final int mask;
+
+    /**
+     * Current generation, two longs per slot, both zero for an empty slot
+     */
+    private long[] current;
+
+    /**
+     * Previous generation, only used for lookups
+     */
+    private long[] previous;
+
+    private int currentSize;
+
+    private long currentStart = System.nanoTime();
+
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param window          minimum time an id is remembered
+     * @param maxIdsPerWindow maximum amount of ids per window, determines the memory usage (32 bytes per id and generation)
+     */
+    public MessageIdDeduplicator(Duration window, int maxIdsPerWindow) {
+        if (maxIdsPerWindow <= 0)
+            throw new IllegalArgumentException("maxIdsPerWindow must be positive");
+
+        int slots = Integer.highestOneBit((int) Math.min(Math.ceil(maxIdsPerWindow / MAX_LOAD), 1 << 29) - 1) << 1;
+        this.windowNanos = window.toNanos();
+        this.maxIdsPerWindow = (int) Math.min(maxIdsPerWindow, (long) (slots * MAX_LOAD));
+        this.mask = slots - 1;
+        this.current = new long[slots << 1];
+        this.previous = new long[slots << 1];
+    }
+
+    /**
+     * Constructor, remembers up to 32768 ids for at least a minute
+     */
+    public MessageIdDeduplicator() {
+        this(Duration.ofMinutes(1), 32_768);
+    }
+
+    /**
+     * Checks whether an id has been seen before and remembers it
+     *
+     * @param id message id
+     * @return true if the id has been seen within the window
+     */
+    public boolean isDuplicate(String id) {
+        // parse uuids into their 128 bits in a single pass
+        long hi = 0L, lo = 0L;
+        boolean uuid = id.length() == 36;
+        for (int i = 0, digits = 0; uuid && i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                uuid = c == '-';
+            } else {
+                int digit = hexDigit(c);
+                if (digit < 0) {
+                    uuid = false;
+                } else if (digits++ < 16) {
+                    hi = hi << 4 | digit;
+                } else {
+                    lo = lo << 4 | digit;
+                }
+            }
+        }
+        if (!uuid) {
+            hi = hash(id, 0x9E3779B97F4A7C15L);
+            lo = hash(id, 0xC2B2AE3D27D4EB4FL);
+        }
+        if (hi == 0L && lo == 0L)
+            lo = 1L; // zero marks empty slots
+
+        boolean duplicate = isDuplicate(hi, lo);
+        if (duplicate)
+            duplicates.increment();
+        return duplicate;
+    }
+
+    /**
+     * @return the amount of duplicates found
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    private synchronized boolean isDuplicate(long hi, long lo) {
+        final long now = System.nanoTime();
+        if (now - currentStart >= windowNanos || currentSize >= maxIdsPerWindow)
+            rotate(now);
+
+        final int start = (int) mix(hi ^ lo) & mask;
+        if (contains(previous, start, hi, lo))
+            return true;
+
+        final long[] table = current;
+        for (int slot = start; ; slot = (slot + 1) & mask) {
+            final int i = slot << 1;
+            long slotHi = table[i], slotLo = table[i + 1];
+            if (slotHi == hi && slotLo == lo)
+                return true;
+            if (slotHi == 0L && slotLo == 0L) {
+                table[i] = hi;
+                table[i + 1] = lo;
+                currentSize++;
+                return false;
+            }
+        }
+    }
+
+    private boolean contains(long[] table, int start, long hi, long lo) {
+        for (int slot = start; ; slot = (slot + 1) & mask) {
+            final int i = slot << 1;
+            long slotHi = table[i], slotLo = table[i + 1];
+            if (slotHi == hi && slotLo == lo)
+                return true;
+            if (slotHi == 0L && slotLo == 0L)
+                return false;
+        }
+    }
+
+    private void rotate(long now) {
+        long[] recycled = previous;
+        Arrays.fill(recycled, 0L);
+        previous = current;
+        current = recycled;
+        currentSize = 0;
+        currentStart = now;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        char lower = (char) (c | 0x20);
+        return lower >= 'a' && lower <= 'f' ? lower - 'a' + 10 : -1;
+    }
+
+    private static long hash(String s, long seed) {
+        long h = seed;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.enums.OutboundLane;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An irc command waiting in the outbound queue
+ */
+@Getter
+@RequiredArgsConstructor
+public final class OutboundCommand {
+
+    /**
+     * Lane the command is queued in
+     */
+    private final OutboundLane lane;
+
+    /**
+     * Target channel, null for commands that are not bound to a channel
+     */
+    private final String channel;
+
+    /**
+     * Raw irc command
+     */
+    private final String command;
+
+    /**
+     * {@link System#nanoTime()} when the command was queued, used to measure the send latency
+     */
+    private final long queuedNanos = System.nanoTime();
+
+    /**
+     * Completed when the command has been written to the socket, or exceptionally if it was dropped
+     */
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+}
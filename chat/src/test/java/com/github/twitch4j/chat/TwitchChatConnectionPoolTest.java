@@ -0,0 +1,137 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.util.FakeTMIServer;
+import com.github.twitch4j.chat.util.TestUtils;
+import com.github.twitch4j.common.events.user.PrivateMessageEvent;
+import com.github.twitch4j.common.util.LocalWebSocketServer;
+import io.github.bucket4j.Bandwidth;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.github.twitch4j.common.util.AwaitUtils.awaitTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class TwitchChatConnectionPoolTest {
+
+    @Test
+    @DisplayName("Spreads channels over connections without exceeding the per-connection cap")
+    public void shardChannels() throws Exception {
+        try (LocalWebSocketServer server = new LocalWebSocketServer();
+             TwitchChatConnectionPool pool = TwitchChatConnectionPoolBuilder.builder()
+                 .withChatBuilder(TwitchChatBuilder.builder().withBaseUrl(server.getUrl()).withChatQueueTimeout(50L))
+                 .withMaxChannelsPerConnection(3)
+                 .build()) {
+            for (int i = 0; i < 10; i++) {
+                pool.joinChannel("Channel" + i);
+            }
+
+            assertEquals(4, pool.getConnectionCount());
+            assertEquals(10, pool.getCurrentChannels().size());
+            assertTrue(pool.isChannelJoined("channel7"));
+            awaitTrue(() -> countJoins(server) == 10);
+
+            List<LocalWebSocketServer.Connection> connections = server.getConnections();
+            assertEquals(4, connections.size());
+            for (LocalWebSocketServer.Connection connection : connections) {
+                long joins = joinedChannels(connection).distinct().count();
+                assertTrue(joins >= 1 && joins <= 3, "connection exceeds the channel cap");
+            }
+
+            // messages are sent by the connection that joined the channel
+            pool.sendMessage("channel7", "hello");
+            LocalWebSocketServer.Connection owner = connections.stream().filter(c -> joinedChannels(c).anyMatch("channel7"::equals)).findFirst().get();
+            awaitTrue(() -> owner.getReceived().contains("PRIVMSG #channel7 :hello"));
+
+            // freed capacity is reused before opening another connection
+            pool.leaveChannel("channel7");
+            pool.joinChannel("channel10");
+            assertEquals(4, pool.getConnectionCount());
+            assertEquals(10, pool.getCurrentChannels().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Events of the own channel and whispers are received once with a named account")
+    public void namedAccount() throws Exception {
+        try (FakeTMIServer server = new FakeTMIServer();
+             TwitchChatConnectionPool pool = TwitchChatConnectionPoolBuilder.builder()
+                 .withChatBuilder(TwitchChatBuilder.builder()
+                     .withBaseUrl(server.getUrl())
+                     .withChatQueueTimeout(50L)
+                     .withChatAccount(new OAuth2Credential("twitch", "token", null, "1", "Bot", null, null)))
+                 .withMaxChannelsPerConnection(2)
+                 .build()) {
+            List<ChannelMessageEvent> messages = new CopyOnWriteArrayList<>();
+            List<PrivateMessageEvent> whispers = new CopyOnWriteArrayList<>();
+            pool.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ChannelMessageEvent.class, messages::add);
+            pool.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(PrivateMessageEvent.class, whispers::add);
+
+            for (int i = 0; i < 4; i++) {
+                pool.joinChannel("Channel" + i);
+            }
+            pool.joinChannel("bot");
+            assertEquals(2, pool.getConnectionCount());
+            awaitTrue(() -> IntStream.range(0, 4).allMatch(i -> server.getJoinedConnections("channel" + i) == 1) && server.getJoinedConnections("bot") == 1);
+
+            server.broadcast("bot", FakeTMIServer.privmsg("bot", 1));
+            server.whisper("friend", "bot", "hello");
+            awaitTrue(() -> messages.size() == 1 && whispers.size() == 1);
+            TestUtils.sleepFor(200);
+            assertEquals(1, messages.size());
+            assertEquals(1, whispers.size());
+            assertEquals("hello", whispers.get(0).getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("The message limit of the account is shared by all connections")
+    public void sharedMessageBucket() throws Exception {
+        try (FakeTMIServer server = new FakeTMIServer();
+             TwitchChatConnectionPool pool = TwitchChatConnectionPoolBuilder.builder()
+                 .withChatBuilder(TwitchChatBuilder.builder()
+                     .withBaseUrl(server.getUrl())
+                     .withChatQueueTimeout(50L)
+                     .withChatRateLimit(Bandwidth.simple(10, Duration.ofSeconds(30))))
+                 .withMaxChannelsPerConnection(1)
+                 .build()) {
+            pool.joinChannel("channel0");
+            pool.joinChannel("channel1");
+            assertEquals(2, pool.getConnectionCount());
+            awaitTrue(() -> server.getJoinedConnections("channel0") == 1 && server.getJoinedConnections("channel1") == 1);
+
+            // the login commands of both connections take tokens of the same bucket as well
+            for (int i = 0; i < 10; i++) {
+                pool.sendMessage("channel0", "message " + i);
+                pool.sendMessage("channel1", "message " + i);
+            }
+            awaitTrue(() -> server.getAcceptedMessages().get() > 0);
+            TestUtils.sleepFor(500);
+            assertTrue(server.getAcceptedMessages().get() <= 10, "the connections exceed the message limit of the account");
+        }
+    }
+
+    private static long countJoins(LocalWebSocketServer server) {
+        return server.getConnections().stream().flatMap(TwitchChatConnectionPoolTest::joinedChannels).distinct().count();
+    }
+
+    private static Stream<String> joinedChannels(LocalWebSocketServer.Connection connection) {
+        return connection.getReceived().stream()
+            .filter(line -> line.startsWith("JOIN #"))
+            .flatMap(line -> Arrays.stream(line.substring(5).split(",")))
+            .map(channel -> channel.substring(1));
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.enums.TMIConnectionState;
+import com.github.twitch4j.chat.events.ConnectionStateEvent;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.SubscriptionEvent;
+import com.github.twitch4j.chat.util.FakeTMIServer;
+import com.github.twitch4j.chat.util.TestUtils;
+import com.github.twitch4j.common.util.ThreadUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class TwitchChatFakeServerTest {
+
+    @Test
+    @DisplayName("Synthetic traffic is parsed and published completely")
+    public void traffic() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (FakeTMIServer server = new FakeTMIServer();
+             TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(server.getUrl())
+                 .withScheduledThreadPoolExecutor(executor)
+                 .build()) {
+            server.setSlowMode("loadtest", 3);
+            AtomicLong messages = new AtomicLong();
+            AtomicLong subscriptions = new AtomicLong();
+            chat.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ChannelMessageEvent.class, e -> messages.incrementAndGet());
+            chat.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(SubscriptionEvent.class, e -> subscriptions.incrementAndGet());
+
+            chat.joinChannel("loadtest");
+            for (int i = 0; i < 100 && server.getJoinedConnections("loadtest") == 0; i++) {
+                TestUtils.sleepFor(10);
+            }
+            for (int i = 0; i < 100 && chat.slowModeSeconds("loadtest") == 0; i++) {
+                TestUtils.sleepFor(10);
+            }
+            assertEquals(3, chat.slowModeSeconds("loadtest"), "slow mode should be taken from the ROOMSTATE");
+
+            ScheduledFuture<?> traffic = server.startTraffic("loadtest", 2_000, 10);
+            for (int i = 0; i < 200 && server.getGeneratedLines().get() < 1_000; i++) {
+                TestUtils.sleepFor(10);
+            }
+            traffic.cancel(false);
+            TestUtils.sleepFor(50);
+
+            long generated = server.getGeneratedLines().get();
+            for (int i = 0; i < 200 && messages.get() + subscriptions.get() < generated; i++) {
+                TestUtils.sleepFor(10);
+            }
+            assertTrue(generated >= 1_000);
+            assertEquals(generated, messages.get() + subscriptions.get());
+            assertEquals(generated / 10, subscriptions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Channels are joined again after the server sent RECONNECT")
+    public void reconnect() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (FakeTMIServer server = new FakeTMIServer();
+             TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(server.getUrl())
+                 .withScheduledThreadPoolExecutor(executor)
+                 .build()) {
+            chat.joinChannel("channel");
+            for (int i = 0; i < 100 && server.getJoinedConnections("channel") == 0; i++) {
+                TestUtils.sleepFor(10);
+            }
+
+            for (int round = 1; round <= 3; round++) {
+                server.reconnectAll(Duration.ofMillis(20));
+                for (int i = 0; i < 200 && (server.getConnections().size() <= round || server.getJoinedConnections("channel") == 0); i++) {
+                    TestUtils.sleepFor(10);
+                }
+                assertEquals(round + 1, server.getConnections().size());
+                assertEquals(1, server.getJoinedConnections("channel"));
+            }
+            assertEquals(TMIConnectionState.CONNECTED, chat.getConnectionState());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Client PINGs measure the round trip time and a connection without PONGs is replaced")
+    public void stalePing() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (FakeTMIServer server = new FakeTMIServer();
+             TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(server.getUrl())
+                 .withScheduledThreadPoolExecutor(executor)
+                 .withPingInterval(Duration.ofMillis(50))
+                 .withPingTimeout(Duration.ofMillis(200))
+                 .build()) {
+            for (int i = 0; i < 100 && chat.getPingLatency().getCount() < 2; i++) {
+                TestUtils.sleepFor(20);
+            }
+            assertTrue(chat.getPingLatency().getCount() >= 2, "round trip times should be recorded");
+            assertEquals(1, server.getConnections().size());
+
+            // the server stops answering, like a half-open connection
+            server.setRespondToPing(false);
+            for (int i = 0; i < 100 && server.getConnections().size() < 2; i++) {
+                TestUtils.sleepFor(20);
+            }
+            assertEquals(2, server.getConnections().size(), "the stale connection should be replaced");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Client PINGs keep running with the default timeout if none is configured")
+    public void defaultPingTimeout() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (FakeTMIServer server = new FakeTMIServer();
+             TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(server.getUrl())
+                 .withScheduledThreadPoolExecutor(executor)
+                 .withPingInterval(Duration.ofMillis(50))
+                 .withPingTimeout(null)
+                 .build()) {
+            for (int i = 0; i < 100 && chat.getPingLatency().getCount() < 3; i++) {
+                TestUtils.sleepFor(20);
+            }
+            assertTrue(chat.getPingLatency().getCount() >= 3, "round trip times should be recorded");
+            assertEquals(Duration.ofSeconds(10), chat.pingTimeout);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("After RECONNECT the client moves to a new connection and closes the old one without waiting for the server")
+    public void handover() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (FakeTMIServer server = new FakeTMIServer();
+             TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(server.getUrl())
+                 .withScheduledThreadPoolExecutor(executor)
+                 .build()) {
+            List<ConnectionStateEvent> states = new CopyOnWriteArrayList<>();
+            chat.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ConnectionStateEvent.class, states::add);
+            chat.joinChannel("channel");
+            for (int i = 0; i < 100 && server.getJoinedConnections("channel") == 0; i++) {
+                TestUtils.sleepFor(10);
+            }
+
+            // the server would only close the old connection after 10 seconds
+            states.clear();
+            server.reconnectAll(Duration.ofSeconds(10));
+            for (int i = 0; i < 300 && (server.getConnections().size() < 2 || !server.getConnections().get(0).isClosed() || server.getJoinedConnections("channel") == 0); i++) {
+                TestUtils.sleepFor(10);
+            }
+            assertEquals(2, server.getConnections().size());
+            assertTrue(server.getConnections().get(0).isClosed(), "the old connection should be closed by the client");
+            assertTrue(server.getConnections().get(1).getReceived().contains("JOIN #channel"), "the new connection should have joined");
+            assertEquals(1, server.getJoinedConnections("channel"));
+            assertEquals(TMIConnectionState.CONNECTED, chat.getConnectionState());
+            assertTrue(states.isEmpty(), "the connection state should not change during a handover");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Failed connection attempts are retried with backoff and published as state changes")
+    public void backoff() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        String url;
+        try (FakeTMIServer server = new FakeTMIServer()) {
+            url = server.getUrl(); // nothing listens on this port anymore
+        }
+
+        try (TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(url)
+                 .withScheduledThreadPoolExecutor(executor)
+                 .withReconnectBaseDelay(Duration.ofMillis(10))
+                 .withReconnectMaxDelay(Duration.ofMillis(40))
+                 .build()) {
+            List<ConnectionStateEvent> states = new CopyOnWriteArrayList<>();
+            chat.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ConnectionStateEvent.class, states::add);
+            for (int i = 0; i < 200 && states.stream().noneMatch(e -> e.getFailedAttempts() >= 4); i++) {
+                TestUtils.sleepFor(10);
+            }
+
+            assertTrue(states.stream().anyMatch(e -> e.getFailedAttempts() >= 4), "attempts should continue after failures");
+            assertFalse(states.stream().anyMatch(e -> e.getState() == TMIConnectionState.CONNECTED));
+            for (ConnectionStateEvent event : states) {
+                assertTrue(event.getState() == TMIConnectionState.CONNECTING || event.getState() == TMIConnectionState.RECONNECTING);
+                assertTrue(event.getPreviousState() != event.getState());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
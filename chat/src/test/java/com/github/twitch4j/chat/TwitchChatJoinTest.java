@@ -0,0 +1,64 @@
+package com.github.twitch4j.chat;
+
+import com.github.twitch4j.chat.util.TestUtils;
+import com.github.twitch4j.common.util.LocalWebSocketServer;
+import com.github.twitch4j.common.util.ThreadUtils;
+import io.github.bucket4j.Bandwidth;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class TwitchChatJoinTest {
+
+    @Test
+    @DisplayName("Joins channels in batches paced by the join bucket")
+    public void batchedJoins() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (LocalWebSocketServer server = new LocalWebSocketServer();
+             TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(server.getUrl())
+                 .withJoinRateLimit(Bandwidth.simple(5, Duration.ofMillis(500)))
+                 .withScheduledThreadPoolExecutor(executor)
+                 .withChatQueueTimeout(50L)
+                 .build()) {
+            chat.joinChannels(IntStream.range(0, 12).mapToObj(i -> "Channel" + i).collect(Collectors.toList()));
+            assertEquals(12, chat.getCurrentChannels().size());
+
+            for (int i = 0; i < 100 && joinedChannels(server).size() < 12; i++) {
+                TestUtils.sleepFor(50);
+            }
+
+            List<String> joined = joinedChannels(server);
+            assertEquals(12, joined.size(), "every channel should be joined exactly once");
+            assertEquals(12, joined.stream().distinct().count());
+
+            List<String> joinLines = joinLines(server);
+            assertTrue(joinLines.size() >= 3, "joins should be spread over multiple commands");
+            assertEquals(5, joinLines.get(0).split(",").length);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<String> joinLines(LocalWebSocketServer server) {
+        return server.getConnections().get(0).getReceived().stream().filter(line -> line.startsWith("JOIN ")).collect(Collectors.toList());
+    }
+
+    private static List<String> joinedChannels(LocalWebSocketServer server) {
+        if (server.getConnections().isEmpty())
+            return Arrays.asList();
+        return joinLines(server).stream().flatMap(line -> Arrays.stream(line.substring(5).split(","))).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.github.twitch4j.chat;
+
+import com.github.twitch4j.chat.enums.OutboundLane;
+import com.github.twitch4j.chat.enums.QueueOverflowPolicy;
+import com.github.twitch4j.chat.enums.TMIConnectionState;
+import com.github.twitch4j.chat.exception.ChatQueueFullException;
+import com.github.twitch4j.chat.util.TestUtils;
+import com.github.twitch4j.common.util.LocalWebSocketServer;
+import com.github.twitch4j.common.util.ThreadUtils;
+import io.github.bucket4j.Bandwidth;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class TwitchChatOutboundTest {
+
+    @Test
+    @DisplayName("Moderation commands overtake queued chat messages and the queue does not occupy a thread")
+    public void priorityLanes() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (LocalWebSocketServer server = new LocalWebSocketServer();
+             TwitchChat chat = TwitchChatBuilder.builder()
+                 .withBaseUrl(server.getUrl())
+                 .withChatRateLimit(Bandwidth.simple(100, Duration.ofSeconds(30)))
+                 .withModeratorChatRateLimit(Bandwidth.simple(1, Duration.ofSeconds(1)))
+                 .withScheduledThreadPoolExecutor(executor)
+                 .build()) {
+            for (int i = 0; i < 100 && chat.getConnectionState() != TMIConnectionState.CONNECTED; i++) {
+                TestUtils.sleepFor(10);
+            }
+
+            // m0 uses the only token, everything else has to wait for the refill
+            chat.sendMessage("channel", "m0");
+            for (int i = 0; i < 100 && privmsgs(server).isEmpty(); i++) {
+                TestUtils.sleepFor(10);
+            }
+            chat.sendMessage("channel", "m1");
+            chat.sendMessage("channel", "m2");
+            chat.ban("channel", "user", null);
+
+            for (int i = 0; i < 100 && privmsgs(server).size() < 4; i++) {
+                TestUtils.sleepFor(50);
+            }
+
+            assertEquals(Arrays.asList("m0", "/ban user", "m1", "m2"), privmsgs(server));
+            assertEquals(3, chat.getSendLatency(OutboundLane.CHAT).getCount());
+            assertEquals(1, chat.getSendLatency(OutboundLane.MODERATION).getCount());
+
+            TestUtils.sleepFor(50);
+            assertEquals(0, executor.getActiveCount(), "no thread should be busy while nothing is queued");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Send futures complete once written and overflowing queues drop the oldest message")
+    public void sendFutures() throws Exception {
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-test", TwitchChat.REQUIRED_THREAD_COUNT);
+        try (LocalWebSocketServer server = new LocalWebSocketServer()) {
+            TwitchChat chat = TwitchChatBuilder.builder()
+                .withBaseUrl(server.getUrl())
+                .withChatQueueSize(2)
+                .withQueueOverflowPolicy(QueueOverflowPolicy.DROP_OLDEST)
+                .withChatRateLimit(Bandwidth.simple(100, Duration.ofSeconds(30)))
+                .withModeratorChatRateLimit(Bandwidth.simple(1, Duration.ofSeconds(30)))
+                .withScheduledThreadPoolExecutor(executor)
+                .build();
+            for (int i = 0; i < 100 && chat.getConnectionState() != TMIConnectionState.CONNECTED; i++) {
+                TestUtils.sleepFor(10);
+            }
+
+            chat.sendMessage("channel", "m0").get(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 100 && privmsgs(server).isEmpty(); i++) {
+                TestUtils.sleepFor(10);
+            }
+            assertEquals(Arrays.asList("m0"), privmsgs(server));
+
+            CompletableFuture<Void> m1 = chat.sendMessage("channel", "m1");
+            CompletableFuture<Void> m2 = chat.sendMessage("channel", "m2");
+            CompletableFuture<Void> m3 = chat.sendMessage("channel", "m3");
+            ExecutionException dropped = assertThrows(ExecutionException.class, () -> m1.get(1, TimeUnit.SECONDS));
+            assertTrue(dropped.getCause() instanceof ChatQueueFullException);
+            assertEquals(2, chat.getQueueDepth(OutboundLane.CHAT));
+            assertEquals(1, chat.getDroppedCount(OutboundLane.CHAT));
+
+            chat.close();
+            assertTrue(m2.isCompletedExceptionally());
+            assertTrue(m3.isCompletedExceptionally());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<String> privmsgs(LocalWebSocketServer server) {
+        if (server.getConnections().isEmpty())
+            return Arrays.asList();
+        return server.getConnections().get(0).getReceived().stream()
+            .filter(line -> line.startsWith("PRIVMSG #channel :"))
+            .map(line -> line.substring(18))
+            .collect(Collectors.toList());
+    }
+
+}
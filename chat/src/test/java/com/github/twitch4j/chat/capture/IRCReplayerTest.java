@@ -0,0 +1,108 @@
+package com.github.twitch4j.chat.capture;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.util.MessageIdDeduplicator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IRCReplayerTest {
+
+    private static final String MESSAGE = "@badge-info=;badges=;color=#FF0000;display-name=Viewer;emotes=;id=b34ccfc7-4977-403a-8a94-33c6bac34fb8;mod=0;room-id=12345;subscriber=0;tmi-sent-ts=1507246572675;turbo=0;user-id=67890;user-type= :viewer!viewer@viewer.tmi.twitch.tv PRIVMSG #channel :hello";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Frames are read back in order with their timing")
+    public void roundTrip() throws Exception {
+        Path file = tempDir.resolve("capture.bin");
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 100_000) {
+            large.append(MESSAGE).append("\r\n");
+        }
+
+        try (IRCCaptureWriter writer = new IRCCaptureWriter(file)) {
+            long now = System.nanoTime();
+            writer.write(now + 1_000_000L, "PING :tmi.twitch.tv");
+            writer.write(now + 3_000_000L, "héllo wörld");
+            writer.write(now + 5_000_000L, large.toString());
+        }
+
+        try (IRCCaptureReader reader = new IRCCaptureReader(file)) {
+            assertTrue(reader.next());
+            assertEquals("PING :tmi.twitch.tv", reader.getText());
+            long first = reader.getOffsetNanos();
+            assertTrue(reader.next());
+            assertEquals("héllo wörld", reader.getText());
+            assertEquals(2_000_000L, reader.getOffsetNanos() - first);
+            assertTrue(reader.next());
+            assertEquals(large.toString(), reader.getText());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("A replay publishes the captured messages")
+    public void replay() throws Exception {
+        Path file = tempDir.resolve("capture.bin");
+        try (IRCCaptureWriter writer = new IRCCaptureWriter(file)) {
+            writer.write(MESSAGE + "\r\n" + MESSAGE.replace("hello", "world") + "\r\n");
+            writer.write("PING :tmi.twitch.tv\r\n");
+            writer.write(MESSAGE.replace("hello", "!again"));
+        }
+
+        IRCReplayer replayer = new IRCReplayer();
+        List<String> messages = new ArrayList<>();
+        replayer.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ChannelMessageEvent.class, e -> messages.add(e.getMessage()));
+
+        ReplayResult result = replayer.replay(file, IRCReplayer.MAX_SPEED);
+        assertEquals(3, result.getFrames());
+        assertEquals(4, result.getLines());
+        assertEquals(3, result.getPublished()); // PING is handled as a connection-level line
+        assertEquals(3, result.getParseLatency().getCount());
+        assertEquals(0, result.getScheduleLag().getCount());
+        assertEquals(3, messages.size());
+        assertEquals("!again", messages.get(2));
+    }
+
+    @Test
+    @DisplayName("A replay drops duplicates and tracks the channel states like a live connection")
+    public void replayPipeline() throws Exception {
+        Path file = tempDir.resolve("capture.bin");
+        try (IRCCaptureWriter writer = new IRCCaptureWriter(file)) {
+            writer.write("@emote-only=0;followers-only=-1;r9k=0;room-id=12345;slow=10;subs-only=0 :tmi.twitch.tv ROOMSTATE #channel\r\n" + MESSAGE);
+            writer.write(MESSAGE); // delivered again, e.g. around a reconnect
+        }
+
+        IRCReplayer replayer = new IRCReplayer(newEventManager(), new MessageIdDeduplicator(Duration.ofMinutes(1), 1000));
+        List<String> messages = new ArrayList<>();
+        replayer.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ChannelMessageEvent.class, e -> messages.add(e.getMessage()));
+
+        ReplayResult result = replayer.replay(file, IRCReplayer.MAX_SPEED);
+        assertEquals(3, result.getLines());
+        assertEquals(2, result.getPublished());
+        assertEquals(1, messages.size());
+        assertEquals(10, replayer.getChannelStates().getSlowModeSeconds("channel"));
+    }
+
+    private static EventManager newEventManager() {
+        EventManager eventManager = new EventManager();
+        eventManager.registerEventHandler(new SimpleEventHandler());
+        return eventManager;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.github.twitch4j.chat.command;
+
+import com.github.twitch4j.chat.events.CommandEvent;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.common.enums.CommandPermission;
+import com.github.twitch4j.common.events.domain.EventChannel;
+import com.github.twitch4j.common.events.domain.EventUser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class CommandRegistryTest {
+
+    private static ChannelMessageEvent message(String userId, String text, Set<CommandPermission> permissions) {
+        return new ChannelMessageEvent(new EventChannel("1", "channel"), null, new EventUser(userId, "user" + userId), text, permissions);
+    }
+
+    @Test
+    @DisplayName("Dispatches commands by longest prefix and name")
+    public void dispatch() {
+        CommandRegistry registry = new CommandRegistry(Arrays.asList("!", "!!"));
+        List<List<String>> calls = new ArrayList<>();
+        List<CommandEvent> unhandled = new ArrayList<>();
+        registry.register(ChatCommand.builder().name("echo").alias("say").handler((event, args) -> calls.add(args)).build());
+
+        assertTrue(registry.dispatch(message("1", "!Echo  hello   world", EnumSet.of(CommandPermission.EVERYONE)), unhandled::add));
+        assertTrue(registry.dispatch(message("1", "!say", EnumSet.of(CommandPermission.EVERYONE)), unhandled::add));
+        assertFalse(registry.dispatch(message("1", "!!unknown arg", EnumSet.of(CommandPermission.EVERYONE)), unhandled::add));
+        assertFalse(registry.dispatch(message("1", "hello !echo", EnumSet.of(CommandPermission.EVERYONE)), unhandled::add));
+
+        assertEquals(Arrays.asList(Arrays.asList("hello", "world"), Collections.emptyList()), calls);
+        assertEquals(1, unhandled.size());
+        assertEquals("!!", unhandled.get(0).getCommandPrefix());
+        assertEquals("unknown arg", unhandled.get(0).getCommand());
+
+        assertTrue(registry.unregister("say"));
+        assertFalse(registry.dispatch(message("1", "!echo", EnumSet.of(CommandPermission.EVERYONE)), unhandled::add));
+    }
+
+    @Test
+    @DisplayName("Checks permissions and cooldowns")
+    public void permissionsAndCooldowns() {
+        CommandRegistry registry = new CommandRegistry(Collections.singletonList("!"));
+        List<String> users = new ArrayList<>();
+        registry.register(ChatCommand.builder().name("clear").requiredPermission(CommandPermission.MODERATOR).handler((event, args) -> users.add(event.getUser().getId())).build());
+        registry.register(ChatCommand.builder().name("hug").userCooldown(Duration.ofMinutes(1)).handler((event, args) -> users.add(event.getUser().getId())).build());
+
+        assertFalse(registry.dispatch(message("1", "!clear", EnumSet.of(CommandPermission.EVERYONE)), event -> {}));
+        assertTrue(registry.dispatch(message("2", "!clear", EnumSet.of(CommandPermission.EVERYONE, CommandPermission.MODERATOR)), event -> {}));
+
+        assertTrue(registry.dispatch(message("1", "!hug", EnumSet.of(CommandPermission.EVERYONE)), event -> {}));
+        assertFalse(registry.dispatch(message("1", "!hug", EnumSet.of(CommandPermission.EVERYONE)), event -> {}));
+        assertTrue(registry.dispatch(message("2", "!hug", EnumSet.of(CommandPermission.EVERYONE)), event -> {}));
+
+        assertEquals(Arrays.asList("2", "1", "2"), users);
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.github.twitch4j.chat.events;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.chat.events.channel.RaidEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IRCEventHandlerTest {
+
+    private EventManager eventManager;
+
+    private IRCEventHandler handler;
+
+    private final List<Object> published = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        eventManager = new EventManager();
+        eventManager.registerEventHandler(new SimpleEventHandler());
+        handler = new IRCEventHandler(null, eventManager);
+        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(ChannelMessageEvent.class, published::add);
+        eventManager.getEventHandler(SimpleEventHandler.class).onEvent(RaidEvent.class, published::add);
+    }
+
+    @Test
+    @DisplayName("Routes messages by command and msg-id")
+    public void routeByCommandAndMessageId() {
+        eventManager.publish(new IRCMessageEvent("@msg-id=raid;msg-param-viewerCount=42;room-id=12826;user-id=1337;login=raider :tmi.twitch.tv USERNOTICE #twitch"));
+        eventManager.publish(new IRCMessageEvent("@room-id=12826;user-id=1337 :someviewer!someviewer@someviewer.tmi.twitch.tv PRIVMSG #twitch :hello"));
+        eventManager.publish(new IRCMessageEvent("@msg-id=unknownnotice;room-id=12826 :tmi.twitch.tv USERNOTICE #twitch"));
+
+        assertEquals(2, published.size());
+        assertEquals(42, ((RaidEvent) published.get(0)).getViewers());
+        assertEquals("hello", ((ChannelMessageEvent) published.get(1)).getMessage());
+    }
+
+    @Test
+    @DisplayName("Registered routes receive their messages, failing handlers do not affect others")
+    public void registerRoute() {
+        List<IRCMessageEvent> deleted = new ArrayList<>();
+        handler.registerRoute("CLEARMSG", e -> { throw new IllegalStateException(); });
+        handler.registerRoute("CLEARMSG", deleted::add);
+        handler.registerRoute("USERNOTICE", "RAID", deleted::add);
+
+        eventManager.publish(new IRCMessageEvent("@login=someviewer;target-msg-id=b34ccfc7 :tmi.twitch.tv CLEARMSG #twitch :bad word"));
+        eventManager.publish(new IRCMessageEvent("@msg-id=raid;msg-param-viewerCount=42;room-id=12826;user-id=1337;login=raider :tmi.twitch.tv USERNOTICE #twitch"));
+
+        assertEquals(2, deleted.size());
+        assertEquals("CLEARMSG", deleted.get(0).getCommandType());
+        assertTrue(published.get(0) instanceof RaidEvent);
+    }
+
+}
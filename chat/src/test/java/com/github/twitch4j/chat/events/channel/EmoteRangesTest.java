@@ -0,0 +1,91 @@
+package com.github.twitch4j.chat.events.channel;
+
+import com.github.twitch4j.common.events.domain.EventChannel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class EmoteRangesTest {
+
+    @Test
+    @DisplayName("Code point positions are translated into string offsets")
+    public void codePoints() {
+        // the face is a surrogate pair: one code point, two chars
+        String message = "😀 Kappa hi Kappa PogChamp";
+        EmoteRanges ranges = EmoteRanges.parse("88:17-24/25:2-6,11-15", message);
+
+        assertEquals(3, ranges.size());
+        assertEquals("25", ranges.getId(0));
+        assertEquals(2, ranges.getStart(0));
+        assertEquals(7, ranges.getEnd(0));
+        assertEquals(3, ranges.getCharStart(0));
+        assertEquals(8, ranges.getCharEnd(0));
+        assertEquals("Kappa", ranges.getText(0));
+        assertEquals("Kappa", ranges.getText(1));
+        assertEquals("PogChamp", ranges.getText(2));
+        assertSame(ranges.getId(0), ranges.getId(1));
+        assertEquals(2, ranges.count("25"));
+    }
+
+    @Test
+    @DisplayName("Malformed, overlapping and out of range positions are dropped")
+    public void invalid() {
+        String message = "Kappa Kappa";
+        EmoteRanges ranges = EmoteRanges.parse("25:0-4,2-3,6-10,6-20/x:a-b/1:30-35/:1-2", message);
+        assertEquals(2, ranges.size());
+        assertEquals(6, ranges.getCharStart(1));
+        assertEquals(11, ranges.getCharEnd(1));
+
+        assertTrue(EmoteRanges.parse(null, message).isEmpty());
+        assertTrue(EmoteRanges.parse("", message).isEmpty());
+        assertSame(EmoteRanges.EMPTY, EmoteRanges.parse("25:20-24", message));
+    }
+
+    @Test
+    @DisplayName("Segments alternate between text and emotes")
+    public void segments() {
+        String message = "Kappa hello Kappa";
+        EmoteRanges.Segments segments = EmoteRanges.parse("25:0-4,12-16", message).segments();
+        List<String> texts = new ArrayList<>();
+        StringBuilder rebuilt = new StringBuilder();
+        while (segments.next()) {
+            texts.add(segments.isEmote() ? "[" + segments.getEmoteId() + "]" : segments.getText());
+            segments.appendTo(rebuilt);
+        }
+        assertEquals(Arrays.asList("[25]", " hello ", "[25]"), texts);
+        assertEquals(message, rebuilt.toString());
+
+        EmoteRanges.Segments plain = EmoteRanges.EMPTY.segments();
+        assertEquals(Collections.emptyList(), collect(plain));
+    }
+
+    @Test
+    @DisplayName("Chat messages decode their emotes tag on first access")
+    public void channelMessage() {
+        IRCMessageEvent raw = new IRCMessageEvent("@badges=;emotes=25:0-4;id=1;room-id=1;user-id=2 :user!user@user.tmi.twitch.tv PRIVMSG #channel :Kappa hi");
+        ChannelMessageEvent event = new ChannelMessageEvent(new EventChannel("1", "channel"), raw, null, raw.getMessage().get(), raw.getClientPermissions());
+        EmoteRanges ranges = event.getEmoteRanges();
+        assertEquals(1, ranges.size());
+        assertEquals("Kappa", ranges.getText(0));
+        assertSame(ranges, event.getEmoteRanges());
+    }
+
+    private static List<String> collect(EmoteRanges.Segments segments) {
+        List<String> texts = new ArrayList<>();
+        while (segments.next()) {
+            texts.add(segments.getText());
+        }
+        return texts;
+    }
+
+}
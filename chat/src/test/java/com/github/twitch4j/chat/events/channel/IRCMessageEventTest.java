@@ -0,0 +1,144 @@
+package com.github.twitch4j.chat.events.channel;
+
+import com.github.twitch4j.chat.enums.IRCTag;
+import com.github.twitch4j.common.enums.CommandPermission;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IRCMessageEventTest {
+
+    @Test
+    @DisplayName("Parses a channel message with tags")
+    public void parseChannelMessage() {
+        IRCMessageEvent event = new IRCMessageEvent("@badge-info=;badges=broadcaster/1;color=#0D4200;display-name=ronni;emotes=25:0-4,12-16/1902:6-10;id=b34ccfc7-4977-403a-8a94-33c6bac34fb8;mod=0;room-id=1337;subscriber=0;tmi-sent-ts=1507246572675;turbo=1;user-id=1337;user-type=global_mod :ronni!ronni@ronni.tmi.twitch.tv PRIVMSG #ronni :Kappa Keepo Kappa");
+
+        assertTrue(event.isValid());
+        assertEquals("PRIVMSG", event.getCommandType());
+        assertEquals(Optional.of("ronni"), event.getClientName());
+        assertEquals(Optional.of("ronni"), event.getChannelName());
+        assertEquals(Optional.of(":Kappa Keepo Kappa"), event.getPayload());
+        assertEquals(Optional.of("Kappa Keepo Kappa"), event.getMessage());
+        assertEquals("1337", event.getChannelId());
+        assertEquals("1337", event.getUserId());
+        assertEquals("25:0-4,12-16/1902:6-10", event.getTags().get("emotes"));
+    }
+
+    @Test
+    @DisplayName("Parses a whisper, whose target is not prefixed with #")
+    public void parseWhisper() {
+        IRCMessageEvent event = new IRCMessageEvent("@badges=staff/1,bits-charity/1;color=#8A2BE2;display-name=PetsgomOO;emotes=;message-id=306;thread-id=12345678_87654321;turbo=0;user-id=87654321;user-type=staff :petsgomoo!petsgomoo@petsgomoo.tmi.twitch.tv WHISPER marc :hello");
+
+        assertTrue(event.isValid());
+        assertEquals("WHISPER", event.getCommandType());
+        assertEquals(Optional.of("petsgomoo"), event.getClientName());
+        assertEquals(Optional.of("marc"), event.getChannelName());
+        assertEquals(Optional.of("hello"), event.getMessage());
+    }
+
+    @Test
+    @DisplayName("Parses messages without tags or payload")
+    public void parseMembershipAndState() {
+        IRCMessageEvent join = new IRCMessageEvent(":ronni!ronni@ronni.tmi.twitch.tv JOIN #dallas");
+        assertEquals("JOIN", join.getCommandType());
+        assertEquals(Optional.of("ronni"), join.getClientName());
+        assertEquals(Optional.of("dallas"), join.getChannelName());
+        assertFalse(join.getPayload().isPresent());
+
+        IRCMessageEvent mode = new IRCMessageEvent(":jtv MODE #dallas +o ronni");
+        assertEquals("MODE", mode.getCommandType());
+        assertFalse(mode.getClientName().isPresent());
+        assertEquals(Optional.of("dallas"), mode.getChannelName());
+        assertEquals(Optional.of("+o ronni"), mode.getPayload());
+
+        IRCMessageEvent roomState = new IRCMessageEvent("@emote-only=0;followers-only=0;r9k=0;slow=10;subs-only=0 :tmi.twitch.tv ROOMSTATE #dallas");
+        assertEquals("ROOMSTATE", roomState.getCommandType());
+        assertEquals(Optional.of("dallas"), roomState.getChannelName());
+        assertEquals("10", roomState.getTags().get("slow"));
+
+        IRCMessageEvent clearChat = new IRCMessageEvent("@ban-duration=1;room-id=1;target-user-id=2;tmi-sent-ts=1 :tmi.twitch.tv CLEARCHAT #dallas :ronni");
+        assertEquals(Optional.of("dallas"), clearChat.getChannelName());
+        assertEquals("ronni", clearChat.getTargetUser().getName());
+    }
+
+    @Test
+    @DisplayName("Reads tags lazily while keeping the map contract")
+    public void readTags() {
+        IRCMessageEvent event = new IRCMessageEvent("@badge-info=;badges=moderator/1;ban-reason=spam\\sand\\:more\\\\;flag;dup=1;dup=2 :tmi.twitch.tv CLEARCHAT #dallas :ronni");
+
+        assertTrue(event.getTags().containsKey("badge-info"));
+        assertNull(event.getTags().get("badge-info"));
+        assertTrue(event.getTags().containsKey("flag"));
+        assertNull(event.getTags().get("flag"));
+        assertFalse(event.getTags().containsKey("badge"));
+        assertEquals("2", event.getTags().get("dup"));
+        assertEquals("spam\\sand\\:more\\\\", event.getTags().get("ban-reason"));
+        assertEquals(Optional.of("spam and;more\\"), event.getTagValue("ban-reason"));
+        assertEquals(Optional.empty(), event.getTagValue("badge-info"));
+        assertEquals(5, event.getTags().size());
+        assertEquals(event.getTags().keySet(), event.getRawTags().keySet());
+        assertThrows(UnsupportedOperationException.class, () -> event.getTags().put("color", "#FFFFFF"));
+
+        IRCMessageEvent untagged = new IRCMessageEvent(":ronni!ronni@ronni.tmi.twitch.tv JOIN #dallas");
+        assertTrue(untagged.getTags().isEmpty());
+        assertNull(untagged.getUserId());
+    }
+
+    @Test
+    @DisplayName("Parses well-known tags into primitives")
+    public void readTypedTags() {
+        IRCMessageEvent event = new IRCMessageEvent("@badges=bits/100;bits=100;mod=1;subscriber=0;room-id=12826;tmi-sent-ts=1591036412312;msg-param-months=x;custom-tag=1 :someviewer!someviewer@someviewer.tmi.twitch.tv PRIVMSG #twitch :cheer100");
+        IRCMessageTags tags = event.getTagView();
+
+        assertEquals(100, tags.getInt(IRCTag.BITS, 0));
+        assertEquals(12826L, tags.getLong(IRCTag.ROOM_ID, 0L));
+        assertEquals(1591036412312L, tags.getLong(IRCTag.TMI_SENT_TS, 0L));
+        assertEquals(-1, tags.getInt(IRCTag.TMI_SENT_TS, -1));
+        assertEquals(1, tags.getInt(IRCTag.MSG_PARAM_MONTHS, 1));
+        assertEquals(0, tags.getInt(IRCTag.MSG_PARAM_SENDER_COUNT, 0));
+        assertTrue(tags.getFlag(IRCTag.MOD));
+        assertFalse(tags.getFlag(IRCTag.SUBSCRIBER));
+        assertEquals("bits/100", tags.get(IRCTag.BADGES));
+        assertEquals("1", tags.get("custom-tag"));
+        assertEquals("12826", event.getChannelId());
+        assertTrue(tags.keySet().contains("custom-tag"));
+    }
+
+    @Test
+    @DisplayName("Rejects lines that do not carry a channel, target or payload")
+    public void rejectUnsupportedLines() {
+        assertFalse(new IRCMessageEvent(":tmi.twitch.tv 001 justinfan :Welcome, GLHF!").isValid());
+        assertFalse(new IRCMessageEvent(":justinfan.tmi.twitch.tv 353 justinfan = #chan :justinfan").isValid());
+        assertFalse(new IRCMessageEvent("@badge-info=;badges=;user-id=1 :tmi.twitch.tv GLOBALUSERSTATE").isValid());
+        assertFalse(new IRCMessageEvent("PING :tmi.twitch.tv").isValid());
+    }
+
+    @Test
+    @DisplayName("Resolves the client permissions from the badges and shares them between messages with the same badges")
+    public void clientPermissions() {
+        IRCMessageEvent founder = new IRCMessageEvent("@badges=founder/0,premium/1,vip/1;user-id=1 :a!a@a.tmi.twitch.tv PRIVMSG #chan :hi");
+        assertEquals(EnumSet.of(CommandPermission.EVERYONE, CommandPermission.FOUNDER, CommandPermission.SUBSCRIBER, CommandPermission.PRIME_TURBO, CommandPermission.VIP), founder.getClientPermissions());
+
+        IRCMessageEvent broadcaster = new IRCMessageEvent("@badges=broadcaster/1,sub-gifter/5,bits-charity/1;user-id=2 :b!b@b.tmi.twitch.tv PRIVMSG #chan :hi");
+        assertEquals(EnumSet.of(CommandPermission.EVERYONE, CommandPermission.BROADCASTER, CommandPermission.MODERATOR, CommandPermission.SUBGIFTER), broadcaster.getClientPermissions());
+
+        IRCMessageEvent noBadges = new IRCMessageEvent("@badges=;user-id=3 :c!c@c.tmi.twitch.tv PRIVMSG #chan :hi");
+        assertEquals(EnumSet.of(CommandPermission.EVERYONE), noBadges.getClientPermissions());
+
+        IRCMessageEvent sameBadges = new IRCMessageEvent("@badges=founder/0,premium/1,vip/1;user-id=4 :d!d@d.tmi.twitch.tv PRIVMSG #chan :hi");
+        assertSame(founder.getClientPermissions(), sameBadges.getClientPermissions());
+        assertThrows(UnsupportedOperationException.class, () -> sameBadges.getClientPermissions().add(CommandPermission.OWNER));
+    }
+
+}
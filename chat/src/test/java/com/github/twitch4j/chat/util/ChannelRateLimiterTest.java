@@ -0,0 +1,129 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class ChannelRateLimiterTest {
+
+    private static Bucket bucket(long capacity) {
+        return Bucket4j.builder().addLimit(Bandwidth.simple(capacity, Duration.ofSeconds(30))).build();
+    }
+
+    private static List<String> drain(ChannelRateLimiter<String> limiter) {
+        List<String> sent = new ArrayList<>();
+        String command;
+        while ((command = limiter.poll()) != null) {
+            sent.add(command);
+        }
+        return sent;
+    }
+
+    @Test
+    @DisplayName("Moderated channels are only limited by the global bucket")
+    public void moderatorLimits() {
+        ChannelRateLimiter<String> limiter = new ChannelRateLimiter<>(bucket(100), bucket(3), 10, Duration.ofMinutes(5), new ChannelStateStore());
+        limiter.getChannelStates().setModerator("mod", true);
+        for (int i = 0; i < 5; i++) {
+            limiter.offer("regular", "r" + i);
+            limiter.offer("mod", "m" + i);
+        }
+
+        assertEquals(Arrays.asList("r0", "m0", "r1", "m1", "r2", "m2", "m3", "m4"), drain(limiter));
+        assertEquals(2, limiter.size());
+        assertTrue(limiter.getNanosToWait() > 0);
+    }
+
+    @Test
+    @DisplayName("Slow mode only delays its own channel")
+    public void slowMode() {
+        ChannelRateLimiter<String> limiter = new ChannelRateLimiter<>(bucket(100), bucket(20), 10, Duration.ofMinutes(5), new ChannelStateStore());
+        limiter.getChannelStates().setSlowMode("slow", 30);
+        limiter.getChannelStates().setSlowMode("modslow", 30);
+        limiter.getChannelStates().setModerator("modslow", true);
+        limiter.offer("slow", "s0");
+        limiter.offer("slow", "s1");
+        limiter.offer("modslow", "ms0");
+        limiter.offer("modslow", "ms1");
+        limiter.offer("other", "o0");
+        limiter.offer("other", "o1");
+
+        assertEquals(Arrays.asList("s0", "ms0", "o0", "ms1", "o1"), drain(limiter));
+        assertNull(limiter.poll());
+        assertTrue(limiter.getNanosToWait() > TimeUnit.SECONDS.toNanos(25));
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    @DisplayName("Messages to subscribers-only channels are failed without consuming tokens")
+    public void restricted() {
+        Bucket global = bucket(100);
+        Bucket shared = bucket(20);
+        List<String> failed = new ArrayList<>();
+        ChannelRateLimiter<String> limiter = new ChannelRateLimiter<>(global, shared, 10, Duration.ofMinutes(5), new ChannelStateStore(), failed::add);
+        limiter.getChannelStates().onRoomState(new IRCMessageEvent("@room-id=12345;subs-only=1 :tmi.twitch.tv ROOMSTATE #subs"));
+        limiter.getChannelStates().onUserState(new IRCMessageEvent("@badge-info=;badges=;color=;display-name=bot;emote-sets=0;mod=0;subscriber=0;user-type= :tmi.twitch.tv USERSTATE #subs"));
+        limiter.offer("subs", "s0");
+        limiter.offer("subs", "s1");
+        limiter.offer("other", "o0");
+
+        assertEquals(Arrays.asList("o0"), drain(limiter));
+        assertEquals(Arrays.asList("s0", "s1"), failed);
+        assertEquals(0, limiter.size());
+        assertEquals(99, global.getAvailableTokens());
+        assertEquals(19, shared.getAvailableTokens());
+    }
+
+    @Test
+    @DisplayName("Waiting for the global bucket doesn't take tokens from the other buckets")
+    public void probeBeforeConsume() {
+        Bucket global = bucket(2);
+        Bucket shared = bucket(20);
+        ChannelRateLimiter<String> limiter = new ChannelRateLimiter<>(global, shared, 10, Duration.ofMinutes(5), new ChannelStateStore());
+        limiter.getChannelStates().setSlowMode("slow", 30);
+        limiter.offer("other", "o0");
+        limiter.offer("other", "o1");
+        assertEquals(Arrays.asList("o0", "o1"), drain(limiter));
+
+        limiter.offer("slow", "s0");
+        assertNull(limiter.poll());
+        assertEquals(18, shared.getAvailableTokens());
+        assertTrue(limiter.tryAcquire("other") > 0);
+        assertEquals(18, shared.getAvailableTokens());
+
+        global.addTokens(1L);
+        assertEquals(Arrays.asList("s0"), drain(limiter));
+        assertEquals(17, shared.getAvailableTokens());
+    }
+
+    @Test
+    @DisplayName("Queues are bounded and evicted when idle")
+    public void queueLifecycle() {
+        ChannelRateLimiter<String> limiter = new ChannelRateLimiter<>(bucket(100), bucket(20), 2, Duration.ZERO, new ChannelStateStore());
+        assertTrue(limiter.offer("channel", "a"));
+        assertTrue(limiter.offer("channel", "b"));
+        assertFalse(limiter.offer("channel", "c"));
+
+        assertEquals(Arrays.asList("a", "b"), drain(limiter));
+        limiter.evictIdle();
+        assertTrue(limiter.offer("channel", "d"));
+        assertEquals(Arrays.asList("d"), drain(limiter));
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class ChannelStateStoreTest {
+
+    @Test
+    @DisplayName("ROOMSTATE updates only change the announced tags")
+    public void roomState() {
+        ChannelStateStore store = new ChannelStateStore();
+        assertFalse(store.hasRoomState("channel"));
+        assertEquals(-1, store.getFollowersOnlyMinutes("channel"));
+        assertNull(store.getRoomId("channel"));
+
+        store.onRoomState(new IRCMessageEvent("@emote-only=0;followers-only=10;r9k=0;rituals=0;room-id=12345;slow=30;subs-only=1 :tmi.twitch.tv ROOMSTATE #Channel"));
+        assertTrue(store.hasRoomState("channel"));
+        assertTrue(store.isSubsOnly("channel"));
+        assertFalse(store.isEmoteOnly("channel"));
+        assertEquals(30, store.getSlowModeSeconds("channel"));
+        assertEquals(10, store.getFollowersOnlyMinutes("channel"));
+        assertEquals("12345", store.getRoomId("channel"));
+
+        store.onRoomState(new IRCMessageEvent("@emote-only=1;room-id=12345 :tmi.twitch.tv ROOMSTATE #channel"));
+        assertTrue(store.isEmoteOnly("channel"));
+        assertTrue(store.isSubsOnly("channel"));
+        assertEquals(30, store.getSlowModeSeconds("channel"));
+
+        store.onRoomState(new IRCMessageEvent("@room-id=12345;slow=0;followers-only=-1 :tmi.twitch.tv ROOMSTATE #channel"));
+        assertEquals(0, store.getSlowModeSeconds("channel"));
+        assertEquals(-1, store.getFollowersOnlyMinutes("channel"));
+    }
+
+    @Test
+    @DisplayName("USERSTATE decides whether subscribers-only mode restricts the account")
+    public void userState() {
+        ChannelStateStore store = new ChannelStateStore();
+        store.onRoomState(new IRCMessageEvent("@room-id=12345;subs-only=1 :tmi.twitch.tv ROOMSTATE #channel"));
+        assertFalse(store.isRestricted("channel"), "the account may be privileged until its USERSTATE is known");
+
+        store.onUserState(new IRCMessageEvent("@badge-info=;badges=moderator/1;color=;display-name=bot;emote-sets=0;mod=1;subscriber=0;user-type=mod :tmi.twitch.tv USERSTATE #channel"));
+        assertTrue(store.hasUserState("channel"));
+        assertTrue(store.isModerator("channel"));
+        assertFalse(store.isRestricted("channel"));
+
+        store.onUserState(new IRCMessageEvent("@badge-info=subscriber/3;badges=subscriber/3;color=;display-name=bot;emote-sets=0;mod=0;subscriber=1;user-type= :tmi.twitch.tv USERSTATE #channel"));
+        assertFalse(store.isModerator("channel"));
+        assertTrue(store.isSubscriber("channel"));
+        assertFalse(store.isRestricted("channel"));
+
+        store.onUserState(new IRCMessageEvent("@badge-info=;badges=;color=;display-name=bot;emote-sets=0;mod=0;subscriber=0;user-type= :tmi.twitch.tv USERSTATE #channel"));
+        assertTrue(store.isRestricted("channel"));
+
+        store.removeChannel("channel");
+        assertFalse(store.isRestricted("channel"));
+        assertFalse(store.hasRoomState("channel"));
+    }
+
+}
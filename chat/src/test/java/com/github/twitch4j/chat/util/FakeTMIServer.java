@@ -0,0 +1,406 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.common.util.LocalWebSocketServer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process websocket server that speaks the twitch irc dialect, so chat connections can be load- and integration-tested without reaching twitch
+ * <p>
+ * Supported: CAP ACK, the welcome burst after NICK, PING/PONG, JOIN echo with ROOMSTATE and USERSTATE, PART, PRIVMSG with a USERSTATE echo and RECONNECT.
+ * Joins and messages are limited per connection like twitch does, commands over the limit are dropped or the connection is closed, see {@link RateLimitAction}.
+ * Synthetic PRIVMSG and USERNOTICE traffic can be sent to all connections that joined a channel at a configurable rate.
+ */
+@Slf4j
+public class FakeTMIServer extends LocalWebSocketServer {
+
+    /**
+     * What happens when a connection exceeds a rate limit
+     */
+    public enum RateLimitAction {
+
+        /**
+         * The command is dropped, messages are answered with a msg_ratelimit NOTICE
+         */
+        DROP,
+
+        /**
+         * The connection is closed
+         */
+        DISCONNECT
+
+    }
+
+    /**
+     * Maximum amount of channels joined per connection within {@link #joinWindow}
+     */
+    @Setter
+    private volatile int joinLimit = 20;
+
+    /**
+     * Window of the join limit
+     */
+    @Setter
+    private volatile Duration joinWindow = Duration.ofSeconds(10);
+
+    /**
+     * Maximum amount of messages sent per connection within {@link #messageWindow}
+     */
+    @Setter
+    private volatile int messageLimit = 20;
+
+    /**
+     * Window of the message limit
+     */
+    @Setter
+    private volatile Duration messageWindow = Duration.ofSeconds(30);
+
+    /**
+     * What happens when a connection exceeds a rate limit
+     */
+    @Setter
+    private volatile RateLimitAction rateLimitAction = RateLimitAction.DROP;
+
+    /**
+     * Whether client PINGs are answered, disable to simulate a half-open connection
+     */
+    @Setter
+    private volatile boolean respondToPing = true;
+
+    /**
+     * Slow mode delay in seconds announced in the ROOMSTATE of joined channels, by channel name
+     */
+    private final Map<String, Integer> slowMode = new ConcurrentHashMap<>();
+
+    /**
+     * Channels where the users are announced as moderators in their USERSTATE
+     */
+    private final Set<String> moderatedChannels = ConcurrentHashMap.newKeySet();
+
+    /**
+     * State of the connections
+     */
+    private final Map<Connection, Session> sessions = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "fake-tmi-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Amount of joins that were accepted
+     */
+    @Getter
+    private final AtomicLong acceptedJoins = new AtomicLong();
+
+    /**
+     * Amount of PRIVMSGs from clients that were accepted
+     */
+    @Getter
+    private final AtomicLong acceptedMessages = new AtomicLong();
+
+    /**
+     * Amount of joins and messages that exceeded a rate limit
+     */
+    @Getter
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    /**
+     * Amount of synthetic lines sent to clients
+     */
+    @Getter
+    private final AtomicLong generatedLines = new AtomicLong();
+
+    /**
+     * Constructor, listens on a random port on the loopback interface
+     *
+     * @throws IOException if the server socket can't be opened
+     */
+    public FakeTMIServer() throws IOException {
+        // state is created lazily per connection
+    }
+
+    /**
+     * Sets the slow mode delay announced for a channel
+     *
+     * @param channel channel name
+     * @param seconds slow mode delay, 0 to disable
+     */
+    public void setSlowMode(String channel, int seconds) {
+        slowMode.put(channel.toLowerCase(Locale.ROOT), seconds);
+    }
+
+    /**
+     * Announces the users as moderators of a channel
+     *
+     * @param channel channel name
+     */
+    public void addModeratedChannel(String channel) {
+        moderatedChannels.add(channel.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param channel channel name
+     * @return the amount of connections that currently joined the channel
+     */
+    public int getJoinedConnections(String channel) {
+        String name = channel.toLowerCase(Locale.ROOT);
+        return (int) sessions.entrySet().stream().filter(e -> !e.getKey().isClosed() && e.getValue().channels.contains(name)).count();
+    }
+
+    /**
+     * Sends RECONNECT to all open connections and closes them after a grace period, like twitch does before a server restart
+     *
+     * @param grace time until the connections are closed
+     */
+    public void reconnectAll(Duration grace) {
+        for (Connection connection : getConnections()) {
+            if (!connection.isClosed()) {
+                connection.send(":tmi.twitch.tv RECONNECT");
+                scheduler.schedule(connection::close, grace.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sends a line to all connections that joined a channel
+     *
+     * @param channel channel name
+     * @param line    irc line
+     */
+    public void broadcast(String channel, String line) {
+        String name = channel.toLowerCase(Locale.ROOT);
+        sessions.forEach((connection, session) -> {
+            if (!connection.isClosed() && session.channels.contains(name))
+                connection.send(line);
+        });
+    }
+
+    /**
+     * Sends a whisper to all connections of a user, like twitch delivers whispers on every connection of the account
+     *
+     * @param from    sender login
+     * @param to      recipient login
+     * @param message message
+     */
+    public void whisper(String from, String to, String message) {
+        String recipient = to.toLowerCase(Locale.ROOT);
+        String line = "@badges=;color=;display-name=" + from + ";emotes=;message-id=1;thread-id=1_2;turbo=0;user-id=1;user-type= :"
+            + from + "!" + from + "@" + from + ".tmi.twitch.tv WHISPER " + recipient + " :" + message;
+        sessions.forEach((connection, session) -> {
+            if (!connection.isClosed() && recipient.equals(session.nick))
+                connection.send(line);
+        });
+    }
+
+    /**
+     * Sends synthetic traffic to all connections that joined a channel
+     * <p>
+     * Lines are generated every 10 milliseconds and sent as a single frame per tick, like twitch batches busy channels.
+     *
+     * @param channel           channel name
+     * @param linesPerSecond    rate of generated lines
+     * @param userNoticeEvery   every n-th line is a USERNOTICE (subscription), 0 for PRIVMSGs only
+     * @return handle to stop the traffic
+     */
+    public ScheduledFuture<?> startTraffic(String channel, int linesPerSecond, int userNoticeEvery) {
+        final String name = channel.toLowerCase(Locale.ROOT);
+        final long startNanos = System.nanoTime();
+        final AtomicLong sent = new AtomicLong();
+        return scheduler.scheduleAtFixedRate(() -> {
+            long due = (System.nanoTime() - startNanos) * linesPerSecond / 1_000_000_000L;
+            long from = sent.get();
+            if (due <= from)
+                return;
+
+            StringBuilder frame = new StringBuilder();
+            for (long n = from; n < due; n++) {
+                if (frame.length() > 0)
+                    frame.append("\r\n");
+                frame.append(userNoticeEvery > 0 && n % userNoticeEvery == userNoticeEvery - 1 ? userNotice(name, n) : privmsg(name, n));
+            }
+            sent.set(due);
+            generatedLines.addAndGet(due - from);
+            broadcast(name, frame.toString());
+        }, 0L, 10L, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Builds a synthetic PRIVMSG
+     *
+     * @param channel channel name
+     * @param n       sequence number, determines the user
+     * @return irc line
+     */
+    public static String privmsg(String channel, long n) {
+        String user = "user" + (n % 1000);
+        return "@badge-info=;badges=subscriber/12;color=#1E90FF;display-name=" + user + ";emotes=25:0-4;first-msg=0;flags=;id=" + UUID.randomUUID()
+            + ";mod=0;room-id=12345;subscriber=1;tmi-sent-ts=" + System.currentTimeMillis() + ";turbo=0;user-id=" + (100000 + n % 1000) + ";user-type= :"
+            + user + "!" + user + "@" + user + ".tmi.twitch.tv PRIVMSG #" + channel + " :Kappa message number " + n;
+    }
+
+    /**
+     * Builds a synthetic subscription USERNOTICE
+     *
+     * @param channel channel name
+     * @param n       sequence number, determines the user
+     * @return irc line
+     */
+    public static String userNotice(String channel, long n) {
+        String user = "user" + (n % 1000);
+        return "@badge-info=subscriber/1;badges=subscriber/0;color=;display-name=" + user + ";emotes=;flags=;id=" + UUID.randomUUID() + ";login=" + user
+            + ";mod=0;msg-id=sub;msg-param-cumulative-months=1;msg-param-should-share-streak=0;msg-param-streak-months=0;msg-param-sub-plan-name=Channel\\sSubscription;msg-param-sub-plan=1000"
+            + ";room-id=12345;subscriber=1;system-msg=" + user + "\\ssubscribed\\sat\\sTier\\s1.;tmi-sent-ts=" + System.currentTimeMillis() + ";user-id=" + (100000 + n % 1000)
+            + ";user-type= :tmi.twitch.tv USERNOTICE #" + channel + " :hype";
+    }
+
+    @Override
+    protected void onLine(Connection connection, String line) {
+        Session session = sessions.computeIfAbsent(connection, c -> new Session());
+        int space = line.indexOf(' ');
+        String command = (space < 0 ? line : line.substring(0, space)).toUpperCase(Locale.ROOT);
+        String params = space < 0 ? "" : line.substring(space + 1);
+
+        switch (command) {
+            case "CAP":
+                if (params.startsWith("REQ "))
+                    connection.send(":tmi.twitch.tv CAP * ACK " + params.substring(4));
+                break;
+            case "NICK":
+                session.nick = params.trim().toLowerCase(Locale.ROOT);
+                connection.send(String.join("\r\n",
+                    ":tmi.twitch.tv 001 " + session.nick + " :Welcome, GLHF!",
+                    ":tmi.twitch.tv 002 " + session.nick + " :Your host is tmi.twitch.tv",
+                    ":tmi.twitch.tv 003 " + session.nick + " :This server is rather new",
+                    ":tmi.twitch.tv 004 " + session.nick + " :-",
+                    ":tmi.twitch.tv 375 " + session.nick + " :-",
+                    ":tmi.twitch.tv 372 " + session.nick + " :You are in a maze of twisty passages, all alike.",
+                    ":tmi.twitch.tv 376 " + session.nick + " :>"));
+                break;
+            case "PING":
+                if (respondToPing)
+                    connection.send(":tmi.twitch.tv PONG tmi.twitch.tv " + (params.isEmpty() ? ":tmi.twitch.tv" : params));
+                break;
+            case "JOIN":
+                for (String channel : params.trim().split(",")) {
+                    join(connection, session, channel.startsWith("#") ? channel.substring(1).toLowerCase(Locale.ROOT) : channel.toLowerCase(Locale.ROOT));
+                }
+                break;
+            case "PART":
+                for (String channel : params.trim().split(",")) {
+                    String name = channel.startsWith("#") ? channel.substring(1).toLowerCase(Locale.ROOT) : channel.toLowerCase(Locale.ROOT);
+                    if (session.channels.remove(name))
+                        connection.send(":" + session.nick + "!" + session.nick + "@" + session.nick + ".tmi.twitch.tv PART #" + name);
+                }
+                break;
+            case "PRIVMSG":
+                message(connection, session, params);
+                break;
+            default:
+                // PASS, CAP END, QUIT, ... need no response
+                break;
+        }
+    }
+
+    private void join(Connection connection, Session session, String channel) {
+        if (!session.joins.tryAcquire(joinLimit, joinWindow)) {
+            rateLimited.incrementAndGet();
+            if (rateLimitAction == RateLimitAction.DISCONNECT)
+                connection.close();
+            return; // twitch silently ignores joins over the limit
+        }
+
+        acceptedJoins.incrementAndGet();
+        session.channels.add(channel);
+        String nick = session.nick;
+        connection.send(String.join("\r\n",
+            ":" + nick + "!" + nick + "@" + nick + ".tmi.twitch.tv JOIN #" + channel,
+            ":" + nick + ".tmi.twitch.tv 353 " + nick + " = #" + channel + " :" + nick,
+            ":" + nick + ".tmi.twitch.tv 366 " + nick + " #" + channel + " :End of /NAMES list",
+            roomState(channel),
+            userState(channel)));
+    }
+
+    private void message(Connection connection, Session session, String params) {
+        int separator = params.indexOf(" :");
+        String target = separator < 0 ? params : params.substring(0, separator);
+        String channel = target.startsWith("#") ? target.substring(1).toLowerCase(Locale.ROOT) : target.toLowerCase(Locale.ROOT);
+
+        if (!session.messages.tryAcquire(messageLimit, messageWindow)) {
+            rateLimited.incrementAndGet();
+            if (rateLimitAction == RateLimitAction.DISCONNECT) {
+                connection.close();
+            } else {
+                connection.send("@msg-id=msg_ratelimit :tmi.twitch.tv NOTICE #" + channel + " :Your message was not sent because you are sending messages too quickly.");
+            }
+            return;
+        }
+
+        acceptedMessages.incrementAndGet();
+        connection.send(userState(channel));
+    }
+
+    private String roomState(String channel) {
+        return "@emote-only=0;followers-only=-1;r9k=0;rituals=0;room-id=12345;slow=" + slowMode.getOrDefault(channel, 0) + ";subs-only=0 :tmi.twitch.tv ROOMSTATE #" + channel;
+    }
+
+    private String userState(String channel) {
+        boolean moderator = moderatedChannels.contains(channel);
+        return "@badge-info=;badges=" + (moderator ? "moderator/1" : "") + ";color=;display-name=bot;emote-sets=0;mod=" + (moderator ? 1 : 0)
+            + ";subscriber=0;user-type=" + (moderator ? "mod" : "") + " :tmi.twitch.tv USERSTATE #" + channel;
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        super.close();
+    }
+
+    /**
+     * State of a connection
+     */
+    private static final class Session {
+        private volatile String nick = "justinfan";
+        private final Set<String> channels = ConcurrentHashMap.newKeySet();
+        private final SlidingWindow joins = new SlidingWindow();
+        private final SlidingWindow messages = new SlidingWindow();
+    }
+
+    /**
+     * Sliding window counter, like the limits enforced by twitch
+     */
+    private static final class SlidingWindow {
+        private final Deque<Long> timestamps = new ArrayDeque<>();
+
+        private synchronized boolean tryAcquire(int limit, Duration window) {
+            long now = System.nanoTime();
+            long windowNanos = window.toNanos();
+            while (!timestamps.isEmpty() && now - timestamps.peekFirst() >= windowNanos) {
+                timestamps.pollFirst();
+            }
+            if (timestamps.size() >= limit)
+                return false;
+
+            timestamps.addLast(now);
+            return true;
+        }
+    }
+
+}
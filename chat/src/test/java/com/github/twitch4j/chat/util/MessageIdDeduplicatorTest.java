@@ -0,0 +1,50 @@
+package com.github.twitch4j.chat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class MessageIdDeduplicatorTest {
+
+    @Test
+    @DisplayName("Recognizes uuid and non-uuid ids that have been seen before")
+    public void duplicates() {
+        MessageIdDeduplicator deduplicator = new MessageIdDeduplicator(Duration.ofMinutes(1), 16);
+        assertFalse(deduplicator.isDuplicate("b34ccfc7-4977-403a-8a94-33c6bac34fb8"));
+        assertFalse(deduplicator.isDuplicate("b34ccfc7-4977-403a-8a94-33c6bac34fb9"));
+        assertFalse(deduplicator.isDuplicate("not-a-uuid"));
+        assertTrue(deduplicator.isDuplicate("b34ccfc7-4977-403a-8a94-33c6bac34fb8"));
+        assertTrue(deduplicator.isDuplicate("B34CCFC7-4977-403A-8A94-33C6BAC34FB9"));
+        assertTrue(deduplicator.isDuplicate("not-a-uuid"));
+        assertEquals(3, deduplicator.getDuplicateCount());
+    }
+
+    @Test
+    @DisplayName("Forgets ids after two generations")
+    public void boundedGenerations() {
+        MessageIdDeduplicator deduplicator = new MessageIdDeduplicator(Duration.ofMinutes(1), 4);
+        for (int i = 0; i < 4; i++) {
+            assertFalse(deduplicator.isDuplicate("id" + i));
+        }
+
+        // the next generation still knows the previous ids
+        for (int i = 4; i < 7; i++) {
+            assertFalse(deduplicator.isDuplicate("id" + i));
+        }
+        assertTrue(deduplicator.isDuplicate("id0"));
+
+        // after another rotation the first generation is gone
+        for (int i = 7; i < 12; i++) {
+            assertFalse(deduplicator.isDuplicate("id" + i));
+        }
+        assertFalse(deduplicator.isDuplicate("id1"));
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.github.twitch4j.common.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Capped exponential backoff with full jitter
+ * <p>
+ * After {@code n} consecutive failures the next attempt waits a random time between zero and {@code min(maximum, base * 2^n)},
+ * so clients that lost their connection at the same moment spread their attempts instead of retrying in lockstep.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class ExponentialBackoffStrategy {
+
+    private final long baseMillis;
+
+    private final long maximumMillis;
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * Constructor
+     *
+     * @param base    upper bound of the first delay
+     * @param maximum upper bound of all delays
+     */
+    public ExponentialBackoffStrategy(Duration base, Duration maximum) {
+        this.baseMillis = Math.max(base.toMillis(), 1L);
+        this.maximumMillis = Math.max(maximum.toMillis(), this.baseMillis);
+    }
+
+    /**
+     * Counts a failure and draws the delay before the next attempt
+     *
+     * @return delay in milliseconds
+     */
+    public long nextDelayMillis() {
+        int n = failures.getAndUpdate(f -> f < Integer.MAX_VALUE ? f + 1 : f);
+        return ThreadLocalRandom.current().nextLong(getCeilingMillis(n) + 1);
+    }
+
+    /**
+     * Resets the failure count after a successful attempt
+     */
+    public void reset() {
+        failures.set(0);
+    }
+
+    /**
+     * @return the amount of consecutive failures
+     */
+    public int getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * @param failures amount of consecutive failures
+     * @return upper bound of the delay after this many failures, in milliseconds
+     */
+    public long getCeilingMillis(int failures) {
+        // shift as long as it cannot overflow
+        return failures < Long.numberOfLeadingZeros(baseMillis) - 1 ? Math.min(baseMillis << failures, maximumMillis) : maximumMillis;
+    }
+
+}
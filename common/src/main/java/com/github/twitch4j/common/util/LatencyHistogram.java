@@ -0,0 +1,107 @@
+package com.github.twitch4j.common.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two buckets
+ * <p>
+ * Bucket {@code i} counts the samples below {@code 2^i} microseconds, so percentiles are accurate to a factor of two,
+ * which is enough to tell network latency from rate limiting and queueing. Recording a sample does not allocate.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Amount of buckets, the last bucket holds everything above ~35 minutes
+     */
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sumNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Records a sample
+     *
+     * @param nanos latency in nanoseconds, negative values are ignored
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            return;
+
+        long micros = nanos / 1_000L;
+        int bucket = micros == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+        counts.incrementAndGet(bucket);
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return the amount of recorded samples
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the mean latency, zero if nothing has been recorded
+     */
+    public Duration getMean() {
+        long n = count.sum();
+        return n == 0 ? Duration.ZERO : Duration.ofNanos(sumNanos.sum() / n);
+    }
+
+    /**
+     * @return the highest recorded latency
+     */
+    public Duration getMax() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    /**
+     * Estimates a percentile, using the upper bound of the bucket the percentile falls into
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return the estimated latency, zero if nothing has been recorded
+     */
+    public Duration getPercentile(double percentile) {
+        long n = count.sum();
+        if (n == 0)
+            return Duration.ZERO;
+
+        long rank = (long) Math.ceil(Math.max(0.0, Math.min(percentile, 100.0)) / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(rank, 1L))
+                return Duration.ofNanos(Math.min(1_000L << i, maxNanos.get()));
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all samples
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        count.reset();
+        sumNanos.reset();
+        maxNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram(count=" + getCount() + ", mean=" + getMean().toMillis() + "ms, p50=" + getPercentile(50).toMillis()
+            + "ms, p99=" + getPercentile(99).toMillis() + "ms, max=" + getMax().toMillis() + "ms)";
+    }
+
+}
@@ -2,9 +2,9 @@ package com.github.twitch4j.common.util;
 
 import com.github.twitch4j.common.enums.CommandPermission;
 import com.github.twitch4j.common.events.domain.EventUser;
-import org.apache.commons.lang3.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class TwitchUtils {
 
@@ -20,102 +20,151 @@ public class TwitchUtils {
      */
     public static final EventUser ANONYMOUS_CHEERER = new EventUser("407665396", "ananonymouscheerer");
 
+    /**
+     * Amount of badge strings whose permissions are cached, must be a power of two
+     */
+    private static final int PERMISSION_CACHE_SIZE = 1024;
+
+    /**
+     * Permissions by badge string, direct-mapped by the hash of the badge string so the cache never grows beyond its size
+     */
+    private static final AtomicReferenceArray<PermissionCacheEntry> PERMISSION_CACHE = new AtomicReferenceArray<>(PERMISSION_CACHE_SIZE);
+
+    /**
+     * Permissions of a user without badges
+     */
+    private static final Set<CommandPermission> EVERYONE = Collections.unmodifiableSet(EnumSet.of(CommandPermission.EVERYONE));
+
+    /**
+     * Gets the permissions of a user from the tags of a message
+     * <p>
+     * Badges can either be an irc badge string or a list of badge objects with an id, as sent by pubsub.
+     *
+     * @param tags message tags
+     * @return a new, modifiable set of permissions
+     */
+    @SuppressWarnings("unchecked")
     public static Set<CommandPermission> getPermissionsFromTags(Map<String, Object> tags) {
-        Set<CommandPermission> permissionSet = EnumSet.of(CommandPermission.EVERYONE);
-
-        // Check for Permissions
-        if (tags.containsKey("badges")) {
-            final Map<String, Object> badges = new HashMap<>();
-
-            if (tags.get("badges") instanceof String) {
-                // needed for irc
-                badges.putAll(parseBadges((String) tags.get("badges")));
-            } else {
-                List<Map<String, String>> badgeList = (List<Map<String, String>>) tags.get("badges");
-                if (badgeList != null) {
-                    badgeList.forEach(badge -> badges.put(badge.get("id"), "1"));
-                }
-            }
+        Object badges = tags.get("badges");
+        if (badges instanceof String) {
+            // needed for irc
+            return EnumSet.copyOf(getPermissionsFromBadges((String) badges));
+        }
 
-            // Broadcaster
-            if (badges.containsKey("broadcaster")) {
-                permissionSet.add(CommandPermission.BROADCASTER);
-                permissionSet.add(CommandPermission.MODERATOR);
-            }
-            // Twitch Prime
-            if (badges.containsKey("premium")) {
-                permissionSet.add(CommandPermission.PRIME_TURBO);
-            }
-            // Moderator
-            if (badges.containsKey("moderator")) {
-                permissionSet.add(CommandPermission.MODERATOR);
-            }
-            // Partner
-            if (badges.containsKey("partner")) {
-                permissionSet.add(CommandPermission.PARTNER);
-            }
-            // VIP
-            if (badges.containsKey("vip")) {
-                permissionSet.add(CommandPermission.VIP);
-            }
-            // Turbo
-            if (badges.containsKey("turbo")) {
-                permissionSet.add(CommandPermission.PRIME_TURBO);
-            }
-            // Twitch Staff
-            if (badges.containsKey("staff")) {
-                permissionSet.add(CommandPermission.TWITCHSTAFF);
-            }
-            // Subscriber
-            if(badges.containsKey("subscriber")) {
-                permissionSet.add(CommandPermission.SUBSCRIBER);
-            }
-            // SubGifter
-            if(badges.containsKey("sub-gifter")) {
-                permissionSet.add(CommandPermission.SUBGIFTER);
-            }
-            // Founder
-            if(badges.containsKey("founder")) {
-                permissionSet.add(CommandPermission.FOUNDER);
-                permissionSet.add(CommandPermission.SUBSCRIBER);
-
-                // also contains info about the tier if needed
-                /*
-                if (badges.get("founder").equals("0")) {
-                    // Tier 1 Founder
-                } else if (badges.get("founder").equals("1")) {
-                    // Tier 2 Founder
-                } else if (badges.get("founder").equals("2")) {
-                    // Tier 3 Founder
-                }
-                */
+        int mask = 1 << CommandPermission.EVERYONE.ordinal();
+        if (badges instanceof List) {
+            for (Map<String, String> badge : (List<Map<String, String>>) badges) {
+                String id = badge != null ? badge.get("id") : null;
+                if (id != null)
+                    mask |= badgePermissions(id, 0, id.length());
             }
         }
+        return toPermissionSet(mask);
+    }
 
-        return permissionSet;
+    /**
+     * Gets the permissions granted by an irc badge string, e.g. {@code moderator/1,subscriber/12}
+     * <p>
+     * The badge string is scanned once into a bitmask of permissions. Badge strings repeat heavily across users,
+     * so the resulting sets are cached in a small direct-mapped cache.
+     *
+     * @param badges irc badge string, may be null
+     * @return an unmodifiable set of permissions
+     */
+    public static Set<CommandPermission> getPermissionsFromBadges(String badges) {
+        if (badges == null || badges.isEmpty())
+            return EVERYONE;
+
+        final int slot = (badges.hashCode() * 0x9E3779B9 >>> 16) & (PERMISSION_CACHE_SIZE - 1);
+        PermissionCacheEntry entry = PERMISSION_CACHE.get(slot);
+        if (entry != null && entry.badges.equals(badges))
+            return entry.permissions;
+
+        int mask = 1 << CommandPermission.EVERYONE.ordinal();
+        final int length = badges.length();
+        int nameStart = 0;
+        while (nameStart < length) {
+            int badgeEnd = badges.indexOf(',', nameStart);
+            if (badgeEnd < 0)
+                badgeEnd = length;
+
+            int nameEnd = badges.indexOf('/', nameStart);
+            if (nameEnd < 0 || nameEnd > badgeEnd)
+                nameEnd = badgeEnd;
+
+            mask |= badgePermissions(badges, nameStart, nameEnd);
+            nameStart = badgeEnd + 1;
+        }
+
+        Set<CommandPermission> permissions = Collections.unmodifiableSet(toPermissionSet(mask));
+        PERMISSION_CACHE.set(slot, new PermissionCacheEntry(badges, permissions));
+        return permissions;
     }
 
     /**
-     * Parse Badges from raw list
+     * Gets the permissions granted by a single badge
      *
-     * @param raw The raw list of tags.
-     * @return A key-value map of the tags.
+     * @param s     string containing the badge name
+     * @param start start of the badge name (inclusive)
+     * @param end   end of the badge name (exclusive)
+     * @return bitmask of {@link CommandPermission} ordinals
      */
-    private static Map<String, Object> parseBadges(String raw) {
-        Map<String, Object> map = new HashMap<>();
-        if(StringUtils.isBlank(raw)) return map;
-
-        // Fix Whitespaces
-        raw = raw.replace("\\s", " ");
-
-        for (String tag: raw.split(",")) {
-            String[] val = tag.split("/");
-            final String key = val[0];
-            String value = (val.length > 1) ? val[1] : null;
-            map.put(key, value);
+    private static int badgePermissions(String s, int start, int end) {
+        switch (end - start) {
+            case 3:
+                return matches(s, start, "vip") ? bit(CommandPermission.VIP) : 0;
+            case 5:
+                if (matches(s, start, "turbo"))
+                    return bit(CommandPermission.PRIME_TURBO);
+                return matches(s, start, "staff") ? bit(CommandPermission.TWITCHSTAFF) : 0;
+            case 7:
+                if (matches(s, start, "premium"))
+                    return bit(CommandPermission.PRIME_TURBO);
+                if (matches(s, start, "partner"))
+                    return bit(CommandPermission.PARTNER);
+                // founders also have the subscriber permission, the version contains the tier
+                return matches(s, start, "founder") ? bit(CommandPermission.FOUNDER) | bit(CommandPermission.SUBSCRIBER) : 0;
+            case 9:
+                return matches(s, start, "moderator") ? bit(CommandPermission.MODERATOR) : 0;
+            case 10:
+                if (matches(s, start, "subscriber"))
+                    return bit(CommandPermission.SUBSCRIBER);
+                return matches(s, start, "sub-gifter") ? bit(CommandPermission.SUBGIFTER) : 0;
+            case 11:
+                return matches(s, start, "broadcaster") ? bit(CommandPermission.BROADCASTER) | bit(CommandPermission.MODERATOR) : 0;
+            default:
+                return 0;
         }
+    }
+
+    private static boolean matches(String s, int start, String name) {
+        return s.regionMatches(start, name, 0, name.length());
+    }
 
-        return Collections.unmodifiableMap(map); // formatting to Read-Only Map
+    private static int bit(CommandPermission permission) {
+        return 1 << permission.ordinal();
+    }
+
+    private static Set<CommandPermission> toPermissionSet(int mask) {
+        Set<CommandPermission> permissionSet = EnumSet.noneOf(CommandPermission.class);
+        for (CommandPermission permission : CommandPermission.values()) {
+            if ((mask & bit(permission)) != 0)
+                permissionSet.add(permission);
+        }
+        return permissionSet;
+    }
+
+    /**
+     * Entry of the permission cache
+     */
+    private static final class PermissionCacheEntry {
+        private final String badges;
+        private final Set<CommandPermission> permissions;
+
+        private PermissionCacheEntry(String badges, Set<CommandPermission> permissions) {
+            this.badges = badges;
+            this.permissions = permissions;
+        }
     }
 
 }
@@ -0,0 +1,32 @@
+package com.github.twitch4j.common.util;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Waiting for the asynchronous effects of websocket clients in tests
+ */
+public final class AwaitUtils {
+
+    private AwaitUtils() {
+    }
+
+    /**
+     * Polls a condition every 50ms for up to 5 seconds
+     *
+     * @param condition the condition to wait for
+     * @throws org.opentest4j.AssertionFailedError if the condition is still false afterwards
+     */
+    public static void awaitTrue(BooleanSupplier condition) {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+                // retry
+            }
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.github.twitch4j.common.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Minimal in-process websocket server, so chat and pubsub connections can be tested without reaching twitch
+ * <p>
+ * Only supports what the clients use: unfragmented text frames, ping and close.
+ */
+@Slf4j
+public class LocalWebSocketServer implements AutoCloseable {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket serverSocket;
+
+    /**
+     * Accepted connections, in order
+     */
+    @Getter
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor, listens on a random port on the loopback interface
+     *
+     * @throws IOException if the server socket can't be opened
+     */
+    public LocalWebSocketServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+        Thread acceptThread = new Thread(this::acceptLoop, "local-websocket-server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * @return the url clients should connect to
+     */
+    public String getUrl() {
+        return "ws://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Called for every line received by a connection
+     *
+     * @param connection the connection
+     * @param line       the line
+     */
+    protected void onLine(Connection connection, String line) {
+        // can be overridden
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+
+                Thread readThread = new Thread(connection::readLoop, "local-websocket-connection-" + connections.size());
+                readThread.setDaemon(true);
+                readThread.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed())
+                    log.warn("Failed to accept connection", e);
+            }
+        }
+    }
+
+    /**
+     * A client connection
+     */
+    public class Connection {
+
+        private final Socket socket;
+
+        /**
+         * Lines received from the client
+         */
+        @Getter
+        private final List<String> received = new CopyOnWriteArrayList<>();
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * Sends a text frame to the client
+         *
+         * @param text text
+         */
+        public synchronized void send(String text) {
+            try {
+                writeFrame(0x1, text.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                log.warn("Failed to send {}", text, e);
+            }
+        }
+
+        /**
+         * Closes the connection without a close handshake, like a dropped connection
+         */
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+
+        /**
+         * @return whether the socket has been closed
+         */
+        public boolean isClosed() {
+            return socket.isClosed();
+        }
+
+        private void readLoop() {
+            try {
+                handshake();
+
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                while (!socket.isClosed()) {
+                    int opcode = in.readUnsignedByte() & 0x0F;
+                    int second = in.readUnsignedByte();
+                    long length = second & 0x7F;
+                    if (length == 126) {
+                        length = in.readUnsignedShort();
+                    } else if (length == 127) {
+                        length = in.readLong();
+                    }
+
+                    byte[] mask = new byte[4];
+                    if ((second & 0x80) != 0)
+                        in.readFully(mask);
+
+                    byte[] payload = new byte[(int) length];
+                    in.readFully(payload);
+                    for (int i = 0; i < payload.length; i++) {
+                        payload[i] ^= mask[i & 3];
+                    }
+
+                    if (opcode == 0x1) {
+                        for (String line : new String(payload, StandardCharsets.UTF_8).split("\r\n")) {
+                            if (!line.isEmpty()) {
+                                received.add(line);
+                                onLine(this, line);
+                            }
+                        }
+                    } else if (opcode == 0x8) {
+                        synchronized (this) {
+                            writeFrame(0x8, payload);
+                        }
+                        close();
+                    } else if (opcode == 0x9) {
+                        synchronized (this) {
+                            writeFrame(0xA, payload);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void handshake() throws IOException {
+            // read byte by byte, so nothing after the request headers is consumed
+            InputStream in = socket.getInputStream();
+            StringBuilder header = new StringBuilder();
+            String key = null;
+            int b;
+            while ((b = in.read()) >= 0) {
+                if (b == '\n') {
+                    String line = header.toString().trim();
+                    if (line.isEmpty())
+                        break;
+                    if (line.toLowerCase().startsWith("sec-websocket-key:"))
+                        key = line.substring(18).trim();
+                    header.setLength(0);
+                } else {
+                    header.append((char) b);
+                }
+            }
+
+            String accept;
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.ISO_8859_1));
+                accept = Base64.getEncoder().encodeToString(digest);
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+
+            OutputStream out = socket.getOutputStream();
+            out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        }
+
+        private void writeFrame(int opcode, byte[] payload) throws IOException {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 10);
+            frame.write(0x80 | opcode);
+            if (payload.length < 126) {
+                frame.write(payload.length);
+            } else if (payload.length <= 0xFFFF) {
+                frame.write(126);
+                frame.write(payload.length >>> 8);
+                frame.write(payload.length);
+            } else {
+                frame.write(127);
+                for (int i = 7; i >= 0; i--) {
+                    frame.write(i < 4 ? payload.length >>> (8 * i) : 0);
+                }
+            }
+            frame.write(payload);
+
+            OutputStream out = socket.getOutputStream();
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+    }
+
+}
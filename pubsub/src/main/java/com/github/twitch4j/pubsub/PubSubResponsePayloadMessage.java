@@ -6,19 +6,115 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.github.twitch4j.common.util.TypeConvert;
+import com.github.twitch4j.pubsub.util.PubSubMessageDecoder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
+/**
+ * Message of a pubsub topic
+ * <p>
+ * Received messages only hold the raw json, the type and data are decoded on first access.
+ * Decoders should prefer {@link #readData(Class)} and {@link #readMessage(Class)}, which bind directly into the target class.
+ * <p>
+ * Reading the type tokenizes the message once and keeps the tokens, so decoders that pick the target class by the type
+ * bind the data from these tokens instead of parsing the text a second time.
+ */
 @Data
 @JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class PubSubResponsePayloadMessage {
 
+    /**
+     * Decoded from {@link #rawMessage} on first access
+     */
+    @EqualsAndHashCode.Exclude
     private String type;
 
+    /**
+     * Decoded from {@link #rawMessage} on first access
+     */
     @JsonProperty("data")
+    @EqualsAndHashCode.Exclude
     private JsonNode messageData;
 
     @JsonIgnore
     private String rawMessage;
 
+    /**
+     * Tokens of {@link #rawMessage}, kept once the type has been read
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient TokenBuffer tokens;
+
+    /**
+     * @return the message type, e.g. {@code reward-redeemed}
+     */
+    public String getType() {
+        if (type == null && rawMessage != null) {
+            tokens = PubSubMessageDecoder.buffer(rawMessage);
+            type = PubSubMessageDecoder.readType(tokens);
+        }
+        return type;
+    }
+
+    /**
+     * @return the data of the message as tree
+     */
+    public JsonNode getMessageData() {
+        if (messageData == null && rawMessage != null)
+            messageData = tokens != null ? PubSubMessageDecoder.readPath(tokens, JsonNode.class, "data") : PubSubMessageDecoder.readPath(rawMessage, JsonNode.class, "data");
+        return messageData;
+    }
+
+    /**
+     * Binds the {@code data} field of the message
+     *
+     * @param valueType the class to bind into
+     * @param <T>       the type to bind into
+     * @return the data, or null if absent
+     */
+    public <T> T readData(Class<T> valueType) {
+        if (rawMessage == null)
+            return TypeConvert.convertValue(messageData, valueType);
+        if (tokens != null)
+            return PubSubMessageDecoder.readPath(tokens, valueType, "data");
+        return PubSubMessageDecoder.readPath(rawMessage, valueType, "data");
+    }
+
+    /**
+     * Binds a field of the {@code data} field of the message
+     *
+     * @param field     name of the field within {@code data}
+     * @param valueType the class to bind into
+     * @param <T>       the type to bind into
+     * @return the field, or null if absent
+     */
+    public <T> T readData(String field, Class<T> valueType) {
+        if (rawMessage == null)
+            return messageData != null ? TypeConvert.convertValue(messageData.get(field), valueType) : null;
+        if (tokens != null)
+            return PubSubMessageDecoder.readPath(tokens, valueType, "data", field);
+        return PubSubMessageDecoder.readPath(rawMessage, valueType, "data", field);
+    }
+
+    /**
+     * Binds the whole message
+     *
+     * @param valueType the class to bind into
+     * @param <T>       the type to bind into
+     * @return the message
+     */
+    public <T> T readMessage(Class<T> valueType) {
+        if (rawMessage == null)
+            return TypeConvert.convertValue(this, valueType);
+        if (tokens != null)
+            return PubSubMessageDecoder.readPath(tokens, valueType);
+        return PubSubMessageDecoder.read(rawMessage, valueType);
+    }
+
 }
@@ -1,9 +1,11 @@
 package com.github.twitch4j.pubsub;
 
 import com.github.twitch4j.pubsub.domain.PubSubRequest;
+import com.github.twitch4j.pubsub.exception.PubSubRequestException;
 import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * PubSub subscription.
@@ -11,8 +13,23 @@ import lombok.RequiredArgsConstructor;
  *
  * @see TwitchPubSub#unsubscribeFromTopic(PubSubSubscription)
  */
-@RequiredArgsConstructor
 public class PubSubSubscription {
     @Getter(AccessLevel.PACKAGE)
     private final PubSubRequest request;
+
+    /**
+     * Completes when twitch confirms the subscription, or exceptionally with a {@link PubSubRequestException}
+     * if twitch rejects it or doesn't answer after all retries. Cancelled when unsubscribing or closing the connection before the confirmation.
+     */
+    @Getter
+    private final CompletableFuture<Void> acknowledgement;
+
+    public PubSubSubscription(PubSubRequest request) {
+        this(request, new CompletableFuture<>());
+    }
+
+    public PubSubSubscription(PubSubRequest request, CompletableFuture<Void> acknowledgement) {
+        this.request = request;
+        this.acknowledgement = acknowledgement;
+    }
 }
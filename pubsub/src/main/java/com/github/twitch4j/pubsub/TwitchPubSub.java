@@ -1,22 +1,20 @@
 package com.github.twitch4j.pubsub;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
 import com.github.philippheuer.events4j.core.EventManager;
-import com.github.twitch4j.common.annotation.Unofficial;
 import com.github.twitch4j.common.config.ProxyConfig;
-import com.github.twitch4j.common.enums.CommandPermission;
-import com.github.twitch4j.common.events.domain.EventUser;
-import com.github.twitch4j.common.events.user.PrivateMessageEvent;
 import com.github.twitch4j.common.util.CryptoUtils;
+import com.github.twitch4j.common.util.ExponentialBackoffStrategy;
 import com.github.twitch4j.common.util.TimeUtils;
-import com.github.twitch4j.common.util.TwitchUtils;
 import com.github.twitch4j.common.util.TypeConvert;
 import com.github.twitch4j.pubsub.domain.*;
 import com.github.twitch4j.pubsub.enums.PubSubType;
 import com.github.twitch4j.pubsub.enums.TMIConnectionState;
-import com.github.twitch4j.pubsub.events.*;
+import com.github.twitch4j.pubsub.exception.PubSubRequestException;
+import com.github.twitch4j.pubsub.handlers.PubSubTopicDecoder;
+import com.github.twitch4j.pubsub.handlers.PubSubTopicRouter;
+import com.github.twitch4j.pubsub.handlers.TopicDecoders;
+import com.github.twitch4j.pubsub.util.PubSubMessageDecoder;
+import com.github.twitch4j.pubsub.util.PubSubRequestCoalescer;
 import com.neovisionaries.ws.client.WebSocket;
 import com.neovisionaries.ws.client.WebSocketAdapter;
 import com.neovisionaries.ws.client.WebSocketFactory;
@@ -27,32 +25,47 @@ import lombok.Setter;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collections;
-import java.util.GregorianCalendar;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Twitch PubSub
  */
 @Slf4j
-public class TwitchPubSub implements AutoCloseable {
+public class TwitchPubSub implements ITwitchPubSub {
 
     public static final int REQUIRED_THREAD_COUNT = 2;
 
+    /**
+     * Maximum amount of topics per connection, also the maximum amount of topics per request
+     */
+    public static final int MAX_TOPICS_PER_CONNECTION = 50;
+
+    /**
+     * How long queued LISTEN and UNLISTEN requests are collected before they are merged and sent
+     */
+    public static final long REQUEST_BATCH_WINDOW_MILLIS = 50L;
+
+    /**
+     * Errors after which a LISTEN can't succeed by retrying it
+     */
+    protected static final Set<String> PERMANENT_ERRORS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("ERR_BADAUTH", "ERR_BADTOPIC", "ERR_BADMESSAGE")));
+
     /**
      * EventManager
      */
@@ -62,7 +75,12 @@ public class TwitchPubSub implements AutoCloseable {
     /**
      * The WebSocket Server
      */
-    private static final String WEB_SOCKET_SERVER = "wss://pubsub-edge.twitch.tv:443";
+    public static final String WEB_SOCKET_SERVER = "wss://pubsub-edge.twitch.tv:443";
+
+    /**
+     * The websocket url to connect to
+     */
+    protected final String baseUrl;
 
     /**
      * WebSocket Client
@@ -74,6 +92,7 @@ public class TwitchPubSub implements AutoCloseable {
      * The connection state
      * Default: ({@link TMIConnectionState#DISCONNECTED})
      */
+    @Getter
     private volatile TMIConnectionState connectionState = TMIConnectionState.DISCONNECTED;
 
     /**
@@ -94,13 +113,48 @@ public class TwitchPubSub implements AutoCloseable {
     /**
      * Command Queue
      */
-    protected final BlockingQueue<String> commandQueue = new ArrayBlockingQueue<>(200);
+    protected final BlockingQueue<PubSubRequest> commandQueue = new ArrayBlockingQueue<>(200);
 
     /**
      * Holds the subscribed topics in case we need to reconnect
      */
     protected final Set<PubSubRequest> subscribedTopics = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Acknowledgement of each subscribed request, completed by the RESPONSE to its LISTEN
+     */
+    protected final Map<PubSubRequest, CompletableFuture<Void>> acknowledgements = new ConcurrentHashMap<>();
+
+    /**
+     * Sent LISTEN requests that wait for their RESPONSE, by nonce
+     */
+    protected final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Failed attempts of subscribed requests that are retried
+     */
+    protected final Map<PubSubRequest, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    /**
+     * Requests that were rejected as part of a merged request, they are sent on their own to find the rejected topic
+     */
+    protected final Set<PubSubRequest> isolatedRequests = ConcurrentHashMap.newKeySet();
+
+    /**
+     * How long to wait for the RESPONSE to a LISTEN before it is retried
+     */
+    protected final long requestTimeoutMillis;
+
+    /**
+     * Maximum amount of attempts of a LISTEN that fails with a transient error or is not answered
+     */
+    protected final int maxRequestAttempts;
+
+    /**
+     * Delay before retrying a LISTEN, capped exponential backoff with full jitter
+     */
+    protected final ExponentialBackoffStrategy requestRetryBackoff;
+
     /**
      * Last Ping send (1 minute delay before sending the first ping)
      */
@@ -121,15 +175,30 @@ public class TwitchPubSub implements AutoCloseable {
      */
     protected final WebSocketFactory webSocketFactory;
 
+    /**
+     * Routes received messages to the decoder of their topic
+     */
+    @Getter
+    private final PubSubTopicRouter topicRouter = new PubSubTopicRouter();
+
     /**
      * Constructor
      *
-     * @param eventManager EventManager
-     * @param taskExecutor ScheduledThreadPoolExecutor
-     * @param proxyConfig  ProxyConfig
-     */
-    public TwitchPubSub(EventManager eventManager, ScheduledThreadPoolExecutor taskExecutor, ProxyConfig proxyConfig) {
+     * @param eventManager          EventManager
+     * @param taskExecutor          ScheduledThreadPoolExecutor
+     * @param proxyConfig           ProxyConfig
+     * @param baseUrl               The websocket url to connect to
+     * @param requestTimeout        How long to wait for the RESPONSE to a LISTEN before it is retried
+     * @param maxRequestAttempts    Maximum amount of attempts of a LISTEN that fails with a transient error or is not answered
+     * @param requestRetryBaseDelay Upper bound of the random delay before the first retry of a LISTEN
+     * @param requestRetryMaxDelay  Upper bound of the random delay before any retry of a LISTEN
+     */
+    public TwitchPubSub(EventManager eventManager, ScheduledThreadPoolExecutor taskExecutor, ProxyConfig proxyConfig, String baseUrl, Duration requestTimeout, int maxRequestAttempts, Duration requestRetryBaseDelay, Duration requestRetryMaxDelay) {
         this.taskExecutor = taskExecutor;
+        this.baseUrl = baseUrl;
+        this.requestTimeoutMillis = requestTimeout.toMillis();
+        this.maxRequestAttempts = Math.max(maxRequestAttempts, 1);
+        this.requestRetryBackoff = new ExponentialBackoffStrategy(requestRetryBaseDelay, requestRetryMaxDelay);
         this.eventManager = eventManager;
         // register with serviceMediator
         this.eventManager.getServiceMediator().addService("twitch4j-pubsub", this);
@@ -139,6 +208,9 @@ public class TwitchPubSub implements AutoCloseable {
         if (proxyConfig != null)
             proxyConfig.applyWs(webSocketFactory.getProxySettings());
 
+        // decoders of the supported topics
+        TopicDecoders.registerDefaults(topicRouter);
+
         // connect
         this.connect();
 
@@ -165,13 +237,21 @@ public class TwitchPubSub implements AutoCloseable {
                         reconnect();
                     }
 
-                    // If connected, send one message from the queue
-                    String command = commandQueue.poll(1000L, TimeUnit.MILLISECONDS);
-                    if (command != null) {
-                        if (connectionState.equals(TMIConnectionState.CONNECTED)) {
-                            sendCommand(command);
-                            // Logging
-                            log.debug("Processed command from queue: [{}].", command);
+                    // retry LISTEN requests that were not answered in time
+                    expirePendingRequests();
+
+                    // If connected, send the queued requests, merging requests that share a token
+                    PubSubRequest request = commandQueue.poll(1000L, TimeUnit.MILLISECONDS);
+                    if (request != null) {
+                        List<PubSubRequest> requests = new ArrayList<>();
+                        requests.add(request);
+                        TimeUnit.MILLISECONDS.sleep(REQUEST_BATCH_WINDOW_MILLIS);
+                        commandQueue.drainTo(requests);
+
+                        for (PubSubRequestCoalescer.Batch batch : PubSubRequestCoalescer.batch(requests, MAX_TOPICS_PER_CONNECTION, r -> !isolatedRequests.contains(r))) {
+                            if (connectionState.equals(TMIConnectionState.CONNECTED)) {
+                                sendBatch(batch);
+                            }
                         }
                     }
                 } catch (Exception ex) {
@@ -248,7 +328,7 @@ public class TwitchPubSub implements AutoCloseable {
     private void createWebSocket() {
         try {
             // WebSocket
-            this.webSocket = webSocketFactory.createSocket(WEB_SOCKET_SERVER);
+            this.webSocket = webSocketFactory.createSocket(baseUrl);
 
             // WebSocket Listeners
             this.webSocket.clearListeners();
@@ -256,15 +336,21 @@ public class TwitchPubSub implements AutoCloseable {
 
                 @Override
                 public void onConnected(WebSocket ws, Map<String, List<String>> headers) {
-                    log.info("Connecting to Twitch PubSub {}", WEB_SOCKET_SERVER);
+                    log.info("Connecting to Twitch PubSub {}", baseUrl);
 
                     // Connection Success
                     connectionState = TMIConnectionState.CONNECTED;
 
-                    log.info("Connected to Twitch PubSub {}", WEB_SOCKET_SERVER);
+                    log.info("Connected to Twitch PubSub {}", baseUrl);
+
+                    // responses to requests of the previous connection won't arrive, all topics are requested again
+                    pendingRequests.clear();
 
-                    // resubscribe to all topics after disconnect
-                    subscribedTopics.forEach(topic -> listenOnTopic(topic));
+                    // resubscribe to all topics after disconnect, with as few requests as possible
+                    // the batches are sent right away instead of being queued, so the queue can't overflow with many subscriptions
+                    for (PubSubRequestCoalescer.Batch batch : PubSubRequestCoalescer.batch(subscribedTopics, MAX_TOPICS_PER_CONNECTION, r -> !isolatedRequests.contains(r))) {
+                        sendBatch(batch);
+                    }
                 }
 
                 @Override
@@ -273,239 +359,23 @@ public class TwitchPubSub implements AutoCloseable {
                         log.trace("Received WebSocketMessage: " + text);
 
                         // parse message
-                        PubSubResponse message = TypeConvert.jsonToObject(text, PubSubResponse.class);
+                        PubSubResponse message = PubSubMessageDecoder.decodeResponse(text);
                         if (message.getType().equals(PubSubType.MESSAGE)) {
                             String topic = message.getData().getTopic();
-                            String type = message.getData().getMessage().getType();
-                            JsonNode msgData = message.getData().getMessage().getMessageData();
-                            String rawMessage = message.getData().getMessage().getRawMessage();
 
                             // Handle Messages
-                            if (topic.startsWith("channel-bits-events-v2")) {
-                                eventManager.publish(new ChannelBitsEvent(TypeConvert.convertValue(msgData, ChannelBitsData.class)));
-                            } else if (topic.startsWith("channel-bits-badge-unlocks")) {
-                                eventManager.publish(new ChannelBitsBadgeUnlockEvent(TypeConvert.jsonToObject(rawMessage, BitsBadgeData.class)));
-                            } else if (topic.startsWith("channel-subscribe-events-v1")) {
-                                eventManager.publish(new ChannelSubscribeEvent(TypeConvert.jsonToObject(rawMessage, SubscriptionData.class)));
-                            } else if (topic.startsWith("channel-commerce-events-v1")) {
-                                eventManager.publish(new ChannelCommerceEvent(TypeConvert.jsonToObject(rawMessage, CommerceData.class)));
-                            } else if (topic.startsWith("whispers") && (type.equals("whisper_sent") || type.equals("whisper_received"))) {
-                                // Whisper data is escaped Json cast into a String
-                                JsonNode msgDataParsed = TypeConvert.jsonToObject(msgData.asText(), JsonNode.class);
-
-                                //TypeReference<T> allows type parameters (unlike Class<T>) and avoids needing @SuppressWarnings("unchecked")
-                                Map<String, Object> tags = TypeConvert.convertValue(msgDataParsed.path("tags"), new TypeReference<Map<String, Object>>() {});
-
-                                String fromId = msgDataParsed.get("from_id").asText();
-                                String displayName = (String) tags.get("display_name");
-                                EventUser eventUser = new EventUser(fromId, displayName);
-
-                                String body = msgDataParsed.get("body").asText();
-
-                                Set<CommandPermission> permissions = TwitchUtils.getPermissionsFromTags(tags);
-
-                                PrivateMessageEvent privateMessageEvent = new PrivateMessageEvent(eventUser, body, permissions);
-                                eventManager.publish(privateMessageEvent);
-
-                            } else if (topic.startsWith("community-points-channel-v1")) {
-                                String timestampText = msgData.path("timestamp").asText();
-                                Instant instant = Instant.parse(timestampText);
-                                Calendar timestamp = GregorianCalendar.from(
-                                    ZonedDateTime.ofInstant(
-                                        instant,
-                                        ZoneId.systemDefault()
-                                    )
-                                );
-
-                                switch (type) {
-                                    case "reward-redeemed":
-                                        ChannelPointsRedemption redemption = TypeConvert.convertValue(msgData.path("redemption"), ChannelPointsRedemption.class);
-                                        eventManager.publish(new RewardRedeemedEvent(timestamp, redemption));
-                                        break;
-                                    case "redemption-status-update":
-                                        ChannelPointsRedemption updatedRedemption = TypeConvert.convertValue(msgData.path("redemption"), ChannelPointsRedemption.class);
-                                        eventManager.publish(new RedemptionStatusUpdateEvent(timestamp, updatedRedemption));
-                                        break;
-                                    case "custom-reward-created":
-                                        ChannelPointsReward newReward = TypeConvert.convertValue(msgData.path("new_reward"), ChannelPointsReward.class);
-                                        eventManager.publish(new CustomRewardCreatedEvent(instant, newReward));
-                                        break;
-                                    case "custom-reward-updated":
-                                        ChannelPointsReward updatedReward = TypeConvert.convertValue(msgData.path("updated_reward"), ChannelPointsReward.class);
-                                        eventManager.publish(new CustomRewardUpdatedEvent(instant, updatedReward));
-                                        break;
-                                    case "custom-reward-deleted":
-                                        ChannelPointsReward deletedReward = TypeConvert.convertValue(msgData.path("deleted_reward"), ChannelPointsReward.class);
-                                        eventManager.publish(new CustomRewardDeletedEvent(instant, deletedReward));
-                                        break;
-                                    case "update-redemption-statuses-progress":
-                                        RedemptionProgress redemptionProgress = TypeConvert.convertValue(msgData.path("progress"), RedemptionProgress.class);
-                                        eventManager.publish(new UpdateRedemptionProgressEvent(instant, redemptionProgress));
-                                        break;
-                                    case "update-redemption-statuses-finished":
-                                        RedemptionProgress redemptionFinished = TypeConvert.convertValue(msgData.path("progress"), RedemptionProgress.class);
-                                        eventManager.publish(new UpdateRedemptionFinishedEvent(instant, redemptionFinished));
-                                        break;
-                                    default:
-                                        log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                        break;
-                                }
-
-                            } else if (topic.startsWith("raid")) {
-                                switch (type) {
-                                    case "raid_go_v2":
-                                        eventManager.publish(TypeConvert.jsonToObject(rawMessage, RaidGoEvent.class));
-                                        break;
-                                    case "raid_update_v2":
-                                        eventManager.publish(TypeConvert.jsonToObject(rawMessage, RaidUpdateEvent.class));
-                                        break;
-                                    case "raid_cancel_v2":
-                                        eventManager.publish(TypeConvert.jsonToObject(rawMessage, RaidCancelEvent.class));
-                                        break;
-                                    default:
-                                        log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                        break;
-                                }
-
-                            } else if (topic.startsWith("chat_moderator_actions")) {
-                                String channelId = topic.substring(topic.lastIndexOf('.') + 1);
-                                ChatModerationAction data = TypeConvert.convertValue(msgData, ChatModerationAction.class);
-                                eventManager.publish(new ChatModerationEvent(channelId, data));
-                            } else if (topic.startsWith("following")) {
-                                final String channelId = topic.substring(topic.lastIndexOf('.') + 1);
-                                final FollowingData data = TypeConvert.jsonToObject(rawMessage, FollowingData.class);
-                                eventManager.publish(new FollowingEvent(channelId, data));
-                            } else if (topic.startsWith("hype-train-events-v1.rewards")) {
-                                eventManager.publish(new HypeTrainRewardsEvent(TypeConvert.convertValue(msgData, HypeTrainRewardsData.class)));
-                            } else if (topic.startsWith("hype-train-events-v1")) {
-                                final String channelId = topic.substring(topic.lastIndexOf('.') + 1);
-                                switch (type) {
-                                    case "hype-train-start":
-                                        final HypeTrainStart startData = TypeConvert.convertValue(msgData, HypeTrainStart.class);
-                                        eventManager.publish(new HypeTrainStartEvent(startData));
-                                        break;
-                                    case "hype-train-progression":
-                                        final HypeProgression progressionData = TypeConvert.convertValue(msgData, HypeProgression.class);
-                                        eventManager.publish(new HypeTrainProgressionEvent(channelId, progressionData));
-                                        break;
-                                    case "hype-train-level-up":
-                                        final HypeLevelUp levelUpData = TypeConvert.convertValue(msgData, HypeLevelUp.class);
-                                        eventManager.publish(new HypeTrainLevelUpEvent(channelId, levelUpData));
-                                        break;
-                                    case "hype-train-end":
-                                        final HypeTrainEnd endData = TypeConvert.convertValue(msgData, HypeTrainEnd.class);
-                                        eventManager.publish(new HypeTrainEndEvent(channelId, endData));
-                                        break;
-                                    case "hype-train-conductor-update":
-                                        final HypeTrainConductor conductorData = TypeConvert.convertValue(msgData, HypeTrainConductor.class);
-                                        eventManager.publish(new HypeTrainConductorUpdateEvent(channelId, conductorData));
-                                        break;
-                                    case "hype-train-cooldown-expiration":
-                                        eventManager.publish(new HypeTrainCooldownExpirationEvent(channelId));
-                                        break;
-                                    default:
-                                        log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                        break;
-                                }
-                            } else if (topic.startsWith("community-points-user-v1")) {
-                                switch (type) {
-                                    case "points-earned":
-                                        final ChannelPointsEarned pointsEarned = TypeConvert.convertValue(msgData, ChannelPointsEarned.class);
-                                        eventManager.publish(new PointsEarnedEvent(pointsEarned));
-                                        break;
-                                    case "claim-available":
-                                        final ClaimData claimAvailable = TypeConvert.convertValue(msgData, ClaimData.class);
-                                        eventManager.publish(new ClaimAvailableEvent(claimAvailable));
-                                        break;
-                                    case "claim-claimed":
-                                        final ClaimData claimClaimed = TypeConvert.convertValue(msgData, ClaimData.class);
-                                        eventManager.publish(new ClaimClaimedEvent(claimClaimed));
-                                        break;
-                                    case "points-spent":
-                                        final PointsSpent pointsSpent = TypeConvert.convertValue(msgData, PointsSpent.class);
-                                        eventManager.publish(new PointsSpentEvent(pointsSpent));
-                                        break;
-                                    case "reward-redeemed":
-                                        final Calendar timestamp = GregorianCalendar.from(ZonedDateTime.ofInstant(Instant.parse(msgData.path("timestamp").asText()), ZoneId.systemDefault()));
-                                        final ChannelPointsRedemption redemption = TypeConvert.convertValue(msgData.path("redemption"), ChannelPointsRedemption.class);
-                                        eventManager.publish(new RewardRedeemedEvent(timestamp, redemption));
-                                        break;
-                                    case "global-last-viewed-content-updated":
-                                    case "channel-last-viewed-content-updated":
-                                        // unimportant
-                                        break;
-                                    default:
-                                        log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                        break;
-                                }
-                            } else if (topic.startsWith("leaderboard-events-v1")) {
-                                final Leaderboard leaderboard = TypeConvert.jsonToObject(rawMessage, Leaderboard.class);
-                                switch (leaderboard.getIdentifier().getDomain()) {
-                                    case "bits-usage-by-channel-v1":
-                                        eventManager.publish(new BitsLeaderboardEvent(leaderboard));
-                                        break;
-                                    case "sub-gifts-sent":
-                                        eventManager.publish(new SubLeaderboardEvent(leaderboard));
-                                        break;
-                                    default:
-                                        log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                        break;
-                                }
-                            } else if (topic.startsWith("polls")) {
-                                PollData pollData = TypeConvert.convertValue(msgData.path("poll"), PollData.class);
-                                eventManager.publish(new PollsEvent(type, pollData));
-                            } else if (topic.startsWith("friendship")) {
-                                eventManager.publish(new FriendshipEvent(TypeConvert.jsonToObject(rawMessage, FriendshipData.class)));
-                            } else if (topic.startsWith("presence")) {
-                                if ("presence".equalsIgnoreCase(type)) {
-                                    eventManager.publish(new UserPresenceEvent(TypeConvert.convertValue(msgData, PresenceData.class)));
-                                } else if ("settings".equalsIgnoreCase(type)) {
-                                    String userId = topic.substring(topic.indexOf('.') + 1);
-                                    PresenceSettings presenceSettings = TypeConvert.convertValue(msgData, PresenceSettings.class);
-                                    eventManager.publish(new PresenceSettingsEvent(userId, presenceSettings));
-                                } else {
-                                    log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                }
-                            } else if (topic.startsWith("channel-sub-gifts-v1")) {
-                                eventManager.publish(new ChannelSubGiftEvent(TypeConvert.jsonToObject(rawMessage, SubGiftData.class)));
-                            } else if (topic.startsWith("channel-cheer-events-public-v1")) {
-                                String channelId = topic.substring(topic.indexOf('.') + 1);
-                                if ("cheerbomb".equalsIgnoreCase(type)) {
-                                    CheerbombData cheerbomb = TypeConvert.convertValue(msgData, CheerbombData.class);
-                                    eventManager.publish(new CheerbombEvent(channelId, cheerbomb));
-                                } else {
-                                    log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                }
-                            } else if (topic.startsWith("onsite-notifications")) {
-                                if ("create-notification".equalsIgnoreCase(type)) {
-                                    eventManager.publish(new OnsiteNotificationCreationEvent(TypeConvert.convertValue(msgData, CreateNotificationData.class)));
-                                } else if ("update-summary".equalsIgnoreCase(type)) {
-                                    String id = topic.substring(topic.indexOf('.') + 1);
-                                    UpdateSummaryData data = TypeConvert.convertValue(msgData, UpdateSummaryData.class);
-                                    eventManager.publish(new UpdateOnsiteNotificationSummaryEvent(id, data));
-                                } else {
-                                    log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
-                                }
-                            } else if (topic.startsWith("video-playback")) {
-                                int dot = topic.indexOf('.');
-                                String channel = topic.substring(dot + 1);
-                                boolean hasId = topic.charAt(dot - 1) == 'd';
-                                VideoPlaybackData data = TypeConvert.jsonToObject(rawMessage, VideoPlaybackData.class);
-                                eventManager.publish(new VideoPlaybackEvent(hasId ? channel : null, hasId ? null : channel, data));
+                            PubSubTopicDecoder decoder = topicRouter.getDecoder(topic);
+                            if (decoder != null) {
+                                Object event = decoder.decode(topic, message.getData().getMessage());
+                                if (event != null)
+                                    eventManager.publish(event);
                             } else {
                                 log.warn("Unparseable Message: " + message.getType() + "|" + message.getData());
                             }
 
                         } else if (message.getType().equals(PubSubType.RESPONSE)) {
                             // topic subscription success or failed, response to listen command
-                            // System.out.println(message.toString());
-                            if (message.getError().length() > 0) {
-                                if (message.getError().equalsIgnoreCase("ERR_BADAUTH")) {
-                                    log.error("PubSub: You used a invalid oauth token to subscribe to the topic. Please use a token that is authorized for the specified channel.");
-                                } else {
-                                    log.error("PubSub: Failed to subscribe to topic - [" + message.getError() + "]");
-                                }
-                            }
+                            handleResponse(message.getNonce(), message.getError());
 
                         } else if (message.getType().equals(PubSubType.PONG)) {
                             log.debug("PubSub: Received PONG response!");
@@ -546,6 +416,22 @@ public class TwitchPubSub implements AutoCloseable {
         }
     }
 
+    /**
+     * Sends a batch, a LISTEN waits for its RESPONSE on behalf of all subscriptions in the batch
+     *
+     * @param batch the request to send and the subscriptions it contains
+     */
+    private void sendBatch(PubSubRequestCoalescer.Batch batch) {
+        PubSubRequest request = batch.getRequest();
+        if (request.getType() == PubSubType.LISTEN && request.getNonce() != null)
+            pendingRequests.put(request.getNonce(), new PendingRequest(batch.getRequests(), TimeUtils.getCurrentTimeInMillis() + requestTimeoutMillis));
+
+        String command = TypeConvert.objectToJson(request);
+        sendCommand(command);
+        // Logging
+        log.debug("Processed command from queue: [{}].", command);
+    }
+
     /**
      * Send WS Message
      *
@@ -561,13 +447,127 @@ public class TwitchPubSub implements AutoCloseable {
         }
     }
 
+    /**
+     * Resolves the subscriptions of the request a RESPONSE belongs to
+     *
+     * @param nonce nonce of the request
+     * @param error error, empty on success
+     */
+    private void handleResponse(String nonce, String error) {
+        boolean failed = error != null && error.length() > 0;
+        if (failed) {
+            if (error.equalsIgnoreCase("ERR_BADAUTH")) {
+                log.error("PubSub: You used a invalid oauth token to subscribe to the topic. Please use a token that is authorized for the specified channel.");
+            } else {
+                log.error("PubSub: Failed to subscribe to topic - [" + error + "]");
+            }
+        }
+
+        PendingRequest pending = nonce != null ? pendingRequests.remove(nonce) : null;
+        if (pending == null)
+            return;
+
+        if (!failed) {
+            for (PubSubRequest request : pending.requests) {
+                failedAttempts.remove(request);
+                isolatedRequests.remove(request);
+                CompletableFuture<Void> acknowledgement = acknowledgements.get(request);
+                if (acknowledgement != null)
+                    acknowledgement.complete(null);
+            }
+        } else if (!PERMANENT_ERRORS.contains(error)) {
+            pending.requests.forEach(request -> retryRequest(request, error));
+        } else if (pending.requests.size() > 1 && !error.equals("ERR_BADAUTH")) {
+            // a single topic may fail the merged request, send the requests on their own to find it
+            log.debug("PubSub: Retrying {} merged requests one by one", pending.requests.size());
+            for (PubSubRequest request : pending.requests) {
+                if (subscribedTopics.contains(request) && isolatedRequests.add(request))
+                    queueRequest(request);
+            }
+        } else {
+            pending.requests.forEach(request -> dropRequest(request, error));
+        }
+    }
+
+    /**
+     * Retries the LISTEN requests whose response timed out
+     */
+    private void expirePendingRequests() {
+        long now = TimeUtils.getCurrentTimeInMillis();
+        pendingRequests.forEach((nonce, pending) -> {
+            if (now >= pending.deadline && pendingRequests.remove(nonce, pending)) {
+                log.warn("PubSub: No response to request {}", nonce);
+                pending.requests.forEach(request -> retryRequest(request, null));
+            }
+        });
+    }
+
+    /**
+     * Sends a LISTEN again after a delay, or fails its acknowledgement once all attempts are used up
+     * <p>
+     * The subscription is kept in that case, it is requested again after the next reconnect.
+     *
+     * @param request the request
+     * @param error   the error, or null if there was no response
+     */
+    private void retryRequest(PubSubRequest request, String error) {
+        if (!subscribedTopics.contains(request))
+            return;
+
+        int attempts = failedAttempts.merge(request, 1, Integer::sum);
+        if (attempts >= maxRequestAttempts) {
+            failedAttempts.remove(request);
+            CompletableFuture<Void> acknowledgement = acknowledgements.get(request);
+            if (acknowledgement != null)
+                acknowledgement.completeExceptionally(new PubSubRequestException(error, false));
+            return;
+        }
+
+        long delay = ThreadLocalRandom.current().nextLong(requestRetryBackoff.getCeilingMillis(attempts - 1) + 1);
+        log.debug("PubSub: Retrying request in {}ms (attempt {})", delay, attempts + 1);
+        taskExecutor.schedule(() -> {
+            if (!isClosed && subscribedTopics.contains(request))
+                queueRequest(request);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops a subscription that was rejected for good, so it is not requested again on reconnect
+     *
+     * @param request the request
+     * @param error   the error
+     */
+    private void dropRequest(PubSubRequest request, String error) {
+        if (!subscribedTopics.remove(request))
+            return;
+
+        log.warn("PubSub: Dropping subscription {} - [{}]", request.getData().get("topics"), error);
+        failedAttempts.remove(request);
+        isolatedRequests.remove(request);
+        CompletableFuture<Void> acknowledgement = acknowledgements.remove(request);
+        if (acknowledgement != null)
+            acknowledgement.completeExceptionally(new PubSubRequestException(error, true));
+    }
+
     /**
      * Queue PubSub request
      *
      * @param request PubSub request (or Topic)
      */
     private void queueRequest(PubSubRequest request) {
-        commandQueue.add(TypeConvert.objectToJson(request));
+        commandQueue.add(request);
+    }
+
+    /**
+     * Registers the decoder of a topic family, e.g. for topics that are not supported by the library
+     * <p>
+     * The decoder replaces the decoder of the library if the prefix is already registered.
+     *
+     * @param prefix  topic prefix, the part of the topic before the first '.'
+     * @param decoder decodes the messages of the topics into events, which are published to the event manager
+     */
+    public void registerTopicDecoder(String prefix, PubSubTopicDecoder decoder) {
+        topicRouter.register(prefix, decoder);
     }
 
     /**
@@ -576,28 +576,17 @@ public class TwitchPubSub implements AutoCloseable {
      * @param request Topic
      * @return PubSubSubscription
      */
+    @Override
     public PubSubSubscription listenOnTopic(PubSubRequest request) {
+        CompletableFuture<Void> acknowledgement = acknowledgements.computeIfAbsent(request, r -> new CompletableFuture<>());
         if (subscribedTopics.add(request))
             queueRequest(request);
-        return new PubSubSubscription(request);
-    }
-
-    public PubSubSubscription listenOnTopic(PubSubType type, OAuth2Credential credential, List<String> topics) {
-        PubSubRequest request = new PubSubRequest();
-        request.setType(type);
-        request.setNonce(CryptoUtils.generateNonce(32));
-        request.getData().put("auth_token", credential != null ? credential.getAccessToken() : "");
-        request.getData().put("topics", topics);
-
-        return listenOnTopic(request);
-    }
-
-    public PubSubSubscription listenOnTopic(PubSubType type, OAuth2Credential credential, String topic) {
-        return listenOnTopic(type, credential, Collections.singletonList(topic));
-    }
-
-    public PubSubSubscription listenOnTopic(PubSubType type, OAuth2Credential credential, String... topics) {
-        return listenOnTopic(type, credential, Arrays.asList(topics));
+        if (isClosed) {
+            // not sent anymore, don't leave the acknowledgement pending
+            acknowledgements.remove(request, acknowledgement);
+            acknowledgement.cancel(false);
+        }
+        return new PubSubSubscription(request, acknowledgement);
     }
 
     /**
@@ -611,6 +600,7 @@ public class TwitchPubSub implements AutoCloseable {
      *
      * @param subscription Subscription
      */
+    @Override
     public void unsubscribeFromTopic(PubSubSubscription subscription) {
         PubSubRequest request = subscription.getRequest();
         if (request.getType() != PubSubType.LISTEN) {
@@ -622,6 +612,11 @@ public class TwitchPubSub implements AutoCloseable {
             log.warn("Not subscribed to topic: {}", request);
             return;
         }
+        failedAttempts.remove(request);
+        isolatedRequests.remove(request);
+        CompletableFuture<Void> acknowledgement = acknowledgements.remove(request);
+        if (acknowledgement != null)
+            acknowledgement.cancel(false);
 
         // use data from original request and send UNLISTEN
         PubSubRequest unlistenRequest = new PubSubRequest();
@@ -632,362 +627,44 @@ public class TwitchPubSub implements AutoCloseable {
     }
 
     /**
-     * Event Listener: User earned a new Bits badge and shared the notification with chat
-     *
-     * @param credential Credential (for target user id, scope: bits:read)
-     * @param userId     Target User Id
-     * @return PubSubSubscription
-     */
-    public PubSubSubscription listenForBitsBadgeEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-bits-badge-unlocks." + userId);
-    }
-
-    /**
-     * Event Listener: Anyone cheers on a specified channel.
-     *
-     * @param credential Credential (for target user id, scope: bits:read)
-     * @param userId     Target User Id
-     * @return PubSubSubscription
-     */
-    public PubSubSubscription listenForCheerEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-bits-events-v2." + userId);
-    }
-
-    /**
-     * Event Listener: Anyone subscribes (first month), resubscribes (subsequent months), or gifts a subscription to a channel.
-     *
-     * @param credential Credential (for targetUserId, scope: channel_subscriptions)
-     * @param userId     Target User Id
-     * @return PubSubSubscription
-     */
-    public PubSubSubscription listenForSubscriptionEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-subscribe-events-v1." + userId);
-    }
-
-    /**
-     * Event Listener: Anyone makes a purchase on a channel.
-     *
-     * @param credential Credential (any)
-     * @param userId     Target User Id
-     * @return PubSubSubscription
-     */
-    @Deprecated
-    public PubSubSubscription listenForCommerceEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-commerce-events-v1." + userId);
-    }
-
-    /**
-     * Event Listener: Anyone whispers the specified user.
-     *
-     * @param credential Credential (for targetUserId, scope: whispers:read)
-     * @param userId     Target User Id
-     * @return PubSubSubscription
-     */
-    public PubSubSubscription listenForWhisperEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "whispers." + userId);
-    }
-
-    /**
-     * Event Listener: A moderator performs an action in the channel
-     *
-     * @param credential Credential (for channelId, scope: channel:moderate)
-     * @param channelId  Target Channel Id
-     * @return PubSubSubscription
-     */
-    public PubSubSubscription listenForModerationEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "chat_moderator_actions." + channelId);
-    }
-
-    /**
-     * Event Listener: A moderator performs an action in the channel
-     *
-     * @param credential Credential (for userId, scope: channel:moderate)
-     * @param userId     The user id associated with the credential
-     * @param roomId     The user id associated with the target channel
-     * @return PubSubSubscription
-     */
-    public PubSubSubscription listenForModerationEvents(OAuth2Credential credential, String userId, String roomId) {
-        return listenForModerationEvents(credential, userId + "." + roomId);
-    }
-
-    /**
-     * Event Listener: Anyone makes a channel points redemption on a channel.
-     *
-     * @param credential Credential (any)
-     * @param channelId  Target Channel Id
-     * @return PubSubSubscription
-     */
-    public PubSubSubscription listenForChannelPointsRedemptionEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "community-points-channel-v1." + channelId);
-    }
-
-    /*
-     * Undocumented topics - Use at your own risk
+     * Close
+     * <p>
+     * Acknowledgements that are still outstanding are cancelled, their requests won't be answered anymore.
      */
+    @Override
+    public void close() {
+        if (!isClosed) {
+            isClosed = true;
+            heartbeatTask.cancel(false);
+            queueTask.cancel(false);
+            disconnect();
 
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForAdsEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "ads." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForAdPropertyRefreshEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "ad-property-refresh." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForBountyBoardEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-bounty-board-events.cta." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForDashboardActivityFeedEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "dashboard-activity-feed." + userId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForUserChannelPointsEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "community-points-user-v1." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForChannelDropEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-drop-events." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForChannelBitsLeaderboardEvents(OAuth2Credential credential, String channelId) {
-        return listenForChannelBitsLeaderboardEvents(credential, channelId, "WEEK");
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForChannelBitsLeaderboardMonthlyEvents(OAuth2Credential credential, String channelId) {
-        return listenForChannelBitsLeaderboardEvents(credential, channelId, "MONTH");
-    }
-
-    @Unofficial
-    private PubSubSubscription listenForChannelBitsLeaderboardEvents(OAuth2Credential credential, String channelId, String timeAggregationUnit) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "leaderboard-events-v1.bits-usage-by-channel-v1-" + channelId + "-" + timeAggregationUnit);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForChannelPrimeGiftStatusEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-prime-gifting-status." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForChannelSubLeaderboardEvents(OAuth2Credential credential, String channelId) {
-        return listenForChannelSubLeaderboardEvents(credential, channelId, "WEEK");
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForChannelSubLeaderboardMonthlyEvents(OAuth2Credential credential, String channelId) {
-        return listenForChannelSubLeaderboardEvents(credential, channelId, "MONTH");
-    }
-
-    @Unofficial
-    private PubSubSubscription listenForChannelSubLeaderboardEvents(OAuth2Credential credential, String channelId, String timeAggregationUnit) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "leaderboard-events-v1.sub-gift-sent-" + channelId + "-" + timeAggregationUnit);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForLeaderboardEvents(OAuth2Credential credential, String channelId) {
-        return listenForLeaderboardEvents(credential, channelId, "WEEK");
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForLeaderboardMonthlyEvents(OAuth2Credential credential, String channelId) {
-        return listenForLeaderboardEvents(credential, channelId, "MONTH");
-    }
-
-    @Unofficial
-    private PubSubSubscription listenForLeaderboardEvents(OAuth2Credential credential, String channelId, String timeAggregationUnit) {
-        return listenOnTopic(
-            PubSubType.LISTEN,
-            credential,
-            "leaderboard-events-v1.bits-usage-by-channel-v1-" + channelId + "-" + timeAggregationUnit,
-            "leaderboard-events-v1.sub-gift-sent-" + channelId + "-" + timeAggregationUnit
-        );
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForChannelSubGiftsEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-sub-gifts-v1." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForChannelSquadEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-squad-updates." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForRaidEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "raid." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForChannelExtensionEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-ext-v1." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForExtensionControlEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "extension-control." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForHypeTrainEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "hype-train-events-v1." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForHypeTrainRewardEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "hype-train-events-v1.rewards." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForBroadcastSettingUpdateEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "broadcast-settings-update." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForCelebrationEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "celebration-events-v1." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForPublicBitEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-bit-events-public." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForPublicCheerEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "channel-cheer-events-public-v1." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForStreamChangeEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "stream-change-by-channel." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForStreamChatRoomEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "stream-chat-room-v1." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForChannelChatroomEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "chatrooms-channel-v1." + channelId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForUserChatroomEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "chatrooms-user-v1." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForUserBitsUpdateEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "user-bits-updates-v1." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForUserCampaignEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "user-campaign-events." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForUserPropertiesUpdateEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "user-properties-update." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForUserSubscribeEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "user-subscribe-events-v1." + userId);
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForUserImageUpdateEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "user-image-update." + userId);
+            pendingRequests.clear();
+            failedAttempts.clear();
+            isolatedRequests.clear();
+            acknowledgements.values().forEach(acknowledgement -> acknowledgement.cancel(false));
+            acknowledgements.clear();
+        }
     }
 
     /**
-     * Event Listener: Anyone follows the specified channel.
-     *
-     * @param credential {@link OAuth2Credential}
-     * @param channelId  the id for the channel
-     * @return PubSubSubscription
+     * A sent LISTEN request
      */
-    @Unofficial
-    public PubSubSubscription listenForFollowingEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "following." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForFriendshipEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "friendship." + userId);
-    }
+    protected static final class PendingRequest {
 
-    @Unofficial
-    public PubSubSubscription listenForOnsiteNotificationEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "onsite-notifications." + userId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForPollEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "polls." + channelId);
-    }
+        /**
+         * The subscribed requests that were merged into the sent request
+         */
+        private final List<PubSubRequest> requests;
 
-    @Unofficial
-    public PubSubSubscription listenForPresenceEvents(OAuth2Credential credential, String userId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "presence." + userId);
-    }
+        /**
+         * When the request is retried if there is no response
+         */
+        private final long deadline;
 
-    @Unofficial
-    public PubSubSubscription listenForVideoPlaybackEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "video-playback-by-id." + channelId);
-    }
-
-    @Unofficial
-    public PubSubSubscription listenForVideoPlaybackByNameEvents(OAuth2Credential credential, String channelName) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "video-playback." + channelName.toLowerCase());
-    }
-
-    @Unofficial
-    @Deprecated
-    public PubSubSubscription listenForWatchPartyEvents(OAuth2Credential credential, String channelId) {
-        return listenOnTopic(PubSubType.LISTEN, credential, "pv-watch-party-events." + channelId);
-    }
-
-    /**
-     * Close
-     */
-    public void close() {
-        if (!isClosed) {
-            isClosed = true;
-            heartbeatTask.cancel(false);
-            queueTask.cancel(false);
-            disconnect();
+        private PendingRequest(List<PubSubRequest> requests, long deadline) {
+            this.requests = requests;
+            this.deadline = deadline;
         }
     }
 
@@ -7,6 +7,7 @@ import lombok.*;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 
+import java.time.Duration;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 /**
@@ -36,6 +37,37 @@ public class TwitchPubSubBuilder {
     @With
     private ProxyConfig proxyConfig = null;
 
+    /**
+     * A custom websocket url for {@link TwitchPubSub} to connect to.
+     * Must include the scheme (e.g. ws:// or wss://).
+     */
+    @With
+    private String baseUrl = TwitchPubSub.WEB_SOCKET_SERVER;
+
+    /**
+     * How long to wait for the response to a LISTEN before it is retried
+     */
+    @With
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Maximum amount of attempts of a LISTEN that fails with a transient error (e.g. ERR_SERVER) or is not answered
+     */
+    @With
+    private int maxRequestAttempts = 5;
+
+    /**
+     * Upper bound of the random delay before the first retry of a LISTEN, doubled with every further attempt
+     */
+    @With
+    private Duration requestRetryBaseDelay = Duration.ofSeconds(1);
+
+    /**
+     * Upper bound of the random delay before any retry of a LISTEN
+     */
+    @With
+    private Duration requestRetryMaxDelay = Duration.ofSeconds(30);
+
     /**
      * Initialize the builder
      *
@@ -60,7 +92,7 @@ public class TwitchPubSubBuilder {
             eventManager.autoDiscovery();
         }
 
-        return new TwitchPubSub(this.eventManager, scheduledThreadPoolExecutor, this.proxyConfig);
+        return new TwitchPubSub(this.eventManager, scheduledThreadPoolExecutor, this.proxyConfig, this.baseUrl, this.requestTimeout, this.maxRequestAttempts, this.requestRetryBaseDelay, this.requestRetryMaxDelay);
     }
 
 }
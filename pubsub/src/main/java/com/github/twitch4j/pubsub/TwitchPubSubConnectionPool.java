@@ -0,0 +1,410 @@
+package com.github.twitch4j.pubsub;
+
+import com.github.philippheuer.events4j.api.service.IEventHandler;
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.common.util.ThreadUtils;
+import com.github.twitch4j.pubsub.domain.PubSubRequest;
+import com.github.twitch4j.pubsub.exception.PubSubRequestException;
+import com.github.twitch4j.pubsub.handlers.PubSubTopicDecoder;
+import lombok.Getter;
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Twitch PubSub Connection Pool
+ * <p>
+ * Twitch accepts at most 50 topics per pubsub connection. The pool places the subscriptions on connections that have capacity left
+ * and opens a new connection when all existing ones are full. When unsubscribing frees enough capacity, the topics of the least used
+ * connection are moved to the other connections and it is closed once they confirmed the topics (or the handover timeout passed),
+ * so no events are missed in between; events that arrive on both connections during the handover are published twice.
+ * Every connection reconnects on its own, like a regular {@link TwitchPubSub}.
+ * Subscriptions that twitch rejects for good free their capacity as well.
+ * <p>
+ * The acknowledgement of a subscription belongs to the pool and stays the same when its topics are moved to another connection.
+ * <p>
+ * All events are published to the event manager of the pool.
+ */
+@Slf4j
+public class TwitchPubSubConnectionPool implements ITwitchPubSub {
+
+    /**
+     * EventManager
+     */
+    @Getter
+    private final EventManager eventManager;
+
+    /**
+     * Template for the pubsub connections
+     */
+    private final TwitchPubSubBuilder pubSubBuilder;
+
+    /**
+     * Maximum amount of topics per connection
+     */
+    @Getter
+    private final int maxTopicsPerConnection;
+
+    /**
+     * Open connections, in the order they were opened
+     */
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+
+    /**
+     * Connections whose topics were moved, kept open until the other connections confirmed them
+     */
+    private final List<Shard> drainingShards = new CopyOnWriteArrayList<>();
+
+    /**
+     * Connection of each subscription
+     */
+    private final Map<PubSubRequest, Shard> requestShards = new ConcurrentHashMap<>();
+
+    /**
+     * Acknowledgement of each subscription, completed by the connection that currently holds it
+     */
+    private final Map<PubSubRequest, CompletableFuture<Void>> acknowledgements = new ConcurrentHashMap<>();
+
+    /**
+     * Decoders registered by the application, applied to every connection
+     */
+    private final Map<String, PubSubTopicDecoder> topicDecoders = new LinkedHashMap<>();
+
+    /**
+     * Id of the next connection, only used to name the threads
+     */
+    private int nextShardId;
+
+    /**
+     * How long a drained connection is kept open at most, while the other connections confirm its topics
+     */
+    private final long handoverTimeoutMillis;
+
+    /**
+     * Constructor
+     *
+     * @param eventManager           EventManager
+     * @param pubSubBuilder          Template for the pubsub connections
+     * @param maxTopicsPerConnection Maximum amount of topics per connection
+     * @param handoverTimeout        How long a drained connection is kept open at most, while its topics are moved
+     */
+    public TwitchPubSubConnectionPool(EventManager eventManager, TwitchPubSubBuilder pubSubBuilder, int maxTopicsPerConnection, Duration handoverTimeout) {
+        if (maxTopicsPerConnection <= 0)
+            throw new IllegalArgumentException("maxTopicsPerConnection must be positive");
+
+        this.eventManager = eventManager;
+        this.pubSubBuilder = pubSubBuilder;
+        this.maxTopicsPerConnection = maxTopicsPerConnection;
+        this.handoverTimeoutMillis = handoverTimeout.toMillis();
+    }
+
+    /**
+     * Subscribes to the topics of a request, using a connection that has capacity for all of them
+     *
+     * @param request Topic
+     * @return PubSubSubscription
+     * @throws IllegalArgumentException if the request has more topics than a single connection accepts
+     */
+    @Override
+    @Synchronized
+    public PubSubSubscription listenOnTopic(PubSubRequest request) {
+        int topics = topicCount(request);
+        if (topics > maxTopicsPerConnection)
+            throw new IllegalArgumentException("A request can't have more than " + maxTopicsPerConnection + " topics, got " + topics);
+
+        Shard shard = requestShards.get(request);
+        if (shard == null) {
+            shard = findShard(topics);
+            if (shard == null)
+                shard = openShard();
+
+            shard.requests.add(request);
+            shard.topics += topics;
+            requestShards.put(request, shard);
+        }
+        CompletableFuture<Void> acknowledgement = acknowledgements.computeIfAbsent(request, r -> new CompletableFuture<>());
+        track(request, shard, shard.pubSub.listenOnTopic(request));
+        return new PubSubSubscription(request, acknowledgement);
+    }
+
+    /**
+     * Unsubscribes from a topic, closing a connection if the remaining topics fit on fewer connections
+     *
+     * @param subscription Subscription
+     */
+    @Override
+    @Synchronized
+    public void unsubscribeFromTopic(PubSubSubscription subscription) {
+        PubSubRequest request = subscription.getRequest();
+        Shard shard = requestShards.remove(request);
+        if (shard == null) {
+            log.warn("Not subscribed to topic: {}", request);
+            return;
+        }
+
+        shard.requests.remove(request);
+        shard.topics -= topicCount(request);
+        shard.pubSub.unsubscribeFromTopic(subscription);
+        for (Shard drained : drainingShards) {
+            if (drained.requests.remove(request))
+                drained.pubSub.unsubscribeFromTopic(subscription);
+        }
+        CompletableFuture<Void> acknowledgement = acknowledgements.remove(request);
+        if (acknowledgement != null)
+            acknowledgement.cancel(false);
+        rebalance();
+    }
+
+    /**
+     * Forwards the acknowledgement of a connection to the acknowledgement of the pool
+     *
+     * @param request      the request
+     * @param shard        the connection the request was sent to
+     * @param subscription the subscription of the connection
+     */
+    private void track(PubSubRequest request, Shard shard, PubSubSubscription subscription) {
+        subscription.getAcknowledgement().whenComplete((result, ex) -> onAcknowledgement(request, shard, ex));
+    }
+
+    /**
+     * Completes the acknowledgement of the pool, as long as the connection still holds the request
+     * <p>
+     * A connection that no longer holds the request (moved, unsubscribed or closed) is ignored, as is the cancellation by a connection.
+     * A subscription that twitch rejected for good releases its capacity.
+     */
+    @Synchronized
+    private void onAcknowledgement(PubSubRequest request, Shard shard, Throwable ex) {
+        if (requestShards.get(request) != shard || ex instanceof CancellationException)
+            return;
+
+        boolean permanent = ex instanceof PubSubRequestException && ((PubSubRequestException) ex).isPermanent();
+        CompletableFuture<Void> acknowledgement = permanent ? acknowledgements.remove(request) : acknowledgements.get(request);
+        if (permanent) {
+            requestShards.remove(request);
+            shard.requests.remove(request);
+            shard.topics -= topicCount(request);
+            rebalance();
+        }
+
+        if (acknowledgement == null)
+            return;
+        if (ex == null)
+            acknowledgement.complete(null);
+        else
+            acknowledgement.completeExceptionally(ex);
+    }
+
+    /**
+     * Registers the decoder of a topic family on all connections
+     *
+     * @param prefix  topic prefix, the part of the topic before the first '.'
+     * @param decoder decodes the messages of the topics into events
+     * @see TwitchPubSub#registerTopicDecoder(String, PubSubTopicDecoder)
+     */
+    @Synchronized
+    public void registerTopicDecoder(String prefix, PubSubTopicDecoder decoder) {
+        for (Shard shard : shards) {
+            shard.pubSub.registerTopicDecoder(prefix, decoder);
+        }
+        topicDecoders.put(prefix, decoder);
+    }
+
+    /**
+     * @return the amount of open connections
+     */
+    public int getConnectionCount() {
+        return shards.size();
+    }
+
+    /**
+     * @return the amount of subscribed topics over all connections
+     */
+    public int getTopicCount() {
+        int topics = 0;
+        for (Shard shard : shards) {
+            topics += shard.topics;
+        }
+        return topics;
+    }
+
+    /**
+     * Close all connections
+     */
+    @Override
+    @Synchronized
+    public void close() {
+        for (Shard shard : shards) {
+            shard.close();
+        }
+        for (Shard shard : drainingShards) {
+            shard.close();
+        }
+        shards.clear();
+        drainingShards.clear();
+        requestShards.clear();
+        acknowledgements.values().forEach(acknowledgement -> acknowledgement.cancel(false));
+        acknowledgements.clear();
+    }
+
+    /**
+     * Closes the least used connection as long as its topics fit on the remaining connections
+     */
+    private void rebalance() {
+        while (shards.size() > 1) {
+            Shard drained = shards.stream().min(Comparator.comparingInt(s -> s.topics)).get();
+            Map<PubSubRequest, Shard> moves = planMoves(drained);
+            if (moves == null)
+                return;
+
+            log.debug("TwitchPubSubConnectionPool: Moving {} topics to close a connection", drained.topics);
+            List<CompletableFuture<Void>> moved = new ArrayList<>(moves.size());
+            moves.forEach((request, target) -> {
+                target.requests.add(request);
+                target.topics += topicCount(request);
+                requestShards.put(request, target);
+                PubSubSubscription subscription = target.pubSub.listenOnTopic(request);
+                track(request, target, subscription);
+                moved.add(subscription.getAcknowledgement());
+            });
+
+            // no new topics are placed on the connection, but it keeps receiving events until the moved topics are confirmed
+            shards.remove(drained);
+            drainingShards.add(drained);
+            CompletableFuture.allOf(moved.toArray(new CompletableFuture<?>[0])).whenComplete((result, ex) -> closeDrained(drained));
+            drained.executor.schedule(() -> closeDrained(drained), handoverTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Closes a drained connection, once its topics were confirmed by the other connections or the handover timed out
+     */
+    @Synchronized
+    private void closeDrained(Shard drained) {
+        if (drainingShards.remove(drained)) {
+            log.debug("TwitchPubSubConnectionPool: Closing drained connection");
+            drained.close();
+        }
+    }
+
+    /**
+     * Assigns the requests of a connection to the other connections, largest request first
+     *
+     * @return the target of every request, or null if they don't fit
+     */
+    private Map<PubSubRequest, Shard> planMoves(Shard drained) {
+        List<PubSubRequest> requests = new ArrayList<>(drained.requests);
+        requests.sort(Comparator.comparingInt(TwitchPubSubConnectionPool::topicCount).reversed());
+
+        Map<Shard, Integer> planned = new HashMap<>();
+        Map<PubSubRequest, Shard> moves = new LinkedHashMap<>();
+        for (PubSubRequest request : requests) {
+            int topics = topicCount(request);
+            Shard target = null;
+            for (Shard shard : shards) {
+                if (shard != drained && shard.topics + planned.getOrDefault(shard, 0) + topics <= maxTopicsPerConnection) {
+                    target = shard;
+                    break;
+                }
+            }
+            if (target == null)
+                return null;
+
+            planned.merge(target, topics, Integer::sum);
+            moves.put(request, target);
+        }
+        return moves;
+    }
+
+    /**
+     * Finds the first connection (in opening order) with capacity for the topics, so topics are packed onto few connections
+     *
+     * @return Shard, or null if all connections are full
+     */
+    private Shard findShard(int topics) {
+        for (Shard shard : shards) {
+            if (shard.topics + topics <= maxTopicsPerConnection)
+                return shard;
+        }
+        return null;
+    }
+
+    /**
+     * Opens a new connection
+     */
+    private Shard openShard() {
+        final int id = nextShardId++;
+        log.debug("TwitchPubSubConnectionPool: Opening connection #{}", id);
+
+        // every connection gets its own event manager, the parsed events are forwarded to the pool
+        EventManager shardEventManager = new EventManager();
+        shardEventManager.registerEventHandler(new SimpleEventHandler());
+        shardEventManager.registerEventHandler(new IEventHandler() {
+            @Override
+            public void publish(Object event) {
+                eventManager.publish(event);
+            }
+
+            @Override
+            public void close() {
+                // nothing to close, the pool owns the target event manager
+            }
+        });
+
+        ScheduledThreadPoolExecutor executor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-pubsub-pool-" + id, TwitchPubSub.REQUIRED_THREAD_COUNT);
+        TwitchPubSub pubSub = pubSubBuilder
+            .withEventManager(shardEventManager)
+            .withScheduledThreadPoolExecutor(executor)
+            .build();
+        topicDecoders.forEach(pubSub::registerTopicDecoder);
+
+        Shard shard = new Shard(pubSub, executor);
+        shards.add(shard);
+        return shard;
+    }
+
+    /**
+     * @return the amount of topics of a request
+     */
+    static int topicCount(PubSubRequest request) {
+        Object topics = request.getData().get("topics");
+        return topics instanceof Collection ? ((Collection<?>) topics).size() : 1;
+    }
+
+    /**
+     * A single pubsub connection of the pool
+     */
+    private static final class Shard {
+        private final TwitchPubSub pubSub;
+        private final ScheduledThreadPoolExecutor executor;
+        private final Set<PubSubRequest> requests = ConcurrentHashMap.newKeySet();
+        private volatile int topics;
+
+        private Shard(TwitchPubSub pubSub, ScheduledThreadPoolExecutor executor) {
+            this.pubSub = pubSub;
+            this.executor = executor;
+        }
+
+        private void close() {
+            pubSub.close();
+            pubSub.getEventManager().close();
+            executor.shutdownNow();
+        }
+    }
+
+}
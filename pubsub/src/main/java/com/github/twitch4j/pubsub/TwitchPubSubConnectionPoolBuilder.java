@@ -0,0 +1,73 @@
+package com.github.twitch4j.pubsub;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.With;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Twitch PubSub Connection Pool Builder
+ */
+@Slf4j
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TwitchPubSubConnectionPoolBuilder {
+
+    /**
+     * Event Manager
+     */
+    @With
+    private EventManager eventManager;
+
+    /**
+     * Template for the pubsub connections (base url, proxy, ...)
+     * <p>
+     * The event manager and executor of the template are ignored, every connection gets its own.
+     */
+    @With
+    private TwitchPubSubBuilder pubSubBuilder = TwitchPubSubBuilder.builder();
+
+    /**
+     * Maximum amount of topics per connection, twitch rejects more than 50
+     */
+    @With
+    private int maxTopicsPerConnection = TwitchPubSub.MAX_TOPICS_PER_CONNECTION;
+
+    /**
+     * How long a connection whose topics were moved to other connections is kept open at most, waiting for them to confirm the topics
+     */
+    @With
+    private Duration handoverTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Initialize the builder
+     *
+     * @return Twitch PubSub Connection Pool Builder
+     */
+    public static TwitchPubSubConnectionPoolBuilder builder() {
+        return new TwitchPubSubConnectionPoolBuilder();
+    }
+
+    /**
+     * Twitch PubSub Connection Pool
+     *
+     * @return TwitchPubSubConnectionPool
+     */
+    public TwitchPubSubConnectionPool build() {
+        log.debug("TwitchPubSubConnectionPool: Initializing Module ...");
+
+        if (eventManager == null) {
+            eventManager = new EventManager();
+            eventManager.autoDiscovery();
+        }
+
+        return new TwitchPubSubConnectionPool(this.eventManager, this.pubSubBuilder, this.maxTopicsPerConnection, this.handoverTimeout);
+    }
+
+}
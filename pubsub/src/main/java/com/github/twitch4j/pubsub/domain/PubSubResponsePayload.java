@@ -5,7 +5,6 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
-import com.github.twitch4j.common.util.TypeConvert;
 import com.github.twitch4j.pubsub.PubSubResponsePayloadMessage;
 import lombok.Data;
 
@@ -19,10 +18,10 @@ public class PubSubResponsePayload {
     @JsonIgnore
     private PubSubResponsePayloadMessage message;
 
-    @SuppressWarnings("unchecked")
     @JsonProperty("message")
     private void unpackMessage(String message) {
-        this.message = TypeConvert.jsonToObject(message, PubSubResponsePayloadMessage.class);
+        // decoded on demand, see PubSubResponsePayloadMessage
+        this.message = new PubSubResponsePayloadMessage();
         this.message.setRawMessage(message);
     }
 }
@@ -0,0 +1,28 @@
+package com.github.twitch4j.pubsub.exception;
+
+import lombok.Getter;
+
+/**
+ * A LISTEN request was rejected by twitch or not answered in time
+ */
+public class PubSubRequestException extends RuntimeException {
+
+    /**
+     * Error of the RESPONSE, e.g. ERR_BADAUTH, or null if no response was received
+     */
+    @Getter
+    private final String error;
+
+    /**
+     * Whether retrying can't succeed, the subscription has been dropped
+     */
+    @Getter
+    private final boolean permanent;
+
+    public PubSubRequestException(String error, boolean permanent) {
+        super(error != null ? "PubSub request failed - [" + error + "]" : "PubSub request was not answered in time");
+        this.error = error;
+        this.permanent = permanent;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.github.twitch4j.pubsub.handlers;
+
+import com.github.twitch4j.pubsub.PubSubResponsePayloadMessage;
+
+/**
+ * Decodes the messages of a topic family into events
+ *
+ * @see PubSubTopicRouter
+ */
+@FunctionalInterface
+public interface PubSubTopicDecoder {
+
+    /**
+     * Decodes a message
+     *
+     * @param topic   full topic the message was received on, e.g. {@code channel-bits-events-v2.12345}
+     * @param message the message
+     * @return the event to publish, or null if there is nothing to publish
+     */
+    Object decode(String topic, PubSubResponsePayloadMessage message);
+
+}
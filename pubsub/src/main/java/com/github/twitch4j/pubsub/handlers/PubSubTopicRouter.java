@@ -0,0 +1,110 @@
+package com.github.twitch4j.pubsub.handlers;
+
+/**
+ * Routes pubsub messages to the decoder of their topic family
+ * <p>
+ * Decoders are registered by topic prefix, the part of the topic before the first '.', e.g. {@code channel-bits-events-v2}.
+ * The prefixes are kept in an open-addressing hash table that is probed with the prefix region of the topic,
+ * so a lookup neither allocates nor depends on the amount of registered topic families.
+ * <p>
+ * The table is replaced on registration, lookups are lock-free.
+ */
+public final class PubSubTopicRouter {
+
+    private volatile Table table = new Table(32);
+
+    /**
+     * Registers the decoder of a topic family, replacing the previous decoder of the prefix
+     *
+     * @param prefix  topic prefix, without '.'
+     * @param decoder the decoder
+     */
+    public synchronized void register(String prefix, PubSubTopicDecoder decoder) {
+        if (prefix == null || prefix.isEmpty() || prefix.indexOf('.') >= 0)
+            throw new IllegalArgumentException("prefix must be a non-empty topic prefix without '.'");
+        if (decoder == null)
+            throw new IllegalArgumentException("decoder must not be null");
+
+        Table current = table;
+        int capacity = current.keys.length;
+        while ((current.size + 1) * 2 > capacity) {
+            capacity <<= 1;
+        }
+
+        // copy on write, lookups never see a partially updated table
+        Table next = new Table(capacity);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != null && !current.keys[i].equals(prefix))
+                next.put(current.keys[i], current.decoders[i]);
+        }
+        next.put(prefix, decoder);
+        table = next;
+    }
+
+    /**
+     * Gets the decoder for a topic
+     *
+     * @param topic full topic, e.g. {@code channel-bits-events-v2.12345}
+     * @return the decoder registered for the prefix of the topic, or null
+     */
+    public PubSubTopicDecoder getDecoder(String topic) {
+        int end = topic.indexOf('.');
+        if (end < 0)
+            end = topic.length();
+
+        final Table table = this.table;
+        final int mask = table.keys.length - 1;
+        for (int slot = hash(topic, end) & mask; ; slot = (slot + 1) & mask) {
+            String key = table.keys[slot];
+            if (key == null)
+                return null;
+            if (key.length() == end && topic.startsWith(key))
+                return table.decoders[slot];
+        }
+    }
+
+    /**
+     * @param prefix topic prefix
+     * @return whether a decoder is registered for the prefix
+     */
+    public boolean isRegistered(String prefix) {
+        return prefix.indexOf('.') < 0 && getDecoder(prefix) != null;
+    }
+
+    /**
+     * Hashes the prefix length and three of its characters, cheaper than hashing every character of the prefix
+     * and still distinct for the topic families twitch uses; collisions are resolved by comparing the prefix.
+     */
+    private static int hash(String s, int end) {
+        if (end == 0)
+            return 0;
+        int h = end;
+        h = 31 * h + s.charAt(0);
+        h = 31 * h + s.charAt(end >>> 1);
+        h = 31 * h + s.charAt(end - 1);
+        return h ^ (h >>> 7);
+    }
+
+    private static final class Table {
+        private final String[] keys;
+        private final PubSubTopicDecoder[] decoders;
+        private int size;
+
+        private Table(int capacity) {
+            this.keys = new String[capacity];
+            this.decoders = new PubSubTopicDecoder[capacity];
+        }
+
+        private void put(String key, PubSubTopicDecoder decoder) {
+            final int mask = keys.length - 1;
+            int slot = hash(key, key.length()) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            decoders[slot] = decoder;
+            size++;
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+package com.github.twitch4j.pubsub.handlers;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.github.twitch4j.common.enums.CommandPermission;
+import com.github.twitch4j.common.events.domain.EventUser;
+import com.github.twitch4j.common.events.user.PrivateMessageEvent;
+import com.github.twitch4j.common.util.TwitchUtils;
+import com.github.twitch4j.pubsub.PubSubResponsePayloadMessage;
+import com.github.twitch4j.pubsub.domain.*;
+import com.github.twitch4j.pubsub.events.*;
+import com.github.twitch4j.pubsub.util.PubSubMessageDecoder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decoders of the topics supported by the library
+ */
+@Slf4j
+public final class TopicDecoders {
+
+    private TopicDecoders() {
+    }
+
+    /**
+     * Registers the decoders of all supported topics
+     *
+     * @param router PubSubTopicRouter
+     */
+    public static void registerDefaults(PubSubTopicRouter router) {
+        router.register("channel-bits-events-v2", (topic, message) -> new ChannelBitsEvent(message.readData(ChannelBitsData.class)));
+        router.register("channel-bits-badge-unlocks", (topic, message) -> new ChannelBitsBadgeUnlockEvent(message.readMessage(BitsBadgeData.class)));
+        router.register("channel-subscribe-events-v1", (topic, message) -> new ChannelSubscribeEvent(message.readMessage(SubscriptionData.class)));
+        router.register("channel-commerce-events-v1", (topic, message) -> new ChannelCommerceEvent(message.readMessage(CommerceData.class)));
+        router.register("whispers", TopicDecoders::whisper);
+        router.register("community-points-channel-v1", TopicDecoders::channelPoints);
+        router.register("raid", TopicDecoders::raid);
+        router.register("chat_moderator_actions", (topic, message) -> new ChatModerationEvent(lastSegment(topic), message.readData(ChatModerationAction.class)));
+        router.register("following", (topic, message) -> new FollowingEvent(lastSegment(topic), message.readMessage(FollowingData.class)));
+        router.register("hype-train-events-v1", TopicDecoders::hypeTrain);
+        router.register("community-points-user-v1", TopicDecoders::userPoints);
+        router.register("leaderboard-events-v1", TopicDecoders::leaderboard);
+        router.register("polls", (topic, message) -> new PollsEvent(message.getType(), message.readData("poll", PollData.class)));
+        router.register("friendship", (topic, message) -> new FriendshipEvent(message.readMessage(FriendshipData.class)));
+        router.register("presence", TopicDecoders::presence);
+        router.register("channel-sub-gifts-v1", (topic, message) -> new ChannelSubGiftEvent(message.readMessage(SubGiftData.class)));
+        router.register("channel-cheer-events-public-v1", TopicDecoders::publicCheer);
+        router.register("onsite-notifications", TopicDecoders::onsiteNotification);
+        router.register("video-playback", TopicDecoders::videoPlayback);
+        router.register("video-playback-by-id", TopicDecoders::videoPlayback);
+    }
+
+    /**
+     * Logs a message that can't be decoded
+     *
+     * @param topic   topic
+     * @param message message
+     * @return null, nothing is published
+     */
+    public static Object unparseable(String topic, PubSubResponsePayloadMessage message) {
+        log.warn("Unparseable Message: " + topic + "|" + message.getRawMessage());
+        return null;
+    }
+
+    private static Object whisper(String topic, PubSubResponsePayloadMessage message) {
+        String type = message.getType();
+        if (!"whisper_sent".equals(type) && !"whisper_received".equals(type))
+            return unparseable(topic, message);
+
+        // Whisper data is escaped Json cast into a String
+        Whisper whisper = PubSubMessageDecoder.read(message.readData(String.class), Whisper.class);
+        Map<String, Object> tags = whisper.getTags() != null ? whisper.getTags() : Collections.emptyMap();
+
+        String displayName = (String) tags.get("display_name");
+        EventUser eventUser = new EventUser(whisper.getFromId(), displayName);
+
+        String body = whisper.getBody();
+
+        Set<CommandPermission> permissions = TwitchUtils.getPermissionsFromTags(tags);
+
+        return new PrivateMessageEvent(eventUser, body, permissions);
+    }
+
+    private static Object channelPoints(String topic, PubSubResponsePayloadMessage message) {
+        String type = message.getType();
+        ChannelPointsMessage data = message.readData(ChannelPointsMessage.class);
+        Instant instant = Instant.parse(data.getTimestamp());
+        switch (type) {
+            case "reward-redeemed":
+                return new RewardRedeemedEvent(calendar(instant), data.getRedemption());
+            case "redemption-status-update":
+                return new RedemptionStatusUpdateEvent(calendar(instant), data.getRedemption());
+            case "custom-reward-created":
+                return new CustomRewardCreatedEvent(instant, data.getNewReward());
+            case "custom-reward-updated":
+                return new CustomRewardUpdatedEvent(instant, data.getUpdatedReward());
+            case "custom-reward-deleted":
+                return new CustomRewardDeletedEvent(instant, data.getDeletedReward());
+            case "update-redemption-statuses-progress":
+                return new UpdateRedemptionProgressEvent(instant, data.getProgress());
+            case "update-redemption-statuses-finished":
+                return new UpdateRedemptionFinishedEvent(instant, data.getProgress());
+            default:
+                return unparseable(topic, message);
+        }
+    }
+
+    private static Object raid(String topic, PubSubResponsePayloadMessage message) {
+        switch (message.getType()) {
+            case "raid_go_v2":
+                return message.readMessage(RaidGoEvent.class);
+            case "raid_update_v2":
+                return message.readMessage(RaidUpdateEvent.class);
+            case "raid_cancel_v2":
+                return message.readMessage(RaidCancelEvent.class);
+            default:
+                return unparseable(topic, message);
+        }
+    }
+
+    private static Object hypeTrain(String topic, PubSubResponsePayloadMessage message) {
+        if (topic.startsWith("hype-train-events-v1.rewards"))
+            return new HypeTrainRewardsEvent(message.readData(HypeTrainRewardsData.class));
+
+        final String channelId = lastSegment(topic);
+        switch (message.getType()) {
+            case "hype-train-start":
+                return new HypeTrainStartEvent(message.readData(HypeTrainStart.class));
+            case "hype-train-progression":
+                return new HypeTrainProgressionEvent(channelId, message.readData(HypeProgression.class));
+            case "hype-train-level-up":
+                return new HypeTrainLevelUpEvent(channelId, message.readData(HypeLevelUp.class));
+            case "hype-train-end":
+                return new HypeTrainEndEvent(channelId, message.readData(HypeTrainEnd.class));
+            case "hype-train-conductor-update":
+                return new HypeTrainConductorUpdateEvent(channelId, message.readData(HypeTrainConductor.class));
+            case "hype-train-cooldown-expiration":
+                return new HypeTrainCooldownExpirationEvent(channelId);
+            default:
+                return unparseable(topic, message);
+        }
+    }
+
+    private static Object userPoints(String topic, PubSubResponsePayloadMessage message) {
+        switch (message.getType()) {
+            case "points-earned":
+                return new PointsEarnedEvent(message.readData(ChannelPointsEarned.class));
+            case "claim-available":
+                return new ClaimAvailableEvent(message.readData(ClaimData.class));
+            case "claim-claimed":
+                return new ClaimClaimedEvent(message.readData(ClaimData.class));
+            case "points-spent":
+                return new PointsSpentEvent(message.readData(PointsSpent.class));
+            case "reward-redeemed":
+                ChannelPointsMessage redeemed = message.readData(ChannelPointsMessage.class);
+                return new RewardRedeemedEvent(calendar(Instant.parse(redeemed.getTimestamp())), redeemed.getRedemption());
+            case "global-last-viewed-content-updated":
+            case "channel-last-viewed-content-updated":
+                // unimportant
+                return null;
+            default:
+                return unparseable(topic, message);
+        }
+    }
+
+    private static Object leaderboard(String topic, PubSubResponsePayloadMessage message) {
+        final Leaderboard leaderboard = message.readMessage(Leaderboard.class);
+        switch (leaderboard.getIdentifier().getDomain()) {
+            case "bits-usage-by-channel-v1":
+                return new BitsLeaderboardEvent(leaderboard);
+            case "sub-gifts-sent":
+                return new SubLeaderboardEvent(leaderboard);
+            default:
+                return unparseable(topic, message);
+        }
+    }
+
+    private static Object presence(String topic, PubSubResponsePayloadMessage message) {
+        String type = message.getType();
+        if ("presence".equalsIgnoreCase(type))
+            return new UserPresenceEvent(message.readData(PresenceData.class));
+        if ("settings".equalsIgnoreCase(type))
+            return new PresenceSettingsEvent(firstSegment(topic), message.readData(PresenceSettings.class));
+        return unparseable(topic, message);
+    }
+
+    private static Object publicCheer(String topic, PubSubResponsePayloadMessage message) {
+        if ("cheerbomb".equalsIgnoreCase(message.getType()))
+            return new CheerbombEvent(firstSegment(topic), message.readData(CheerbombData.class));
+        return unparseable(topic, message);
+    }
+
+    private static Object onsiteNotification(String topic, PubSubResponsePayloadMessage message) {
+        String type = message.getType();
+        if ("create-notification".equalsIgnoreCase(type))
+            return new OnsiteNotificationCreationEvent(message.readData(CreateNotificationData.class));
+        if ("update-summary".equalsIgnoreCase(type))
+            return new UpdateOnsiteNotificationSummaryEvent(firstSegment(topic), message.readData(UpdateSummaryData.class));
+        return unparseable(topic, message);
+    }
+
+    private static Object videoPlayback(String topic, PubSubResponsePayloadMessage message) {
+        int dot = topic.indexOf('.');
+        String channel = topic.substring(dot + 1);
+        boolean hasId = topic.charAt(dot - 1) == 'd';
+        VideoPlaybackData data = message.readMessage(VideoPlaybackData.class);
+        return new VideoPlaybackEvent(hasId ? channel : null, hasId ? null : channel, data);
+    }
+
+    /**
+     * @return everything after the first '.' of the topic
+     */
+    private static String firstSegment(String topic) {
+        return topic.substring(topic.indexOf('.') + 1);
+    }
+
+    /**
+     * @return everything after the last '.' of the topic
+     */
+    private static String lastSegment(String topic) {
+        return topic.substring(topic.lastIndexOf('.') + 1);
+    }
+
+    private static Calendar calendar(Instant instant) {
+        return GregorianCalendar.from(ZonedDateTime.ofInstant(instant, ZoneId.systemDefault()));
+    }
+
+    /**
+     * Data of the channel points messages, only the field of the message type is present
+     */
+    @Data
+    @JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class ChannelPointsMessage {
+        private String timestamp;
+        private ChannelPointsRedemption redemption;
+        private ChannelPointsReward newReward;
+        private ChannelPointsReward updatedReward;
+        private ChannelPointsReward deletedReward;
+        private RedemptionProgress progress;
+    }
+
+    /**
+     * Data of a whisper message
+     */
+    @Data
+    @JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class Whisper {
+        private String fromId;
+        private String body;
+        private Map<String, Object> tags;
+    }
+
+}
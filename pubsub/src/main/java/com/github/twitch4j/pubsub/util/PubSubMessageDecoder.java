@@ -0,0 +1,227 @@
+package com.github.twitch4j.pubsub.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.github.twitch4j.common.util.TypeConvert;
+import com.github.twitch4j.pubsub.PubSubResponsePayloadMessage;
+import com.github.twitch4j.pubsub.domain.PubSubResponse;
+import com.github.twitch4j.pubsub.domain.PubSubResponsePayload;
+import com.github.twitch4j.pubsub.enums.PubSubType;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming decoder of pubsub frames
+ * <p>
+ * The envelope is read with a single {@link JsonParser} pass, without building a tree. The nested message stays a string
+ * until a topic decoder asks for it and is then bound directly into the requested class, with {@link ObjectReader}s
+ * that are cached per class. Messages whose type is needed to choose the class are tokenized once into a {@link TokenBuffer},
+ * see {@link #buffer(String)}, and bound from there.
+ */
+public final class PubSubMessageDecoder {
+
+    private static final JsonFactory FACTORY = TypeConvert.getObjectMapper().getFactory();
+
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private PubSubMessageDecoder() {
+    }
+
+    /**
+     * Decodes a received frame
+     *
+     * @param text the frame
+     * @return the response, the message of the payload is decoded lazily
+     * @throws RuntimeException if the frame is not valid json or has an unknown type
+     */
+    public static PubSubResponse decodeResponse(String text) {
+        try (JsonParser p = FACTORY.createParser(text)) {
+            expect(p.nextToken(), JsonToken.START_OBJECT);
+
+            PubSubResponse response = new PubSubResponse();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "type":
+                        response.setType(PubSubType.valueOf(p.getText()));
+                        break;
+                    case "nonce":
+                        response.setNonce(p.getValueAsString());
+                        break;
+                    case "error":
+                        response.setError(p.getValueAsString());
+                        break;
+                    case "data":
+                        if (value == JsonToken.START_OBJECT)
+                            response.setData(decodePayload(p));
+                        break;
+                    default:
+                        p.skipChildren();
+                        break;
+                }
+            }
+            return response;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Reads the top-level {@code type} field of a tokenized message
+     *
+     * @param message the tokenized message
+     * @return the type, or null if absent
+     */
+    public static String readType(TokenBuffer message) {
+        try (JsonParser p = message.asParser()) {
+            if (p.nextToken() != JsonToken.START_OBJECT)
+                return null;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                if ("type".equals(field))
+                    return p.getValueAsString();
+                p.skipChildren();
+            }
+            return null;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Tokenizes a message once, so several values can be read from it without parsing the text again
+     *
+     * @param message the message json
+     * @return the tokens of the message
+     */
+    public static TokenBuffer buffer(String message) {
+        try (JsonParser p = FACTORY.createParser(message)) {
+            p.nextToken();
+            TokenBuffer buffer = new TokenBuffer(p);
+            buffer.copyCurrentStructure(p);
+            return buffer;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Binds the value at a path of a message, without materializing the rest of the message
+     *
+     * @param message   the message json
+     * @param valueType the class to bind into
+     * @param path      field names, starting at the top-level object
+     * @param <T>       the type to bind into
+     * @return the bound value, or null if the path does not exist
+     */
+    public static <T> T readPath(String message, Class<T> valueType, String... path) {
+        try (JsonParser p = FACTORY.createParser(message)) {
+            return readPath(p, valueType, path);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Binds the value at a path of a tokenized message
+     *
+     * @param message   the tokenized message
+     * @param valueType the class to bind into
+     * @param path      field names, starting at the top-level object
+     * @param <T>       the type to bind into
+     * @return the bound value, or null if the path does not exist
+     * @see #buffer(String)
+     */
+    public static <T> T readPath(TokenBuffer message, Class<T> valueType, String... path) {
+        try (JsonParser p = message.asParser()) {
+            return readPath(p, valueType, path);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Binds a whole message
+     *
+     * @param message   the message json
+     * @param valueType the class to bind into
+     * @param <T>       the type to bind into
+     * @return the bound value
+     */
+    public static <T> T read(String message, Class<T> valueType) {
+        try {
+            return reader(valueType).readValue(message);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * @param valueType the class to bind into
+     * @return the cached reader of the class
+     */
+    public static ObjectReader reader(Class<?> valueType) {
+        ObjectReader reader = READERS.get(valueType);
+        return reader != null ? reader : READERS.computeIfAbsent(valueType, c -> TypeConvert.getObjectMapper().readerFor(c));
+    }
+
+    private static <T> T readPath(JsonParser p, Class<T> valueType, String... path) throws IOException {
+        p.nextToken();
+        for (String name : path) {
+            if (!seekField(p, name))
+                return null;
+        }
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : reader(valueType).readValue(p);
+    }
+
+    private static PubSubResponsePayload decodePayload(JsonParser p) throws IOException {
+        PubSubResponsePayload payload = new PubSubResponsePayload();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if ("topic".equals(field)) {
+                payload.setTopic(p.getValueAsString());
+            } else if ("message".equals(field) && value == JsonToken.VALUE_STRING) {
+                PubSubResponsePayloadMessage message = new PubSubResponsePayloadMessage();
+                message.setRawMessage(p.getText());
+                payload.setMessage(message);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Advances the parser from the start of an object to the value of one of its fields
+     *
+     * @return whether the field exists
+     */
+    private static boolean seekField(JsonParser p, String name) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT)
+            return false;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            p.nextToken();
+            if (name.equals(field))
+                return true;
+            p.skipChildren();
+        }
+        return false;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected)
+            throw new IOException("Expected " + expected + " but found " + actual);
+    }
+
+}
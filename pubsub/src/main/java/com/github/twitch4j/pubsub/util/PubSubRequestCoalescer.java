@@ -0,0 +1,182 @@
+package com.github.twitch4j.pubsub.util;
+
+import com.github.twitch4j.common.util.CryptoUtils;
+import com.github.twitch4j.pubsub.domain.PubSubRequest;
+import com.github.twitch4j.pubsub.enums.PubSubType;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Merges pubsub requests into as few requests as possible
+ * <p>
+ * Twitch accepts multiple topics per LISTEN or UNLISTEN, as long as they use the same {@code auth_token}.
+ * Requests of the same type and token are merged into one request with a fresh nonce, up to a maximum amount of topics.
+ * A topic that is listened and unlistened within the same input is never reordered: all merged requests are emitted
+ * before a request that reverses one of their topics.
+ * <p>
+ * {@link #batch(Collection, int, Predicate)} additionally tells which of the original requests were merged into each sent request,
+ * so the response to a merged request can be attributed to its subscriptions.
+ */
+public final class PubSubRequestCoalescer {
+
+    private PubSubRequestCoalescer() {
+    }
+
+    /**
+     * Merges requests
+     *
+     * @param requests  the requests, in the order they should be sent
+     * @param maxTopics maximum amount of topics per merged request
+     * @return the requests to send, requests that can't be merged with any other request are returned unchanged
+     */
+    public static List<PubSubRequest> coalesce(Collection<PubSubRequest> requests, int maxTopics) {
+        return batch(requests, maxTopics, request -> true).stream().map(Batch::getRequest).collect(Collectors.toList());
+    }
+
+    /**
+     * Merges requests
+     *
+     * @param requests  the requests, in the order they should be sent
+     * @param maxTopics maximum amount of topics per merged request
+     * @param mergeable whether a request may be merged with other requests, other requests are sent unchanged
+     * @return the requests to send, together with the original requests they contain
+     */
+    public static List<Batch> batch(Collection<PubSubRequest> requests, int maxTopics, Predicate<PubSubRequest> mergeable) {
+        List<Batch> result = new ArrayList<>(Math.min(requests.size(), 16));
+        Map<String, Batch> open = new LinkedHashMap<>();
+        Map<String, PubSubType> pendingTopics = new HashMap<>();
+
+        for (PubSubRequest request : requests) {
+            List<String> topics = topicsOf(request);
+            if (topics == null || topics.size() > maxTopics || !mergeable.test(request)) {
+                flush(open, pendingTopics, result);
+                Batch single = new Batch();
+                single.add(request, Collections.emptyList());
+                result.add(single.finish());
+                continue;
+            }
+
+            // keep the order of a listen and an unlisten of the same topic
+            for (String topic : topics) {
+                PubSubType pendingType = pendingTopics.get(topic);
+                if (pendingType != null && pendingType != request.getType()) {
+                    flush(open, pendingTopics, result);
+                    break;
+                }
+            }
+
+            String key = request.getType() + "\n" + Objects.toString(request.getData().get("auth_token"), "");
+            Batch batch = open.get(key);
+            if (batch != null && batch.addedTopics(topics) > maxTopics) {
+                result.add(batch.finish());
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch();
+                open.put(key, batch);
+            }
+
+            batch.add(request, topics);
+            for (String topic : topics) {
+                pendingTopics.put(topic, request.getType());
+            }
+        }
+
+        flush(open, pendingTopics, result);
+        return result;
+    }
+
+    /**
+     * @return the topics of a LISTEN or UNLISTEN request, or null if the request can't be merged
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> topicsOf(PubSubRequest request) {
+        if (request.getType() != PubSubType.LISTEN && request.getType() != PubSubType.UNLISTEN)
+            return null;
+
+        Object topics = request.getData().get("topics");
+        if (!(topics instanceof List))
+            return null;
+        for (Object topic : (List<?>) topics) {
+            if (!(topic instanceof String))
+                return null;
+        }
+        return (List<String>) topics;
+    }
+
+    private static void flush(Map<String, Batch> open, Map<String, PubSubType> pendingTopics, List<Batch> result) {
+        for (Batch batch : open.values()) {
+            result.add(batch.finish());
+        }
+        open.clear();
+        pendingTopics.clear();
+    }
+
+    /**
+     * A request to send and the original requests it contains
+     */
+    public static final class Batch {
+
+        /**
+         * The original requests, in order
+         */
+        @Getter
+        private final List<PubSubRequest> requests = new ArrayList<>();
+
+        /**
+         * The request to send, the original request if the batch contains a single request
+         */
+        @Getter
+        private PubSubRequest request;
+
+        private final Set<String> topics = new LinkedHashSet<>();
+
+        private Batch() {
+        }
+
+        private int addedTopics(List<String> added) {
+            int count = topics.size();
+            for (String topic : added) {
+                if (!topics.contains(topic))
+                    count++;
+            }
+            return count;
+        }
+
+        private void add(PubSubRequest request, List<String> added) {
+            // a request that is queued twice, e.g. by a retry and a resubscribe, is sent once
+            if (!requests.contains(request))
+                requests.add(request);
+            topics.addAll(added);
+        }
+
+        private Batch finish() {
+            request = requests.size() == 1 ? requests.get(0) : merge();
+            return this;
+        }
+
+        private PubSubRequest merge() {
+            PubSubRequest first = requests.get(0);
+            PubSubRequest merged = new PubSubRequest();
+            merged.setType(first.getType());
+            merged.setNonce(CryptoUtils.generateNonce(32));
+            if (first.getData().containsKey("auth_token"))
+                merged.getData().put("auth_token", first.getData().get("auth_token"));
+            merged.getData().put("topics", new ArrayList<>(topics));
+            return merged;
+        }
+    }
+
+}
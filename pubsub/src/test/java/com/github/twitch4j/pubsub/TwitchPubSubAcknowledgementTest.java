@@ -0,0 +1,148 @@
+package com.github.twitch4j.pubsub;
+
+import com.github.twitch4j.pubsub.enums.TMIConnectionState;
+import com.github.twitch4j.pubsub.exception.PubSubRequestException;
+import com.github.twitch4j.pubsub.util.FakePubSubServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.twitch4j.common.util.AwaitUtils.awaitTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class TwitchPubSubAcknowledgementTest {
+
+    @Test
+    @DisplayName("Merged requests acknowledge each subscription")
+    public void acknowledge() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSub pubSub = pubSub(server)) {
+            PubSubSubscription first = pubSub.listenForCheerEvents(null, "1");
+            PubSubSubscription second = pubSub.listenForCheerEvents(null, "2");
+
+            first.getAcknowledgement().get(5, TimeUnit.SECONDS);
+            second.getAcknowledgement().get(5, TimeUnit.SECONDS);
+            assertEquals(1, server.getRequestCount("LISTEN"));
+            assertTrue(pubSub.pendingRequests.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("A rejected topic is found within a merged request and dropped")
+    public void dropRejected() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSub pubSub = pubSub(server)) {
+            server.rejectTopic("channel-bits-events-v2.2", "ERR_BADTOPIC");
+            PubSubSubscription first = pubSub.listenForCheerEvents(null, "1");
+            PubSubSubscription bad = pubSub.listenForCheerEvents(null, "2");
+            PubSubSubscription third = pubSub.listenForCheerEvents(null, "3");
+
+            first.getAcknowledgement().get(5, TimeUnit.SECONDS);
+            third.getAcknowledgement().get(5, TimeUnit.SECONDS);
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> bad.getAcknowledgement().get(5, TimeUnit.SECONDS));
+            PubSubRequestException cause = (PubSubRequestException) ex.getCause();
+            assertEquals("ERR_BADTOPIC", cause.getError());
+            assertTrue(cause.isPermanent());
+            assertEquals(2, pubSub.subscribedTopics.size());
+
+            // not requested again after a reconnect
+            int listens = server.getRequestCount("LISTEN");
+            server.getConnections().get(0).close();
+            awaitTrue(() -> server.getConnections().size() == 2 && server.getOpenTopicCount() == 2);
+            assertEquals(listens + 1, server.getRequestCount("LISTEN"));
+        }
+    }
+
+    @Test
+    @DisplayName("Transient errors and missing responses are retried")
+    public void retry() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSub pubSub = pubSub(server)) {
+            server.failNextListens(1, "ERR_SERVER");
+            pubSub.listenForCheerEvents(null, "1").getAcknowledgement().get(5, TimeUnit.SECONDS);
+            assertEquals(2, server.getRequestCount("LISTEN"));
+
+            server.failNextListens(1, null);
+            pubSub.listenForCheerEvents(null, "2").getAcknowledgement().get(5, TimeUnit.SECONDS);
+            assertEquals(4, server.getRequestCount("LISTEN"));
+        }
+    }
+
+    @Test
+    @DisplayName("The acknowledgement fails after all attempts, the subscription is kept")
+    public void exhaustAttempts() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSub pubSub = pubSub(server)) {
+            server.failNextListens(3, "ERR_SERVER");
+            PubSubSubscription subscription = pubSub.listenForCheerEvents(null, "1");
+
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> subscription.getAcknowledgement().get(5, TimeUnit.SECONDS));
+            assertFalse(((PubSubRequestException) ex.getCause()).isPermanent());
+            assertEquals(3, server.getRequestCount("LISTEN"));
+            assertEquals(1, pubSub.subscribedTopics.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Closing cancels the outstanding acknowledgements")
+    public void cancelOnClose() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer()) {
+            server.failNextListens(3, null);
+            TwitchPubSub pubSub = pubSub(server);
+            PubSubSubscription subscription = pubSub.listenForCheerEvents(null, "1");
+            awaitTrue(() -> !pubSub.pendingRequests.isEmpty());
+
+            pubSub.close();
+            assertThrows(CancellationException.class, () -> subscription.getAcknowledgement().get(5, TimeUnit.SECONDS));
+            assertTrue(pubSub.pendingRequests.isEmpty());
+            assertTrue(pubSub.acknowledgements.isEmpty());
+            assertTrue(pubSub.listenForCheerEvents(null, "2").getAcknowledgement().isCancelled());
+        }
+    }
+
+    @Test
+    @DisplayName("Outstanding acknowledgements are completed by the resubscribe after a reconnect")
+    public void acknowledgeAfterReconnect() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSub pubSub = pubSub(server, Duration.ofSeconds(30))) {
+            // the first LISTEN is not answered, the replay after the reconnect rejects one of the topics
+            server.failNextListens(1, null);
+            server.rejectTopic("channel-bits-events-v2.2", "ERR_BADTOPIC");
+            PubSubSubscription first = pubSub.listenForCheerEvents(null, "1");
+            PubSubSubscription bad = pubSub.listenForCheerEvents(null, "2");
+            PubSubSubscription third = pubSub.listenForCheerEvents(null, "3");
+            awaitTrue(() -> server.getRequestCount("LISTEN") == 1);
+
+            server.getConnections().get(0).close();
+            first.getAcknowledgement().get(5, TimeUnit.SECONDS);
+            third.getAcknowledgement().get(5, TimeUnit.SECONDS);
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> bad.getAcknowledgement().get(5, TimeUnit.SECONDS));
+            assertTrue(((PubSubRequestException) ex.getCause()).isPermanent());
+            assertEquals(2, pubSub.subscribedTopics.size());
+            assertTrue(pubSub.pendingRequests.isEmpty());
+        }
+    }
+
+    private static TwitchPubSub pubSub(FakePubSubServer server) {
+        return pubSub(server, Duration.ofMillis(300));
+    }
+
+    private static TwitchPubSub pubSub(FakePubSubServer server, Duration requestTimeout) {
+        TwitchPubSub pubSub = TwitchPubSubBuilder.builder()
+            .withBaseUrl(server.getUrl())
+            .withRequestTimeout(requestTimeout)
+            .withMaxRequestAttempts(3)
+            .withRequestRetryBaseDelay(Duration.ofMillis(10))
+            .withRequestRetryMaxDelay(Duration.ofMillis(50))
+            .build();
+
+        // subscribe after the resubscribe of the first connection, so the requests are counted once
+        awaitTrue(() -> pubSub.getConnectionState() == TMIConnectionState.CONNECTED);
+        return pubSub;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.github.twitch4j.pubsub;
+
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.common.util.LocalWebSocketServer;
+import com.github.twitch4j.pubsub.events.ChannelBitsEvent;
+import com.github.twitch4j.pubsub.util.FakePubSubServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.github.twitch4j.common.util.AwaitUtils.awaitTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class TwitchPubSubConnectionPoolTest {
+
+    private static final int TOPIC_LIMIT = 5;
+
+    @Test
+    @DisplayName("Spreads topics over connections without exceeding the per-connection cap")
+    public void shardTopics() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSubConnectionPool pool = pool(server)) {
+            Queue<ChannelBitsEvent> events = new ConcurrentLinkedQueue<>();
+            pool.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ChannelBitsEvent.class, events::add);
+
+            for (int i = 0; i < 12; i++) {
+                pool.listenForCheerEvents(null, String.valueOf(i));
+            }
+
+            assertEquals(3, pool.getConnectionCount());
+            assertEquals(12, pool.getTopicCount());
+            awaitTrue(() -> server.getOpenTopicCount() == 12);
+            for (LocalWebSocketServer.Connection connection : server.getConnections()) {
+                assertTrue(server.getTopics(connection).size() <= TOPIC_LIMIT, "connection exceeds the topic cap");
+            }
+
+            // events of every connection are published to the pool
+            assertEquals(1, server.publish("channel-bits-events-v2.11", "{\"data\":{\"user_id\":\"1\",\"channel_id\":\"11\",\"bits_used\":100}}"));
+            awaitTrue(() -> events.size() == 1);
+            assertEquals("11", events.peek().getData().getChannelId());
+        }
+    }
+
+    @Test
+    @DisplayName("Closes connections whose topics fit on the remaining connections")
+    public void rebalance() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSubConnectionPool pool = pool(server)) {
+            List<PubSubSubscription> subscriptions = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                subscriptions.add(pool.listenForCheerEvents(null, String.valueOf(i)));
+            }
+            awaitTrue(() -> server.getOpenTopicCount() == 12);
+
+            // 5 + 5 + 2 -> 3 + 5 + 2 -> 5 + 5 -> 4 + 5
+            for (int i = 0; i < 3; i++) {
+                pool.unsubscribeFromTopic(subscriptions.get(i));
+            }
+            assertEquals(2, pool.getConnectionCount());
+            assertEquals(9, pool.getTopicCount());
+            awaitTrue(() -> server.getOpenTopicCount() == 9);
+            awaitTrue(() -> server.getConnections().stream().filter(c -> !c.isClosed()).count() == 2);
+
+            // freed capacity is reused before opening another connection
+            pool.listenForCheerEvents(null, "12");
+            assertEquals(2, pool.getConnectionCount());
+            awaitTrue(() -> server.getOpenTopicCount() == 10);
+        }
+    }
+
+    @Test
+    @DisplayName("A dropped connection resubscribes its own topics")
+    public void reconnectIndependently() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSubConnectionPool pool = pool(server)) {
+            for (int i = 0; i < 8; i++) {
+                pool.listenForCheerEvents(null, String.valueOf(i));
+            }
+            awaitTrue(() -> server.getOpenTopicCount() == 8);
+            List<LocalWebSocketServer.Connection> initial = new ArrayList<>(server.getConnections());
+            assertEquals(2, initial.size());
+
+            LocalWebSocketServer.Connection dropped = initial.get(1);
+            List<String> droppedTopics = server.getTopics(dropped).stream().sorted().collect(Collectors.toList());
+            dropped.close();
+
+            awaitTrue(() -> server.getConnections().size() == 3 && server.getOpenTopicCount() == 8);
+            LocalWebSocketServer.Connection replacement = server.getConnections().get(2);
+            assertEquals(droppedTopics, server.getTopics(replacement).stream().sorted().collect(Collectors.toList()));
+            assertTrue(!initial.get(0).isClosed(), "the other connection must not reconnect");
+        }
+    }
+
+    @Test
+    @DisplayName("Moved subscriptions are acknowledged by their new connection")
+    public void acknowledgeMoved() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer(); TwitchPubSubConnectionPool pool = pool(server)) {
+            List<PubSubSubscription> subscriptions = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                subscriptions.add(pool.listenForCheerEvents(null, String.valueOf(i)));
+            }
+            for (PubSubSubscription subscription : subscriptions) {
+                subscription.getAcknowledgement().get(5, TimeUnit.SECONDS);
+            }
+
+            // the third connection doesn't answer, its topics are moved to the first one
+            server.failNextListens(1, null);
+            PubSubSubscription moved = pool.listenForCheerEvents(null, "10");
+            awaitTrue(() -> server.getRequestCount("LISTEN") == 3);
+            assertFalse(moved.getAcknowledgement().isDone());
+
+            pool.unsubscribeFromTopic(subscriptions.get(0));
+            assertEquals(2, pool.getConnectionCount());
+            moved.getAcknowledgement().get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @DisplayName("A drained connection stays open until the moved topics are confirmed")
+    public void handover() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer()) {
+            server.setTopicLimit(TOPIC_LIMIT);
+            TwitchPubSubConnectionPool pool = TwitchPubSubConnectionPoolBuilder.builder()
+                .withPubSubBuilder(TwitchPubSubBuilder.builder().withBaseUrl(server.getUrl()).withRequestTimeout(Duration.ofMillis(500)))
+                .withMaxTopicsPerConnection(TOPIC_LIMIT)
+                .build();
+            try {
+                Queue<ChannelBitsEvent> events = new ConcurrentLinkedQueue<>();
+                pool.getEventManager().getEventHandler(SimpleEventHandler.class).onEvent(ChannelBitsEvent.class, events::add);
+
+                List<PubSubSubscription> subscriptions = new ArrayList<>();
+                for (int i = 0; i < 7; i++) {
+                    subscriptions.add(pool.listenForCheerEvents(null, String.valueOf(i)));
+                }
+                for (PubSubSubscription subscription : subscriptions) {
+                    subscription.getAcknowledgement().get(5, TimeUnit.SECONDS);
+                }
+
+                // the first LISTEN of the moved topics is not answered, it is retried after the request timeout
+                server.failNextListens(1, null);
+                pool.unsubscribeFromTopic(subscriptions.get(0));
+                pool.unsubscribeFromTopic(subscriptions.get(1));
+                assertEquals(1, pool.getConnectionCount());
+                awaitTrue(() -> server.getRequestCount("LISTEN") == 3);
+
+                // events of the moved topics are still received by the drained connection
+                assertEquals(2, server.getConnections().stream().filter(c -> !c.isClosed()).count());
+                assertEquals(1, server.publish("channel-bits-events-v2.5", "{\"data\":{\"user_id\":\"1\",\"channel_id\":\"5\",\"bits_used\":100}}"));
+                awaitTrue(() -> events.size() == 1);
+
+                subscriptions.get(5).getAcknowledgement().get(5, TimeUnit.SECONDS);
+                awaitTrue(() -> server.getConnections().stream().filter(c -> !c.isClosed()).count() == 1);
+                assertEquals(5, server.getOpenTopicCount());
+            } finally {
+                pool.close();
+            }
+        }
+    }
+
+    private static TwitchPubSubConnectionPool pool(FakePubSubServer server) {
+        server.setTopicLimit(TOPIC_LIMIT);
+        return TwitchPubSubConnectionPoolBuilder.builder()
+            .withPubSubBuilder(TwitchPubSubBuilder.builder().withBaseUrl(server.getUrl()))
+            .withMaxTopicsPerConnection(TOPIC_LIMIT)
+            .build();
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.github.twitch4j.pubsub.handlers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class PubSubTopicRouterTest {
+
+    @Test
+    @DisplayName("Topics are routed by the prefix before the first '.'")
+    public void routeByPrefix() {
+        PubSubTopicRouter router = new PubSubTopicRouter();
+        PubSubTopicDecoder playback = (topic, message) -> null;
+        PubSubTopicDecoder playbackById = (topic, message) -> null;
+        router.register("video-playback", playback);
+        router.register("video-playback-by-id", playbackById);
+
+        assertSame(playback, router.getDecoder("video-playback.lirik"));
+        assertSame(playbackById, router.getDecoder("video-playback-by-id.149223493"));
+        assertSame(playback, router.getDecoder("video-playback"));
+        assertNull(router.getDecoder("video.149223493"));
+        assertNull(router.getDecoder("video-playback-by.149223493"));
+        assertNull(router.getDecoder(""));
+    }
+
+    @Test
+    @DisplayName("Applications can add and replace topic decoders")
+    public void register() {
+        PubSubTopicRouter router = new PubSubTopicRouter();
+        TopicDecoders.registerDefaults(router);
+        assertNotNull(router.getDecoder("hype-train-events-v1.rewards.149223493"));
+        assertNull(router.getDecoder("channel-drop-events.149223493"));
+
+        PubSubTopicDecoder drops = (topic, message) -> null;
+        router.register("channel-drop-events", drops);
+        assertSame(drops, router.getDecoder("channel-drop-events.149223493"));
+        assertTrue(router.isRegistered("channel-bits-events-v2"));
+
+        PubSubTopicDecoder bits = (topic, message) -> null;
+        router.register("channel-bits-events-v2", bits);
+        assertSame(bits, router.getDecoder("channel-bits-events-v2.149223493"));
+        assertSame(drops, router.getDecoder("channel-drop-events.149223493"));
+
+        // grow the table past its initial capacity
+        for (int i = 0; i < 100; i++) {
+            router.register("custom-topic-" + i, (topic, message) -> null);
+        }
+        assertSame(drops, router.getDecoder("channel-drop-events.149223493"));
+        assertNotNull(router.getDecoder("custom-topic-99.1"));
+    }
+
+    @Test
+    @DisplayName("Prefixes must not contain '.'")
+    public void invalidPrefix() {
+        PubSubTopicRouter router = new PubSubTopicRouter();
+        assertThrows(IllegalArgumentException.class, () -> router.register("hype-train-events-v1.rewards", (topic, message) -> null));
+        assertThrows(IllegalArgumentException.class, () -> router.register("", (topic, message) -> null));
+        assertThrows(IllegalArgumentException.class, () -> router.register("polls", null));
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.github.twitch4j.pubsub.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.twitch4j.common.util.LocalWebSocketServer;
+import com.github.twitch4j.common.util.TypeConvert;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process websocket server that speaks the twitch pubsub protocol, so pubsub connections can be tested without reaching twitch
+ * <p>
+ * Supported: PING/PONG, LISTEN and UNLISTEN with a RESPONSE per request and MESSAGE delivery to the connections that listen on a topic.
+ * Like twitch, a LISTEN that would exceed {@link #topicLimit} topics on a connection is rejected with {@code ERR_BADMESSAGE}.
+ * Failures can be injected with {@link #rejectTopic(String, String)} and {@link #failNextListens(int, String)}.
+ */
+@Slf4j
+public class FakePubSubServer extends LocalWebSocketServer {
+
+    /**
+     * Maximum amount of topics per connection
+     */
+    @Setter
+    private volatile int topicLimit = 50;
+
+    /**
+     * Topics per connection
+     */
+    private final Map<Connection, Set<String>> topics = new ConcurrentHashMap<>();
+
+    /**
+     * Received requests per type
+     */
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Topics that are always rejected, with their error
+     */
+    private final Map<String, String> topicErrors = new ConcurrentHashMap<>();
+
+    /**
+     * Amount of further LISTEN requests that fail with {@link #listenError}
+     */
+    private final AtomicInteger failingListens = new AtomicInteger();
+
+    /**
+     * Error of failing LISTEN requests, or null to not answer them
+     */
+    private volatile String listenError;
+
+    /**
+     * Constructor, listens on a random port on the loopback interface
+     *
+     * @throws IOException if the server socket can't be opened
+     */
+    public FakePubSubServer() throws IOException {
+        super();
+    }
+
+    /**
+     * @param connection the connection
+     * @return the topics the connection listens on
+     */
+    public Set<String> getTopics(Connection connection) {
+        Set<String> connectionTopics = topics.get(connection);
+        return connectionTopics != null ? Collections.unmodifiableSet(connectionTopics) : Collections.emptySet();
+    }
+
+    /**
+     * @param type request type, e.g. LISTEN
+     * @return the amount of received requests of the type, over all connections
+     */
+    public int getRequestCount(String type) {
+        AtomicInteger count = requestCounts.get(type);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Rejects every LISTEN that contains a topic
+     *
+     * @param topic topic
+     * @param error error of the response, e.g. ERR_BADTOPIC
+     */
+    public void rejectTopic(String topic, String error) {
+        topicErrors.put(topic, error);
+    }
+
+    /**
+     * Fails the next LISTEN requests
+     *
+     * @param count amount of requests
+     * @param error error of the response, or null to not answer them at all
+     */
+    public void failNextListens(int count, String error) {
+        listenError = error;
+        failingListens.set(count);
+    }
+
+    /**
+     * @return the amount of topics over all open connections
+     */
+    public int getOpenTopicCount() {
+        int count = 0;
+        for (Connection connection : getConnections()) {
+            if (!connection.isClosed())
+                count += getTopics(connection).size();
+        }
+        return count;
+    }
+
+    /**
+     * Sends a message to all open connections that listen on a topic
+     *
+     * @param topic   topic
+     * @param message the message json, it is embedded as string like twitch does
+     * @return the amount of connections the message was sent to
+     */
+    public int publish(String topic, String message) {
+        ObjectNode data = TypeConvert.getObjectMapper().createObjectNode();
+        data.put("topic", topic);
+        data.put("message", message);
+        ObjectNode frame = TypeConvert.getObjectMapper().createObjectNode();
+        frame.put("type", "MESSAGE");
+        frame.set("data", data);
+        String text = TypeConvert.objectToJson(frame);
+
+        int sent = 0;
+        for (Connection connection : getConnections()) {
+            if (!connection.isClosed() && getTopics(connection).contains(topic)) {
+                connection.send(text);
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    @Override
+    protected void onLine(Connection connection, String line) {
+        JsonNode request = TypeConvert.jsonToObject(line, JsonNode.class);
+        String type = request.path("type").asText();
+        String nonce = request.path("nonce").asText();
+        Set<String> connectionTopics = topics.computeIfAbsent(connection, c -> ConcurrentHashMap.newKeySet());
+        requestCounts.computeIfAbsent(type, t -> new AtomicInteger()).incrementAndGet();
+
+        switch (type) {
+            case "PING":
+                connection.send("{\"type\":\"PONG\"}");
+                break;
+            case "LISTEN":
+                JsonNode requested = request.path("data").path("topics");
+                if (failingListens.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                    if (listenError != null)
+                        respond(connection, nonce, listenError);
+                    break;
+                }
+                String topicError = null;
+                int added = 0;
+                for (JsonNode topic : requested) {
+                    topicError = topicError != null ? topicError : topicErrors.get(topic.asText());
+                    if (!connectionTopics.contains(topic.asText()))
+                        added++;
+                }
+                if (topicError != null) {
+                    respond(connection, nonce, topicError);
+                    break;
+                }
+                if (connectionTopics.size() + added > topicLimit) {
+                    respond(connection, nonce, "ERR_BADMESSAGE");
+                    break;
+                }
+                for (JsonNode topic : requested) {
+                    connectionTopics.add(topic.asText());
+                }
+                respond(connection, nonce, "");
+                break;
+            case "UNLISTEN":
+                for (JsonNode topic : request.path("data").path("topics")) {
+                    connectionTopics.remove(topic.asText());
+                }
+                respond(connection, nonce, "");
+                break;
+            default:
+                log.warn("FakePubSubServer: Unexpected request {}", line);
+                break;
+        }
+    }
+
+    private static void respond(Connection connection, String nonce, String error) {
+        connection.send("{\"type\":\"RESPONSE\",\"nonce\":\"" + nonce + "\",\"error\":\"" + error + "\"}");
+    }
+
+}
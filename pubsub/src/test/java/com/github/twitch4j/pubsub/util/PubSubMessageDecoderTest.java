@@ -0,0 +1,123 @@
+package com.github.twitch4j.pubsub.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.twitch4j.common.enums.CommandPermission;
+import com.github.twitch4j.common.events.user.PrivateMessageEvent;
+import com.github.twitch4j.common.util.TypeConvert;
+import com.github.twitch4j.pubsub.PubSubResponsePayloadMessage;
+import com.github.twitch4j.pubsub.domain.ChannelBitsData;
+import com.github.twitch4j.pubsub.domain.ChannelPointsRedemption;
+import com.github.twitch4j.pubsub.domain.PubSubResponse;
+import com.github.twitch4j.pubsub.enums.PubSubType;
+import com.github.twitch4j.pubsub.events.ChannelBitsEvent;
+import com.github.twitch4j.pubsub.events.RewardRedeemedEvent;
+import com.github.twitch4j.pubsub.handlers.PubSubTopicRouter;
+import com.github.twitch4j.pubsub.handlers.TopicDecoders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class PubSubMessageDecoderTest {
+
+    private static final String BITS = "{\"type\":\"MESSAGE\",\"data\":{\"topic\":\"channel-bits-events-v2.44322889\",\"message\":\"{\\\"data\\\":{\\\"user_name\\\":\\\"dallasnchains\\\",\\\"channel_name\\\":\\\"dallas\\\",\\\"user_id\\\":\\\"129454141\\\",\\\"channel_id\\\":\\\"44322889\\\",\\\"chat_message\\\":\\\"cheer10000 New badge hype!\\\",\\\"bits_used\\\":10000,\\\"total_bits_used\\\":25000,\\\"context\\\":\\\"cheer\\\",\\\"badge_entitlement\\\":{\\\"new_version\\\":25000,\\\"previous_version\\\":10000}},\\\"version\\\":\\\"1.0\\\",\\\"message_type\\\":\\\"bits_event\\\",\\\"is_anonymous\\\":false}\"}}";
+
+    private static final String REDEMPTION = "{\"type\":\"MESSAGE\",\"data\":{\"topic\":\"community-points-channel-v1.12826\",\"message\":\"{\\\"type\\\":\\\"reward-redeemed\\\",\\\"data\\\":{\\\"timestamp\\\":\\\"2020-06-01T18:25:43.123456789Z\\\",\\\"redemption\\\":{\\\"id\\\":\\\"1cc7d6f5\\\",\\\"user\\\":{\\\"id\\\":\\\"44322889\\\",\\\"login\\\":\\\"someviewer\\\",\\\"display_name\\\":\\\"SomeViewer\\\"},\\\"channel_id\\\":\\\"12826\\\",\\\"user_input\\\":\\\"hello\\\",\\\"status\\\":\\\"UNFULFILLED\\\"}}}\"}}";
+
+    private static final String WHISPER = "{\"type\":\"MESSAGE\",\"data\":{\"topic\":\"whispers.44322889\",\"message\":\"{\\\"type\\\":\\\"whisper_received\\\",\\\"data\\\":\\\"{\\\\\\\"id\\\\\\\":41,\\\\\\\"from_id\\\\\\\":12826,\\\\\\\"body\\\\\\\":\\\\\\\"hello there\\\\\\\",\\\\\\\"tags\\\\\\\":{\\\\\\\"login\\\\\\\":\\\\\\\"twitch\\\\\\\",\\\\\\\"display_name\\\\\\\":\\\\\\\"Twitch\\\\\\\",\\\\\\\"badges\\\\\\\":[{\\\\\\\"id\\\\\\\":\\\\\\\"staff\\\\\\\",\\\\\\\"version\\\\\\\":\\\\\\\"1\\\\\\\"}]}}\\\"}\"}}";
+
+    @Test
+    @DisplayName("Envelope fields are read without decoding the message")
+    public void envelope() {
+        PubSubResponse response = PubSubMessageDecoder.decodeResponse("{\"type\":\"RESPONSE\",\"error\":\"ERR_BADAUTH\",\"nonce\":\"abc\",\"extra\":{\"a\":[1,2]}}");
+        assertEquals(PubSubType.RESPONSE, response.getType());
+        assertEquals("ERR_BADAUTH", response.getError());
+        assertEquals("abc", response.getNonce());
+        assertNull(response.getData());
+
+        PubSubResponse message = PubSubMessageDecoder.decodeResponse(BITS);
+        assertEquals(PubSubType.MESSAGE, message.getType());
+        assertEquals("channel-bits-events-v2.44322889", message.getData().getTopic());
+        assertNull(message.getData().getMessage().getType());
+    }
+
+    @Test
+    @DisplayName("Streaming reads bind the same values as the tree conversion")
+    public void sameAsTree() {
+        PubSubResponsePayloadMessage message = PubSubMessageDecoder.decodeResponse(REDEMPTION).getData().getMessage();
+        JsonNode tree = TypeConvert.jsonToObject(message.getRawMessage(), JsonNode.class);
+
+        assertEquals("reward-redeemed", message.getType());
+        assertEquals(tree.path("data"), message.getMessageData());
+        assertEquals(
+            TypeConvert.convertValue(tree.path("data").path("redemption"), ChannelPointsRedemption.class),
+            message.readData("redemption", ChannelPointsRedemption.class)
+        );
+        assertNull(message.readData("missing", ChannelPointsRedemption.class));
+
+        // after reading the type, values are bound from the kept tokens instead of the text
+        PubSubResponsePayloadMessage untyped = PubSubMessageDecoder.decodeResponse(REDEMPTION).getData().getMessage();
+        assertEquals(untyped.readData(JsonNode.class), message.readData(JsonNode.class));
+        assertEquals(untyped.readMessage(JsonNode.class), message.readMessage(JsonNode.class));
+        assertEquals(tree, message.readMessage(JsonNode.class));
+    }
+
+    @Test
+    @DisplayName("Decoding on first access doesn't change equality")
+    public void lazyEquality() {
+        PubSubResponsePayloadMessage decoded = PubSubMessageDecoder.decodeResponse(REDEMPTION).getData().getMessage();
+        PubSubResponsePayloadMessage untouched = PubSubMessageDecoder.decodeResponse(REDEMPTION).getData().getMessage();
+        decoded.getType();
+        decoded.getMessageData();
+
+        assertEquals(untouched, decoded);
+        assertEquals(untouched.hashCode(), decoded.hashCode());
+    }
+
+    @Test
+    @DisplayName("Messages without raw json are bound from their fields")
+    public void withoutRawMessage() {
+        JsonNode tree = TypeConvert.jsonToObject(PubSubMessageDecoder.decodeResponse(REDEMPTION).getData().getMessage().getRawMessage(), JsonNode.class);
+        PubSubResponsePayloadMessage message = new PubSubResponsePayloadMessage();
+        message.setType("reward-redeemed");
+        message.setMessageData(tree.path("data"));
+
+        assertEquals(tree, message.readMessage(JsonNode.class));
+        assertEquals("hello", message.readData("redemption", ChannelPointsRedemption.class).getUserInput());
+    }
+
+    @Test
+    @DisplayName("Topic decoders build the events from the streamed message")
+    public void decodeEvents() {
+        PubSubTopicRouter router = new PubSubTopicRouter();
+        TopicDecoders.registerDefaults(router);
+
+        ChannelBitsEvent bits = (ChannelBitsEvent) decode(router, BITS);
+        ChannelBitsData data = bits.getData();
+        assertEquals("129454141", data.getUserId());
+        assertEquals(10000, data.getBitsUsed());
+        assertEquals(25000, data.getBadgeEntitlement().getNewVersion());
+
+        RewardRedeemedEvent redeemed = (RewardRedeemedEvent) decode(router, REDEMPTION);
+        assertEquals("hello", redeemed.getRedemption().getUserInput());
+        assertEquals("SomeViewer", redeemed.getRedemption().getUser().getDisplayName());
+        assertEquals(1591035943123L, redeemed.getTimestamp().getTimeInMillis());
+
+        PrivateMessageEvent whisper = (PrivateMessageEvent) decode(router, WHISPER);
+        assertEquals("12826", whisper.getUser().getId());
+        assertEquals("Twitch", whisper.getUser().getName());
+        assertEquals("hello there", whisper.getMessage());
+        assertTrue(whisper.getPermissions().contains(CommandPermission.TWITCHSTAFF));
+    }
+
+    private static Object decode(PubSubTopicRouter router, String frame) {
+        PubSubResponse response = PubSubMessageDecoder.decodeResponse(frame);
+        String topic = response.getData().getTopic();
+        return router.getDecoder(topic).decode(topic, response.getData().getMessage());
+    }
+
+}
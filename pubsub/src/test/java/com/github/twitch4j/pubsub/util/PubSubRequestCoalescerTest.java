@@ -0,0 +1,101 @@
+package com.github.twitch4j.pubsub.util;
+
+import com.github.twitch4j.pubsub.TwitchPubSub;
+import com.github.twitch4j.pubsub.TwitchPubSubBuilder;
+import com.github.twitch4j.pubsub.domain.PubSubRequest;
+import com.github.twitch4j.pubsub.enums.PubSubType;
+import com.github.twitch4j.pubsub.enums.TMIConnectionState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.twitch4j.common.util.AwaitUtils.awaitTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Tag("unittest")
+public class PubSubRequestCoalescerTest {
+
+    @Test
+    @DisplayName("Requests of the same type and token are merged up to the topic limit")
+    public void mergeByToken() {
+        List<PubSubRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(request(PubSubType.LISTEN, "a", "topic.a" + i));
+            requests.add(request(PubSubType.LISTEN, "b", "topic.b" + i));
+        }
+
+        List<PubSubRequest> merged = PubSubRequestCoalescer.coalesce(requests, 3);
+        assertEquals(4, merged.size());
+        assertEquals(Arrays.asList("topic.a0", "topic.a1", "topic.a2"), merged.get(0).getData().get("topics"));
+        assertEquals("a", merged.get(0).getData().get("auth_token"));
+        assertEquals(32, merged.get(0).getNonce().length());
+        assertEquals(Arrays.asList("topic.b0", "topic.b1", "topic.b2"), merged.get(1).getData().get("topics"));
+        assertEquals(Arrays.asList("topic.a3", "topic.a4"), merged.get(2).getData().get("topics"));
+        assertEquals(Arrays.asList("topic.b3", "topic.b4"), merged.get(3).getData().get("topics"));
+    }
+
+    @Test
+    @DisplayName("A listen and unlisten of the same topic keep their order")
+    public void keepOrder() {
+        PubSubRequest ping = new PubSubRequest();
+        ping.setType(PubSubType.PING);
+        PubSubRequest single = request(PubSubType.LISTEN, "a", "topic.3");
+        List<PubSubRequest> merged = PubSubRequestCoalescer.coalesce(Arrays.asList(
+            request(PubSubType.LISTEN, "a", "topic.1"),
+            request(PubSubType.LISTEN, "a", "topic.2"),
+            request(PubSubType.UNLISTEN, "a", "topic.1"),
+            request(PubSubType.UNLISTEN, "a", "topic.2"),
+            request(PubSubType.LISTEN, "a", "topic.1"),
+            ping,
+            single
+        ), 50);
+
+        assertEquals(5, merged.size());
+        assertEquals(PubSubType.LISTEN, merged.get(0).getType());
+        assertEquals(Arrays.asList("topic.1", "topic.2"), merged.get(0).getData().get("topics"));
+        assertEquals(PubSubType.UNLISTEN, merged.get(1).getType());
+        assertEquals(Arrays.asList("topic.1", "topic.2"), merged.get(1).getData().get("topics"));
+        assertEquals(PubSubType.LISTEN, merged.get(2).getType());
+        assertEquals(Arrays.asList("topic.1"), merged.get(2).getData().get("topics"));
+        assertSame(ping, merged.get(3));
+        assertSame(single, merged.get(4), "requests without a partner are sent unchanged");
+    }
+
+    @Test
+    @DisplayName("Subscriptions and the resubscribe after a reconnect use one LISTEN per 50 topics")
+    public void batchedFrames() throws Exception {
+        try (FakePubSubServer server = new FakePubSubServer()) {
+            server.setTopicLimit(200);
+            TwitchPubSub pubSub = TwitchPubSubBuilder.builder().withBaseUrl(server.getUrl()).build();
+            try {
+                awaitTrue(() -> pubSub.getConnectionState() == TMIConnectionState.CONNECTED);
+                for (int i = 0; i < 120; i++) {
+                    pubSub.listenForCheerEvents(null, String.valueOf(i));
+                }
+                awaitTrue(() -> server.getOpenTopicCount() == 120);
+                assertEquals(3, server.getRequestCount("LISTEN"));
+
+                server.getConnections().get(0).close();
+                awaitTrue(() -> server.getConnections().size() == 2 && server.getOpenTopicCount() == 120);
+                assertEquals(6, server.getRequestCount("LISTEN"));
+            } finally {
+                pubSub.close();
+            }
+        }
+    }
+
+    private static PubSubRequest request(PubSubType type, String token, String topic) {
+        PubSubRequest request = new PubSubRequest();
+        request.setType(type);
+        request.setNonce(topic);
+        request.getData().put("auth_token", token);
+        request.getData().put("topics", Arrays.asList(topic));
+        return request;
+    }
+
+}
@@ -141,7 +141,7 @@ public class TwitchClientBuilder {
     protected Bandwidth chatRateLimit = Bandwidth.simple(20, Duration.ofSeconds(30));
 
     /**
-     * Wait time for taking items off chat queue in milliseconds. Default recommended
+     * Delay in milliseconds before the chat outbound queue is retried after an unexpected error. Default recommended
      */
     @With
     private long chatQueueTimeout = 1000L;